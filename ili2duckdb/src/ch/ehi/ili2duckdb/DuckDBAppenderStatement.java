@@ -0,0 +1,358 @@
+package ch.ehi.ili2duckdb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.duckdb.DuckDBAppender;
+import org.duckdb.DuckDBConnection;
+
+import ch.ehi.basics.logging.EhiLogger;
+
+/** a PreparedStatement for an INSERT statement of the data import, that appends the records
+ * with a DuckDBAppender instead of executing the INSERT statement per record.
+ * The appender writes the values in the column order of the table. If all values of the INSERT statement
+ * are plain parameters and the INSERT columns are exactly the columns of the target table (in table order),
+ * the records are appended to the target table. Otherwise (e.g. wrapped values like ST_GeomFromWKB(?::blob),
+ * or an INSERT that sets only some columns or sets them in another order), the records are appended
+ * to a staging table with the columns of the INSERT statement (with the wrapped values as e.g. WKB blobs)
+ * and copied to the target table with one INSERT ... SELECT per executeBatch().
+ * Records become visible in the target table with executeBatch() or close().
+ */
+public class DuckDBAppenderStatement implements InvocationHandler {
+    private static final Pattern INSERT_STMT=Pattern.compile("^INSERT\\s+INTO\\s+(\\S+)\\s*\\((.*)\\)\\s*VALUES\\s*\\((.*)\\)\\s*$",Pattern.CASE_INSENSITIVE|Pattern.DOTALL);
+    private static final Pattern CAST_PARAM=Pattern.compile("\\?::(\\w+)");
+    private static final String STAGE_PREFIX="t_ili2db_stage";
+    private static int stageTableCount=0;
+    private final Connection conn;
+    private final String insertStmt;
+    private final String schema;
+    private final String table;
+    private String stageTable=null;
+    private String copyStmt=null;
+    private DuckDBAppender appender=null;
+    private Object params[]=null;
+    private int rowCount=0;
+    private boolean closed=false;
+    private DuckDBAppenderStatement(Connection conn,String insertStmt,String schema,String table) {
+        this.conn=conn;
+        this.insertStmt=insertStmt;
+        this.schema=schema;
+        this.table=table;
+    }
+    /** creates an appender based statement for the given INSERT statement.
+     * @return null, if the INSERT statement (or the types of the target columns) is not supported by the appender.
+     */
+    public static PreparedStatement create(Connection conn,String insertStmt) throws SQLException
+    {
+        Matcher m=INSERT_STMT.matcher(insertStmt.trim());
+        if(!m.matches()) {
+            return null;
+        }
+        String qname=m.group(1);
+        String schema=null;
+        String table=qname;
+        int dot=qname.lastIndexOf('.');
+        if(dot>0) {
+            schema=qname.substring(0,dot);
+            table=qname.substring(dot+1);
+        }
+        List<String> cols=splitList(m.group(2));
+        List<String> values=splitList(m.group(3));
+        if(cols.size()!=values.size()) {
+            return null;
+        }
+        DuckDBAppenderStatement stmt=new DuckDBAppenderStatement(conn,insertStmt,schema,table);
+        if(!stmt.init(cols,values)) {
+            return null;
+        }
+        return (PreparedStatement)Proxy.newProxyInstance(DuckDBAppenderStatement.class.getClassLoader(),new Class[] {PreparedStatement.class},stmt);
+    }
+    private boolean init(List<String> cols,List<String> values) throws SQLException
+    {
+        List<String> tableCols=new ArrayList<String>();
+        if(!readTableColumns(cols,tableCols)) {
+            return false;
+        }
+        boolean plainParams=true;
+        StringBuffer stageCols=new StringBuffer();
+        StringBuffer copyCols=new StringBuffer();
+        StringBuffer copyValues=new StringBuffer();
+        String sep="";
+        int paramc=0;
+        for(int i=0;i<cols.size();i++) {
+            String col=cols.get(i);
+            String value=values.get(i);
+            int paramPos=value.indexOf('?');
+            if(paramPos!=value.lastIndexOf('?')) {
+                // more than one parameter per value
+                return false;
+            }
+            copyCols.append(sep);
+            copyCols.append(col);
+            copyValues.append(sep);
+            if(value.equals("?")) {
+                stageCols.append(sep);
+                stageCols.append(col);
+                copyValues.append(col);
+                paramc++;
+            }else if(paramPos>=0) {
+                Matcher castParam=CAST_PARAM.matcher(value);
+                if(!castParam.find()) {
+                    // type of parameter unknown
+                    return false;
+                }
+                stageCols.append(sep);
+                stageCols.append("CAST(NULL AS "+castParam.group(1)+") AS "+col);
+                copyValues.append(value.replace("?",col));
+                plainParams=false;
+                paramc++;
+            }else {
+                copyValues.append(value);
+                plainParams=false;
+            }
+            sep=",";
+        }
+        params=new Object[paramc];
+        DuckDBConnection duckConn=conn.unwrap(DuckDBConnection.class);
+        if(plainParams && equalsIgnoreCase(cols,tableCols)) {
+            appender=duckConn.createAppender(schema!=null?schema:DuckDBConnection.DEFAULT_SCHEMA,table);
+            return true;
+        }
+        synchronized(DuckDBAppenderStatement.class) {
+            stageTableCount++;
+            stageTable=STAGE_PREFIX+stageTableCount;
+        }
+        String qStageTable=schema!=null?schema+"."+stageTable:stageTable;
+        String qTable=schema!=null?schema+"."+table:table;
+        execute("CREATE OR REPLACE TABLE "+qStageTable+" AS SELECT "+stageCols+" FROM "+qTable+" LIMIT 0");
+        copyStmt="INSERT INTO "+qTable+" ("+copyCols+") SELECT "+copyValues+" FROM "+qStageTable;
+        appender=duckConn.createAppender(schema!=null?schema:DuckDBConnection.DEFAULT_SCHEMA,stageTable);
+        return true;
+    }
+    /** reads the columns of the target table in table order.
+     * @param cols columns of the INSERT statement.
+     * @param tableCols receives the columns of the target table.
+     * @return false, if one of the INSERT columns has a type (LIST, STRUCT, MAP) that can not be appended.
+     */
+    private boolean readTableColumns(List<String> cols,List<String> tableCols) throws SQLException
+    {
+        PreparedStatement stmt=null;
+        ResultSet rs=null;
+        try {
+            stmt=conn.prepareStatement("SELECT column_name,data_type FROM information_schema.columns WHERE table_schema=? AND table_name=? ORDER BY ordinal_position");
+            stmt.setString(1, schema!=null?schema:DuckDBConnection.DEFAULT_SCHEMA);
+            stmt.setString(2, table);
+            rs=stmt.executeQuery();
+            while(rs.next()) {
+                String colName=rs.getString(1);
+                String dataType=rs.getString(2).toUpperCase();
+                if(containsIgnoreCase(cols,colName) && (dataType.endsWith("]") || dataType.startsWith("STRUCT") || dataType.startsWith("MAP") || dataType.startsWith("UNION"))) {
+                    return false;
+                }
+                tableCols.add(colName);
+            }
+        }finally {
+            if(rs!=null) {
+                rs.close();
+            }
+            if(stmt!=null) {
+                stmt.close();
+            }
+        }
+        return true;
+    }
+    private static boolean containsIgnoreCase(List<String> cols,String colName) {
+        for(String col:cols) {
+            if(unquote(col).equalsIgnoreCase(colName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /** tests if the INSERT columns are the table columns in the same order.
+     */
+    private static boolean equalsIgnoreCase(List<String> cols,List<String> tableCols) {
+        if(cols.size()!=tableCols.size()) {
+            return false;
+        }
+        for(int i=0;i<cols.size();i++) {
+            if(!unquote(cols.get(i)).equalsIgnoreCase(tableCols.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    private static String unquote(String col) {
+        if(col.length()>1 && col.startsWith("\"") && col.endsWith("\"")) {
+            return col.substring(1,col.length()-1);
+        }
+        return col;
+    }
+    /** splits a comma separated list, ignoring commas inside of parentheses.
+     */
+    private static List<String> splitList(String list) {
+        List<String> ret=new ArrayList<String>();
+        int depth=0;
+        int start=0;
+        for(int i=0;i<list.length();i++) {
+            char c=list.charAt(i);
+            if(c=='(') {
+                depth++;
+            }else if(c==')') {
+                depth--;
+            }else if(c==',' && depth==0) {
+                ret.add(list.substring(start,i).trim());
+                start=i+1;
+            }
+        }
+        ret.add(list.substring(start).trim());
+        return ret;
+    }
+    private void execute(String sql) throws SQLException
+    {
+        EhiLogger.traceBackendCmd(sql);
+        Statement stmt=conn.createStatement();
+        try {
+            stmt.execute(sql);
+        }finally {
+            stmt.close();
+        }
+    }
+    private void appendRow() throws SQLException
+    {
+        appender.beginRow();
+        for(Object value:params) {
+            appendValue(value);
+        }
+        appender.endRow();
+        rowCount++;
+    }
+    private void appendValue(Object value) throws SQLException
+    {
+        if(value==null) {
+            appender.append((String)null);
+        }else if(value instanceof Boolean) {
+            appender.append(((Boolean)value).booleanValue());
+        }else if(value instanceof Long) {
+            appender.append(((Long)value).longValue());
+        }else if(value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            appender.append(((Number)value).intValue());
+        }else if(value instanceof Double || value instanceof Float) {
+            appender.append(((Number)value).doubleValue());
+        }else if(value instanceof BigDecimal) {
+            appender.append(((BigDecimal)value).toPlainString());
+        }else if(value instanceof byte[]) {
+            appender.append((byte[])value);
+        }else if(value instanceof java.sql.Timestamp) {
+            appender.appendLocalDateTime(((java.sql.Timestamp)value).toLocalDateTime());
+        }else {
+            // Date, Time, UUID, String; converted to the column type by the appender
+            appender.append(value.toString());
+        }
+    }
+    /** makes the appended records visible in the target table.
+     */
+    private int[] flush() throws SQLException
+    {
+        appender.flush();
+        if(copyStmt!=null && rowCount>0) {
+            execute(copyStmt);
+            execute("DELETE FROM "+(schema!=null?schema+"."+stageTable:stageTable));
+        }
+        int ret[]=new int[rowCount];
+        Arrays.fill(ret, 1);
+        rowCount=0;
+        return ret;
+    }
+    private void close() throws SQLException
+    {
+        if(closed) {
+            return;
+        }
+        closed=true;
+        try {
+            flush();
+        }finally {
+            appender.close();
+            if(stageTable!=null) {
+                execute("DROP TABLE IF EXISTS "+(schema!=null?schema+"."+stageTable:stageTable));
+            }
+        }
+    }
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name=method.getName();
+        if(method.getDeclaringClass()==Object.class) {
+            if(name.equals("equals")) {
+                return proxy==args[0];
+            }else if(name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }else if(name.equals("toString")) {
+                return insertStmt;
+            }
+            try {
+                return method.invoke(this, args);
+            }catch(InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+        if(name.startsWith("set") && args!=null && args.length>=2 && args[0] instanceof Integer) {
+            if(name.equals("setArray") || name.endsWith("Stream") || name.equals("setBlob") || name.equals("setClob")) {
+                throw new SQLFeatureNotSupportedException(name);
+            }
+            int paramIndex=(Integer)args[0];
+            if(paramIndex<1 || paramIndex>params.length) {
+                throw new SQLException("parameter index "+paramIndex+" out of range");
+            }
+            params[paramIndex-1]=name.equals("setNull") ? null : args[1];
+            return null;
+        }
+        if(name.equals("executeUpdate") && args==null) {
+            appendRow();
+            return 1;
+        }else if(name.equals("addBatch") && args==null) {
+            appendRow();
+            return null;
+        }else if(name.equals("executeBatch")) {
+            return flush();
+        }else if(name.equals("clearBatch")) {
+            return null;
+        }else if(name.equals("clearParameters")) {
+            Arrays.fill(params, null);
+            return null;
+        }else if(name.equals("close")) {
+            close();
+            return null;
+        }else if(name.equals("isClosed")) {
+            return closed;
+        }else if(name.equals("getConnection")) {
+            return conn;
+        }else if(name.equals("getWarnings")) {
+            return null;
+        }else if(name.equals("clearWarnings")) {
+            return null;
+        }else if(name.equals("isWrapperFor")) {
+            return ((Class<?>)args[0]).isInstance(proxy);
+        }else if(name.equals("unwrap")) {
+            if(((Class<?>)args[0]).isInstance(proxy)) {
+                return proxy;
+            }
+            throw new SQLException("not a wrapper for "+args[0]);
+        }
+        throw new SQLFeatureNotSupportedException(name);
+    }
+}
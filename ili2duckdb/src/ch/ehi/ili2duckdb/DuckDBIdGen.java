@@ -22,13 +22,25 @@ public class DuckDBIdGen implements DbIdGen {
         this.schema=schema;
         minValue=config.getMinIdSeqValue();
         maxValue=config.getMaxIdSeqValue();
+        Integer idBlockSize=config.getIdBlockSize();
+        if(idBlockSize!=null){
+            blockSize=Math.max(1,idBlockSize);
+        }
     }
     @Override
     public void initDb(Connection conn, String dbusr) {
+        if(this.conn!=conn){
+            closeStatement();
+            idBlock=null;
+        }
         this.conn=conn;
         this.dbusr=dbusr;
     }
     @Override
+    public void closeDb() {
+        closeStatement();
+    }
+    @Override
     public void addMappingTable(ch.ehi.sqlgen.repository.DbSchema schema)
     {
     }
@@ -70,12 +82,25 @@ public class DuckDBIdGen implements DbIdGen {
             }       
         }
     }
-    /** gets a new obj id.
+    /** number of ids that are fetched from the sequence with one query.
+     */
+    public final static int DEFAULT_BLOCK_SIZE=100;
+    private int blockSize=DEFAULT_BLOCK_SIZE;
+    /** ids fetched from the sequence, but not yet used.
      */
+    private long idBlock[]=null;
+    private int nextIdx=0;
+    private java.sql.PreparedStatement getstmt=null;
     long lastLocalId=0;
+    /** gets a new obj id.
+     */
     @Override
     public long newObjSqlId(){
-        lastLocalId=getSeqCount();
+        if(idBlock==null || nextIdx>=idBlock.length){
+            idBlock=getSeqValues();
+            nextIdx=0;
+        }
+        lastLocalId=idBlock[nextIdx++];
         return lastLocalId;
     }
     @Override
@@ -83,24 +108,36 @@ public class DuckDBIdGen implements DbIdGen {
     {
         return lastLocalId;
     }
-    private long getSeqCount()
+    /** fetches the next block of ids from the sequence.
+     */
+    private long[] getSeqValues()
     {
         String sqlName=SQL_ILI2DB_SEQ_NAME;
         if(schema!=null){
             sqlName=schema+"."+sqlName;
         }
-        java.sql.PreparedStatement getstmt=null;
         java.sql.ResultSet res=null;
         try{
-            String stmt="SELECT nextval('"+sqlName+"')";
-            EhiLogger.traceBackendCmd(stmt);
-            getstmt=conn.prepareStatement(stmt);
+            if(getstmt==null){
+                String stmt="SELECT nextval('"+sqlName+"') FROM range("+blockSize+")";
+                EhiLogger.traceBackendCmd(stmt);
+                getstmt=conn.prepareStatement(stmt);
+            }
             res=getstmt.executeQuery();
-            long ret=0;
-            if(res.next()){
-                ret=res.getLong(1);
-                return ret;
+            long ret[]=new long[blockSize];
+            int retc=0;
+            while(res.next() && retc<ret.length){
+                ret[retc++]=res.getLong(1);
             }
+            if(retc==0){
+                throw new IllegalStateException("no nextval "+sqlName);
+            }
+            if(retc<ret.length){
+                ret=java.util.Arrays.copyOf(ret, retc);
+            }
+            // hand out the ids in ascending order
+            java.util.Arrays.sort(ret);
+            return ret;
         }catch(java.sql.SQLException ex){
             EhiLogger.logError("failed to query "+sqlName,ex);
             throw new IllegalStateException(ex);
@@ -113,16 +150,18 @@ public class DuckDBIdGen implements DbIdGen {
                 }
                 res=null;
             }
-            if(getstmt!=null){
-                try{
-                    getstmt.close();
-                }catch(java.sql.SQLException ex){
-                    EhiLogger.logError(ex);
-                }
-                getstmt=null;
+        }
+    }
+    private void closeStatement()
+    {
+        if(getstmt!=null){
+            try{
+                getstmt.close();
+            }catch(java.sql.SQLException ex){
+                EhiLogger.logError(ex);
             }
+            getstmt=null;
         }
-        throw new IllegalStateException("no nextval "+sqlName);
     }
     @Override
     public String getDefaultValueSql() {
@@ -84,6 +84,7 @@ public class DuckDBMain extends ch.ehi.ili2db.AbstractMain {
     @Override
     protected void printSpecificOptions() {
         System.err.println("--dbschema  schema     The name of the schema in the database. Defaults to not set.");
+        System.err.println("--duckdbAppender       Import the records with the DuckDB appender (not used by --update).");
     }
 	@Override
 	protected int doArgs(String args[],int argi,Config config) throws ParseException
@@ -97,6 +98,9 @@ public class DuckDBMain extends ch.ehi.ili2db.AbstractMain {
             argi++;
             config.setDbschema(args[argi]);
             argi++;
+        }else if(isOption(arg, "--duckdbAppender")){
+            config.setDuckDBAppender(parseBooleanArgument(arg));
+            argi++;
         }
 		return argi;
 	}
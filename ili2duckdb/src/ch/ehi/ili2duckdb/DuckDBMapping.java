@@ -2,6 +2,7 @@ package ch.ehi.ili2duckdb;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -11,7 +12,11 @@ import ch.ehi.ili2db.gui.Config;
 import ch.ehi.sqlgen.repository.DbTableName;
 
 public class DuckDBMapping extends AbstractJdbcMapping {
+    /** number of records per appender flush, if --duckdbAppender is used without --importBatchSize.
+     */
+    public static final int DEFAULT_APPENDER_BATCHSIZE=10000;
     private Boolean isNewFile=null;
+    private boolean useAppender=false;
     
     @Override
     public void preConnect(String url, String dbusr, String dbpwd, Config config) {        
@@ -23,6 +28,12 @@ public class DuckDBMapping extends AbstractJdbcMapping {
                 isNewFile=true;
             }
         }
+        int function=config.getFunction();
+        useAppender=config.isDuckDBAppender() && (function==Config.FC_IMPORT || function==Config.FC_REPLACE);
+        if(useAppender && config.getBatchSize()==null) {
+            // records are flushed per batch (and at the end of each basket)
+            config.setBatchSize(DEFAULT_APPENDER_BATCHSIZE);
+        }
     }
     @Override
     public void postConnect(Connection conn, Config config) {
@@ -71,5 +82,16 @@ public class DuckDBMapping extends AbstractJdbcMapping {
     {
         return GeneratorDuckDB.tableExists(conn, tableName);
     }
+    @Override
+    public PreparedStatement prepareInsertStatement(Connection conn,String insertStmt,Config config) throws SQLException
+    {
+        if(useAppender) {
+            PreparedStatement stmt=DuckDBAppenderStatement.create(conn, insertStmt);
+            if(stmt!=null) {
+                return stmt;
+            }
+        }
+        return conn.prepareStatement(insertStmt);
+    }
     
 }
@@ -0,0 +1,104 @@
+package ch.ehi.ili2duckdb;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ehi.ili2db.gui.Config;
+
+public class DuckDBIdGenTest {
+    private Connection conn=null;
+    @Before
+    public void setUp() throws SQLException {
+        DriverManager.registerDriver(new org.duckdb.DuckDBDriver());
+        conn=DriverManager.getConnection("jdbc:duckdb:");
+    }
+    @After
+    public void tearDown() throws SQLException {
+        if(conn!=null) {
+            conn.close();
+            conn=null;
+        }
+    }
+    private DuckDBIdGen createIdGen(Integer idBlockSize) {
+        Config config=new Config();
+        config.setIdBlockSize(idBlockSize);
+        DuckDBIdGen idGen=new DuckDBIdGen();
+        idGen.init(null, config);
+        idGen.initDb(conn, null);
+        idGen.initDbDefs(null);
+        return idGen;
+    }
+    /** next value of the sequence, i.e. one more than the ids reserved so far.
+     */
+    private long nextSeqValue() throws SQLException {
+        Statement stmt=conn.createStatement();
+        try {
+            ResultSet rs=stmt.executeQuery("SELECT nextval('"+DuckDBIdGen.SQL_ILI2DB_SEQ_NAME+"')");
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }finally {
+            stmt.close();
+        }
+    }
+    @Test
+    public void defaultBlockSize() throws Exception {
+        DuckDBIdGen idGen=createIdGen(null);
+        for(long i=1;i<=250;i++) {
+            assertEquals(i, idGen.newObjSqlId());
+        }
+        assertEquals(250, idGen.getLastSqlId());
+        // three blocks reserved
+        assertEquals(3*DuckDBIdGen.DEFAULT_BLOCK_SIZE+1, nextSeqValue());
+        idGen.closeDb();
+    }
+    @Test
+    public void fixedBlockSize() throws Exception {
+        DuckDBIdGen idGen=createIdGen(10);
+        for(long i=1;i<=25;i++) {
+            assertEquals(i, idGen.newObjSqlId());
+        }
+        assertEquals(31, nextSeqValue());
+        // the next block starts after the ids taken by others
+        for(long i=26;i<=30;i++) {
+            assertEquals(i, idGen.newObjSqlId());
+        }
+        assertEquals(32, idGen.newObjSqlId());
+        idGen.closeDb();
+    }
+    @Test
+    public void disjointBlocks() throws Exception {
+        DuckDBIdGen idGen1=createIdGen(7);
+        DuckDBIdGen idGen2=createIdGen(7);
+        Set<Long> ids=new HashSet<Long>();
+        for(int i=0;i<50;i++) {
+            assertTrue(ids.add(idGen1.newObjSqlId()));
+            assertTrue(ids.add(idGen2.newObjSqlId()));
+        }
+        idGen1.closeDb();
+        idGen2.closeDb();
+    }
+    @Test
+    public void closeDb() throws Exception {
+        DuckDBIdGen idGen=createIdGen(10);
+        for(long i=1;i<=5;i++) {
+            assertEquals(i, idGen.newObjSqlId());
+        }
+        idGen.closeDb();
+        // the ids of the current block are still used; the statement is prepared again for the next block
+        for(long i=6;i<=15;i++) {
+            assertEquals(i, idGen.newObjSqlId());
+        }
+        idGen.closeDb();
+    }
+}
@@ -1,9 +1,18 @@
 package ch.ehi.ili2duckdb;
 
+import static org.junit.Assert.*;
+
 import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.Test;
 
 import ch.ehi.ili2db.AbstractTestSetup;
 import ch.ehi.ili2db.SimpleTest;
+import ch.ehi.ili2db.base.Ili2db;
+import ch.ehi.ili2db.gui.Config;
 
 public class SimpleDuckDBTest extends SimpleTest {
     
@@ -15,4 +24,99 @@ public class SimpleDuckDBTest extends SimpleTest {
     protected AbstractTestSetup createTestSetup() {
         return new DuckDBTestSetup(DUCKDBFILENAME,DBURL,DBSCHEMA);
     }
+    @Test
+    public void importXtfCoordAppender() throws Exception
+    {
+        setup.resetDb();
+        File data=new File(TEST_OUT,"SimpleCoord23a.xtf");
+        Config config=setup.initConfig(data.getPath(),data.getPath()+".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_IMPORT);
+        config.setDoImplicitSchemaImport(true);
+        config.setTidHandling(Config.TID_HANDLING_PROPERTY);
+        config.setImportTid(true);
+        config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+        config.setDefaultSrsCode("2056");
+        config.setDuckDBAppender(true);
+        Ili2db.run(config,null);
+        Connection jdbcConnection=null;
+        Statement stmt=null;
+        try{
+            jdbcConnection=setup.createConnection();
+            stmt=jdbcConnection.createStatement();
+            ResultSet rs=stmt.executeQuery("SELECT t_ili_tid,attr1,ST_X(attr2),ST_Y(attr2) FROM "+setup.prefixName("classa1")+" ORDER BY t_ili_tid");
+            assertTrue(rs.next());
+            assertEquals("o1",rs.getString(1));
+            assertEquals("gugus1",rs.getString(2));
+            assertEquals(2460001.0,rs.getDouble(3),0.0001);
+            assertEquals(1045001.0,rs.getDouble(4),0.0001);
+            assertTrue(rs.next());
+            assertEquals("o2",rs.getString(1));
+            assertEquals(2460002.0,rs.getDouble(3),0.0001);
+            assertTrue(rs.next());
+            assertEquals("o3",rs.getString(1));
+            rs.getDouble(3);
+            assertTrue(rs.wasNull());
+            assertFalse(rs.next());
+            rs.close();
+            // staging tables are dropped at the end of the import
+            rs=stmt.executeQuery("SELECT count(*) FROM information_schema.tables WHERE table_name LIKE 't_ili2db_stage%'");
+            assertTrue(rs.next());
+            assertEquals(0,rs.getInt(1));
+        }finally{
+            if(stmt!=null) {
+                stmt.close();
+            }
+            if(jdbcConnection!=null){
+                jdbcConnection.close();
+            }
+        }
+    }
+    @Test
+    public void importXtfStructAppender() throws Exception
+    {
+        setup.resetDb();
+        File data=new File(TEST_OUT,"SimpleStruct23a.xtf");
+        Config config=setup.initConfig(data.getPath(),data.getPath()+".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_IMPORT);
+        config.setDoImplicitSchemaImport(true);
+        // T_Ili_Tid column, but not part of the INSERT statement
+        config.setTidHandling(Config.TID_HANDLING_PROPERTY);
+        config.setImportTid(false);
+        config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+        config.setDuckDBAppender(true);
+        Ili2db.run(config,null);
+        Connection jdbcConnection=null;
+        Statement stmt=null;
+        try{
+            jdbcConnection=setup.createConnection();
+            stmt=jdbcConnection.createStatement();
+            ResultSet rs=stmt.executeQuery("SELECT t_id,attrb1 FROM "+setup.prefixName("classb1"));
+            assertTrue(rs.next());
+            long classb1Id=rs.getLong(1);
+            assertEquals("gugus",rs.getString(2));
+            assertFalse(rs.next());
+            rs.close();
+            // the parent reference is the last column of the struct table, but one of the first of the INSERT statement
+            rs=stmt.executeQuery("SELECT t_seq,attra,classb1_attrb2 FROM "+setup.prefixName("structa1")+" ORDER BY t_seq");
+            assertTrue(rs.next());
+            long seq=rs.getLong(1);
+            assertEquals("me",rs.getString(2));
+            assertEquals(classb1Id,rs.getLong(3));
+            assertTrue(rs.next());
+            assertEquals(seq+1,rs.getLong(1));
+            assertEquals("do",rs.getString(2));
+            assertEquals(classb1Id,rs.getLong(3));
+            assertFalse(rs.next());
+            rs.close();
+        }finally{
+            if(stmt!=null) {
+                stmt.close();
+            }
+            if(jdbcConnection!=null){
+                jdbcConnection.close();
+            }
+        }
+    }
 }
@@ -90,6 +90,8 @@ public class GpkgMain extends ch.ehi.ili2db.AbstractMain {
 	protected void printSpecificOptions() {
 		System.err.println("--dbschema  schema     The name of the schema in the database. Defaults to not set.");
         System.err.println("--gpkgMultiGeomPerTable Create more than one geometry per table, if required (no secondary table).");
+        System.err.println("--gpkgDeferGeomIdx     Fill the rtree spatial indexes after the import (instead of per record by triggers).");
+        System.err.println("--gpkgBulkLoad         Import with a bulk load profile (no sync, in-memory journal, large page cache, indexes created after the import).");
 	}
 	@Override
 	protected int doArgs(String args[],int argi,Config config) throws ParseException
@@ -101,6 +103,12 @@ public class GpkgMain extends ch.ehi.ili2db.AbstractMain {
 			argi++;
         }else if(isOption(arg, "--gpkgMultiGeomPerTable")){
             config.setOneGeomPerTable(!parseBooleanArgument(arg));
+            argi++;
+        }else if(isOption(arg, "--gpkgDeferGeomIdx")){
+            config.setGpkgDeferGeomIdx(parseBooleanArgument(arg));
+            argi++;
+        }else if(isOption(arg, "--gpkgBulkLoad")){
+            config.setGpkgBulkLoad(parseBooleanArgument(arg));
             argi++;
 		}
 		return argi;
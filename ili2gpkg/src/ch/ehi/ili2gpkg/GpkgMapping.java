@@ -5,8 +5,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 import ch.ehi.basics.logging.EhiLogger;
 import ch.ehi.ili2db.base.AbstractJdbcMapping;
@@ -26,7 +30,37 @@ import org.sqlite.Function;
 
 public class GpkgMapping extends AbstractJdbcMapping {
 
+	/** page cache size in bulk load mode (negative: in KiB).
+	 */
+	private static final long BULK_CACHE_SIZE=-512*1024;
+	/** maximum number of bytes of the file that are memory mapped in bulk load mode.
+	 */
+	private static final long BULK_MMAP_SIZE=1024L*1024L*1024L;
+	/** number of index rows examined per index by ANALYZE after a bulk load.
+	 */
+	private static final int BULK_ANALYSIS_LIMIT=1000;
+	/** GeoPackage geometry header flags.
+	 */
+	private static final byte MASK_GEOMETRY_EMPTY=0x10;
+	private static final byte MASK_HEADER_BYTE_ORDER=0x01;
+	private static final byte MASK_HEADER_ENVELOPE_CODE=0x0e;
+
+	private static final byte FLAG_GEOMETRY_EMPTY=0x10;
+	private static final byte FLAG_LITTLE_ENDIAN=0x01;
+	private static final byte FLAG_HEADER_ENVELOPE_EMPTY=0x00;
 	private boolean isNewFile=false;
+	private boolean deferGeomIdx=false;
+	private boolean bulkLoad=false;
+	/** session settings before the bulk load profile was set up.
+	 */
+	private String savedCacheSize=null;
+	private String savedMmapSize=null;
+	/** sql of the indexes, that are dropped during a bulk load.
+	 */
+	private List<String> deferredIndexes=null;
+	/** maintains the rtree indexes, if their triggers are dropped during the import.
+	 */
+	private GpkgRtreeBuilder rtreeBuilder=null;
 	@Override
 	public void fromIliInit(Config config) {
 	}
@@ -58,10 +92,23 @@ public class GpkgMapping extends AbstractJdbcMapping {
 		}else{
 			isNewFile=true;
 		}
+		int function=config.getFunction();
+		bulkLoad=config.isGpkgBulkLoad() && (function==Config.FC_IMPORT || function==Config.FC_REPLACE);
+		deferGeomIdx=config.isGpkgDeferGeomIdx() || bulkLoad;
+		rtreeBuilder=null;
+		deferredIndexes=null;
 	}
 
 	@Override
 	public void postConnect(Connection conn, Config config) {
+		if(bulkLoad){
+			// still in auto-commit mode; journal_mode and synchronous can't be changed inside a transaction
+			try {
+				setupBulkLoad(conn);
+			} catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
 		if(isNewFile){
 			// exec init script
 			java.io.LineNumberReader reader=null;
@@ -116,16 +163,6 @@ public class GpkgMapping extends AbstractJdbcMapping {
 
 		if(Config.TRUE.equalsIgnoreCase(config.getValue(Config.CREATE_GEOM_INDEX))) {
 			try {
-
-				final byte MASK_GEOMETRY_EMPTY=0x10;
-				final byte MASK_HEADER_BYTE_ORDER=0x01;
-				final byte MASK_HEADER_ENVELOPE_CODE=0x0e;
-
-				final byte FLAG_GEOMETRY_EMPTY=0x10;
-				final byte FLAG_LITTLE_ENDIAN=0x01;
-				final byte FLAG_BIG_ENDIAN=0x00;
-				final byte FLAG_HEADER_ENVELOPE_EMPTY=0x00;
-
 				Function.create(conn, "ST_IsEmpty", new Function() {
 					@Override
 					protected void xFunc() throws SQLException {
@@ -146,151 +183,214 @@ public class GpkgMapping extends AbstractJdbcMapping {
 						}
 					}
 				});
-
-				Function.create(conn, "ST_MinX", new Function() {
-					@Override
-					protected void xFunc() throws SQLException {
-						try {
-							byte[] blobArgument = value_blob(0);
-							InStream input = new ByteArrayInStream(blobArgument);
-							byte[] bytes = new byte[4];
-							input.read(bytes);
-							byte flags = bytes[3];
-							ByteOrderDataInStream din = new ByteOrderDataInStream(input);
-							if((flags&MASK_HEADER_BYTE_ORDER)==FLAG_LITTLE_ENDIAN) {
-								din.setOrder(ByteOrderValues.LITTLE_ENDIAN);
-							} else {
-								din.setOrder(ByteOrderValues.BIG_ENDIAN);
-							}
-							int srsId = din.readInt();
-							if ((flags&MASK_HEADER_ENVELOPE_CODE)!=FLAG_HEADER_ENVELOPE_EMPTY) {
-								double minX = din.readDouble();
-								double maxX = din.readDouble();
-								double minY = din.readDouble();
-								double maxY = din.readDouble();
-								result(minX);
-							} else {
-								WKBReader wkbReader = new WKBReader(new GeometryFactory());
-								Geometry geom = wkbReader.read(input);
-								geom.setSRID(srsId);
-								result(geom.getEnvelopeInternal().getMinX());
-							}
-						} catch (Exception e) {
-							EhiLogger.logError("The implementation of SQL function ST_MinX needed for a rtree spatial index failed. There was an error during the execution of the function.");
-							throw new IllegalStateException(e);
-						}
-					}
-				});
-
-				Function.create(conn, "ST_MaxX", new Function() {
-					@Override
-					protected void xFunc() throws SQLException {
-						try {
-							byte[] blobArgument = value_blob(0);
-							InStream input = new ByteArrayInStream(blobArgument);
-							byte[] bytes = new byte[4];
-							input.read(bytes);
-							byte flags = bytes[3];
-							ByteOrderDataInStream din = new ByteOrderDataInStream(input);
-							if((flags&MASK_HEADER_BYTE_ORDER)==FLAG_LITTLE_ENDIAN) {
-								din.setOrder(ByteOrderValues.LITTLE_ENDIAN);
-							} else {
-								din.setOrder(ByteOrderValues.BIG_ENDIAN);
-							}
-							int srsId = din.readInt();
-							if ((flags&MASK_HEADER_ENVELOPE_CODE)!=FLAG_HEADER_ENVELOPE_EMPTY) {
-								double minX = din.readDouble();
-								double maxX = din.readDouble();
-								double minY = din.readDouble();
-								double maxY = din.readDouble();
-								result(maxX);
-							} else {
-								WKBReader wkbReader = new WKBReader(new GeometryFactory());
-								Geometry geom = wkbReader.read(input);
-								geom.setSRID(srsId);
-								result(geom.getEnvelopeInternal().getMaxX());
-							}
-						} catch (Exception e) {
-							EhiLogger.logError("The implementation of SQL function ST_MaxX needed for a rtree spatial index failed. There was an error during the execution of the function.");
-							throw new IllegalStateException(e);
-						}
-					}
-				});
-
-				Function.create(conn, "ST_MinY", new Function() {
-					@Override
-					protected void xFunc() throws SQLException {
-						try {
-							byte[] blobArgument = value_blob(0);
-							InStream input = new ByteArrayInStream(blobArgument);
-							byte[] bytes = new byte[4];
-							input.read(bytes);
-							byte flags = bytes[3];
-							ByteOrderDataInStream din = new ByteOrderDataInStream(input);
-							if((flags&MASK_HEADER_BYTE_ORDER)==FLAG_LITTLE_ENDIAN) {
-								din.setOrder(ByteOrderValues.LITTLE_ENDIAN);
-							} else {
-								din.setOrder(ByteOrderValues.BIG_ENDIAN);
-							}
-							int srsId = din.readInt();
-							if ((flags&MASK_HEADER_ENVELOPE_CODE)!=FLAG_HEADER_ENVELOPE_EMPTY) {
-								double minX = din.readDouble();
-								double maxX = din.readDouble();
-								double minY = din.readDouble();
-								double maxY = din.readDouble();
-								result(minY);
-							} else {
-								WKBReader wkbReader = new WKBReader(new GeometryFactory());
-								Geometry geom = wkbReader.read(input);
-								geom.setSRID(srsId);
-								result(geom.getEnvelopeInternal().getMinY());
-							}
-						} catch (Exception e) {
-							EhiLogger.logError("The implementation of SQL function ST_MinY needed for a rtree spatial index failed. There was an error during the execution of the function.");
-							throw new IllegalStateException(e);
-						}
-					}
-				});
-
-				Function.create(conn, "ST_MaxY", new Function() {
-					@Override
-					protected void xFunc() throws SQLException {
-						try {
-							byte[] blobArgument = value_blob(0);
-							InStream input = new ByteArrayInStream(blobArgument);
-							byte[] bytes = new byte[4];
-							input.read(bytes);
-							byte flags = bytes[3];
-							ByteOrderDataInStream din = new ByteOrderDataInStream(input);
-							if((flags&MASK_HEADER_BYTE_ORDER)==FLAG_LITTLE_ENDIAN) {
-								din.setOrder(ByteOrderValues.LITTLE_ENDIAN);
-							} else {
-								din.setOrder(ByteOrderValues.BIG_ENDIAN);
-							}
-							int srsId = din.readInt();
-							if ((flags&MASK_HEADER_ENVELOPE_CODE)!=FLAG_HEADER_ENVELOPE_EMPTY) {
-								double minX = din.readDouble();
-								double maxX = din.readDouble();
-								double minY = din.readDouble();
-								double maxY = din.readDouble();
-								result(maxY);
-							} else {
-								WKBReader wkbReader = new WKBReader(new GeometryFactory());
-								Geometry geom = wkbReader.read(input);
-								geom.setSRID(srsId);
-								result(geom.getEnvelopeInternal().getMaxY());
-							}
-						} catch (Exception e) {
-							EhiLogger.logError("The implementation of SQL function ST_MaxY needed for a rtree spatial index failed. There was an error during the execution of the function.");
-							throw new IllegalStateException(e);
-						}
-					}
-				});
+				Function.create(conn, "ST_MinX", new EnvelopeFunction("ST_MinX",0));
+				Function.create(conn, "ST_MaxX", new EnvelopeFunction("ST_MaxX",1));
+				Function.create(conn, "ST_MinY", new EnvelopeFunction("ST_MinY",2));
+				Function.create(conn, "ST_MaxY", new EnvelopeFunction("ST_MaxY",3));
 			} catch (SQLException e) {
 				EhiLogger.logError("Failed to create SQL functions ST_MinX, ST_MaxX, ST_MinY, ST_MaxY needed for a rtree spatial index.");
 				throw new IllegalStateException(e);
 			}
 		}
 	}
+	/** SQL function ST_MinX, ST_MaxX, ST_MinY or ST_MaxY, as used by the rtree triggers.
+	 */
+	private static class EnvelopeFunction extends Function {
+		private final String name;
+		/** index in the result of getEnvelope().
+		 */
+		private final int idx;
+		EnvelopeFunction(String name,int idx) {
+			this.name=name;
+			this.idx=idx;
+		}
+		@Override
+		protected void xFunc() throws SQLException {
+			try {
+				double env[]=getEnvelope(value_blob(0));
+				if(env==null) {
+					result();
+				}else {
+					result(env[idx]);
+				}
+			} catch (Exception e) {
+				EhiLogger.logError("The implementation of SQL function "+name+" needed for a rtree spatial index failed. There was an error during the execution of the function.");
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+	/** gets the envelope (minx,maxx,miny,maxy) of a GeoPackage geometry,
+	 * from the header, or if the header has no envelope, from the WKB geometry.
+	 * @return null if the geometry is empty.
+	 */
+	static double[] getEnvelope(byte gpkgGeom[]) throws SQLException
+	{
+		try {
+			InStream input = new ByteArrayInStream(gpkgGeom);
+			byte[] bytes = new byte[4];
+			input.read(bytes);
+			byte flags = bytes[3];
+			if ((flags&MASK_GEOMETRY_EMPTY)==FLAG_GEOMETRY_EMPTY) {
+				return null;
+			}
+			ByteOrderDataInStream din = new ByteOrderDataInStream(input);
+			if((flags&MASK_HEADER_BYTE_ORDER)==FLAG_LITTLE_ENDIAN) {
+				din.setOrder(ByteOrderValues.LITTLE_ENDIAN);
+			} else {
+				din.setOrder(ByteOrderValues.BIG_ENDIAN);
+			}
+			din.readInt(); // srs_id
+			if ((flags&MASK_HEADER_ENVELOPE_CODE)!=FLAG_HEADER_ENVELOPE_EMPTY) {
+				double minX = din.readDouble();
+				double maxX = din.readDouble();
+				double minY = din.readDouble();
+				double maxY = din.readDouble();
+				return new double[] {minX,maxX,minY,maxY};
+			}
+			WKBReader wkbReader = new WKBReader(new GeometryFactory());
+			Geometry geom = wkbReader.read(input);
+			if (geom.isEmpty()) {
+				return null;
+			}
+			Envelope env = geom.getEnvelopeInternal();
+			return new double[] {env.getMinX(),env.getMaxX(),env.getMinY(),env.getMaxY()};
+		} catch (IOException ex) {
+			throw new SQLException("failed to read geometry header",ex);
+		} catch (ParseException ex) {
+			throw new SQLException("failed to read geometry",ex);
+		}
+	}
+	@Override
+	public PreparedStatement prepareInsertStatement(Connection conn, String insertStmt, Config config) throws SQLException {
+		if(deferGeomIdx && rtreeBuilder==null) {
+			// no rtree trigger (and no ST_MinX() etc.) per inserted row; the rtree tables are filled after the import
+			rtreeBuilder=new GpkgRtreeBuilder(conn);
+			rtreeBuilder.dropTriggers();
+		}
+		if(bulkLoad && deferredIndexes==null) {
+			deferredIndexes=dropIndexes(conn);
+		}
+		return conn.prepareStatement(insertStmt);
+	}
+
+	@Override
+	public void postPostScript(Connection conn, Config config) {
+		if(rtreeBuilder!=null) {
+			try {
+				EhiLogger.logState("build rtree spatial indexes...");
+				rtreeBuilder.rebuild();
+			} catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+			rtreeBuilder=null;
+		}
+		if(bulkLoad) {
+			try {
+				endBulkLoad(conn);
+			} catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+	}
+	/** sets up the session settings for a bulk load.
+	 * The settings are per connection; journal_mode, synchronous and temp_store end with the connection
+	 * (that ili2db closes at the end of the import), the others are restored by endBulkLoad().
+	 * A rollback of the import is still possible (the rollback journal is kept in memory),
+	 * but the file may be corrupted if the process or the system crashes during the import.
+	 */
+	private void setupBulkLoad(Connection conn) throws SQLException
+	{
+		savedCacheSize=queryPragma(conn,"cache_size");
+		savedMmapSize=queryPragma(conn,"mmap_size");
+		execSql(conn,"PRAGMA journal_mode=MEMORY");
+		execSql(conn,"PRAGMA synchronous=OFF");
+		execSql(conn,"PRAGMA cache_size="+BULK_CACHE_SIZE);
+		execSql(conn,"PRAGMA mmap_size="+BULK_MMAP_SIZE);
+		execSql(conn,"PRAGMA temp_store=MEMORY");
+		EhiLogger.logState("bulk load profile: journal_mode="+queryPragma(conn,"journal_mode")
+				+", synchronous="+queryPragma(conn,"synchronous")
+				+", cache_size="+queryPragma(conn,"cache_size")
+				+", mmap_size="+queryPragma(conn,"mmap_size")
+				+", temp_store="+queryPragma(conn,"temp_store"));
+	}
+	/** creates the indexes dropped during the bulk load, updates the statistics of the query planner
+	 * and restores the session settings.
+	 */
+	private void endBulkLoad(Connection conn) throws SQLException
+	{
+		if(deferredIndexes!=null && deferredIndexes.size()>0) {
+			EhiLogger.logState("create indexes...");
+			for(String sql:deferredIndexes) {
+				execSql(conn,sql);
+			}
+		}
+		deferredIndexes=null;
+		// VACUUM is not possible inside the import transaction
+		execSql(conn,"PRAGMA analysis_limit="+BULK_ANALYSIS_LIMIT);
+		execSql(conn,"ANALYZE");
+		execSql(conn,"PRAGMA cache_size="+savedCacheSize);
+		execSql(conn,"PRAGMA mmap_size="+savedMmapSize);
+		EhiLogger.logState("bulk load profile ended: cache_size="+savedCacheSize+", mmap_size="+savedMmapSize);
+	}
+	/** drops the (not unique) indexes of the data tables.
+	 * Unique indexes are kept, so that duplicates are still reported while importing.
+	 * @return sql of the dropped indexes.
+	 */
+	private static List<String> dropIndexes(Connection conn) throws SQLException
+	{
+		List<String> ret=new ArrayList<String>();
+		List<String> indexNames=new ArrayList<String>();
+		Statement stmt=conn.createStatement();
+		try {
+			// sql is null for the indexes created by PRIMARY KEY or UNIQUE constraints
+			ResultSet rs=stmt.executeQuery("SELECT name,tbl_name,sql FROM sqlite_master WHERE type = 'index' AND sql IS NOT NULL");
+			while(rs.next()) {
+				String tableName=rs.getString(2).toLowerCase();
+				String sql=rs.getString(3);
+				if(tableName.startsWith("t_ili2db_") || tableName.startsWith("gpkg_") || tableName.startsWith("rtree_")) {
+					continue;
+				}
+				if(sql.trim().toUpperCase().startsWith("CREATE UNIQUE")) {
+					continue;
+				}
+				indexNames.add(rs.getString(1));
+				ret.add(sql);
+			}
+			rs.close();
+		}finally {
+			stmt.close();
+		}
+		for(String indexName:indexNames) {
+			execSql(conn,"DROP INDEX \""+indexName+"\"");
+		}
+		return ret;
+	}
+	private static String queryPragma(Connection conn,String pragma) throws SQLException
+	{
+		Statement stmt=conn.createStatement();
+		try {
+			ResultSet rs=stmt.executeQuery("PRAGMA "+pragma);
+			try {
+				if(rs.next()) {
+					return rs.getString(1);
+				}
+				return null;
+			}finally {
+				rs.close();
+			}
+		}finally {
+			stmt.close();
+		}
+	}
+	private static void execSql(Connection conn,String sql) throws SQLException
+	{
+		Statement stmt=conn.createStatement();
+		try {
+			EhiLogger.traceBackendCmd(sql);
+			stmt.execute(sql);
+		}finally {
+			stmt.close();
+		}
+	}
 
 }
@@ -0,0 +1,146 @@
+package ch.ehi.ili2gpkg;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.ehi.basics.logging.EhiLogger;
+
+/** maintains the rtree spatial indexes of a GeoPackage in bulk.
+ * During an import, the rtree triggers are dropped (so that no SQL function is called per inserted row),
+ * and at the end of the import, the rtree tables are filled in one pass
+ * and the triggers are recreated.
+ */
+public class GpkgRtreeBuilder {
+    private final Connection conn;
+    /** table name, column name of each rtree index.
+     */
+    private List<String[]> indexes=null;
+    /** sql of the dropped triggers.
+     */
+    private List<String> triggers=null;
+    public GpkgRtreeBuilder(Connection conn) {
+        this.conn=conn;
+    }
+    /** drops the rtree triggers of all geometry columns with a rtree spatial index.
+     */
+    public void dropTriggers() throws SQLException
+    {
+        indexes=new ArrayList<String[]>();
+        triggers=new ArrayList<String>();
+        Statement stmt=conn.createStatement();
+        try {
+            ResultSet rs=stmt.executeQuery("SELECT table_name,column_name FROM gpkg_extensions WHERE extension_name = 'gpkg_rtree_index'");
+            while(rs.next()) {
+                indexes.add(new String[] {rs.getString(1),rs.getString(2)});
+            }
+            rs.close();
+            ArrayList<String> triggerNames=new ArrayList<String>();
+            for(String index[]:indexes) {
+                PreparedStatement pstmt=conn.prepareStatement("SELECT name,sql FROM sqlite_master WHERE type = 'trigger' AND tbl_name = ?");
+                try {
+                    pstmt.setString(1, index[0]);
+                    rs=pstmt.executeQuery();
+                    while(rs.next()) {
+                        String triggerName=rs.getString(1);
+                        if(triggerName.startsWith(getRtreeName(index)+"_")) {
+                            triggerNames.add(triggerName);
+                            triggers.add(rs.getString(2));
+                        }
+                    }
+                    rs.close();
+                }finally {
+                    pstmt.close();
+                }
+            }
+            for(String triggerName:triggerNames) {
+                String sql="DROP TRIGGER \""+triggerName+"\"";
+                EhiLogger.traceBackendCmd(sql);
+                stmt.execute(sql);
+            }
+        }finally {
+            stmt.close();
+        }
+    }
+    /** refills all rtree tables and recreates the dropped triggers.
+     */
+    public void rebuild() throws SQLException
+    {
+        if(triggers==null) {
+            return;
+        }
+        for(String index[]:indexes) {
+            fillRtree(index);
+        }
+        Statement stmt=conn.createStatement();
+        try {
+            for(String sql:triggers) {
+                EhiLogger.traceBackendCmd(sql);
+                stmt.execute(sql);
+            }
+        }finally {
+            stmt.close();
+        }
+        triggers=null;
+        indexes=null;
+    }
+    private static String getRtreeName(String index[]) {
+        return "rtree_"+index[0]+"_"+index[1];
+    }
+    private void fillRtree(String index[]) throws SQLException
+    {
+        String tableName=index[0];
+        String colName=index[1];
+        String rtreeName=getRtreeName(index);
+        String pkName=getPrimaryKey(tableName);
+        Statement stmt=conn.createStatement();
+        PreparedStatement ps=null;
+        try {
+            String sql="DELETE FROM \""+rtreeName+"\"";
+            EhiLogger.traceBackendCmd(sql);
+            stmt.execute(sql);
+            String insert="INSERT INTO \""+rtreeName+"\" (id,minx,maxx,miny,maxy) VALUES (?,?,?,?,?)";
+            EhiLogger.traceBackendCmd(insert);
+            ps=conn.prepareStatement(insert);
+            sql="SELECT \""+pkName+"\",\""+colName+"\" FROM \""+tableName+"\" WHERE \""+colName+"\" IS NOT NULL";
+            EhiLogger.traceBackendCmd(sql);
+            ResultSet rs=stmt.executeQuery(sql);
+            while(rs.next()) {
+                double env[]=GpkgMapping.getEnvelope(rs.getBytes(2));
+                if(env!=null) {
+                    ps.setLong(1, rs.getLong(1));
+                    ps.setDouble(2, env[0]);
+                    ps.setDouble(3, env[1]);
+                    ps.setDouble(4, env[2]);
+                    ps.setDouble(5, env[3]);
+                    ps.executeUpdate();
+                }
+            }
+            rs.close();
+        }finally {
+            if(ps!=null) {
+                ps.close();
+            }
+            stmt.close();
+        }
+    }
+    private String getPrimaryKey(String tableName) throws SQLException
+    {
+        Statement stmt=conn.createStatement();
+        try {
+            ResultSet rs=stmt.executeQuery("PRAGMA table_info(\""+tableName+"\")");
+            while(rs.next()) {
+                if(rs.getInt("pk")==1) {
+                    return rs.getString("name");
+                }
+            }
+        }finally {
+            stmt.close();
+        }
+        return "rowid";
+    }
+}
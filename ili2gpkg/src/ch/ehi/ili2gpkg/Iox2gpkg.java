@@ -28,15 +28,12 @@ import java.util.Iterator;
 
 
 import ch.ehi.ili2db.gui.Config;
-import ch.interlis.iom_j.Iom_jObject;
 import com.vividsolutions.jts.geom.Envelope;
-import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.Coordinate;
 
 import ch.ehi.basics.logging.EhiLogger;
 import ch.interlis.iom.IomConstants;
 import ch.interlis.iom.IomObject;
-import ch.interlis.iom_j.itf.impl.jtsext.geom.CompoundCurve;
 import ch.interlis.iox.IoxException;
 import ch.interlis.iox_j.jts.Iox2jtsException;
 import ch.interlis.iox_j.jts.Iox2jtsext;
@@ -128,8 +125,9 @@ public class Iox2gpkg {
 		}
 	    try {
 	    	os.reset();
-	    	CompoundCurve surface = Iox2jtsext.polyline2JTS(obj,false, p);
-	    	writeGeoPackageBinaryHeader(srsId,surface.getEnvelopeInternal());
+	    	Envelope env=new Envelope();
+	    	expandToIncludePolyline(env,obj);
+	    	writeGeoPackageBinaryHeader(srsId,env);
 	    	// wkb
 			Iox2wkb helper=new Iox2wkb(outputDimension,os.order());
 			os.write(helper.polyline2wkb(obj,isSurfaceOrArea,asCompoundCurve,p));
@@ -152,8 +150,7 @@ public class Iox2gpkg {
 	    	Envelope env=new Envelope();
 			for(int polylinei=0;polylinei<polylinec;polylinei++){
 				IomObject polyline=obj.getattrobj(Wkb2iox.ATTR_POLYLINE,polylinei);
-		    	CompoundCurve curve = Iox2jtsext.polyline2JTS(polyline,false, p);
-		    	env.expandToInclude(curve.getEnvelopeInternal());
+		    	expandToIncludePolyline(env,polyline);
 	    	}
             writeGeoPackageBinaryHeader(srsId, env);
             Iox2wkb helper = new Iox2wkb(outputDimension, os.order());
@@ -179,8 +176,9 @@ public class Iox2gpkg {
 		}
 	    try {
 	    	os.reset();
-	    	Polygon surface = Iox2jtsext.surface2JTS(obj, strokeP);
-	    	writeGeoPackageBinaryHeader(srsId,surface.getEnvelopeInternal());
+	    	Envelope env=new Envelope();
+	    	expandToIncludeMultiSurface(env,obj);
+	    	writeGeoPackageBinaryHeader(srsId,env);
 	    	// wkb
 			Iox2wkb helper=new Iox2wkb(outputDimension,os.order());
 			os.write(helper.surface2wkb(obj,asCurvePolygon,strokeP,repairTouchingLines));
@@ -199,14 +197,8 @@ public class Iox2gpkg {
 		}
 	    try {
 	    	os.reset();
-			int surfacec=obj.getattrvaluecount("surface");
 			Envelope env=new Envelope();
-			for(int surfacei=0;surfacei<surfacec;surfacei++){
-				IomObject surface=obj.getattrobj("surface",surfacei);
-				IomObject iomSurfaceClone = new Iom_jObject("MULTISURFACE", (String)null);
-				iomSurfaceClone.addattrobj("surface", surface);
-				env.expandToInclude(Iox2jtsext.surface2JTS(iomSurfaceClone, strokeP).getEnvelopeInternal());
-			}
+			expandToIncludeMultiSurface(env,obj);
 	    	writeGeoPackageBinaryHeader(srsId,env);
 	    	// wkb
 			Iox2wkb helper=new Iox2wkb(outputDimension,os.order());
@@ -218,6 +210,100 @@ public class Iox2gpkg {
 		}
 		return os.toByteArray();
 	}
+	/** expands the envelope by all boundaries of all surfaces of a SURFACE/MULTISURFACE.
+	 * The envelope of a polygon is the envelope of its shell, so the inner boundaries
+	 * don't change the result (of valid surfaces).
+	 */
+	private static void expandToIncludeMultiSurface(Envelope env,IomObject multisurface) throws Iox2wkbException {
+		int surfacec=multisurface.getattrvaluecount("surface");
+		for(int surfacei=0;surfacei<surfacec;surfacei++){
+			IomObject surface=multisurface.getattrobj("surface",surfacei);
+			int boundaryc=surface.getattrvaluecount("boundary");
+			for(int boundaryi=0;boundaryi<boundaryc;boundaryi++){
+				IomObject boundary=surface.getattrobj("boundary",boundaryi);
+				int polylinec=boundary.getattrvaluecount("polyline");
+				for(int polylinei=0;polylinei<polylinec;polylinei++){
+					expandToIncludePolyline(env,boundary.getattrobj("polyline",polylinei));
+				}
+			}
+		}
+	}
+	/** expands the envelope by the vertices of a POLYLINE; arcs by their exact extent.
+	 */
+	private static void expandToIncludePolyline(Envelope env,IomObject polyline) throws Iox2wkbException {
+		int sequencec=polyline.getattrvaluecount("sequence");
+		for(int sequencei=0;sequencei<sequencec;sequencei++){
+			IomObject sequence=polyline.getattrobj("sequence",sequencei);
+			int segmentc=sequence.getattrvaluecount("segment");
+			double lastX=Double.NaN;
+			double lastY=Double.NaN;
+			for(int segmenti=0;segmenti<segmentc;segmenti++){
+				IomObject segment=sequence.getattrobj("segment",segmenti);
+				double x=getCoordValue(segment,"C1");
+				double y=getCoordValue(segment,"C2");
+				if(segment.getobjecttag().equals("ARC") && !Double.isNaN(lastX)){
+					expandToIncludeArc(env,lastX,lastY,getCoordValue(segment,"A1"),getCoordValue(segment,"A2"),x,y);
+				}
+				env.expandToInclude(x,y);
+				lastX=x;
+				lastY=y;
+			}
+		}
+	}
+	private static double getCoordValue(IomObject segment,String attrName) throws Iox2wkbException {
+		String value=segment.getattrvalue(attrName);
+		if(value==null){
+			throw new Iox2wkbException("missing "+attrName);
+		}
+		try{
+			return Double.parseDouble(value);
+		}catch(NumberFormatException e){
+			throw new Iox2wkbException("illegal number <"+value+">");
+		}
+	}
+	/** expands the envelope by an arc from (x0,y0) via (x1,y1) to (x2,y2).
+	 * Includes the points where the circle reaches its minimum/maximum x or y, if they are on the arc,
+	 * so that the envelope is never smaller than the envelope of the stroked arc.
+	 */
+	static void expandToIncludeArc(Envelope env,double x0,double y0,double x1,double y1,double x2,double y2) {
+		env.expandToInclude(x0,y0);
+		env.expandToInclude(x1,y1);
+		env.expandToInclude(x2,y2);
+		double d=2.0*(x0*(y1-y2)+x1*(y2-y0)+x2*(y0-y1));
+		if(d==0.0){
+			// points are on a straight line
+			return;
+		}
+		double s0=x0*x0+y0*y0;
+		double s1=x1*x1+y1*y1;
+		double s2=x2*x2+y2*y2;
+		double cx=(s0*(y1-y2)+s1*(y2-y0)+s2*(y0-y1))/d;
+		double cy=(s0*(x2-x1)+s1*(x0-x2)+s2*(x1-x0))/d;
+		double r=Math.hypot(x0-cx,y0-cy);
+		double a0=Math.atan2(y0-cy,x0-cx);
+		double a1=ccwAngle(a0,Math.atan2(y1-cy,x1-cx));
+		double a2=ccwAngle(a0,Math.atan2(y2-cy,x2-cx));
+		boolean ccw=a1<a2;
+		double extremes[][]={{cx+r,cy,0.0},{cx,cy+r,Math.PI/2.0},{cx-r,cy,Math.PI},{cx,cy-r,-Math.PI/2.0}};
+		for(double extreme[]:extremes){
+			double a=ccwAngle(a0,extreme[2]);
+			if(ccw ? a<=a2 : a>=a2){
+				env.expandToInclude(extreme[0],extreme[1]);
+			}
+		}
+	}
+	/** counter clockwise angle from start to angle, in the range [0,2*PI).
+	 */
+	private static double ccwAngle(double start,double angle) {
+		double ret=angle-start;
+		while(ret<0.0){
+			ret+=2.0*Math.PI;
+		}
+		while(ret>=2.0*Math.PI){
+			ret-=2.0*Math.PI;
+		}
+		return ret;
+	}
 	private void writeGeoPackageBinaryHeader(int srsId, Envelope envelope) {
 		// GeoPackageBinaryHeader {
 		// byte[2] magic = 0x4750;  // 'GP'
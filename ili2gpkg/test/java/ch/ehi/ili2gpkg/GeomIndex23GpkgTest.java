@@ -281,6 +281,66 @@ public class GeomIndex23GpkgTest {
         Assert.assertTrue(rs.next() && rs.getInt("count") == 1);
     }
 
+    @Test
+    public void importXtfDeferGeomIdx() throws Exception {
+        createSchema(true);
+        openDb(FILENAME_GPKG_OUT);
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM sqlite_master WHERE type = 'trigger' AND name LIKE 'rtree_%'");
+        Assert.assertTrue(rs.next());
+        int triggerCount=rs.getInt("count");
+        Assert.assertTrue(triggerCount>0);
+        closeDb();
+        jdbcConnection=null;
+        Config config=initConfig();
+        config.setFunction(Config.FC_IMPORT);
+        config.setValue(Config.CREATE_GEOM_INDEX, Config.TRUE);
+        config.setGpkgDeferGeomIdx(true);
+        Ili2db.run(config,null);
+        openDb(FILENAME_GPKG_OUT);
+
+        // rtree spatial indexes populated after the import
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM rtree_classa1_geom");
+        Assert.assertTrue(rs.next() && rs.getInt("count") == 3);
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM rtree_classa2_geom");
+        Assert.assertTrue(rs.next() && rs.getInt("count") == 2);
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM rtree_classa6_geom");
+        Assert.assertTrue(rs.next() && rs.getInt("count") == 1);
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM rtree_classa1_geom r JOIN classa1 c ON r.id=c."+PRIMARY_KEY_GPKG_OUT);
+        Assert.assertTrue(rs.next() && rs.getInt("count") == 3);
+        // triggers recreated
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM sqlite_master WHERE type = 'trigger' AND name LIKE 'rtree_%'");
+        Assert.assertTrue(rs.next() && rs.getInt("count") == triggerCount);
+    }
+
+    @Test
+    public void importXtfBulkLoad() throws Exception {
+        createSchema(true);
+        openDb(FILENAME_GPKG_OUT);
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM sqlite_master WHERE type = 'index'");
+        Assert.assertTrue(rs.next());
+        int indexCount=rs.getInt("count");
+        closeDb();
+        jdbcConnection=null;
+        Config config=initConfig();
+        config.setFunction(Config.FC_IMPORT);
+        config.setValue(Config.CREATE_GEOM_INDEX, Config.TRUE);
+        config.setGpkgBulkLoad(true);
+        Ili2db.run(config,null);
+        openDb(FILENAME_GPKG_OUT);
+
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM classa1");
+        Assert.assertTrue(rs.next() && rs.getInt("count") == 3);
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM rtree_classa1_geom");
+        Assert.assertTrue(rs.next() && rs.getInt("count") == 3);
+        // indexes recreated
+        rs=stmt.executeQuery("SELECT COUNT(*) AS count FROM sqlite_master WHERE type = 'index'");
+        Assert.assertTrue(rs.next() && rs.getInt("count") == indexCount);
+        // journal mode of the file not changed
+        rs=stmt.executeQuery("PRAGMA journal_mode");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals("delete", rs.getString(1).toLowerCase());
+    }
+
     private void createSchema(boolean createGeomIdx) throws Exception {
         Config config=initConfig();
         if(createGeomIdx) {
@@ -2,6 +2,7 @@ package ch.ehi.ili2gpkg;
 
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.junit.Assert;
@@ -11,6 +12,7 @@ import ch.ehi.ili2gpkg.Iox2gpkg;
 import ch.interlis.iom.IomObject;
 import ch.interlis.iom_j.Iom_jObject;
 import ch.interlis.iox_j.wkb.Wkb2iox;
+import com.vividsolutions.jts.geom.Envelope;
 
 public class Iox2gpkgTest {
 
@@ -106,6 +108,46 @@ public class Iox2gpkgTest {
         Assert.assertEquals(true, Arrays.equals(wkb, expectedByte));
     }
     
+    @Test
+    public void polylineArcEnvelope() throws Exception {
+        IomObject polylineValue=new Iom_jObject("POLYLINE",null);
+        IomObject sequence=polylineValue.addattrobj("sequence","SEGMENTS");
+        IomObject coordValue=sequence.addattrobj("segment","COORD");
+        coordValue.setattrvalue("C1","2600000.0");
+        coordValue.setattrvalue("C2","1200000.0");
+        IomObject arcValue=sequence.addattrobj("segment","ARC");
+        arcValue.setattrvalue("A1","2600010.0");
+        arcValue.setattrvalue("A2","1200010.0");
+        arcValue.setattrvalue("C1","2600020.0");
+        arcValue.setattrvalue("C2","1200000.0");
+
+        Iox2gpkg obj1 = new Iox2gpkg(2);
+        byte wkb[]=obj1.polyline2wkb(polylineValue, false, true, 0.002, 0);
+        ByteBuffer header=ByteBuffer.wrap(wkb, 8, 32);
+        assertEquals(2600000.0, header.getDouble(), 0.0001); // minx
+        assertEquals(2600020.0, header.getDouble(), 0.0001); // maxx
+        assertEquals(1200000.0, header.getDouble(), 0.0001); // miny
+        assertEquals(1200010.0, header.getDouble(), 0.0001); // maxy
+    }
+    @Test
+    public void arcEnvelope() throws Exception {
+        // half circle, counter clockwise
+        Envelope env=new Envelope();
+        Iox2gpkg.expandToIncludeArc(env, 2.0, 0.0, 1.0, 1.0, 0.0, 0.0);
+        assertEquals(new Envelope(0.0,2.0,0.0,1.0), env);
+        // quarter circle; doesn't reach an extreme point of the circle
+        env=new Envelope();
+        Iox2gpkg.expandToIncludeArc(env, 1.0, 0.0, Math.sqrt(0.5), Math.sqrt(0.5), 0.0, 1.0);
+        assertEquals(new Envelope(0.0,1.0,0.0,1.0), env);
+        // same quarter circle, clockwise
+        env=new Envelope();
+        Iox2gpkg.expandToIncludeArc(env, 0.0, 1.0, Math.sqrt(0.5), Math.sqrt(0.5), 1.0, 0.0);
+        assertEquals(new Envelope(0.0,1.0,0.0,1.0), env);
+        // three quarter circle
+        env=new Envelope();
+        Iox2gpkg.expandToIncludeArc(env, 0.0, 1.0, -1.0, 0.0, 1.0, 0.0);
+        assertEquals(new Envelope(-1.0,1.0,-1.0,1.0), env);
+    }
     @Test
     public void surface() throws Exception {        
         IomObject surfaceValue=new Iom_jObject("MULTISURFACE",null);
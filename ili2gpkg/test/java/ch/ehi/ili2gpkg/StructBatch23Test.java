@@ -0,0 +1,16 @@
+package ch.ehi.ili2gpkg;
+
+import ch.ehi.ili2db.AbstractTestSetup;
+import ch.ehi.ili2gpkg.GpkgTestSetup;
+
+public class StructBatch23Test extends ch.ehi.ili2db.StructBatch23Test {
+	
+    private static final String GPKGFILENAME=TEST_OUT+"StructBatch23.gpkg";
+    private static final String DBURL="jdbc:sqlite:"+GPKGFILENAME;
+    
+    @Override
+    protected AbstractTestSetup createTestSetup() {
+        return new GpkgTestSetup(GPKGFILENAME,DBURL);
+    }
+		
+}
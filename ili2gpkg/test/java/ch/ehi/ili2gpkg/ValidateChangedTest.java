@@ -0,0 +1,15 @@
+package ch.ehi.ili2gpkg;
+
+import ch.ehi.ili2db.AbstractTestSetup;
+
+public class ValidateChangedTest extends ch.ehi.ili2db.ValidateChangedTest {
+	
+    private static final String GPKGFILENAME=TEST_OUT+"ValidateChanged.gpkg";
+    private static final String DBURL="jdbc:sqlite:"+GPKGFILENAME;
+    
+    @Override
+    protected AbstractTestSetup createTestSetup() {
+        return new GpkgTestSetup(GPKGFILENAME,DBURL);
+    }
+		
+}
@@ -49,11 +49,23 @@ public class GeneratorH2gis extends GeneratorJdbc {
 
 	private boolean createGeomIdx=false;
 	private ArrayList<DbColumn> indexColumns=null;
+	/** index statements that are executed after the data import (bulk load mode).
+	 */
+	private java.util.List<String> deferredIndexes=null;
+	/** duplicate check queries of the deferred unique indexes (by constraint name).
+	 */
+	private java.util.Map<String,String> deferredUniqueChecks=null;
 	
 	@Override
 	public void visitSchemaBegin(Settings config, DbSchema schema)
 			throws IOException {
 		super.visitSchemaBegin(config, schema);
+		deferredIndexes=null;
+		deferredUniqueChecks=null;
+		if(H2gisMapping.isBulkLoad(config)){
+			deferredIndexes=H2gisMapping.getDeferredIndexes(config);
+			deferredUniqueChecks=H2gisMapping.getDeferredUniqueChecks(config);
+		}
 		if("True".equalsIgnoreCase(config.getValue(SqlConfiguration.CREATE_GEOM_INDEX))){
 			createGeomIdx=true;
 		}
@@ -192,7 +204,10 @@ public class GeneratorH2gis extends GeneratorJdbc {
 			addCreateLine(new Stmt(stmt));
 			out=null;
 			if(conn!=null) {
-	            if(createdTables.contains(tab.getName())){
+	            if(createdTables.contains(tab.getName()) && deferredIndexes!=null){
+	                deferredIndexes.add(stmt);
+	                deferredUniqueChecks.put(constraintName, createDuplicateQuery(tableName, idx));
+	            }else if(createdTables.contains(tab.getName())){
 	                Statement dbstmt = null;
 	                try{
 	                    try{
@@ -212,6 +227,24 @@ public class GeneratorH2gis extends GeneratorJdbc {
 		}
 	}
 
+	/** query that returns a row, if the table has duplicates in the columns of the given unique index.
+	 * Rows with a NULL in one of the columns are not considered (as by the unique index).
+	 */
+	private static String createDuplicateQuery(String tableName,DbIndex idx)
+	{
+		StringBuilder cols=new StringBuilder();
+		StringBuilder notNull=new StringBuilder();
+		String sep="";
+		for(Iterator attri=idx.iteratorAttr();attri.hasNext();){
+			DbColumn attr=(DbColumn)attri.next();
+			String col=attr instanceof DbColGeometry ? "ST_AsBinary("+attr.getName()+")" : attr.getName();
+			cols.append(sep).append(col);
+			notNull.append(sep.length()>0?" AND ":"").append(attr.getName()).append(" IS NOT NULL");
+			sep=",";
+		}
+		return "SELECT "+cols+" FROM "+tableName+" WHERE "+notNull+" GROUP BY "+cols+" HAVING COUNT(*)>1 LIMIT 1";
+	}
+
     @Override
     protected String getTableEndOptions(DbTable tab) {
         return "";
@@ -263,7 +296,9 @@ public class GeneratorH2gis extends GeneratorJdbc {
 			addCreateLine(new Stmt(idxstmt));
 			
             if(conn!=null) {
-                if(!tableExists){
+                if(!tableExists && deferredIndexes!=null){
+                    deferredIndexes.add(idxstmt);
+                }else if(!tableExists){
                     Statement dbstmt = null;
                     try{
                         try{
@@ -94,9 +94,13 @@ public class H2gisColumnConverter extends AbstractWKBColumnConverter {
 	}
 	private boolean strokeArcs=true;
 	private boolean repairTouchingLines;
+	/** bind WKB directly to the geometry column (H2 converts it to a geometry) instead of wrapping it with ST_GeomFromWKB().
+	 */
+	private boolean nativeWkb=false;
 	@Override
 	public void setup(Connection conn, Settings config) {
 		super.setup(conn,config);
+		nativeWkb=H2gisMapping.isBulkLoad(config);
 		if(!Config.STROKE_ARCS_ENABLE.equals(Config.getStrokeArcs(config))){
 		    throw new IllegalArgumentException("h2gis supports only straights");
 		}
@@ -105,22 +109,44 @@ public class H2gisColumnConverter extends AbstractWKBColumnConverter {
 	
 	@Override
 	public String getInsertValueWrapperCoord(String wkfValue,int srid) {
+		if(nativeWkb){
+			return wkfValue;
+		}
 		return "ST_GeomFromWKB("+wkfValue+")";
 	}
 	@Override
+	public String getInsertValueWrapperMultiCoord(String wkfValue,int srid) {
+		if(nativeWkb){
+			return wkfValue;
+		}
+		return super.getInsertValueWrapperMultiCoord(wkfValue,srid);
+	}
+	@Override
 	public String getInsertValueWrapperPolyline(String wkfValue,int srid) {
+		if(nativeWkb){
+			return wkfValue;
+		}
         return "ST_GeomFromWKB("+wkfValue+")";
 	}
 	@Override
 	public String getInsertValueWrapperMultiPolyline(String wkfValue,int srid) {
+		if(nativeWkb){
+			return wkfValue;
+		}
         return "ST_GeomFromWKB("+wkfValue+")";
 	}
 	@Override
 	public String getInsertValueWrapperSurface(String wkfValue,int srid) {
+		if(nativeWkb){
+			return wkfValue;
+		}
         return "ST_GeomFromWKB("+wkfValue+")";
 	}
 	@Override
 	public String getInsertValueWrapperMultiSurface(String wkfValue,int srid) {
+		if(nativeWkb){
+			return wkfValue;
+		}
         return "ST_GeomFromWKB("+wkfValue+")";
 	}
 	@Override
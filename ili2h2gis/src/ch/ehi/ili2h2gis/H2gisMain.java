@@ -99,6 +99,7 @@ public class H2gisMain extends ch.ehi.ili2db.AbstractMain {
 	protected void printSpecificOptions() {
         System.err.println("--dbschema  schema     The name of the schema in the database. Defaults to not set.");
 		System.err.println("--oneGeomPerTable      If more than one geometry per table, create secondary table.");
+		System.err.println("--h2gisBulkLoad        Bulk load mode for a file based db (id blocks, WKB without ST_GeomFromWKB, indexes created after the import).");
 	}
 	@Override
 	protected int doArgs(String args[],int argi,Config config) throws ParseException
@@ -135,6 +136,9 @@ public class H2gisMain extends ch.ehi.ili2db.AbstractMain {
 		}else if(isOption(arg, "--oneGeomPerTable")){
 			config.setOneGeomPerTable(parseBooleanArgument(arg));
 			argi++;
+		}else if(isOption(arg, "--h2gisBulkLoad")){
+			config.setH2gisBulkLoad(parseBooleanArgument(arg));
+			argi++;
 		}
 		return argi;
 	}
@@ -2,18 +2,40 @@ package ch.ehi.ili2h2gis;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.h2gis.utilities.SFSUtilities;
 
 import ch.ehi.basics.logging.EhiLogger;
+import ch.ehi.basics.logging.ErrorTracker;
+import ch.ehi.basics.settings.Settings;
 import ch.ehi.ili2db.base.AbstractJdbcMapping;
 import ch.ehi.ili2db.gui.Config;
 import ch.ehi.sqlgen.repository.DbTableName;
 
 public class H2gisMapping extends AbstractJdbcMapping {
+    /** transient config entry with the index statements, that GeneratorH2gis defers until after the data import.
+     */
+    public static final String DEFERRED_INDEXES="ch.ehi.ili2h2gis.deferredIndexes";
+    /** size of the H2 page cache (in KB) in bulk load mode.
+     */
+    public static final int BULK_CACHE_SIZE=256*1024;
+    /** transient config entry with the duplicate check queries of the deferred unique indexes (by constraint name).
+     */
+    public static final String DEFERRED_UNIQUE_CHECKS="ch.ehi.ili2h2gis.deferredUniqueChecks";
     private Boolean isNewFile=null;
+    /** cache size before the bulk load.
+     */
+    private String savedCacheSize=null;
+    /** tracks errors of the bulk load, so that the deferred indexes do not commit a failed import.
+     */
+    private ErrorTracker errs=null;
     
     @Override
     public void preConnect(String url, String dbusr, String dbpwd, Config config) {
@@ -54,27 +76,179 @@ public class H2gisMapping extends AbstractJdbcMapping {
                 throw new IllegalStateException(ex);
             }
         }
+        if(isBulkLoad(config)){
+            Statement dbstmt = null;
+            try{
+                try{
+                    savedCacheSize=queryCacheSize(conn);
+                    // larger MVStore cache while loading; the undo log is kept, so that a failed import is rolled back
+                    String line="SET CACHE_SIZE "+BULK_CACHE_SIZE;
+                    dbstmt = conn.createStatement();
+                    EhiLogger.traceBackendCmd(line);
+                    dbstmt.execute(line);
+                }finally{
+                    if(dbstmt!=null) {
+                        dbstmt.close();
+                        dbstmt=null;
+                    }
+                }
+            }catch(SQLException ex){
+                throw new IllegalStateException(ex);
+            }
+            if(errs!=null){
+                EhiLogger.getInstance().removeListener(errs);
+            }
+            errs=new ErrorTracker();
+            EhiLogger.getInstance().addListener(errs);
+        }
     }
     @Override
     public void postPostScript(Connection conn, Config config)
     {
+        try{
+            Map<String,String> uniqueChecks=(Map<String,String>)config.getTransientObject(DEFERRED_UNIQUE_CHECKS);
+            List<String> deferredIndexes=(List<String>)config.getTransientObject(DEFERRED_INDEXES);
+            boolean failed=false;
+            if(deferredIndexes!=null && deferredIndexes.size()>0){
+                failed=errs!=null && errs.hasSeenErrors();
+                if(!failed && uniqueChecks!=null){
+                    failed=hasDuplicates(conn,uniqueChecks);
+                }
+            }
+            finishBulkLoad(conn,config,failed,false);
+        }catch(SQLException ex){
+            throw new IllegalStateException(ex);
+        }finally{
+            if(errs!=null){
+                EhiLogger.getInstance().removeListener(errs);
+                errs=null;
+            }
+        }
+    }
+    @Override
+    public void postImport(Connection conn, Config config)
+    {
+        // the import failed before postPostScript() or while creating the indexes;
+        // the tables exist already, so the pending indexes must be created anyway
+        try{
+            finishBulkLoad(conn,config,true,true);
+        }catch(SQLException ex){
+            EhiLogger.logError("failed to create the deferred indexes",ex);
+        }finally{
+            if(errs!=null){
+                EhiLogger.getInstance().removeListener(errs);
+                errs=null;
+            }
+        }
+    }
+    /** creates the pending deferred indexes and restores the cache size.
+     * H2 commits the open transaction with each CREATE INDEX, so a failed import is rolled back first.
+     * @param continueOnError true, to log a failed index statement and continue with the next one.
+     */
+    private void finishBulkLoad(Connection conn,Config config,boolean failed,boolean continueOnError) throws SQLException
+    {
+        List<String> deferredIndexes=(List<String>)config.getTransientObject(DEFERRED_INDEXES);
+        Map<String,String> uniqueChecks=(Map<String,String>)config.getTransientObject(DEFERRED_UNIQUE_CHECKS);
         Statement dbstmt = null;
         try{
+            if(deferredIndexes!=null && deferredIndexes.size()>0){
+                if(failed && !conn.getAutoCommit()){
+                    EhiLogger.logState("rollback before creating indexes...");
+                    conn.rollback();
+                }
+                EhiLogger.logState("create indexes...");
+                dbstmt = conn.createStatement();
+                while(deferredIndexes.size()>0){
+                    // removed before it is executed, so that a failed statement is not run again by postImport()
+                    String line=deferredIndexes.remove(0);
+                    EhiLogger.traceBackendCmd(line);
+                    try{
+                        dbstmt.execute(line);
+                    }catch(SQLException ex){
+                        if(!continueOnError){
+                            throw ex;
+                        }
+                        EhiLogger.logError("failed to create index <"+line+">",ex);
+                    }
+                }
+            }
+            if(uniqueChecks!=null){
+                uniqueChecks.clear();
+            }
+            if(savedCacheSize!=null){
+                String line="SET CACHE_SIZE "+savedCacheSize;
+                savedCacheSize=null;
+                if(dbstmt==null){
+                    dbstmt = conn.createStatement();
+                }
+                EhiLogger.traceBackendCmd(line);
+                dbstmt.execute(line);
+            }
+            //String line="CALL H2GIS_UNLOAD();";
+            //dbstmt = conn.createStatement();
+            //EhiLogger.traceBackendCmd(line);
+            //dbstmt.execute(line);
+        }finally{
+            if(dbstmt!=null) {
+                dbstmt.close();
+                dbstmt=null;
+            }
+        }
+    }
+    /** runs the duplicate check queries of the deferred unique indexes.
+     * @return true if a table has duplicates (logged as error).
+     */
+    private static boolean hasDuplicates(Connection conn,Map<String,String> uniqueChecks) throws SQLException
+    {
+        boolean ret=false;
+        Statement dbstmt=conn.createStatement();
+        try{
+            for(String constraintName:uniqueChecks.keySet()){
+                String query=uniqueChecks.get(constraintName);
+                EhiLogger.traceBackendCmd(query);
+                ResultSet rs=dbstmt.executeQuery(query);
+                try{
+                    if(rs.next()){
+                        EhiLogger.logError("duplicate values violate unique index "+constraintName);
+                        ret=true;
+                    }
+                }finally{
+                    rs.close();
+                }
+            }
+        }finally{
+            dbstmt.close();
+        }
+        return ret;
+    }
+    /** @return current size of the H2 page cache (in KB), null if unknown.
+     */
+    private static String queryCacheSize(Connection conn)
+    {
+        // H2 1.4: NAME/VALUE; H2 2.x: SETTING_NAME/SETTING_VALUE
+        String queries[]=new String[] {
+                "SELECT VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE NAME='CACHE_SIZE'",
+                "SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME='CACHE_SIZE'"};
+        for(String query:queries){
+            Statement dbstmt=null;
             try{
-                //String line="CALL H2GIS_UNLOAD();";
-                //dbstmt = conn.createStatement();
-                //EhiLogger.traceBackendCmd(line);
-                //dbstmt.execute(line);
+                dbstmt=conn.createStatement();
+                ResultSet rs=dbstmt.executeQuery(query);
+                if(rs.next()){
+                    return rs.getString(1);
+                }
+            }catch(SQLException ex){
+                EhiLogger.traceState("failed to query cache size: "+ex.getMessage());
             }finally{
-                if(dbstmt!=null) {
-                    dbstmt.close();
-                    dbstmt=null;
+                if(dbstmt!=null){
+                    try{
+                        dbstmt.close();
+                    }catch(SQLException ex){
+                    }
                 }
             }
-        }catch(SQLException ex){
-            throw new IllegalStateException(ex);
         }
-        
+        return null;
     }
     
     @Override
@@ -83,4 +257,32 @@ public class H2gisMapping extends AbstractJdbcMapping {
         return GeneratorH2gis.tableExists(conn, tableName);
     }
     
+    /** tests if the bulk load mode is enabled; only used with an embedded (file based) database.
+     */
+    public static boolean isBulkLoad(Settings settings)
+    {
+        if(!(settings instanceof Config)){
+            return false;
+        }
+        Config config=(Config)settings;
+        return config.isH2gisBulkLoad() && config.getDbhost()==null && config.getDbfile()!=null;
+    }
+    static Map<String,String> getDeferredUniqueChecks(Settings config)
+    {
+        Map<String,String> ret=(Map<String,String>)config.getTransientObject(DEFERRED_UNIQUE_CHECKS);
+        if(ret==null){
+            ret=new LinkedHashMap<String,String>();
+            config.setTransientObject(DEFERRED_UNIQUE_CHECKS, ret);
+        }
+        return ret;
+    }
+    static List<String> getDeferredIndexes(Settings config)
+    {
+        List<String> ret=(List<String>)config.getTransientObject(DEFERRED_INDEXES);
+        if(ret==null){
+            ret=new ArrayList<String>();
+            config.setTransientObject(DEFERRED_INDEXES, ret);
+        }
+        return ret;
+    }
 }
@@ -1,7 +1,19 @@
 package ch.ehi.ili2h2gis;
 
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.Test;
+
 import ch.ehi.ili2db.AbstractTestSetup;
 import ch.ehi.ili2db.SimpleTest;
+import ch.ehi.ili2db.base.Ili2db;
+import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.ili2db.gui.Config;
 
 public class SimpleH2gisTest extends SimpleTest {
     private final static String DBSCHEMA="simple";
@@ -12,5 +24,127 @@ public class SimpleH2gisTest extends SimpleTest {
         return new H2gisTestSetup(H2GISFILENAME,DBURL,DBSCHEMA);
     }
 	
-	
-}
\ No newline at end of file
+    @Test
+    public void importXtfCoordBulkLoad() throws Exception
+    {
+        setup.resetDb();
+        File data=new File(TEST_OUT,"SimpleCoord23a.xtf");
+        Config config=setup.initConfig(data.getPath(),data.getPath()+".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_IMPORT);
+        config.setDoImplicitSchemaImport(true);
+        config.setTidHandling(Config.TID_HANDLING_PROPERTY);
+        config.setImportTid(true);
+        config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+        config.setDefaultSrsCode("2056");
+        config.setValue(Config.CREATE_GEOM_INDEX, Config.TRUE);
+        config.setH2gisBulkLoad(true);
+        Ili2db.run(config,null);
+        Connection jdbcConnection=null;
+        Statement stmt=null;
+        try{
+            jdbcConnection=setup.createConnection();
+            stmt=jdbcConnection.createStatement();
+            ResultSet rs=stmt.executeQuery("SELECT t_ili_tid,ST_X(attr2),ST_Y(attr2) FROM "+setup.prefixName("classa1")+" ORDER BY t_ili_tid");
+            assertTrue(rs.next());
+            assertEquals("o1",rs.getString(1));
+            assertEquals(2460001.0,rs.getDouble(2),0.0001);
+            assertEquals(1045001.0,rs.getDouble(3),0.0001);
+            assertTrue(rs.next());
+            assertEquals("o2",rs.getString(1));
+            assertEquals(2460002.0,rs.getDouble(2),0.0001);
+            assertTrue(rs.next());
+            assertEquals("o3",rs.getString(1));
+            assertFalse(rs.next());
+            rs.close();
+            // spatial index created after the import
+            rs=stmt.executeQuery("SELECT count(*) FROM INFORMATION_SCHEMA.INDEXES WHERE UPPER(TABLE_NAME)='CLASSA1' AND UPPER(COLUMN_NAME)='ATTR2'");
+            assertTrue(rs.next());
+            assertEquals(1,rs.getInt(1));
+        }finally{
+            if(stmt!=null) {
+                stmt.close();
+            }
+            if(jdbcConnection!=null){
+                jdbcConnection.close();
+            }
+        }
+    }
+    private Config initUniqueBulkLoadConfig(File data) {
+        Config config=setup.initConfig(data.getPath(),data.getPath()+".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_IMPORT);
+        config.setDoImplicitSchemaImport(true);
+        config.setTidHandling(Config.TID_HANDLING_PROPERTY);
+        config.setImportTid(true);
+        config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+        config.setCreateUniqueConstraints(true);
+        config.setH2gisBulkLoad(true);
+        return config;
+    }
+    private void assertUniqueIndexAndRowCount(int expectedRowCount) throws Exception {
+        Connection jdbcConnection=null;
+        Statement stmt=null;
+        try{
+            jdbcConnection=setup.createConnection();
+            stmt=jdbcConnection.createStatement();
+            ResultSet rs=stmt.executeQuery("SELECT count(*) FROM "+setup.prefixName("classa1"));
+            assertTrue(rs.next());
+            assertEquals(expectedRowCount,rs.getInt(1));
+            rs.close();
+            // unique index created after the import
+            rs=stmt.executeQuery("SELECT count(*) FROM INFORMATION_SCHEMA.INDEXES WHERE UPPER(TABLE_NAME)='CLASSA1' AND UPPER(COLUMN_NAME)='ATTR1' AND NON_UNIQUE=FALSE");
+            assertTrue(rs.next());
+            assertEquals(1,rs.getInt(1));
+        }finally{
+            if(stmt!=null) {
+                stmt.close();
+            }
+            if(jdbcConnection!=null){
+                jdbcConnection.close();
+            }
+        }
+    }
+    @Test
+    public void importXtfUniqueBulkLoad() throws Exception
+    {
+        setup.resetDb();
+        File data=new File(TEST_OUT,"SimpleUnique23a.xtf");
+        Config config=initUniqueBulkLoadConfig(data);
+        Ili2db.run(config,null);
+        assertUniqueIndexAndRowCount(3);
+    }
+    @Test
+    public void importXtfUniqueDuplicatesBulkLoad() throws Exception
+    {
+        setup.resetDb();
+        File data=new File(TEST_OUT,"SimpleUnique23b.xtf");
+        Config config=initUniqueBulkLoadConfig(data);
+        // duplicates reach the database
+        config.setValidation(false);
+        try{
+            Ili2db.run(config,null);
+            fail();
+        }catch(Ili2dbException ex){
+            // expected
+        }
+        // import rolled back, before the deferred indexes are created
+        assertUniqueIndexAndRowCount(0);
+    }
+    @Test
+    public void importXtfMalformedBulkLoad() throws Exception
+    {
+        setup.resetDb();
+        // not well-formed; the import fails after the schema import, before postPostScript()
+        File data=new File(TEST_OUT,"SimpleUnique23c.xtf");
+        Config config=initUniqueBulkLoadConfig(data);
+        try{
+            Ili2db.run(config,null);
+            fail();
+        }catch(Ili2dbException ex){
+            // expected
+        }
+        // deferred indexes created anyway
+        assertUniqueIndexAndRowCount(0);
+    }
+}
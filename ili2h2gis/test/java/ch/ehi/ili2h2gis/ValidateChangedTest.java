@@ -0,0 +1,14 @@
+package ch.ehi.ili2h2gis;
+
+import ch.ehi.ili2db.AbstractTestSetup;
+
+public class ValidateChangedTest extends ch.ehi.ili2db.ValidateChangedTest {
+	
+    private static final String H2GISFILENAME=TEST_OUT+"ValidateChanged.h2";
+    private static final String DBURL="jdbc:h2:file:"+new java.io.File(H2GISFILENAME).getAbsolutePath();
+    @Override
+    protected AbstractTestSetup createTestSetup() {
+        return new H2gisTestSetup(H2GISFILENAME,DBURL);
+    }
+		
+}
@@ -35,7 +35,6 @@ public class MsSqlSequenceBasedIdGen implements DbIdGen {
 		this.conn=conn;
 		this.dbusr=dbusr;
 	}
-
 	@Override
 	public void initDbDefs(Generator gen) {
 		DbTableName sqlName=new DbTableName(schema,SQL_ILI2DB_SEQ_NAME);
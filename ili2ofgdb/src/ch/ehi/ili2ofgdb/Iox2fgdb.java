@@ -46,6 +46,7 @@ import ch.interlis.iox_j.wkb.Wkb2iox;
 public class Iox2fgdb {
 	  private int outputDimension = 2;
 	  private ByteArrayOutputStream os = null;
+	  private boolean nanZToZero = false;
 	  private static class Arc {
 		  public Arc(int startPointIndex, double ip_x,
 				double ip_y, int bits) {
@@ -73,6 +74,17 @@ public class Iox2fgdb {
 		      throw new IllegalArgumentException("Output dimension must be 2 or 3");
 		  }
 	
+	/** writes a Z of 0.0 instead of NaN (e.g. for the points, that are added by stroking an arc without Z).
+	 */
+	public void setNaNZToZero(boolean nanZToZero) {
+		this.nanZToZero = nanZToZero;
+	}
+	private double getZ(Coordinate coord) {
+		if(nanZToZero && Double.isNaN(coord.z)){
+			return 0.0;
+		}
+		return coord.z;
+	}
 	public byte[] coord2wkb(IomObject obj,int srsId) 
 	throws Iox2wkbException 
 	{
@@ -139,8 +151,8 @@ public class Iox2fgdb {
 		{
 			Coordinate coord=polyline.getStartPoint().getCoordinate();
 			if(outputDimension==3){
-				zMin[0]=coord.z;
-				zMax[0]=coord.z;
+				zMin[0]=getZ(coord);
+				zMax[0]=getZ(coord);
 			}
 		}
 
@@ -237,8 +249,8 @@ public class Iox2fgdb {
 			{
 				Coordinate coord=curves.get(0).getStartPoint().getCoordinate();
 				if(outputDimension==3){
-					zMin[0]=coord.z;
-					zMax[0]=coord.z;
+					zMin[0]=getZ(coord);
+					zMax[0]=getZ(coord);
 				}
 			}
 
@@ -353,8 +365,8 @@ public class Iox2fgdb {
 		{
 			Coordinate coord=polygon.getExteriorRing().getStartPoint().getCoordinate();
 			if(outputDimension==3){
-				zMin[0]=coord.z;
-				zMax[0]=coord.z;
+				zMin[0]=getZ(coord);
+				zMax[0]=getZ(coord);
 			}
 		}
 
@@ -429,7 +441,7 @@ public class Iox2fgdb {
 				os.writeDouble(coord.x);
 				os.writeDouble(coord.y);
 				if(zv!=null){
-					double z=coord.z;
+					double z=getZ(coord);
 					zv.add(z);
 					if(z<zMin[0]){
 						zMin[0]=z;
@@ -458,7 +470,7 @@ public class Iox2fgdb {
 				os.writeDouble(coord.x);
 				os.writeDouble(coord.y);
 				if(zv!=null){
-					double z=coord.z;
+					double z=getZ(coord);
 					zv.add(z);
 					if(z<zMin[0]){
 						zMin[0]=z;
@@ -474,7 +486,7 @@ public class Iox2fgdb {
 				os.writeDouble(coord.x);
 				os.writeDouble(coord.y);
 				if(zv!=null){
-					double z=coord.z;
+					double z=getZ(coord);
 					zv.add(z);
 					if(z<zMin[0]){
 						zMin[0]=z;
@@ -574,8 +586,8 @@ public class Iox2fgdb {
 		{
 			Coordinate coord=polygons.get(0).getExteriorRing().getStartPoint().getCoordinate();
 			if(outputDimension==3){
-				zMin[0]=coord.z;
-				zMax[0]=coord.z;
+				zMin[0]=getZ(coord);
+				zMax[0]=getZ(coord);
 			}
 		}
 
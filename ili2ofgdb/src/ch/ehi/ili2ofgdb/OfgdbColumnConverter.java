@@ -35,6 +35,8 @@ import java.sql.Types;
 import com.vividsolutions.jts.io.ParseException;
 
 import ch.interlis.iom.IomObject;
+import ch.interlis.iox.IoxException;
+import ch.interlis.iox_j.jts.Iox2jtsException;
 import ch.interlis.iox_j.wkb.Iox2wkb;
 import ch.interlis.iox_j.wkb.Iox2wkbException;
 import net.iharder.Base64;
@@ -48,10 +50,19 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 		return srsid;
 	}
 	private boolean strokeArcs=true;
+	/** write lines and surfaces as Esri shape buffers instead of WKB.
+	 */
+	private boolean shapeGeometry=false;
 	@Override
 	public void setup(Connection conn, Settings config) {
 		super.setup(conn,config);
 		strokeArcs=Config.STROKE_ARCS_ENABLE.equals(Config.getStrokeArcs(config));
+		shapeGeometry=Config.TRUE.equalsIgnoreCase(config.getValue(Config.FGDB_SHAPE_GEOMETRY));
+	}
+	private Iox2fgdb createShapeEncoder(boolean is3D) {
+		Iox2fgdb conv=new Iox2fgdb(is3D?3:2);
+		conv.setNaNZToZero(strokeArcs && is3D);
+		return conv;
 	}
 
 	private byte[] sanitizeStrokeArcs3d(byte[] wkb, boolean is3D) throws ConverterException {
@@ -61,6 +72,33 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 		return OfgdbStrokeZSanitizer.sanitizeNaNZToZero(wkb);
 	}
 
+	/** reads a geometry, that is either WKB or an Esri shape buffer.
+	 */
+	private static IomObject readGeometry(byte[] bv) throws ConverterException {
+		try {
+			if(looksLikeWkb(bv)) {
+				return new OfgdbWkb2iox().read(bv);
+			}
+			return new Ofgdb2iox().read(bv);
+		} catch (ParseException e) {
+			throw new ConverterException(e);
+		} catch (IoxException e) {
+			throw new ConverterException(e);
+		}
+	}
+	static boolean looksLikeWkb(byte[] value) {
+		if(value.length<5) {
+			return false;
+		}
+		int byteOrder=value[0]&0xff;
+		if(byteOrder!=0 && byteOrder!=1) {
+			return false;
+		}
+		int type=java.nio.ByteBuffer.wrap(value,1,4).order(byteOrder==1?java.nio.ByteOrder.LITTLE_ENDIAN:java.nio.ByteOrder.BIG_ENDIAN).getInt();
+		int baseType=(type&0xffff)%1000;
+		return baseType>=1 && baseType<=31;
+	}
+
 	private byte[] asBytes(Object value, String sqlAttrName) throws ConverterException {
 		if(value==null) {
 			return null;
@@ -181,6 +219,15 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 			boolean is3D,double p)
 			throws SQLException, ConverterException {
 				if(value!=null){
+					if(shapeGeometry){
+						try {
+							return createShapeEncoder(is3D).surface2wkb(value,!strokeArcs,p,srsid);
+						} catch (IoxException ex) {
+							throw new ConverterException(ex);
+						} catch (Iox2jtsException ex) {
+							throw new ConverterException(ex);
+						}
+					}
 					Iox2wkb conv=new Iox2wkb(is3D?3:2);
 					try {
 						byte[] wkb=conv.surface2wkb(value,!strokeArcs,p,false);
@@ -199,6 +246,15 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 			boolean is3D,double p)
 			throws SQLException, ConverterException {
 				if(value!=null){
+					if(shapeGeometry){
+						try {
+							return createShapeEncoder(is3D).multisurface2wkb(value,!strokeArcs,p,srsid);
+						} catch (IoxException ex) {
+							throw new ConverterException(ex);
+						} catch (Iox2jtsException ex) {
+							throw new ConverterException(ex);
+						}
+					}
 					Iox2wkb conv=new Iox2wkb(is3D?3:2);
 					try {
 						byte[] wkb=conv.multisurface2wkb(value,!strokeArcs,p,false);
@@ -239,6 +295,15 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 	public java.lang.Object fromIomPolyline(IomObject value, int srsid,boolean is3D,double p)
 			throws SQLException, ConverterException {
 			if(value!=null){
+				if(shapeGeometry){
+					try {
+						return createShapeEncoder(is3D).polyline2wkb(value,false,!strokeArcs,p,srsid);
+					} catch (IoxException ex) {
+						throw new ConverterException(ex);
+					} catch (Iox2jtsException ex) {
+						throw new ConverterException(ex);
+					}
+				}
 				Iox2wkb conv=new Iox2wkb(is3D?3:2);
 				try {
 					byte[] wkb=conv.polyline2wkb(value,false,!strokeArcs,p);
@@ -253,6 +318,15 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 	public java.lang.Object fromIomMultiPolyline(IomObject value, int srsid,boolean is3D,double p)
 			throws SQLException, ConverterException {
 			if(value!=null){
+				if(shapeGeometry){
+					try {
+						return createShapeEncoder(is3D).multiline2wkb(value,!strokeArcs,p,srsid);
+					} catch (IoxException ex) {
+						throw new ConverterException(ex);
+					} catch (Iox2jtsException ex) {
+						throw new ConverterException(ex);
+					}
+				}
 				Iox2wkb conv=new Iox2wkb(is3D?3:2);
 				try {
 					byte[] wkb=conv.multiline2wkb(value,!strokeArcs,p);
@@ -273,12 +347,7 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 				if(bv==null){
 					return null;
 				}
-				OfgdbWkb2iox conv=new OfgdbWkb2iox();
-				try {
-					return conv.read(bv);
-				} catch (ParseException e) {
-					throw new ConverterException(e);
-				}
+				return readGeometry(bv);
 			}
 		@Override
 		public IomObject toIomMultiCoord(
@@ -290,12 +359,7 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 			if(bv==null){
 				return null;
 			}
-			OfgdbWkb2iox conv=new OfgdbWkb2iox();
-			try {
-				return conv.read(bv);
-			} catch (ParseException e) {
-				throw new ConverterException(e);
-			}
+			return readGeometry(bv);
 		}
 		@Override
 			public IomObject toIomSurface(
@@ -307,12 +371,7 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 				if(bv==null){
 					return null;
 				}
-				OfgdbWkb2iox conv=new OfgdbWkb2iox();
-				try {
-					return conv.read(bv);
-				} catch (ParseException e) {
-					throw new ConverterException(e);
-				}
+				return readGeometry(bv);
 			}
 		@Override
 		public IomObject toIomMultiSurface(
@@ -324,12 +383,7 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 			if(bv==null){
 				return null;
 			}
-			OfgdbWkb2iox conv=new OfgdbWkb2iox();
-			try {
-				return conv.read(bv);
-			} catch (ParseException e) {
-				throw new ConverterException(e);
-			}
+			return readGeometry(bv);
 		}
 		@Override
 			public IomObject toIomPolyline(
@@ -341,12 +395,7 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 				if(bv==null){
 					return null;
 				}
-				OfgdbWkb2iox conv=new OfgdbWkb2iox();
-				try {
-					return conv.read(bv);
-				} catch (ParseException e) {
-					throw new ConverterException(e);
-				}
+				return readGeometry(bv);
 			}
 		@Override
 		public IomObject toIomMultiPolyline(
@@ -358,12 +407,7 @@ public class OfgdbColumnConverter extends AbstractWKBColumnConverter {
 			if(bv==null){
 				return null;
 			}
-			OfgdbWkb2iox conv=new OfgdbWkb2iox();
-			try {
-				return conv.read(bv);
-			} catch (ParseException e) {
-				throw new ConverterException(e);
-			}
+			return readGeometry(bv);
 		}
 		@Override
 		public String toIomXml(Object obj) throws java.sql.SQLException,
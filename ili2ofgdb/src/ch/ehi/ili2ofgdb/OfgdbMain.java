@@ -75,6 +75,8 @@ public class OfgdbMain extends ch.ehi.ili2db.AbstractMain {
         // TODO: Braucht es das? Kann m.E. bei uns nicht vorkommen resp. spiel einfach keine Rolle. Gugus.
         //System.err.println("--fgdbIncludeInactiveEnumValues         Include inactive enum values in created domains.");
         System.err.println("--fgdbCreateRelationshipClasses         Create FGDB relationship classes from model links.");
+        System.err.println("--fgdbShapeGeometry                     Write lines and surfaces as Esri shape buffers (with arcs) instead of WKB.");
+        System.err.println("--fgdbCompact                           Compact the tables (remove the space of deleted rows) after the import/update/delete.");
     }
 
     @Override
@@ -101,6 +103,12 @@ public class OfgdbMain extends ch.ehi.ili2db.AbstractMain {
         } else if (isOption(arg, "--fgdbCreateRelationshipClasses")) {
             argi++;
             config.setFgdbCreateRelationshipClasses(parseBooleanArgument(arg));
+        } else if (isOption(arg, "--fgdbShapeGeometry")) {
+            argi++;
+            config.setFgdbShapeGeometry(parseBooleanArgument(arg));
+        } else if (isOption(arg, "--fgdbCompact")) {
+            argi++;
+            config.setFgdbCompact(parseBooleanArgument(arg));
         }
         return argi;
     }
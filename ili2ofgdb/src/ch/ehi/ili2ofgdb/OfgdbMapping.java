@@ -16,6 +16,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import ch.ehi.basics.logging.EhiLogger;
+import ch.ehi.basics.logging.ErrorTracker;
 import ch.ehi.ili2db.base.AbstractJdbcMapping;
 import ch.ehi.ili2db.base.Ili2cUtility;
 import ch.ehi.ili2db.fromxtf.EnumValueMap;
@@ -52,6 +53,8 @@ import ch.interlis.iom_j.itf.ModelUtilities;
 
 public class OfgdbMapping extends AbstractJdbcMapping {
     private final Map<String, DomainDefinition> domains = new LinkedHashMap<String, DomainDefinition>();
+    /** tracks errors of a data import with --fgdbCompact, so that a failed import is not compacted; null if there is nothing to compact. */
+    private ErrorTracker errs = null;
     private final Map<String, DomainAssignment> assignments = new LinkedHashMap<String, DomainAssignment>();
     private final Map<String, RoleLinkDefinition> roleLinks = new LinkedHashMap<String, RoleLinkDefinition>();
     private boolean createDomains = true;
@@ -161,6 +164,45 @@ public class OfgdbMapping extends AbstractJdbcMapping {
 
     @Override
     public void postPostScript(Connection conn, Config config) {
+        createDomainsAndRelationships(conn, config);
+        if (errs == null) {
+            return;
+        }
+        try {
+            if (errs.hasSeenErrors()) {
+                EhiLogger.logState("compact tables skipped; the import failed");
+            } else {
+                compactTables(conn);
+            }
+        } finally {
+            EhiLogger.getInstance().removeListener(errs);
+            errs = null;
+        }
+    }
+
+    /** --fgdbCompact applies only to functions that write data; schema import, export and validation leave the files as they are. */
+    private static boolean isDataWrite(Config config) {
+        int function = config.getFunction();
+        return function == Config.FC_IMPORT || function == Config.FC_UPDATE || function == Config.FC_REPLACE
+                || function == Config.FC_DELETE;
+    }
+
+    private void compactTables(Connection conn) {
+        try {
+            OfgdbConnection ofgdbConn = resolveOfgdbConnection(conn);
+            if (ofgdbConn == null) {
+                EhiLogger.logAdaption("ili2ofgdb: no ofgdb JDBC connection; skip --fgdbCompact");
+                return;
+            }
+            EhiLogger.logState("compact tables...");
+            long reclaimed = ofgdbConn.vacuum(null);
+            EhiLogger.logState("compact tables: " + reclaimed + " bytes reclaimed");
+        } catch (SQLException ex) {
+            throw new IllegalStateException("ili2ofgdb failed to compact the tables", ex);
+        }
+    }
+
+    private void createDomainsAndRelationships(Connection conn, Config config) {
         if ((!createDomains || domains.isEmpty()) && (!createRelationships || roleLinks.isEmpty())) {
             return;
         }
@@ -231,6 +273,14 @@ public class OfgdbMapping extends AbstractJdbcMapping {
     @Override
     public void postConnect(Connection conn, Config config) {
         enforceSingleGeometryPerTable(config);
+        if (errs != null) {
+            EhiLogger.getInstance().removeListener(errs);
+            errs = null;
+        }
+        if (config != null && config.isFgdbCompact() && isDataWrite(config)) {
+            errs = new ErrorTracker();
+            EhiLogger.getInstance().addListener(errs);
+        }
     }
 
     private void enforceSingleGeometryPerTable(Config config) {
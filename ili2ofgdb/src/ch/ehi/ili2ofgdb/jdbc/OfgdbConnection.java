@@ -16,6 +16,7 @@ import java.sql.SQLXML;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -79,6 +80,28 @@ public class OfgdbConnection implements Connection {
         return dbHandle;
     }
 
+    /**
+     * Compacts a table (all tables, if tableName is null) by the REPACK command of the native backend
+     * (rewrites the .gdbtable and .gdbtablx files without the deleted rows).
+     * In a transaction, a rollback restores the files of the transaction snapshot.
+     * @return bytes reclaimed.
+     */
+    public synchronized long vacuum(String tableName) throws SQLException {
+        ensureOpen();
+        Path dbPath = getDbPathAsPath();
+        String command = tableName != null ? "REPACK " + resolveTableName(tableName) : "REPACK";
+        try {
+            long sizeBefore = OfgdbFileSnapshot.sizeOf(dbPath);
+            api.execSql(dbHandle, command);
+            reopenSession();
+            return Math.max(0L, sizeBefore - OfgdbFileSnapshot.sizeOf(dbPath));
+        } catch (OpenFgdbException e) {
+            throw new SQLException("failed to compact " + dbPath + " <" + command + ">", e);
+        } catch (IOException e) {
+            throw new SQLException("failed to compact " + dbPath, e);
+        }
+    }
+
     String getUrl() {
         return url;
     }
@@ -57,6 +57,22 @@ final class OfgdbFileSnapshot {
         }
     }
 
+    /** size of the files of the database in bytes. */
+    static long sizeOf(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            long size = 0L;
+            for (Path file : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(file)) {
+                    size += Files.size(file);
+                }
+            }
+            return size;
+        }
+    }
+
     private static void copyRecursively(Path source, Path target) throws IOException {
         if (Files.isDirectory(source)) {
             Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
@@ -44,6 +44,7 @@ public class OfgdbStatement implements Statement {
             "(?is)^COUNT\\s*\\(\\s*(\\*|1|\"[^\"]+\"|[A-Za-z_][A-Za-z0-9_$]*)\\s*\\)\\s*$");
     private static final Pattern CREATE_TABLE_PATTERN = Pattern.compile("(?is)^\\s*CREATE\\s+TABLE\\s+([A-Za-z0-9_.$\"]+)\\s*\\(.*$");
     private static final Pattern DROP_TABLE_PATTERN = Pattern.compile("(?is)^\\s*DROP\\s+TABLE\\s+([A-Za-z0-9_.$\"]+)\\s*$");
+    private static final Pattern VACUUM_PATTERN = Pattern.compile("(?is)^\\s*VACUUM(?:\\s+([A-Za-z0-9_.$\"]+))?\\s*$");
     private static final Pattern SIMPLE_IDENTIFIER_PATTERN = Pattern.compile("(?i)^\"?[A-Za-z_][A-Za-z0-9_$]*\"?(?:\\.\"?[A-Za-z_][A-Za-z0-9_$]*\"?)*$");
     private static final Pattern QUALIFIED_IDENTIFIER_PATTERN = Pattern.compile(
             "(?:\"([^\"]+)\"|([A-Za-z_][A-Za-z0-9_$]*))\\.(?:\"([^\"]+)\"|([A-Za-z_][A-Za-z0-9_$]*))");
@@ -54,6 +55,7 @@ public class OfgdbStatement implements Statement {
     private boolean closed = false;
     private ResultSet currentResultSet = null;
     private int updateCount = -1;
+    private SQLWarning warnings = null;
     private final List<String> batchedSql = new ArrayList<String>();
 
     protected OfgdbStatement(OfgdbConnection conn) {
@@ -77,8 +79,14 @@ public class OfgdbStatement implements Statement {
             throw new SQLException("empty SQL statement");
         }
         try {
-            conn.getApi().execSql(conn.getDbHandle(), normalizedSql);
-            trackSchemaMutation(normalizedSql);
+            Matcher vacuumMatcher = VACUUM_PATTERN.matcher(normalizedSql);
+            if (vacuumMatcher.matches()) {
+                long reclaimed = conn.vacuum(vacuumMatcher.group(1) != null ? normalizeTableIdentifier(vacuumMatcher.group(1)) : null);
+                addWarning("VACUUM reclaimed " + reclaimed + " bytes");
+            } else {
+                conn.getApi().execSql(conn.getDbHandle(), normalizedSql);
+                trackSchemaMutation(normalizedSql);
+            }
             if (currentResultSet != null) {
                 currentResultSet.close();
                 currentResultSet = null;
@@ -212,11 +220,12 @@ public class OfgdbStatement implements Statement {
 
     @Override
     public SQLWarning getWarnings() {
-        return null;
+        return warnings;
     }
 
     @Override
     public void clearWarnings() {
+        warnings = null;
     }
 
     @Override
@@ -1336,6 +1345,19 @@ public class OfgdbStatement implements Statement {
         }
     }
 
+    private void addWarning(String message) {
+        SQLWarning warning = new SQLWarning(message);
+        if (warnings == null) {
+            warnings = warning;
+            return;
+        }
+        SQLWarning tail = warnings;
+        while (tail.getNextWarning() != null) {
+            tail = tail.getNextWarning();
+        }
+        tail.setNextWarning(warning);
+    }
+
     private void trackSchemaMutation(String sql) {
         if (sql == null) {
             return;
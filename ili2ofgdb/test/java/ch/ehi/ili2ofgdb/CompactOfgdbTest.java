@@ -0,0 +1,167 @@
+package ch.ehi.ili2ofgdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.ehi.basics.logging.EhiLogger;
+import ch.ehi.basics.logging.LogEvent;
+import ch.ehi.ili2db.LogCollector;
+import ch.ehi.ili2db.base.Ili2db;
+import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.ili2db.gui.Config;
+
+public class CompactOfgdbTest {
+    private static final String TEST_OUT = "test/data/Simple/";
+    private static final String TEST_DB_DIR = "build/test-ofgdb";
+    private static final String COMPACTED = "compact tables: ";
+
+    @Test
+    public void vacuumReclaimsDeletedRows() throws Exception {
+        OfgdbTestSetup setup = createSetup("CompactVacuum");
+        try (Connection conn = setup.createConnection();
+                Statement stmt = conn.createStatement()) {
+            createTable(stmt, "t_vac");
+            stmt.executeUpdate("DELETE FROM t_vac WHERE id > 10");
+            stmt.executeUpdate("VACUUM");
+            SQLWarning warning = stmt.getWarnings();
+            assertNotNull(warning);
+            assertTrue(warning.getMessage(), warning.getMessage().startsWith("VACUUM reclaimed "));
+            long reclaimed = Long.parseLong(warning.getMessage().substring("VACUUM reclaimed ".length()).replace(" bytes", ""));
+            assertTrue(reclaimed > 0L);
+            assertEquals(10, readCount(conn, "t_vac"));
+            stmt.clearWarnings();
+            assertNull(stmt.getWarnings());
+        }
+    }
+
+    @Test
+    public void rollbackRestoresVacuumedTable() throws Exception {
+        OfgdbTestSetup setup = createSetup("CompactRollback");
+        try (Connection conn = setup.createConnection();
+                Statement stmt = conn.createStatement()) {
+            createTable(stmt, "t_vac");
+            conn.setAutoCommit(false);
+            stmt.executeUpdate("DELETE FROM t_vac WHERE id > 10");
+            stmt.executeUpdate("VACUUM t_vac");
+            assertEquals(10, readCount(conn, "t_vac"));
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+        try (Connection conn = setup.createConnection()) {
+            assertEquals(50, readCount(conn, "t_vac"));
+        }
+    }
+
+    @Test
+    public void importCompacts() throws Exception {
+        OfgdbTestSetup setup = createSetup("CompactImport");
+        Config config = initImportConfig(setup, "SimpleUnique23a.xtf");
+        List<String> states = run(config, false);
+        assertEquals(1, count(states, COMPACTED));
+        try (Connection conn = setup.createConnection()) {
+            assertEquals(3, readCount(conn, setup.prefixName("classa1")));
+        }
+    }
+
+    @Test
+    public void failedImportIsNotCompacted() throws Exception {
+        OfgdbTestSetup setup = createSetup("CompactFailedImport");
+        // duplicate attr1 values
+        Config config = initImportConfig(setup, "SimpleUnique23b.xtf");
+        config.setValidation(true);
+        List<String> states = run(config, true);
+        assertEquals(0, count(states, COMPACTED));
+        assertEquals(1, count(states, "compact tables skipped"));
+    }
+
+    @Test
+    public void schemaImportIsNotCompacted() throws Exception {
+        OfgdbTestSetup setup = createSetup("CompactSchemaImport");
+        File data = new File(TEST_OUT, "SimpleUnique23.ili");
+        Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_SCHEMAIMPORT);
+        config.setFgdbCompact(true);
+        List<String> states = run(config, false);
+        assertEquals(0, count(states, "compact tables"));
+    }
+
+    private static OfgdbTestSetup createSetup(String dbName) throws Exception {
+        OfgdbTestSetup setup = new OfgdbTestSetup(TEST_DB_DIR + "/" + dbName + ".gdb");
+        setup.resetDb();
+        return setup;
+    }
+
+    private static Config initImportConfig(OfgdbTestSetup setup, String xtfFilename) {
+        File data = new File(TEST_OUT, xtfFilename);
+        Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_IMPORT);
+        config.setDoImplicitSchemaImport(true);
+        config.setFgdbCompact(true);
+        return config;
+    }
+
+    /** runs ili2db and returns the state messages. */
+    private static List<String> run(Config config, boolean expectFailure) throws Exception {
+        LogCollector logCollector = new LogCollector();
+        EhiLogger.getInstance().addListener(logCollector);
+        try {
+            Ili2db.run(config, null);
+            if (expectFailure) {
+                fail();
+            }
+        } catch (Ili2dbException ex) {
+            if (!expectFailure) {
+                throw ex;
+            }
+        } finally {
+            EhiLogger.getInstance().removeListener(logCollector);
+        }
+        List<String> states = new ArrayList<String>();
+        for (LogEvent event : logCollector.getWarn()) {
+            states.add(event.getEventMsg());
+        }
+        return states;
+    }
+
+    private static int count(List<String> states, String prefix) {
+        int ret = 0;
+        for (String state : states) {
+            if (state.startsWith(prefix)) {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    /** creates the table with 50 rows. */
+    private static void createTable(Statement stmt, String tableName) throws Exception {
+        stmt.executeUpdate("CREATE TABLE " + tableName + "(id INTEGER, name VARCHAR)");
+        for (int i = 1; i <= 50; i++) {
+            stmt.executeUpdate("INSERT INTO " + tableName + "(id, name) VALUES (" + i
+                    + ", 'row " + i + " of a table to compact, padded to make the deleted rows count')");
+        }
+    }
+
+    private static int readCount(Connection conn, String tableName) throws Exception {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ch.ehi.ili2ofgdb;
+
+import ch.ehi.ili2db.base.Ili2db;
+import ch.ehi.ili2db.gui.Config;
+import ch.interlis.iom.IomObject;
+import ch.interlis.iom_j.Iom_jObject;
+import ch.interlis.iom_j.xtf.XtfReader;
+import ch.interlis.iox.EndTransferEvent;
+import ch.interlis.iox.IoxEvent;
+import ch.interlis.iox.ObjectEvent;
+import ch.interlis.iox_j.wkb.Iox2wkb;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShapeGeometryOfgdbTest {
+    private static final String TEST_OUT = "test/data/Datatypes23/";
+    private static final String TEST_DB_DIR = "build/test-ofgdb";
+    private static IomObject createPolyline3d() {
+        IomObject polyline = new Iom_jObject(Iom_jObject.POLYLINE, null);
+        IomObject sequence = polyline.addattrobj(Iom_jObject.POLYLINE_SEQUENCE, Iom_jObject.SEGMENTS);
+        IomObject start = sequence.addattrobj(Iom_jObject.SEGMENTS_SEGMENT, Iom_jObject.COORD);
+        start.setattrvalue(Iom_jObject.COORD_C1, "2460000.000");
+        start.setattrvalue(Iom_jObject.COORD_C2, "1045000.000");
+        start.setattrvalue(Iom_jObject.COORD_C3, "300.000");
+        IomObject arc = sequence.addattrobj(Iom_jObject.SEGMENTS_SEGMENT, Iom_jObject.ARC);
+        arc.setattrvalue(Iom_jObject.ARC_A1, "2460005.000");
+        arc.setattrvalue(Iom_jObject.ARC_A2, "1045004.000");
+        arc.setattrvalue(Iom_jObject.COORD_C1, "2460010.000");
+        arc.setattrvalue(Iom_jObject.COORD_C2, "1045000.000");
+        arc.setattrvalue(Iom_jObject.COORD_C3, "300.000");
+        return polyline;
+    }
+
+    @Test
+    public void strokedPolylineHasNoNaNZ() throws Exception {
+        Iox2fgdb conv = new Iox2fgdb(3);
+        conv.setNaNZToZero(true);
+        byte[] shape = conv.polyline2wkb(createPolyline3d(), false, false, 0.001, 2056);
+        assertFalse(OfgdbColumnConverter.looksLikeWkb(shape));
+        IomObject geom = new Ofgdb2iox().read(shape);
+        assertFalse(geom.toString().contains("NaN"));
+        assertFalse(geom.toString().contains("ARC {"));
+    }
+
+    @Test
+    public void polylineKeepsArc() throws Exception {
+        byte[] shape = new Iox2fgdb(3).polyline2wkb(createPolyline3d(), false, true, 0.001, 2056);
+        IomObject geom = new Ofgdb2iox().read(shape);
+        assertTrue(geom.toString().contains("ARC {"));
+        IomObject sequence = geom.getattrobj(Iom_jObject.POLYLINE_SEQUENCE, 0);
+        assertEquals(2, sequence.getattrvaluecount(Iom_jObject.SEGMENTS_SEGMENT));
+    }
+
+    @Test
+    public void looksLikeWkb() throws Exception {
+        assertTrue(OfgdbColumnConverter.looksLikeWkb(new Iox2wkb(3).polyline2wkb(createPolyline3d(), false, false, 0.001)));
+        assertFalse(OfgdbColumnConverter.looksLikeWkb(new Iox2fgdb(2).polyline2wkb(createPolyline3d(), false, false, 0.001, 2056)));
+    }
+
+    /** imports an arc with --fgdbShapeGeometry through the in-tree driver, and exports it again.
+     */
+    @Test
+    public void importExportKeepsArc() throws Exception {
+        OfgdbTestSetup setup = new OfgdbTestSetup(TEST_DB_DIR + "/ShapeGeometry.gdb");
+        setup.resetDb();
+        {
+            File data = new File(TEST_OUT, "Datatypes23Line.xtf");
+            Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+            Ili2db.setNoSmartMapping(config);
+            config.setFunction(Config.FC_IMPORT);
+            config.setDoImplicitSchemaImport(true);
+            config.setTidHandling(Config.TID_HANDLING_PROPERTY);
+            config.setImportTid(true);
+            config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+            config.setFgdbShapeGeometry(true);
+            Ili2db.run(config, null);
+        }
+        try (Connection connection = setup.createConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT straightsarcs2d FROM " + setup.prefixName("line2") + " WHERE t_ili_tid='Line2.1'")) {
+            assertTrue(rs.next());
+            byte[] value = rs.getBytes(1);
+            assertNotNull(value);
+            assertFalse(OfgdbColumnConverter.looksLikeWkb(value));
+            assertArc(new Ofgdb2iox().read(value));
+        }
+        File data = new File(TEST_OUT, "Datatypes23Line-shape-out.xtf");
+        {
+            Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+            config.setFunction(Config.FC_EXPORT);
+            config.setExportTid(true);
+            config.setModels("Datatypes23");
+            Ili2db.readSettingsFromDb(config);
+            Ili2db.run(config, null);
+        }
+        IomObject line = null;
+        XtfReader reader = new XtfReader(data);
+        IoxEvent event = null;
+        do {
+            event = reader.read();
+            if (event instanceof ObjectEvent) {
+                IomObject iomObj = ((ObjectEvent) event).getIomObject();
+                if ("Line2.1".equals(iomObj.getobjectoid())) {
+                    line = iomObj;
+                }
+            }
+        } while (!(event instanceof EndTransferEvent));
+        reader.close();
+        assertNotNull(line);
+        assertArc(line.getattrobj("straightsarcs2d", 0));
+    }
+
+    private static void assertArc(IomObject polyline) {
+        assertNotNull(polyline);
+        IomObject sequence = polyline.getattrobj(Iom_jObject.POLYLINE_SEQUENCE, 0);
+        assertEquals(3, sequence.getattrvaluecount(Iom_jObject.SEGMENTS_SEGMENT));
+        IomObject arc = sequence.getattrobj(Iom_jObject.SEGMENTS_SEGMENT, 1);
+        assertEquals(Iom_jObject.ARC, arc.getobjecttag());
+        assertEquals(2460005.0, Double.parseDouble(arc.getattrvalue(Iom_jObject.ARC_A1)), 0.005);
+        assertEquals(1045004.0, Double.parseDouble(arc.getattrvalue(Iom_jObject.ARC_A2)), 0.005);
+        assertEquals(2460006.0, Double.parseDouble(arc.getattrvalue(Iom_jObject.COORD_C1)), 0.005);
+        assertEquals(1045006.0, Double.parseDouble(arc.getattrvalue(Iom_jObject.COORD_C2)), 0.005);
+    }
+}
@@ -16,59 +16,132 @@ import java.sql.SQLXML;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import ch.ehi.openfgdb4j.OpenFgdb;
 import ch.ehi.openfgdb4j.OpenFgdbException;
 
 public class OfgdbConnection implements Connection {
+    private final OfgdbDatabase database;
     private final OpenFgdb api;
+    /** native lock of the database; guards the native calls, the handles and the transaction state of this connection.
+     */
+    private final Object nativeLock;
     private final String url;
-    private final LinkedHashSet<String> knownTables = new LinkedHashSet<String>();
-    private final OfgdbSchemaCatalog schemaCatalog;
-    private long dbHandle;
+    private final OfgdbSelectPlanCache selectPlanCache = new OfgdbSelectPlanCache(OfgdbSelectPlanCache.DEFAULT_CAPACITY);
+    /** own native handle; 0 while the connection uses the shared handle of the database.
+     */
+    private volatile long dbHandle;
+    private volatile boolean sharedHandle = false;
+    /** the own handle was closed, because another connection restored the files of its snapshot;
+     * the next native call of this connection opens it again.
+     */
+    private volatile boolean stale = false;
+    private boolean readOnly = false;
+    /** opened with readOnly=true; rejects DML/DDL and never takes an own handle or a snapshot.
+     */
+    private final boolean readOnlyMode;
+    /** null, if the statistics are disabled.
+     */
+    private OfgdbConnectionStats stats = null;
     private boolean autoCommit = true;
     private Path txnSnapshotPath = null;
     private boolean closed = false;
+    /** open statements; closed before the native handle of the connection.
+     */
+    private final Set<AutoCloseable> openResources = Collections.newSetFromMap(new IdentityHashMap<AutoCloseable, Boolean>());
 
-    protected OfgdbConnection(OpenFgdb api, long dbHandle, String url) {
-        this.api = api;
+    protected OfgdbConnection(OfgdbDatabase database, long dbHandle, String url) {
+        this(database, dbHandle, url, false);
+    }
+
+    /**
+     * @param dbHandle own handle, or 0 for a read-only connection, that uses the shared handle of the database.
+     */
+    protected OfgdbConnection(OfgdbDatabase database, long dbHandle, String url, boolean readOnlyMode) {
+        this.database = database;
+        this.api = database.getApi();
+        this.nativeLock = database.getNativeLock();
         this.dbHandle = dbHandle;
         this.url = url;
-        this.schemaCatalog = new OfgdbSchemaCatalog(this);
-        refreshKnownTableNames();
+        this.readOnlyMode = readOnlyMode;
+        this.readOnly = readOnlyMode;
+        this.sharedHandle = readOnlyMode;
+        database.registerConnection(this);
+        if (!database.hasKnownTableNames()) {
+            refreshKnownTableNames();
+        }
     }
 
     OpenFgdb getApi() {
         return api;
     }
 
-    long getDbHandle() {
+    Object getNativeLock() {
+        return nativeLock;
+    }
+
+    /** to be called with the native lock held. */
+    long getDbHandle() throws OpenFgdbException {
+        if (sharedHandle) {
+            return database.getSharedHandle();
+        }
+        if (stale) {
+            synchronized (nativeLock) {
+                if (stale) {
+                    dbHandle = api.open(getDbPath());
+                    stale = false;
+                }
+            }
+        }
         return dbHandle;
     }
 
+    OfgdbDatabase getDatabase() {
+        return database;
+    }
+
+    /** called by OfgdbDatabase (with the native lock held) before another connection restores the files of its snapshot.
+     * Closes the own handle and marks it stale; the statements stay open.
+     */
+    void markStale() throws OpenFgdbException {
+        if (!sharedHandle && dbHandle != 0L) {
+            long ownHandle = dbHandle;
+            dbHandle = 0L;
+            stale = true;
+            api.close(ownHandle);
+        }
+    }
+
     void reopenSession() throws SQLException {
-        ensureOpen();
-        String dbPath = getDbPath();
-        try {
-            if (dbHandle != 0L) {
-                api.close(dbHandle);
-            }
-            dbHandle = api.open(dbPath);
-            synchronized (this) {
-                knownTables.clear();
+        synchronized (nativeLock) {
+            ensureOpen();
+            String dbPath = getDbPath();
+            try {
+                // concurrent readers might use the shared handle; then only the caches are refreshed
+                if (!sharedHandle) {
+                    if (dbHandle != 0L) {
+                        api.close(dbHandle);
+                    }
+                    dbHandle = api.open(dbPath);
+                    stale = false;
+                }
+                database.invalidateAll();
+                refreshKnownTableNames();
+            } catch (OpenFgdbException e) {
+                throw new SQLException("failed to reopen openfgdb connection", e);
             }
-            schemaCatalog.invalidateAll();
-            refreshKnownTableNames();
-        } catch (OpenFgdbException e) {
-            throw new SQLException("failed to reopen openfgdb connection", e);
         }
     }
 
@@ -77,31 +150,126 @@ public class OfgdbConnection implements Connection {
         return api;
     }
 
+    /** native calls with the handle must hold the lock of the connection's database, see getNativeLock(). */
     public long getOpenFgdbHandle() throws SQLException {
         ensureOpen();
-        return dbHandle;
+        try {
+            return getDbHandle();
+        } catch (OpenFgdbException e) {
+            throw new SQLException("failed to reopen openfgdb connection", e);
+        }
     }
 
-    String getUrl() {
-        return url;
+    /**
+     * Compacts a table (all tables, if tableName is null) by the REPACK command of the native backend
+     * (rewrites the .gdbtable and .gdbtablx files without the deleted rows).
+     * In a transaction, a rollback restores the files of the transaction snapshot.
+     * @return bytes reclaimed.
+     */
+    public long vacuum(String tableName) throws SQLException {
+        synchronized (nativeLock) {
+            ensureOpen();
+            checkWritable();
+            if (database.getConnectionCount() > 1) {
+                throw new SQLException("VACUUM needs exclusive access to " + getDbPath() + "; other connections are open");
+            }
+            Path dbPath = getDbPathAsPath();
+            String command = tableName != null ? "REPACK " + resolveTableName(tableName) : "REPACK";
+            try {
+                long sizeBefore = OfgdbFileSnapshot.sizeOf(dbPath);
+                api.execSql(getDbHandle(), command);
+                reopenSession();
+                return Math.max(0L, sizeBefore - OfgdbFileSnapshot.sizeOf(dbPath));
+            } catch (OpenFgdbException e) {
+                throw new SQLException("failed to compact " + dbPath + " <" + command + ">", e);
+            } catch (IOException e) {
+                throw new SQLException("failed to compact " + dbPath, e);
+            }
+        }
+    }
+
+    void registerResource(AutoCloseable resource) {
+        synchronized (openResources) {
+            openResources.add(resource);
+        }
+    }
+
+    void unregisterResource(AutoCloseable resource) {
+        synchronized (openResources) {
+            openResources.remove(resource);
+        }
+    }
+
+    int getOpenResourceCount() {
+        synchronized (openResources) {
+            return openResources.size();
+        }
     }
 
-    synchronized void registerTableName(String tableName) {
-        if (tableName != null && !tableName.isEmpty()) {
-            knownTables.add(tableName);
-            schemaCatalog.invalidateTable(tableName);
+    /**
+     * Closes the open statements (with their result sets and native handles).
+     * @return the first failure, or null.
+     */
+    private SQLException closeResources() {
+        List<AutoCloseable> resources;
+        synchronized (openResources) {
+            resources = new ArrayList<AutoCloseable>(openResources);
+            openResources.clear();
+        }
+        SQLException failure = null;
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = e instanceof SQLException ? (SQLException) e : new SQLException("failed to close " + resource, e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
         }
+        return failure;
+    }
+
+    OfgdbSelectPlanCache getSelectPlanCache() {
+        return selectPlanCache;
     }
 
-    synchronized void removeTableName(String tableName) {
-        if (tableName != null) {
-            knownTables.remove(tableName);
-            schemaCatalog.invalidateTable(tableName);
+    void enableStats(OfgdbConnectionStats stats, boolean jmx) {
+        this.stats = stats;
+        if (jmx) {
+            stats.registerMBean(database.getPath());
         }
     }
 
-    synchronized java.util.List<String> getKnownTableNames() {
-        return new ArrayList<String>(knownTables);
+    OfgdbConnectionStats getStats() {
+        return stats;
+    }
+
+    boolean isReadOnlyMode() {
+        return readOnlyMode;
+    }
+
+    void checkWritable() throws SQLException {
+        if (readOnlyMode) {
+            throw new SQLException("connection is read-only (readOnly=true)");
+        }
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    void registerTableName(String tableName) {
+        database.registerTableName(tableName);
+    }
+
+    void removeTableName(String tableName) {
+        database.removeTableName(tableName);
+    }
+
+    java.util.List<String> getKnownTableNames() {
+        return database.getKnownTableNames();
     }
 
     String resolveTableName(String tableName) {
@@ -110,40 +278,22 @@ public class OfgdbConnection implements Connection {
             return tableName;
         }
         List<String> probeCandidates = buildProbeCandidates(probe);
-        String resolved = findKnownTableName(probeCandidates);
+        String resolved = database.findKnownTableName(probeCandidates);
         if (resolved != null) {
             return resolved;
         }
         refreshKnownTableNames();
-        resolved = findKnownTableName(probeCandidates);
+        resolved = database.findKnownTableName(probeCandidates);
         return resolved != null ? resolved : probe;
     }
 
     OfgdbTableSchema getTableSchema(String tableName) throws SQLException {
         ensureOpen();
-        return schemaCatalog.getTableSchema(tableName);
+        return database.getSchemaCatalog().getTableSchema(this, tableName);
     }
 
     void invalidateAllSchemaCache() {
-        schemaCatalog.invalidateAll();
-    }
-
-    private synchronized String findKnownTableName(List<String> probes) {
-        for (String probe : probes) {
-            for (String known : knownTables) {
-                if (known.equals(probe)) {
-                    return known;
-                }
-            }
-        }
-        for (String probe : probes) {
-            for (String known : knownTables) {
-                if (known.equalsIgnoreCase(probe)) {
-                    return known;
-                }
-            }
-        }
-        return null;
+        database.getSchemaCatalog().invalidateAll();
     }
 
     private static List<String> buildProbeCandidates(String probe) {
@@ -212,19 +362,18 @@ public class OfgdbConnection implements Connection {
     }
 
     private String getDbPath() {
-        if (url != null && url.startsWith(OfgdbDriver.BASE_URL)) {
-            return url.substring(OfgdbDriver.BASE_URL.length());
-        }
-        return url;
+        return database.getPath();
     }
 
     private void refreshKnownTableNames() {
-        try {
-            for (String tableName : api.listTableNames(dbHandle)) {
-                registerTableName(tableName);
+        synchronized (nativeLock) {
+            try {
+                for (String tableName : api.listTableNames(getDbHandle())) {
+                    registerTableName(tableName);
+                }
+            } catch (OpenFgdbException ignore) {
+                // Metadata bootstrap should not block connection creation.
             }
-        } catch (OpenFgdbException ignore) {
-            // Metadata bootstrap should not block connection creation.
         }
     }
 
@@ -247,38 +396,47 @@ public class OfgdbConnection implements Connection {
     }
 
     @Override
-    public synchronized void close() throws SQLException {
-        if (closed) {
-            return;
-        }
-        SQLException failure = null;
-        if (!autoCommit) {
-            try {
-                rollbackInternal(false);
-            } catch (SQLException e) {
-                failure = e;
+    public void close() throws SQLException {
+        synchronized (nativeLock) {
+            if (closed) {
+                return;
             }
-        }
-        try {
-            if (dbHandle != 0L) {
-                api.close(dbHandle);
+            SQLException failure = closeResources();
+            if (!autoCommit) {
+                try {
+                    rollbackInternal(false);
+                } catch (SQLException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            try {
+                releaseHandle();
+            } catch (OpenFgdbException e) {
+                SQLException closeFailure = new SQLException("failed to close openfgdb connection", e);
+                if (failure != null) {
+                    closeFailure.addSuppressed(failure);
+                }
+                failure = closeFailure;
+            } finally {
+                dbHandle = 0L;
+                sharedHandle = false;
+                selectPlanCache.clear();
+                if (stats != null) {
+                    stats.unregisterMBean();
+                }
+                autoCommit = true;
+                cleanupSnapshotQuietly();
+                closed = true;
+                database.unregisterConnection(this);
+                OfgdbDriver.releaseDatabase(database);
             }
-        } catch (OpenFgdbException e) {
-            SQLException closeFailure = new SQLException("failed to close openfgdb connection", e);
             if (failure != null) {
-                closeFailure.addSuppressed(failure);
+                throw failure;
             }
-            failure = closeFailure;
-        } finally {
-            dbHandle = 0L;
-            knownTables.clear();
-            schemaCatalog.invalidateAll();
-            autoCommit = true;
-            cleanupSnapshotQuietly();
-            closed = true;
-        }
-        if (failure != null) {
-            throw failure;
         }
     }
 
@@ -288,18 +446,30 @@ public class OfgdbConnection implements Connection {
     }
 
     @Override
-    public synchronized void commit() throws SQLException {
-        ensureOpen();
-        if (autoCommit) {
-            return;
+    public void commit() throws SQLException {
+        synchronized (nativeLock) {
+            ensureOpen();
+            if (autoCommit) {
+                return;
+            }
+            if (readOnlyMode) {
+                autoCommit = true;
+                return;
+            }
+            cleanupSnapshot();
+            autoCommit = true;
+            database.endTransaction(this);
+            if (readOnly) {
+                switchHandle(true);
+            }
         }
-        cleanupSnapshot();
-        autoCommit = true;
     }
 
     @Override
-    public synchronized void rollback() throws SQLException {
-        rollbackInternal(true);
+    public void rollback() throws SQLException {
+        synchronized (nativeLock) {
+            rollbackInternal(true);
+        }
     }
 
     @Override
@@ -308,23 +478,40 @@ public class OfgdbConnection implements Connection {
     }
 
     @Override
-    public synchronized void setAutoCommit(boolean autoCommit) throws SQLException {
-        ensureOpen();
-        if (this.autoCommit == autoCommit) {
-            return;
-        }
-        if (!autoCommit) {
-            beginSnapshotTransaction();
-            this.autoCommit = false;
-            return;
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        synchronized (nativeLock) {
+            ensureOpen();
+            if (this.autoCommit == autoCommit) {
+                return;
+            }
+            if (!autoCommit && readOnlyMode) {
+                // nothing to roll back
+                this.autoCommit = false;
+                return;
+            }
+            if (!autoCommit) {
+                // a rollback closes and restores the files, so a transaction needs an own handle
+                database.beginTransaction(this);
+                try {
+                    switchHandle(false);
+                    beginSnapshotTransaction();
+                } catch (SQLException e) {
+                    database.endTransaction(this);
+                    throw e;
+                }
+                this.autoCommit = false;
+                return;
+            }
+            commit();
         }
-        commit();
     }
 
     @Override
-    public synchronized boolean getAutoCommit() throws SQLException {
-        ensureOpen();
-        return autoCommit;
+    public boolean getAutoCommit() throws SQLException {
+        synchronized (nativeLock) {
+            ensureOpen();
+            return autoCommit;
+        }
     }
 
     @Override
@@ -361,11 +548,29 @@ public class OfgdbConnection implements Connection {
 
     @Override
     public boolean isReadOnly() {
-        return false;
+        synchronized (nativeLock) {
+            return readOnly;
+        }
     }
 
+    /** a read-only connection in auto-commit mode uses the native handle, that is shared by the
+     * read-only connections to the same database.
+     */
     @Override
-    public void setReadOnly(boolean readOnly) {
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        synchronized (nativeLock) {
+            ensureOpen();
+            if (this.readOnly == readOnly) {
+                return;
+            }
+            if (readOnlyMode) {
+                throw new SQLException("connection was opened with readOnly=true");
+            }
+            this.readOnly = readOnly;
+            if (autoCommit) {
+                switchHandle(readOnly);
+            }
+        }
     }
 
     @Override
@@ -541,6 +746,12 @@ public class OfgdbConnection implements Connection {
             ensureOpen();
             return iface.cast(api);
         }
+        if (iface == OfgdbStats.class) {
+            if (stats == null) {
+                throw new SQLException("statistics are not enabled (connection property stats=true)");
+            }
+            return iface.cast(stats);
+        }
         throw new SQLException("not a wrapper for " + iface.getName());
     }
 
@@ -549,7 +760,8 @@ public class OfgdbConnection implements Connection {
         if (iface == null) {
             return false;
         }
-        return iface.isAssignableFrom(getClass()) || iface.isAssignableFrom(OpenFgdb.class);
+        return iface.isAssignableFrom(getClass()) || iface.isAssignableFrom(OpenFgdb.class)
+                || (iface == OfgdbStats.class && stats != null);
     }
 
     private void ensureOpen() throws SQLException {
@@ -558,6 +770,42 @@ public class OfgdbConnection implements Connection {
         }
     }
 
+    private void switchHandle(boolean shared) throws SQLException {
+        if (sharedHandle == shared) {
+            return;
+        }
+        try {
+            if (shared) {
+                database.acquireSharedHandle();
+                sharedHandle = true;
+                stale = false;
+                if (dbHandle != 0L) {
+                    long ownHandle = dbHandle;
+                    dbHandle = 0L;
+                    api.close(ownHandle);
+                }
+            } else {
+                dbHandle = database.openHandle();
+                sharedHandle = false;
+                database.releaseSharedHandle();
+            }
+        } catch (OpenFgdbException e) {
+            throw new SQLException("failed to switch openfgdb handle", e);
+        }
+    }
+
+    private void releaseHandle() throws OpenFgdbException {
+        stale = false;
+        if (sharedHandle) {
+            sharedHandle = false;
+            database.releaseSharedHandle();
+        } else if (dbHandle != 0L) {
+            long ownHandle = dbHandle;
+            dbHandle = 0L;
+            api.close(ownHandle);
+        }
+    }
+
     private Path getDbPathAsPath() {
         return Paths.get(getDbPath()).toAbsolutePath().normalize();
     }
@@ -566,7 +814,11 @@ public class OfgdbConnection implements Connection {
         Path dbPath = getDbPathAsPath();
         Path snapshotPath = OfgdbFileSnapshot.buildSnapshotPath(dbPath);
         try {
+            long start = stats != null ? System.nanoTime() : 0L;
             OfgdbFileSnapshot.createSnapshot(dbPath, snapshotPath);
+            if (stats != null) {
+                stats.addSnapshot(System.nanoTime() - start);
+            }
             txnSnapshotPath = snapshotPath;
         } catch (Exception e) {
             throw new SQLException("failed to create transaction snapshot for " + dbPath, e);
@@ -578,6 +830,10 @@ public class OfgdbConnection implements Connection {
         if (autoCommit) {
             return;
         }
+        if (readOnlyMode) {
+            autoCommit = true;
+            return;
+        }
         if (txnSnapshotPath == null) {
             throw new SQLException("transaction snapshot is missing");
         }
@@ -587,18 +843,20 @@ public class OfgdbConnection implements Connection {
                 api.close(dbHandle);
                 dbHandle = 0L;
             }
-            OfgdbFileSnapshot.restoreSnapshot(txnSnapshotPath, dbPath);
+            database.restoreSnapshot(this, txnSnapshotPath, dbPath);
+            // the other connections share the caches
+            database.invalidateAll();
             if (reopenAfterRestore) {
                 dbHandle = api.open(dbPath.toString());
-                synchronized (this) {
-                    knownTables.clear();
-                }
-                schemaCatalog.invalidateAll();
                 refreshKnownTableNames();
             }
             OfgdbFileSnapshot.deleteRecursively(txnSnapshotPath);
             txnSnapshotPath = null;
             autoCommit = true;
+            database.endTransaction(this);
+            if (reopenAfterRestore && readOnly) {
+                switchHandle(true);
+            }
         } catch (Exception e) {
             throw new SQLException("failed to rollback openfgdb transaction snapshot", e);
         }
@@ -0,0 +1,217 @@
+package ch.ehi.ofgdb.jdbc;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import ch.ehi.basics.logging.EhiLogger;
+
+final class OfgdbConnectionStats implements OfgdbStats {
+    static final String PROP_STATS = "stats";
+    static final String PROP_JMX = "jmx";
+    static final String PROP_SLOW_QUERY_MILLIS = "slowQueryMillis";
+    private static final AtomicLong connectionSeq = new AtomicLong();
+
+    private final LongAdder statementCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder planNanos = new LongAdder();
+    private final LongAdder scanNanos = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder normalizeNanos = new LongAdder();
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final LongAdder nativeCalls = new LongAdder();
+    private final LongAdder geometryBytes = new LongAdder();
+    private final LongAdder snapshotCount = new LongAdder();
+    private final LongAdder snapshotNanos = new LongAdder();
+    private final LongAdder schemaCacheHits = new LongAdder();
+    private final LongAdder schemaCacheMisses = new LongAdder();
+    private volatile long slowQueryMillis;
+    private ObjectName mbeanName = null;
+
+    OfgdbConnectionStats(long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    void record(String sql, OfgdbQueryMetrics metrics, long rows) {
+        long nanos = System.nanoTime() - metrics.startNanos;
+        statementCount.increment();
+        totalNanos.add(nanos);
+        parseNanos.add(metrics.parseNanos);
+        planNanos.add(metrics.planNanos);
+        scanNanos.add(metrics.scanNanos);
+        decodeNanos.add(metrics.decodeNanos);
+        rowsScanned.add(metrics.rowsScanned);
+        if (rows > 0) {
+            rowsReturned.add(rows);
+        }
+        nativeCalls.add(metrics.nativeCalls);
+        long threshold = slowQueryMillis;
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (threshold > 0 && millis >= threshold) {
+            EhiLogger.logState("ofgdb slow query " + millis + " ms (parse " + toMillis(metrics.parseNanos)
+                    + ", plan " + toMillis(metrics.planNanos)
+                    + ", scan " + toMillis(metrics.scanNanos)
+                    + ", decode " + toMillis(metrics.decodeNanos)
+                    + "; rows scanned " + metrics.rowsScanned + ", returned " + rows
+                    + "; native calls " + metrics.nativeCalls + "): " + sql);
+        }
+    }
+
+    void addNormalize(long nanos, long bytes) {
+        normalizeNanos.add(nanos);
+        geometryBytes.add(bytes);
+    }
+
+    void addSnapshot(long nanos) {
+        snapshotCount.increment();
+        snapshotNanos.add(nanos);
+    }
+
+    void addSchemaCacheHit() {
+        schemaCacheHits.increment();
+    }
+
+    void addSchemaCacheMiss() {
+        schemaCacheMisses.increment();
+    }
+
+    void registerMBean(String dbPath) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("ch.ehi.ofgdb.jdbc:type=OfgdbConnection,id=" + connectionSeq.incrementAndGet()
+                    + ",database=" + ObjectName.quote(dbPath));
+            server.registerMBean(new StandardMBean(this, OfgdbStats.class), name);
+            mbeanName = name;
+        } catch (JMException e) {
+            EhiLogger.logAdaption("failed to register ofgdb connection MBean; ignored (" + e.getMessage() + ")");
+        }
+    }
+
+    void unregisterMBean() {
+        if (mbeanName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (JMException ignore) {
+            // already unregistered
+        } finally {
+            mbeanName = null;
+        }
+    }
+
+    ObjectName getMBeanName() {
+        return mbeanName;
+    }
+
+    private static long toMillis(LongAdder nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public long getStatementCount() {
+        return statementCount.sum();
+    }
+
+    @Override
+    public long getTotalMillis() {
+        return toMillis(totalNanos);
+    }
+
+    @Override
+    public long getParseMillis() {
+        return toMillis(parseNanos);
+    }
+
+    @Override
+    public long getPlanMillis() {
+        return toMillis(planNanos);
+    }
+
+    @Override
+    public long getNativeScanMillis() {
+        return toMillis(scanNanos);
+    }
+
+    @Override
+    public long getDecodeMillis() {
+        return toMillis(decodeNanos);
+    }
+
+    @Override
+    public long getNormalizeMillis() {
+        return toMillis(normalizeNanos);
+    }
+
+    @Override
+    public long getRowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    @Override
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    @Override
+    public long getNativeCallCount() {
+        return nativeCalls.sum();
+    }
+
+    @Override
+    public long getGeometryBytesDecoded() {
+        return geometryBytes.sum();
+    }
+
+    @Override
+    public long getSnapshotCount() {
+        return snapshotCount.sum();
+    }
+
+    @Override
+    public long getSnapshotMillis() {
+        return toMillis(snapshotNanos);
+    }
+
+    @Override
+    public long getSchemaCacheHits() {
+        return schemaCacheHits.sum();
+    }
+
+    @Override
+    public long getSchemaCacheMisses() {
+        return schemaCacheMisses.sum();
+    }
+
+    @Override
+    public long getSlowQueryMillis() {
+        return slowQueryMillis;
+    }
+
+    @Override
+    public void setSlowQueryMillis(long millis) {
+        slowQueryMillis = millis;
+    }
+
+    @Override
+    public void reset() {
+        LongAdder[] counters = { statementCount, totalNanos, parseNanos, planNanos, scanNanos, decodeNanos,
+                normalizeNanos, rowsScanned, rowsReturned, nativeCalls, geometryBytes, snapshotCount, snapshotNanos,
+                schemaCacheHits, schemaCacheMisses };
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package ch.ehi.ofgdb.jdbc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import ch.ehi.openfgdb4j.OpenFgdb;
+import ch.ehi.openfgdb4j.OpenFgdbException;
+
+/**
+ * A database opened by the driver, shared by all connections to the same File Geodatabase.
+ * It holds the table name and schema caches of the connections, and the native handle
+ * that is shared by the read-only connections.
+ * The native library (GDAL/OpenFileGDB) does not allow concurrent use of a dataset handle, so all native calls
+ * on the handles of the database (shared or own) are serialized by the native lock. The native lock is taken
+ * before the lock of the database or of the schema catalog.
+ * A rollback restores the files of the transaction snapshot; so there is at most one transaction
+ * per database, and the native handles of all connections are closed while the files are replaced.
+ */
+final class OfgdbDatabase {
+    private final String path;
+    private final OpenFgdb api = new OpenFgdb();
+    private final Object nativeLock = new Object();
+    private final LinkedHashSet<String> knownTables = new LinkedHashSet<String>();
+    private final OfgdbSchemaCatalog schemaCatalog = new OfgdbSchemaCatalog();
+    private int connectionCount = 0;
+    /** volatile, so that the handle can be read without the database lock (native calls with it hold the native lock).
+     */
+    private volatile long sharedHandle = 0L;
+    private int sharedHandleCount = 0;
+    private final Set<OfgdbConnection> connections = Collections.newSetFromMap(new IdentityHashMap<OfgdbConnection, Boolean>());
+    /** connection with an open transaction; null if there is none.
+     */
+    private OfgdbConnection transactionOwner = null;
+
+    OfgdbDatabase(String path) {
+        this.path = path;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    OpenFgdb getApi() {
+        return api;
+    }
+
+    /** lock of all native calls on the handles of this database; also guards the handles and the transaction state
+     * of the connections.
+     */
+    Object getNativeLock() {
+        return nativeLock;
+    }
+
+    OfgdbSchemaCatalog getSchemaCatalog() {
+        return schemaCatalog;
+    }
+
+    synchronized void addConnection() {
+        connectionCount++;
+    }
+
+    /**
+     * @return true, if this was the last connection.
+     */
+    synchronized boolean removeConnection() {
+        connectionCount--;
+        return connectionCount <= 0;
+    }
+
+    synchronized int getConnectionCount() {
+        return connectionCount;
+    }
+
+    synchronized void registerConnection(OfgdbConnection conn) {
+        connections.add(conn);
+    }
+
+    synchronized void unregisterConnection(OfgdbConnection conn) {
+        connections.remove(conn);
+        if (transactionOwner == conn) {
+            transactionOwner = null;
+        }
+    }
+
+    synchronized void beginTransaction(OfgdbConnection conn) throws SQLException {
+        if (transactionOwner != null && transactionOwner != conn) {
+            throw new SQLException("another connection has an open transaction on " + path);
+        }
+        transactionOwner = conn;
+    }
+
+    synchronized void endTransaction(OfgdbConnection conn) {
+        if (transactionOwner == conn) {
+            transactionOwner = null;
+        }
+    }
+
+    /**
+     * Restores the files of the transaction snapshot of a connection, that already closed its own handle.
+     * Called with the native lock held, so no native call of another connection is running, and their statements
+     * hold no native handles between executions. The own handles of the other connections are closed and
+     * marked stale (each connection opens its handle again with its next native call); the shared handle is
+     * closed before the files are replaced and opened again afterwards.
+     */
+    void restoreSnapshot(OfgdbConnection owner, Path snapshotPath, Path dbPath) throws IOException, OpenFgdbException {
+        synchronized (nativeLock) {
+            synchronized (this) {
+                try {
+                    for (OfgdbConnection conn : connections) {
+                        if (conn != owner) {
+                            conn.markStale();
+                        }
+                    }
+                    if (sharedHandle != 0L) {
+                        long handle = sharedHandle;
+                        sharedHandle = 0L;
+                        api.close(handle);
+                    }
+                    OfgdbFileSnapshot.restoreSnapshot(snapshotPath, dbPath);
+                } finally {
+                    if (sharedHandleCount > 0 && sharedHandle == 0L) {
+                        sharedHandle = openHandle();
+                    }
+                }
+            }
+        }
+    }
+
+    /** opens a native handle, that is owned by the caller.
+     */
+    long openHandle() throws OpenFgdbException {
+        synchronized (nativeLock) {
+            return new File(path).exists() ? api.open(path) : api.create(path);
+        }
+    }
+
+    long acquireSharedHandle() throws OpenFgdbException {
+        synchronized (nativeLock) {
+            synchronized (this) {
+                if (sharedHandle == 0L) {
+                    sharedHandle = openHandle();
+                }
+                sharedHandleCount++;
+                return sharedHandle;
+            }
+        }
+    }
+
+    long getSharedHandle() {
+        return sharedHandle;
+    }
+
+    void releaseSharedHandle() throws OpenFgdbException {
+        synchronized (nativeLock) {
+            synchronized (this) {
+                if (sharedHandleCount <= 0) {
+                    return;
+                }
+                sharedHandleCount--;
+                if (sharedHandleCount == 0 && sharedHandle != 0L) {
+                    long handle = sharedHandle;
+                    sharedHandle = 0L;
+                    api.close(handle);
+                }
+            }
+        }
+    }
+
+    synchronized int getSharedHandleCount() {
+        return sharedHandleCount;
+    }
+
+    // the schema catalog calls back into findKnownTableName(), so it is never invalidated while holding this lock
+    void registerTableName(String tableName) {
+        if (tableName != null && !tableName.isEmpty()) {
+            synchronized (this) {
+                knownTables.add(tableName);
+            }
+            schemaCatalog.invalidateTable(tableName);
+        }
+    }
+
+    void removeTableName(String tableName) {
+        if (tableName != null) {
+            synchronized (this) {
+                knownTables.remove(tableName);
+            }
+            schemaCatalog.invalidateTable(tableName);
+        }
+    }
+
+    synchronized boolean hasKnownTableNames() {
+        return !knownTables.isEmpty();
+    }
+
+    synchronized List<String> getKnownTableNames() {
+        return new ArrayList<String>(knownTables);
+    }
+
+    synchronized String findKnownTableName(List<String> probes) {
+        for (String probe : probes) {
+            for (String known : knownTables) {
+                if (known.equals(probe)) {
+                    return known;
+                }
+            }
+        }
+        for (String probe : probes) {
+            for (String known : knownTables) {
+                if (known.equalsIgnoreCase(probe)) {
+                    return known;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** drops the cached table names and schemas, e.g. after a rollback of any connection.
+     */
+    void invalidateAll() {
+        synchronized (this) {
+            knownTables.clear();
+        }
+        schemaCatalog.invalidateAll();
+    }
+}
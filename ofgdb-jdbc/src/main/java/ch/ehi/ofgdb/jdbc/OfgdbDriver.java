@@ -1,20 +1,28 @@
 package ch.ehi.ofgdb.jdbc;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.logging.Logger;
 
-import ch.ehi.openfgdb4j.OpenFgdb;
 import ch.ehi.openfgdb4j.OpenFgdbException;
 
 public class OfgdbDriver implements Driver {
     public static final String BASE_URL = "jdbc:ofgdb:";
+    /** connection property (or URL parameter, e.g. jdbc:ofgdb:/data/av.gdb?readOnly=true) to open a read-only connection.
+     */
+    public static final String PROP_READ_ONLY = "readOnly";
+    /** open databases, by canonical path.
+     */
+    private static final Map<String, OfgdbDatabase> databases = new HashMap<String, OfgdbDatabase>();
 
     static {
         try {
@@ -35,13 +43,102 @@ public class OfgdbDriver implements Driver {
             return null;
         }
         String dbPath = url.substring(BASE_URL.length());
-        OpenFgdb api = new OpenFgdb();
+        Properties props = new Properties();
+        if (info != null) {
+            props.putAll(info);
+        }
+        int paramsIdx = dbPath.indexOf('?');
+        if (paramsIdx >= 0) {
+            parseUrlParameters(dbPath.substring(paramsIdx + 1), props);
+            dbPath = dbPath.substring(0, paramsIdx);
+        }
+        boolean readOnly = Boolean.parseBoolean(props.getProperty(PROP_READ_ONLY));
+        File file = new File(dbPath);
+        if (readOnly && !file.exists()) {
+            throw new SQLException("openfgdb database " + file + " does not exist (readOnly=true)");
+        }
+        OfgdbConnectionStats stats = createStats(props);
+        OfgdbDatabase database = acquireDatabase(file);
         try {
-            File file = new File(dbPath);
-            long dbHandle = file.exists() ? api.open(file.getAbsolutePath()) : api.create(file.getAbsolutePath());
-            return new OfgdbConnection(api, dbHandle, url);
+            OfgdbConnection conn;
+            if (readOnly) {
+                database.acquireSharedHandle();
+                conn = new OfgdbConnection(database, 0L, url, true);
+            } else {
+                long dbHandle = database.openHandle();
+                conn = new OfgdbConnection(database, dbHandle, url);
+            }
+            if (stats != null) {
+                conn.enableStats(stats, Boolean.parseBoolean(props.getProperty(OfgdbConnectionStats.PROP_JMX)));
+            }
+            return conn;
         } catch (OpenFgdbException e) {
+            releaseDatabase(database);
             throw new SQLException("failed to open/create openfgdb database", e);
+        } catch (RuntimeException e) {
+            releaseDatabase(database);
+            throw e;
+        }
+    }
+
+    private static OfgdbConnectionStats createStats(Properties props) throws SQLException {
+        long slowQueryMillis = 0L;
+        String slowQuery = props.getProperty(OfgdbConnectionStats.PROP_SLOW_QUERY_MILLIS);
+        if (slowQuery != null && !slowQuery.trim().isEmpty()) {
+            try {
+                slowQueryMillis = Long.parseLong(slowQuery.trim());
+            } catch (NumberFormatException e) {
+                throw new SQLException("invalid " + OfgdbConnectionStats.PROP_SLOW_QUERY_MILLIS + " <" + slowQuery + ">", e);
+            }
+        }
+        if (slowQueryMillis > 0
+                || Boolean.parseBoolean(props.getProperty(OfgdbConnectionStats.PROP_STATS))
+                || Boolean.parseBoolean(props.getProperty(OfgdbConnectionStats.PROP_JMX))) {
+            return new OfgdbConnectionStats(slowQueryMillis);
+        }
+        return null;
+    }
+
+    static void parseUrlParameters(String params, Properties props) {
+        for (String param : params.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq > 0) {
+                props.setProperty(param.substring(0, eq).trim(), param.substring(eq + 1).trim());
+            } else if (!param.trim().isEmpty()) {
+                props.setProperty(param.trim(), "true");
+            }
+        }
+    }
+
+    static OfgdbDatabase acquireDatabase(File file) throws SQLException {
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (IOException e) {
+            throw new SQLException("failed to resolve path of openfgdb database " + file, e);
+        }
+        synchronized (databases) {
+            OfgdbDatabase database = databases.get(path);
+            if (database == null) {
+                database = new OfgdbDatabase(path);
+                databases.put(path, database);
+            }
+            database.addConnection();
+            return database;
+        }
+    }
+
+    static void releaseDatabase(OfgdbDatabase database) {
+        synchronized (databases) {
+            if (database.removeConnection() && databases.get(database.getPath()) == database) {
+                databases.remove(database.getPath());
+            }
+        }
+    }
+
+    static int getOpenDatabaseCount() {
+        synchronized (databases) {
+            return databases.size();
         }
     }
 
@@ -60,7 +157,18 @@ public class OfgdbDriver implements Driver {
         DriverPropertyInfo dbPath = new DriverPropertyInfo("dbPath", null);
         dbPath.description = "Path to the File Geodatabase folder";
         dbPath.required = true;
-        return new DriverPropertyInfo[] { dbPath };
+        DriverPropertyInfo readOnly = new DriverPropertyInfo(PROP_READ_ONLY, "false");
+        readOnly.description = "Open a read-only connection, that shares the native handle with the other read-only connections";
+        readOnly.choices = new String[] { "true", "false" };
+        DriverPropertyInfo stats = new DriverPropertyInfo(OfgdbConnectionStats.PROP_STATS, "false");
+        stats.description = "Collect statement statistics (Connection.unwrap(OfgdbStats.class))";
+        stats.choices = new String[] { "true", "false" };
+        DriverPropertyInfo jmx = new DriverPropertyInfo(OfgdbConnectionStats.PROP_JMX, "false");
+        jmx.description = "Collect statement statistics and register them as JMX MBean";
+        jmx.choices = new String[] { "true", "false" };
+        DriverPropertyInfo slowQuery = new DriverPropertyInfo(OfgdbConnectionStats.PROP_SLOW_QUERY_MILLIS, "0");
+        slowQuery.description = "Log statements, that take at least the given milliseconds";
+        return new DriverPropertyInfo[] { dbPath, readOnly, stats, jmx, slowQuery };
     }
 
     @Override
@@ -0,0 +1,60 @@
+package ch.ehi.ofgdb.jdbc;
+
+import ch.ehi.basics.logging.EhiLogger;
+
+/**
+ * Raw geometry bytes of a fetched row, normalized to WKB only when the column is read.
+ * The normalized value is kept, so that a second read does not decode again.
+ * It does not refer to the statement, because it is read after the statement was closed or executed again.
+ * Every access to the value (result set, predicates, comparisons, keys) materializes it first; toString()
+ * is the default of Object.
+ */
+final class OfgdbLazyGeometry {
+    private final OfgdbGeometryNormalizer normalizer;
+    /** null, if the connection has no stats. */
+    private final OfgdbConnectionStats stats;
+    private final String column;
+    private byte[] raw;
+    private byte[] normalized;
+
+    OfgdbLazyGeometry(OfgdbGeometryNormalizer normalizer, OfgdbConnectionStats stats, String column, byte[] raw) {
+        this.normalizer = normalizer;
+        this.stats = stats;
+        this.column = column;
+        this.raw = raw;
+    }
+
+    synchronized byte[] get() {
+        if (raw != null) {
+            normalized = normalize(raw);
+            raw = null;
+        }
+        return normalized;
+    }
+
+    private byte[] normalize(byte[] value) {
+        // normalized after the execution, so the time is added to the connection directly
+        long start = stats != null ? System.nanoTime() : 0L;
+        try {
+            return normalizer.normalizeToWkb(value);
+        } catch (Exception ex) {
+            EhiLogger.logAdaption("geometry normalization failed for column <" + column + ">; raw value used (" + ex.getMessage() + ")");
+            return value;
+        } finally {
+            if (stats != null) {
+                stats.addNormalize(System.nanoTime() - start, value.length);
+            }
+        }
+    }
+
+    synchronized boolean isMaterialized() {
+        return raw == null;
+    }
+
+    static Object materialize(Object value) {
+        if (value instanceof OfgdbLazyGeometry) {
+            return ((OfgdbLazyGeometry) value).get();
+        }
+        return value;
+    }
+}
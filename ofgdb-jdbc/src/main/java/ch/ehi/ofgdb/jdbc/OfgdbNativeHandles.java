@@ -0,0 +1,165 @@
+package ch.ehi.ofgdb.jdbc;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import ch.ehi.openfgdb4j.OpenFgdb;
+import ch.ehi.openfgdb4j.OpenFgdbException;
+
+/**
+ * Native table, cursor and row handles opened by one statement.
+ * Every handle is registered when it is opened and removed when it is closed, so that
+ * closeAll() (Statement.close(), Connection.close()) releases whatever an interrupted
+ * execution left open, rows before cursors before tables.
+ * Handles are mostly closed in reverse order of opening; the lookup starts at the top.
+ * After closeAll() no new handle can be opened, so that an execution running on another thread
+ * fails instead of using the released handles.
+ */
+final class OfgdbNativeHandles {
+    private static final byte TABLE = 1;
+    private static final byte CURSOR = 2;
+    private static final byte ROW = 3;
+
+    private final OpenFgdb api;
+    private long[] handles = new long[8];
+    /** db handle of a table handle; 0 for cursors and rows. */
+    private long[] dbHandles = new long[8];
+    private byte[] kinds = new byte[8];
+    private int size = 0;
+    private boolean released = false;
+
+    OfgdbNativeHandles(OpenFgdb api) {
+        this.api = api;
+    }
+
+    synchronized long openTable(long dbHandle, String tableName) throws OpenFgdbException, SQLException {
+        checkNotReleased();
+        long tableHandle = api.openTable(dbHandle, tableName);
+        push(tableHandle, dbHandle, TABLE);
+        return tableHandle;
+    }
+
+    synchronized long search(long tableHandle, String fieldSpec, String where) throws OpenFgdbException, SQLException {
+        checkNotReleased();
+        long cursorHandle = api.search(tableHandle, fieldSpec, where);
+        push(cursorHandle, 0L, CURSOR);
+        return cursorHandle;
+    }
+
+    /** @return 0 at the end of the cursor. */
+    synchronized long fetchRow(long cursorHandle) throws OpenFgdbException, SQLException {
+        checkNotReleased();
+        long rowHandle = api.fetchRow(cursorHandle);
+        if (rowHandle != 0L) {
+            push(rowHandle, 0L, ROW);
+        }
+        return rowHandle;
+    }
+
+    synchronized void closeRow(long rowHandle) throws OpenFgdbException {
+        if (remove(rowHandle, ROW)) {
+            api.closeRow(rowHandle);
+        }
+    }
+
+    synchronized void closeCursor(long cursorHandle) throws OpenFgdbException {
+        if (remove(cursorHandle, CURSOR)) {
+            api.closeCursor(cursorHandle);
+        }
+    }
+
+    synchronized void closeTable(long tableHandle) throws OpenFgdbException {
+        int idx = indexOf(tableHandle, TABLE);
+        if (idx >= 0) {
+            long dbHandle = dbHandles[idx];
+            removeAt(idx);
+            api.closeTable(dbHandle, tableHandle);
+        }
+    }
+
+    synchronized int getOpenCount() {
+        return size;
+    }
+
+    /**
+     * Closes all open handles.
+     */
+    synchronized void closeAll() throws SQLException {
+        released = true;
+        SQLException failure = null;
+        for (byte kind = ROW; kind >= TABLE; kind--) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (kinds[i] != kind) {
+                    continue;
+                }
+                long handle = handles[i];
+                long dbHandle = dbHandles[i];
+                removeAt(i);
+                try {
+                    if (kind == ROW) {
+                        api.closeRow(handle);
+                    } else if (kind == CURSOR) {
+                        api.closeCursor(handle);
+                    } else {
+                        api.closeTable(dbHandle, handle);
+                    }
+                } catch (OpenFgdbException e) {
+                    if (failure == null) {
+                        failure = new SQLException("failed to release native handles", e);
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkNotReleased() throws SQLException {
+        if (released) {
+            throw new SQLException("native handles were released (statement closed)");
+        }
+    }
+
+    private void push(long handle, long dbHandle, byte kind) {
+        if (size == handles.length) {
+            handles = Arrays.copyOf(handles, size * 2);
+            dbHandles = Arrays.copyOf(dbHandles, size * 2);
+            kinds = Arrays.copyOf(kinds, size * 2);
+        }
+        handles[size] = handle;
+        dbHandles[size] = dbHandle;
+        kinds[size] = kind;
+        size++;
+    }
+
+    private boolean remove(long handle, byte kind) {
+        int idx = indexOf(handle, kind);
+        if (idx < 0) {
+            return false;
+        }
+        removeAt(idx);
+        return true;
+    }
+
+    private int indexOf(long handle, byte kind) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (handles[i] == handle && kinds[i] == kind) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int idx) {
+        int tail = size - idx - 1;
+        if (tail > 0) {
+            System.arraycopy(handles, idx + 1, handles, idx, tail);
+            System.arraycopy(dbHandles, idx + 1, dbHandles, idx, tail);
+            System.arraycopy(kinds, idx + 1, kinds, idx, tail);
+        }
+        size--;
+    }
+}
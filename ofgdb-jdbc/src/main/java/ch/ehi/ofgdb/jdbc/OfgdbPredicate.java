@@ -0,0 +1,818 @@
+package ch.ehi.ofgdb.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed WHERE clause, that is evaluated against the values of a row.
+ * Supports AND, OR, NOT, parentheses, the comparison operators, IS [NOT] NULL,
+ * [NOT] IN, [NOT] LIKE and [NOT] BETWEEN with column references and literals as operands.
+ * Comparisons with NULL are unknown (SQL three-valued logic); an unknown result does not match.
+ * The conjuncts, that the native search of a table supports (a column compared with a literal,
+ * IS [NOT] NULL), may be written back as SQL (with renamed columns) to push them down;
+ * the other conjuncts remain as residual predicate, that is evaluated on the fetched rows.
+ */
+final class OfgdbPredicate {
+    /** access to the values of the row, that is tested. */
+    interface Row {
+        Object get(String column) throws SQLException;
+    }
+
+    private final Node root;
+    private final Set<String> columns;
+
+    private OfgdbPredicate(Node root, Set<String> columns) {
+        this.root = root;
+        this.columns = columns;
+    }
+
+    static OfgdbPredicate parse(String whereClause) throws SQLException {
+        Parser parser = new Parser(whereClause);
+        Node root = parser.parseOr();
+        if (parser.peek() != null) {
+            throw new SQLException("unsupported WHERE condition <" + whereClause + "> near <" + parser.peek().text + ">");
+        }
+        Set<String> columns = new LinkedHashSet<String>();
+        root.collectColumns(columns);
+        return new OfgdbPredicate(root, columns);
+    }
+
+    /** names of the columns, that the predicate refers to (as written in the WHERE clause, without quotes). */
+    Set<String> getColumns() {
+        return columns;
+    }
+
+    boolean matches(Row row) throws SQLException {
+        return Boolean.TRUE.equals(root.eval(row));
+    }
+
+    /**
+     * Writes the conjuncts, that can be pushed down into the native search.
+     * @param renames column name (upper case) to the name to write; a conjunct with a column not in the map is not pushed down.
+     * @return the conjuncts joined by AND; empty if there is none.
+     */
+    String toPushDownSql(Map<String, String> renames) {
+        StringBuilder out = new StringBuilder();
+        String sep = "";
+        for (Node term : getConjuncts()) {
+            if (isPushDown(term, renames)) {
+                out.append(sep);
+                term.write(out, renames);
+                sep = " AND ";
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return the conjuncts, that toPushDownSql() does not write, or null if all are pushed down.
+     */
+    OfgdbPredicate getResidual(Map<String, String> renames) {
+        List<Node> residual = new ArrayList<Node>();
+        for (Node term : getConjuncts()) {
+            if (!isPushDown(term, renames)) {
+                residual.add(term);
+            }
+        }
+        if (residual.isEmpty()) {
+            return null;
+        }
+        if (residual.size() == getConjuncts().size()) {
+            return this;
+        }
+        Node residualRoot = residual.size() == 1 ? residual.get(0) : new And(residual);
+        Set<String> residualColumns = new LinkedHashSet<String>();
+        residualRoot.collectColumns(residualColumns);
+        return new OfgdbPredicate(residualRoot, residualColumns);
+    }
+
+    private List<Node> getConjuncts() {
+        return root instanceof And ? ((And) root).terms : Collections.singletonList(root);
+    }
+
+    /** comparison of a column with a (not NULL) literal, or IS [NOT] NULL of a column. */
+    private static boolean isPushDown(Node term, Map<String, String> renames) {
+        if (term instanceof Comparison) {
+            Comparison comparison = (Comparison) term;
+            return comparison.left.isColumnIn(renames) && comparison.right.isNotNullLiteral();
+        }
+        if (term instanceof IsNull) {
+            return ((IsNull) term).operand.isColumnIn(renames);
+        }
+        return false;
+    }
+
+    private abstract static class Node {
+        abstract Boolean eval(Row row) throws SQLException;
+
+        abstract void write(StringBuilder out, Map<String, String> renames);
+
+        abstract void collectColumns(Set<String> columns);
+    }
+
+    private static final class Or extends Node {
+        private final List<Node> terms;
+
+        Or(List<Node> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            Boolean result = Boolean.FALSE;
+            for (Node term : terms) {
+                Boolean value = term.eval(row);
+                if (Boolean.TRUE.equals(value)) {
+                    return Boolean.TRUE;
+                }
+                if (value == null) {
+                    result = null;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            String sep = "";
+            for (Node term : terms) {
+                out.append(sep);
+                term.write(out, renames);
+                sep = " OR ";
+            }
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            for (Node term : terms) {
+                term.collectColumns(columns);
+            }
+        }
+    }
+
+    private static final class And extends Node {
+        private final List<Node> terms;
+
+        And(List<Node> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            Boolean result = Boolean.TRUE;
+            for (Node term : terms) {
+                Boolean value = term.eval(row);
+                if (Boolean.FALSE.equals(value)) {
+                    return Boolean.FALSE;
+                }
+                if (value == null) {
+                    result = null;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            String sep = "";
+            for (Node term : terms) {
+                out.append(sep);
+                writeNested(out, term, renames);
+                sep = " AND ";
+            }
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            for (Node term : terms) {
+                term.collectColumns(columns);
+            }
+        }
+    }
+
+    private static final class Not extends Node {
+        private final Node term;
+
+        Not(Node term) {
+            this.term = term;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            Boolean value = term.eval(row);
+            return value != null ? Boolean.valueOf(!value.booleanValue()) : null;
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            out.append("NOT ");
+            writeNested(out, term, renames);
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            term.collectColumns(columns);
+        }
+    }
+
+    private static void writeNested(StringBuilder out, Node term, Map<String, String> renames) {
+        if (term instanceof Or || term instanceof And) {
+            out.append('(');
+            term.write(out, renames);
+            out.append(')');
+        } else {
+            term.write(out, renames);
+        }
+    }
+
+    private static final class Comparison extends Node {
+        private final Operand left;
+        private final String op;
+        private final Operand right;
+
+        Comparison(Operand left, String op, Operand right) {
+            this.left = left;
+            this.op = op;
+            this.right = right;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            Object leftValue = left.value(row);
+            Object rightValue = right.value(row);
+            if (leftValue == null || rightValue == null) {
+                return null;
+            }
+            int cmp = compareValues(leftValue, rightValue);
+            if ("=".equals(op)) {
+                return Boolean.valueOf(cmp == 0);
+            } else if ("<>".equals(op) || "!=".equals(op)) {
+                return Boolean.valueOf(cmp != 0);
+            } else if ("<".equals(op)) {
+                return Boolean.valueOf(cmp < 0);
+            } else if ("<=".equals(op)) {
+                return Boolean.valueOf(cmp <= 0);
+            } else if (">".equals(op)) {
+                return Boolean.valueOf(cmp > 0);
+            }
+            return Boolean.valueOf(cmp >= 0);
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            left.write(out, renames);
+            out.append(' ').append("!=".equals(op) ? "<>" : op).append(' ');
+            right.write(out, renames);
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            left.collectColumns(columns);
+            right.collectColumns(columns);
+        }
+    }
+
+    private static final class IsNull extends Node {
+        private final Operand operand;
+        private final boolean negated;
+
+        IsNull(Operand operand, boolean negated) {
+            this.operand = operand;
+            this.negated = negated;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            return Boolean.valueOf((operand.value(row) == null) != negated);
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            operand.write(out, renames);
+            out.append(negated ? " IS NOT NULL" : " IS NULL");
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            operand.collectColumns(columns);
+        }
+    }
+
+    private static final class In extends Node {
+        private final Operand operand;
+        private final List<Operand> values;
+        private final boolean negated;
+
+        In(Operand operand, List<Operand> values, boolean negated) {
+            this.operand = operand;
+            this.values = values;
+            this.negated = negated;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            Object probe = operand.value(row);
+            if (probe == null) {
+                return null;
+            }
+            Boolean result = Boolean.FALSE;
+            for (Operand candidate : values) {
+                Object value = candidate.value(row);
+                if (value == null) {
+                    result = null;
+                } else if (compareValues(probe, value) == 0) {
+                    result = Boolean.TRUE;
+                    break;
+                }
+            }
+            if (result == null) {
+                return null;
+            }
+            return Boolean.valueOf(result.booleanValue() != negated);
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            operand.write(out, renames);
+            out.append(negated ? " NOT IN (" : " IN (");
+            String sep = "";
+            for (Operand value : values) {
+                out.append(sep);
+                value.write(out, renames);
+                sep = ",";
+            }
+            out.append(')');
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            operand.collectColumns(columns);
+            for (Operand value : values) {
+                value.collectColumns(columns);
+            }
+        }
+    }
+
+    private static final class Like extends Node {
+        private final Operand operand;
+        private final Operand pattern;
+        private final boolean negated;
+        private Pattern compiled = null;
+        private String compiledFrom = null;
+
+        Like(Operand operand, Operand pattern, boolean negated) {
+            this.operand = operand;
+            this.pattern = pattern;
+            this.negated = negated;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            Object value = operand.value(row);
+            Object patternValue = pattern.value(row);
+            if (value == null || patternValue == null) {
+                return null;
+            }
+            String patternText = patternValue.toString();
+            if (!patternText.equals(compiledFrom)) {
+                compiled = Pattern.compile(likeToRegex(patternText), Pattern.DOTALL);
+                compiledFrom = patternText;
+            }
+            return Boolean.valueOf(compiled.matcher(value.toString()).matches() != negated);
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            operand.write(out, renames);
+            out.append(negated ? " NOT LIKE " : " LIKE ");
+            pattern.write(out, renames);
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            operand.collectColumns(columns);
+            pattern.collectColumns(columns);
+        }
+    }
+
+    private static final class Between extends Node {
+        private final Operand operand;
+        private final Operand lower;
+        private final Operand upper;
+        private final boolean negated;
+
+        Between(Operand operand, Operand lower, Operand upper, boolean negated) {
+            this.operand = operand;
+            this.lower = lower;
+            this.upper = upper;
+            this.negated = negated;
+        }
+
+        @Override
+        Boolean eval(Row row) throws SQLException {
+            Object value = operand.value(row);
+            Object lowerValue = lower.value(row);
+            Object upperValue = upper.value(row);
+            if (value == null || lowerValue == null || upperValue == null) {
+                return null;
+            }
+            boolean inRange = compareValues(value, lowerValue) >= 0 && compareValues(value, upperValue) <= 0;
+            return Boolean.valueOf(inRange != negated);
+        }
+
+        @Override
+        void write(StringBuilder out, Map<String, String> renames) {
+            operand.write(out, renames);
+            out.append(negated ? " NOT BETWEEN " : " BETWEEN ");
+            lower.write(out, renames);
+            out.append(" AND ");
+            upper.write(out, renames);
+        }
+
+        @Override
+        void collectColumns(Set<String> columns) {
+            operand.collectColumns(columns);
+            lower.collectColumns(columns);
+            upper.collectColumns(columns);
+        }
+    }
+
+    /** column reference or literal. */
+    private static final class Operand {
+        private final String column;
+        private final boolean quoted;
+        private final String literalText;
+        private final Object literal;
+
+        private Operand(String column, boolean quoted, String literalText, Object literal) {
+            this.column = column;
+            this.quoted = quoted;
+            this.literalText = literalText;
+            this.literal = literal;
+        }
+
+        static Operand column(String name, boolean quoted) {
+            return new Operand(name, quoted, null, null);
+        }
+
+        static Operand literal(String text, Object value) {
+            return new Operand(null, false, text, value);
+        }
+
+        boolean isColumnIn(Map<String, String> renames) {
+            return column != null && renames.containsKey(column.toUpperCase(Locale.ROOT));
+        }
+
+        boolean isNotNullLiteral() {
+            return column == null && literal != null;
+        }
+
+        Object value(Row row) throws SQLException {
+            if (column != null) {
+                return OfgdbLazyGeometry.materialize(row.get(column));
+            }
+            return literal;
+        }
+
+        void write(StringBuilder out, Map<String, String> renames) {
+            if (column == null) {
+                out.append(literalText);
+                return;
+            }
+            String name = renames != null ? renames.get(column.toUpperCase(Locale.ROOT)) : null;
+            if (name == null) {
+                name = column;
+            }
+            if (quoted) {
+                out.append('"').append(name).append('"');
+            } else {
+                out.append(name);
+            }
+        }
+
+        void collectColumns(Set<String> columns) {
+            if (column != null) {
+                columns.add(column);
+            }
+        }
+    }
+
+    static int compareValues(Object left, Object right) {
+        if (left instanceof Boolean) {
+            left = Integer.valueOf(((Boolean) left).booleanValue() ? 1 : 0);
+        }
+        if (right instanceof Boolean) {
+            right = Integer.valueOf(((Boolean) right).booleanValue() ? 1 : 0);
+        }
+        if (left instanceof Number || right instanceof Number) {
+            BigDecimal leftNumber = toBigDecimal(left);
+            BigDecimal rightNumber = toBigDecimal(right);
+            if (leftNumber != null && rightNumber != null) {
+                return leftNumber.compareTo(rightNumber);
+            }
+        }
+        if (left instanceof byte[] && right instanceof byte[]) {
+            return Arrays.compare((byte[]) left, (byte[]) right);
+        }
+        return left.toString().compareTo(right.toString());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            return Double.isNaN(d) || Double.isInfinite(d) ? null : new BigDecimal(d);
+        }
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String likeToRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    private static final class Token {
+        static final int IDENT = 0;
+        static final int QUOTED_IDENT = 1;
+        static final int STRING = 2;
+        static final int NUMBER = 3;
+        static final int SYMBOL = 4;
+
+        final int type;
+        final String text;
+
+        Token(int type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        boolean isKeyword(String keyword) {
+            return type == IDENT && text.equalsIgnoreCase(keyword);
+        }
+
+        boolean isSymbol(String symbol) {
+            return type == SYMBOL && text.equals(symbol);
+        }
+    }
+
+    private static final class Parser {
+        private final String sql;
+        private final List<Token> tokens;
+        private int pos = 0;
+
+        Parser(String sql) throws SQLException {
+            this.sql = sql;
+            this.tokens = tokenize(sql);
+        }
+
+        Token peek() {
+            return pos < tokens.size() ? tokens.get(pos) : null;
+        }
+
+        private Token next() throws SQLException {
+            Token token = peek();
+            if (token == null) {
+                throw new SQLException("unexpected end of WHERE condition <" + sql + ">");
+            }
+            pos++;
+            return token;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            Token token = peek();
+            if (token != null && token.isKeyword(keyword)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expectSymbol(String symbol) throws SQLException {
+            Token token = next();
+            if (!token.isSymbol(symbol)) {
+                throw new SQLException("expected <" + symbol + "> in WHERE condition <" + sql + "> instead of <" + token.text + ">");
+            }
+        }
+
+        Node parseOr() throws SQLException {
+            List<Node> terms = new ArrayList<Node>();
+            terms.add(parseAnd());
+            while (acceptKeyword("OR")) {
+                terms.add(parseAnd());
+            }
+            return terms.size() == 1 ? terms.get(0) : new Or(terms);
+        }
+
+        private Node parseAnd() throws SQLException {
+            List<Node> terms = new ArrayList<Node>();
+            terms.add(parseNot());
+            while (acceptKeyword("AND")) {
+                terms.add(parseNot());
+            }
+            return terms.size() == 1 ? terms.get(0) : new And(terms);
+        }
+
+        private Node parseNot() throws SQLException {
+            if (acceptKeyword("NOT")) {
+                return new Not(parseNot());
+            }
+            Token token = peek();
+            if (token != null && token.isSymbol("(")) {
+                pos++;
+                Node inner = parseOr();
+                expectSymbol(")");
+                return inner;
+            }
+            return parsePredicate();
+        }
+
+        private Node parsePredicate() throws SQLException {
+            Operand left = parseOperand();
+            Token token = next();
+            if (token.type == Token.SYMBOL && isComparisonOperator(token.text)) {
+                return new Comparison(left, token.text, parseOperand());
+            }
+            if (token.isKeyword("IS")) {
+                boolean negated = acceptKeyword("NOT");
+                if (!acceptKeyword("NULL")) {
+                    throw new SQLException("expected NULL after IS in WHERE condition <" + sql + ">");
+                }
+                return new IsNull(left, negated);
+            }
+            boolean negated = false;
+            if (token.isKeyword("NOT")) {
+                negated = true;
+                token = next();
+            }
+            if (token.isKeyword("IN")) {
+                expectSymbol("(");
+                List<Operand> values = new ArrayList<Operand>();
+                values.add(parseOperand());
+                while (peek() != null && peek().isSymbol(",")) {
+                    pos++;
+                    values.add(parseOperand());
+                }
+                expectSymbol(")");
+                return new In(left, values, negated);
+            }
+            if (token.isKeyword("LIKE")) {
+                return new Like(left, parseOperand(), negated);
+            }
+            if (token.isKeyword("BETWEEN")) {
+                Operand lower = parseOperand();
+                if (!acceptKeyword("AND")) {
+                    throw new SQLException("expected AND in BETWEEN of WHERE condition <" + sql + ">");
+                }
+                return new Between(left, lower, parseOperand(), negated);
+            }
+            throw new SQLException("unsupported WHERE condition <" + sql + "> near <" + token.text + ">");
+        }
+
+        private Operand parseOperand() throws SQLException {
+            Token token = next();
+            switch (token.type) {
+            case Token.STRING:
+                return Operand.literal(token.text,
+                        token.text.substring(1, token.text.length() - 1).replace("''", "'"));
+            case Token.NUMBER:
+                return Operand.literal(token.text, OfgdbStatement.parseValue(token.text));
+            case Token.QUOTED_IDENT:
+                return Operand.column(token.text.substring(1, token.text.length() - 1), true);
+            case Token.IDENT:
+                if (token.isKeyword("NULL")) {
+                    return Operand.literal("NULL", null);
+                }
+                if (token.isKeyword("TRUE") || token.isKeyword("FALSE")) {
+                    return Operand.literal(token.text, Boolean.valueOf(token.text));
+                }
+                if (isReserved(token.text)) {
+                    break;
+                }
+                return Operand.column(token.text, false);
+            default:
+                break;
+            }
+            throw new SQLException("unsupported operand <" + token.text + "> in WHERE condition <" + sql + ">");
+        }
+    }
+
+    private static boolean isComparisonOperator(String symbol) {
+        return "=".equals(symbol) || "<>".equals(symbol) || "!=".equals(symbol)
+                || "<".equals(symbol) || "<=".equals(symbol) || ">".equals(symbol) || ">=".equals(symbol);
+    }
+
+    private static boolean isReserved(String word) {
+        String upper = word.toUpperCase(Locale.ROOT);
+        return "AND".equals(upper) || "OR".equals(upper) || "NOT".equals(upper) || "IS".equals(upper)
+                || "IN".equals(upper) || "LIKE".equals(upper) || "BETWEEN".equals(upper);
+    }
+
+    private static List<Token> tokenize(String sql) throws SQLException {
+        List<Token> tokens = new ArrayList<Token>();
+        int i = 0;
+        int len = sql.length();
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                int end = i + 1;
+                while (true) {
+                    if (end >= len) {
+                        throw new SQLException("unterminated string literal in WHERE condition <" + sql + ">");
+                    }
+                    if (sql.charAt(end) == '\'') {
+                        if (end + 1 < len && sql.charAt(end + 1) == '\'') {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                tokens.add(new Token(Token.STRING, sql.substring(i, end + 1)));
+                i = end + 1;
+            } else if (c == '"') {
+                int end = sql.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new SQLException("unterminated identifier in WHERE condition <" + sql + ">");
+                }
+                tokens.add(new Token(Token.QUOTED_IDENT, sql.substring(i, end + 1)));
+                i = end + 1;
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < len && Character.isDigit(sql.charAt(i + 1)) && !endsWithOperand(tokens))) {
+                int end = i + 1;
+                while (end < len && (Character.isDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(new Token(Token.NUMBER, sql.substring(i, end)));
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i + 1;
+                while (end < len && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_' || sql.charAt(end) == '$')) {
+                    end++;
+                }
+                tokens.add(new Token(Token.IDENT, sql.substring(i, end)));
+                i = end;
+            } else if (c == '<' || c == '>' || c == '!') {
+                if (i + 1 < len && (sql.charAt(i + 1) == '=' || (c == '<' && sql.charAt(i + 1) == '>'))) {
+                    tokens.add(new Token(Token.SYMBOL, sql.substring(i, i + 2)));
+                    i += 2;
+                } else if (c != '!') {
+                    tokens.add(new Token(Token.SYMBOL, String.valueOf(c)));
+                    i++;
+                } else {
+                    throw new SQLException("unsupported operator <!> in WHERE condition <" + sql + ">");
+                }
+            } else if (c == '=' || c == '(' || c == ')' || c == ',') {
+                tokens.add(new Token(Token.SYMBOL, String.valueOf(c)));
+                i++;
+            } else {
+                throw new SQLException("unsupported character <" + c + "> in WHERE condition <" + sql + ">");
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean endsWithOperand(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        Token last = tokens.get(tokens.size() - 1);
+        return last.type == Token.NUMBER || last.type == Token.STRING || last.type == Token.QUOTED_IDENT
+                || (last.type == Token.IDENT && !isReserved(last.text)) || last.isSymbol(")");
+    }
+}
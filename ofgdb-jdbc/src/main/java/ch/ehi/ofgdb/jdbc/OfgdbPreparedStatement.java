@@ -36,7 +36,7 @@ public class OfgdbPreparedStatement extends OfgdbStatement implements PreparedSt
 
     @Override
     public ResultSet executeQuery() throws SQLException {
-        return super.executeQuery(materializeSql(sqlTemplate, params));
+        return executePreparedQuery(sqlTemplate, params);
     }
 
     @Override
@@ -46,6 +46,10 @@ public class OfgdbPreparedStatement extends OfgdbStatement implements PreparedSt
 
     @Override
     public boolean execute() throws SQLException {
+        if (isSelectSql(sqlTemplate)) {
+            executePreparedQuery(sqlTemplate, params);
+            return true;
+        }
         return super.execute(materializeSql(sqlTemplate, params));
     }
 
@@ -0,0 +1,14 @@
+package ch.ehi.ofgdb.jdbc;
+
+/**
+ * Measurements of one statement execution; only created if the statistics of the connection are enabled.
+ */
+final class OfgdbQueryMetrics {
+    final long startNanos = System.nanoTime();
+    long parseNanos;
+    long planNanos;
+    long scanNanos;
+    long decodeNanos;
+    long rowsScanned;
+    long nativeCalls;
+}
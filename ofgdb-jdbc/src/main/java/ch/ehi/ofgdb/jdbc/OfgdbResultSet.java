@@ -34,6 +34,14 @@ public class OfgdbResultSet extends AbstractResultSet {
         this.jdbcTypeNames = normalizeJdbcTypeNames(jdbcTypeNames, this.columns.size());
     }
 
+    int getRowCount() {
+        return rows.size();
+    }
+
+    List<Map<String, Object>> getRows() {
+        return rows;
+    }
+
     @Override
     public void close() throws SQLException {
         closed = true;
@@ -93,6 +101,9 @@ public class OfgdbResultSet extends AbstractResultSet {
                 }
             }
         }
+        if (value instanceof OfgdbLazyGeometry) {
+            value = ((OfgdbLazyGeometry) value).get();
+        }
         if (value == null) {
             lastGetWasNull = true;
             return null;
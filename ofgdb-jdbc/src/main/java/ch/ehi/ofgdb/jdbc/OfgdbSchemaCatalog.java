@@ -23,22 +23,36 @@ import ch.ehi.openfgdb4j.OpenFgdbException;
 final class OfgdbSchemaCatalog {
     private static final String ITEM_TYPE_FEATURE_CLASS_UUID = "{70737809-852C-4A03-9E22-2CECEA5B9BFA}";
 
-    private final OfgdbConnection conn;
     private final Map<String, OfgdbTableSchema> schemaCache = new LinkedHashMap<String, OfgdbTableSchema>();
+    /** incremented by each invalidation; a schema loaded in an older generation is not cached.
+     */
+    private long generation = 0L;
 
-    OfgdbSchemaCatalog(OfgdbConnection conn) {
-        this.conn = conn;
-    }
-
-    synchronized OfgdbTableSchema getTableSchema(String tableName) throws SQLException {
+    OfgdbTableSchema getTableSchema(OfgdbConnection conn, String tableName) throws SQLException {
         String resolvedTableName = conn.resolveTableName(tableName);
         String cacheKey = normalizeCacheKey(resolvedTableName);
-        OfgdbTableSchema schema = schemaCache.get(cacheKey);
-        if (schema != null) {
-            return schema;
+        long loadGeneration;
+        synchronized (this) {
+            OfgdbTableSchema schema = schemaCache.get(cacheKey);
+            OfgdbConnectionStats stats = conn.getStats();
+            if (schema != null) {
+                if (stats != null) {
+                    stats.addSchemaCacheHit();
+                }
+                return schema;
+            }
+            if (stats != null) {
+                stats.addSchemaCacheMiss();
+            }
+            loadGeneration = generation;
+        }
+        // loaded without holding the lock of the catalog (the native lock is taken before it)
+        OfgdbTableSchema schema = loadTableSchema(conn, resolvedTableName);
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                schemaCache.put(cacheKey, schema);
+            }
         }
-        schema = loadTableSchema(resolvedTableName);
-        schemaCache.put(cacheKey, schema);
         return schema;
     }
 
@@ -46,48 +60,52 @@ final class OfgdbSchemaCatalog {
         if (tableName == null || tableName.trim().isEmpty()) {
             return;
         }
+        generation++;
         schemaCache.remove(normalizeCacheKey(tableName));
     }
 
     synchronized void invalidateAll() {
+        generation++;
         schemaCache.clear();
     }
 
-    private OfgdbTableSchema loadTableSchema(String tableName) throws SQLException {
-        OpenFgdb api = conn.getApi();
-        String resolvedTable = conn.resolveTableName(tableName);
-        List<String> fieldNames = readTableFieldNames(api, resolvedTable);
-        LinkedHashMap<String, OfgdbColumnSchema> columnsByLower = new LinkedHashMap<String, OfgdbColumnSchema>();
-        for (String fieldName : fieldNames) {
-            OfgdbColumnSchema schema = new OfgdbColumnSchema(fieldName);
-            columnsByLower.put(fieldName.toLowerCase(Locale.ROOT), schema);
-        }
+    private OfgdbTableSchema loadTableSchema(OfgdbConnection conn, String tableName) throws SQLException {
+        synchronized (conn.getNativeLock()) {
+            OpenFgdb api = conn.getApi();
+            String resolvedTable = conn.resolveTableName(tableName);
+            List<String> fieldNames = readTableFieldNames(conn, api, resolvedTable);
+            LinkedHashMap<String, OfgdbColumnSchema> columnsByLower = new LinkedHashMap<String, OfgdbColumnSchema>();
+            for (String fieldName : fieldNames) {
+                OfgdbColumnSchema schema = new OfgdbColumnSchema(fieldName);
+                columnsByLower.put(fieldName.toLowerCase(Locale.ROOT), schema);
+            }
 
-        ParsedGdbItemDefinition definition = readGdbItemDefinition(api, resolvedTable);
-        if (definition != null) {
-            applyDefinition(columnsByLower, definition);
-        } else {
-            inferTypesBySampling(api, resolvedTable, columnsByLower, fieldNames);
-        }
-        applyIli2dbColumnProps(api, resolvedTable, columnsByLower);
+            ParsedGdbItemDefinition definition = readGdbItemDefinition(conn, api, resolvedTable);
+            if (definition != null) {
+                applyDefinition(columnsByLower, definition);
+            } else {
+                inferTypesBySampling(conn, api, resolvedTable, columnsByLower, fieldNames);
+            }
+            applyIli2dbColumnProps(conn, api, resolvedTable, columnsByLower);
 
-        ArrayList<OfgdbColumnSchema> columns = new ArrayList<OfgdbColumnSchema>(fieldNames.size());
-        for (String fieldName : fieldNames) {
-            OfgdbColumnSchema column = columnsByLower.get(fieldName.toLowerCase(Locale.ROOT));
-            if (column != null) {
-                columns.add(column);
+            ArrayList<OfgdbColumnSchema> columns = new ArrayList<OfgdbColumnSchema>(fieldNames.size());
+            for (String fieldName : fieldNames) {
+                OfgdbColumnSchema column = columnsByLower.get(fieldName.toLowerCase(Locale.ROOT));
+                if (column != null) {
+                    columns.add(column);
+                }
             }
+            return new OfgdbTableSchema(resolvedTable, columns, definition != null ? definition.itemTypeUuid : null,
+                    definition != null ? definition.oidFieldName : null,
+                    definition != null ? definition.shapeFieldName : null);
         }
-        return new OfgdbTableSchema(resolvedTable, columns, definition != null ? definition.itemTypeUuid : null,
-                definition != null ? definition.oidFieldName : null,
-                definition != null ? definition.shapeFieldName : null);
     }
 
     private static String normalizeCacheKey(String tableName) {
         return tableName.trim().toLowerCase(Locale.ROOT);
     }
 
-    private List<String> readTableFieldNames(OpenFgdb api, String tableName) throws SQLException {
+    private List<String> readTableFieldNames(OfgdbConnection conn, OpenFgdb api, String tableName) throws SQLException {
         long tableHandle = 0L;
         try {
             tableHandle = api.openTable(conn.getDbHandle(), tableName);
@@ -104,7 +122,7 @@ final class OfgdbSchemaCatalog {
         }
     }
 
-    private ParsedGdbItemDefinition readGdbItemDefinition(OpenFgdb api, String tableName) throws SQLException {
+    private ParsedGdbItemDefinition readGdbItemDefinition(OfgdbConnection conn, OpenFgdb api, String tableName) throws SQLException {
         String gdbItemsName = conn.resolveTableName("GDB_Items");
         long itemsTable = 0L;
         long cursor = 0L;
@@ -261,7 +279,7 @@ final class OfgdbSchemaCatalog {
         return Integer.valueOf(10);
     }
 
-    private void applyIli2dbColumnProps(OpenFgdb api, String tableName, Map<String, OfgdbColumnSchema> columnsByLower)
+    private void applyIli2dbColumnProps(OfgdbConnection conn, OpenFgdb api, String tableName, Map<String, OfgdbColumnSchema> columnsByLower)
             throws SQLException {
         String tablePropName = conn.resolveTableName("T_ILI2DB_COLUMN_PROP");
         long metaTable = 0L;
@@ -363,7 +381,7 @@ final class OfgdbSchemaCatalog {
                 || "MULTIAREA".equals(normalized);
     }
 
-    private void inferTypesBySampling(OpenFgdb api, String tableName, Map<String, OfgdbColumnSchema> columnsByLower,
+    private void inferTypesBySampling(OfgdbConnection conn, OpenFgdb api, String tableName, Map<String, OfgdbColumnSchema> columnsByLower,
             List<String> fieldNames) throws SQLException {
         if (fieldNames.isEmpty()) {
             return;
@@ -0,0 +1,40 @@
+package ch.ehi.ofgdb.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of the parsed SELECT templates of the prepared statements of a connection.
+ */
+final class OfgdbSelectPlanCache {
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final Map<String, OfgdbStatement.PreparedSelect> plans;
+
+    OfgdbSelectPlanCache(final int capacity) {
+        this.plans = new LinkedHashMap<String, OfgdbStatement.PreparedSelect>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OfgdbStatement.PreparedSelect> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized OfgdbStatement.PreparedSelect get(String sqlTemplate) {
+        return plans.get(sqlTemplate);
+    }
+
+    synchronized void put(String sqlTemplate, OfgdbStatement.PreparedSelect plan) {
+        plans.put(sqlTemplate, plan);
+    }
+
+    synchronized int size() {
+        return plans.size();
+    }
+
+    synchronized void clear() {
+        plans.clear();
+    }
+}
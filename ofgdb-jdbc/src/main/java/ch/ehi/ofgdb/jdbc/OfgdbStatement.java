@@ -44,34 +44,53 @@ public class OfgdbStatement implements Statement {
             "(?is)^COUNT\\s*\\(\\s*(\\*|1|\"[^\"]+\"|[A-Za-z_][A-Za-z0-9_$]*)\\s*\\)\\s*$");
     private static final Pattern CREATE_TABLE_PATTERN = Pattern.compile("(?is)^\\s*CREATE\\s+TABLE\\s+([A-Za-z0-9_.$\"]+)\\s*\\(.*$");
     private static final Pattern DROP_TABLE_PATTERN = Pattern.compile("(?is)^\\s*DROP\\s+TABLE\\s+([A-Za-z0-9_.$\"]+)\\s*$");
+    private static final Pattern VACUUM_PATTERN = Pattern.compile("(?is)^\\s*VACUUM(?:\\s+([A-Za-z0-9_.$\"]+))?\\s*$");
     private static final Pattern SIMPLE_IDENTIFIER_PATTERN = Pattern.compile("(?i)^\"?[A-Za-z_][A-Za-z0-9_$]*\"?(?:\\.\"?[A-Za-z_][A-Za-z0-9_$]*\"?)*$");
     private static final Pattern QUALIFIED_IDENTIFIER_PATTERN = Pattern.compile(
             "(?:\"([^\"]+)\"|([A-Za-z_][A-Za-z0-9_$]*))\\.(?:\"([^\"]+)\"|([A-Za-z_][A-Za-z0-9_$]*))");
     private static final Pattern UNION_DERIVED_SELECT_PATTERN = Pattern.compile(
             "(?is)^\\s*SELECT\\s+(.+?)\\s+FROM\\s*\\((.+)\\)\\s+(?:\"?[A-Za-z_][A-Za-z0-9_$]*\"?)\\s*(?:WHERE\\s+(.+?))?\\s*$");
+    private static final Pattern UNION_BRANCH_PATTERN = Pattern.compile(
+            "(?is)^\\s*SELECT\\s+(?:ALL\\s+)?(?!DISTINCT\\b)(.+?)\\s+FROM\\s+((?:\"[^\"]+\"|[A-Za-z0-9_.$]+))(?:\\s+(?:AS\\s+)?(?!WHERE\\b)[A-Za-z_][A-Za-z0-9_$]*)?(?:\\s+WHERE\\s+(.+?))?\\s*$");
     private static final Pattern LIMIT_OFFSET_PATTERN = Pattern.compile(
             "(?is)^(.*?)(?:\\s+LIMIT\\s+(\\d+)(?:\\s+OFFSET\\s+(\\d+))?)\\s*$");
     private static final Pattern OFFSET_FETCH_PATTERN = Pattern.compile(
             "(?is)^(.*?)(?:\\s+OFFSET\\s+(\\d+)\\s+ROWS?\\s+FETCH\\s+NEXT\\s+(\\d+)\\s+ROWS?\\s+ONLY)\\s*$");
+    private static final Pattern SINGLE_TABLE_ALIAS_PATTERN = Pattern.compile(
+            "(?is)^(\\s*SELECT\\s+.+?\\s+FROM\\s+(?:\"[^\"]+\"|[A-Za-z0-9_.$]+))\\s+(?:AS\\s+)?(?!WHERE\\b|ORDER\\b)[A-Za-z_][A-Za-z0-9_$]*((?:\\s+WHERE\\s+.+?|\\s+ORDER\\s+BY\\s+.+?)*)\\s*$");
     private static final Pattern SELECT_LEADING_PATTERN = Pattern.compile("(?is)^\\s*SELECT\\b.*$");
 
     private final OfgdbConnection conn;
     private final OfgdbGeometryNormalizer geometryNormalizer = new OfgdbGeometryNormalizer();
+    /** native handles of the running execution; released by close() if an execution did not finish.
+     */
+    private final OfgdbNativeHandles handles;
     private boolean closed = false;
     private ResultSet currentResultSet = null;
     private int updateCount = -1;
     private final List<String> batchedSql = new ArrayList<String>();
     private SQLWarning warnings = null;
+    /** measurements of the current execution; null if the statistics of the connection are disabled.
+     */
+    private OfgdbQueryMetrics metrics = null;
 
     protected OfgdbStatement(OfgdbConnection conn) {
         this.conn = conn;
+        this.handles = new OfgdbNativeHandles(conn.getApi());
+        conn.registerResource(this);
     }
 
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
         ensureOpen();
         clearWarnings();
-        ResultSet rs = executeSelectSql(normalizeSelectSql(sql));
+        beginMetrics();
+        ResultSet rs = null;
+        try {
+            rs = executeSelectSql(normalizeSelectSql(sql));
+        } finally {
+            endMetrics(sql, rs);
+        }
         currentResultSet = rs;
         updateCount = -1;
         return rs;
@@ -80,14 +99,27 @@ public class OfgdbStatement implements Statement {
     @Override
     public int executeUpdate(String sql) throws SQLException {
         ensureOpen();
+        conn.checkWritable();
         clearWarnings();
         String normalizedSql = normalizeSelectSql(sql);
         if (normalizedSql == null || normalizedSql.isEmpty()) {
             throw new SQLException("empty SQL statement");
         }
+        beginMetrics();
         try {
-            conn.getApi().execSql(conn.getDbHandle(), normalizedSql);
-            trackSchemaMutation(normalizedSql);
+            Matcher vacuumMatcher = VACUUM_PATTERN.matcher(normalizedSql);
+            if (vacuumMatcher.matches()) {
+                String tableName = vacuumMatcher.group(1) != null ? normalizeTableIdentifier(vacuumMatcher.group(1)) : null;
+                nativeCall();
+                long reclaimed = conn.vacuum(tableName);
+                addWarning("VACUUM reclaimed " + reclaimed + " bytes");
+            } else {
+                synchronized (conn.getNativeLock()) {
+                    nativeCall();
+                    conn.getApi().execSql(conn.getDbHandle(), normalizedSql);
+                }
+                trackSchemaMutation(normalizedSql);
+            }
             if (currentResultSet != null) {
                 currentResultSet.close();
                 currentResultSet = null;
@@ -96,6 +128,8 @@ public class OfgdbStatement implements Statement {
             return updateCount;
         } catch (OpenFgdbException e) {
             throw new SQLException("failed to execute update <" + normalizedSql + ">", e);
+        } finally {
+            endMetrics(normalizedSql, null);
         }
     }
 
@@ -120,13 +154,25 @@ public class OfgdbStatement implements Statement {
         if (closed) {
             return;
         }
-        if (currentResultSet != null) {
-            currentResultSet.close();
-            currentResultSet = null;
-        }
+        closed = true;
+        conn.unregisterResource(this);
         batchedSql.clear();
         warnings = null;
-        closed = true;
+        try {
+            if (currentResultSet != null) {
+                currentResultSet.close();
+                currentResultSet = null;
+            }
+        } finally {
+            synchronized (conn.getNativeLock()) {
+                handles.closeAll();
+            }
+        }
+    }
+
+    /** number of native table, cursor and row handles currently held by this statement. */
+    int getOpenHandleCount() {
+        return handles.getOpenCount();
     }
 
     @Override
@@ -416,6 +462,160 @@ public class OfgdbStatement implements Statement {
         return out.toString();
     }
 
+    /**
+     * Executes a SELECT of a prepared statement. The template is parsed once per connection;
+     * an execution only binds the parameters into the WHERE clause of the cached plan.
+     * Templates that are not simple SELECT statements are materialized and executed as text.
+     */
+    protected ResultSet executePreparedQuery(String sqlTemplate, List<Object> parameters) throws SQLException {
+        ensureOpen();
+        clearWarnings();
+        beginMetrics();
+        ResultSet rs = null;
+        try {
+            long planStart = metrics != null ? System.nanoTime() : 0L;
+            OfgdbSelectPlanCache planCache = conn.getSelectPlanCache();
+            PreparedSelect prepared = planCache.get(sqlTemplate);
+            if (prepared == null) {
+                prepared = prepareSelect(sqlTemplate);
+                planCache.put(sqlTemplate, prepared);
+            }
+            if (prepared.plan == null) {
+                rs = executeSelectSql(normalizeSelectSql(materializeSql(sqlTemplate, parameters)));
+            } else {
+                QueryPlan plan = prepared.bind(parameters);
+                if (metrics != null) {
+                    metrics.planNanos += System.nanoTime() - planStart;
+                }
+                rs = applyLimitOffset(executeSimpleSelect(plan), prepared.limitSpec);
+            }
+        } finally {
+            endMetrics(sqlTemplate, rs);
+        }
+        currentResultSet = rs;
+        updateCount = -1;
+        return rs;
+    }
+
+    private void beginMetrics() {
+        metrics = conn.getStats() != null ? new OfgdbQueryMetrics() : null;
+    }
+
+    private void endMetrics(String sql, ResultSet rs) {
+        if (metrics == null) {
+            return;
+        }
+        long rows = rs instanceof OfgdbResultSet ? ((OfgdbResultSet) rs).getRowCount() : -1L;
+        conn.getStats().record(sql, metrics, rows);
+        metrics = null;
+    }
+
+    private void nativeCall() {
+        if (metrics != null) {
+            metrics.nativeCalls++;
+        }
+    }
+
+    private void addParseTime(long parseStart) {
+        if (metrics != null) {
+            metrics.parseNanos += System.nanoTime() - parseStart;
+        }
+    }
+
+    protected static boolean isSelectSql(String sql) {
+        String normalizedSql = normalizeSelectSql(sql);
+        return normalizedSql != null && SELECT_LEADING_PATTERN.matcher(normalizedSql).matches();
+    }
+
+    static PreparedSelect prepareSelect(String sqlTemplate) {
+        String normalizedSql = normalizeSelectSql(sqlTemplate);
+        if (normalizedSql == null || normalizedSql.isEmpty()) {
+            return PreparedSelect.UNSUPPORTED;
+        }
+        LimitSpec limitSpec;
+        QueryPlan plan;
+        try {
+            limitSpec = extractLimitSpec(normalizedSql);
+            String sql = rewritePlainJoinToLeftJoin(limitSpec.sqlWithoutLimit);
+            if (looksLikeUnionDerivedSelect(sql)) {
+                return PreparedSelect.UNSUPPORTED;
+            }
+            Matcher aliasMatcher = SINGLE_TABLE_ALIAS_PATTERN.matcher(sql);
+            if (aliasMatcher.matches() && !sql.toUpperCase(Locale.ROOT).contains(" JOIN ")) {
+                // SELECT r0.T_Id FROM table r0 WHERE r0.T_basket=?; qualifiers are dropped by the simple plan
+                String unaliasedSql = aliasMatcher.group(1) + aliasMatcher.group(2);
+                if (!selectsOnlyColumns(unaliasedSql)) {
+                    return PreparedSelect.UNSUPPORTED;
+                }
+                plan = parseSelect(unaliasedSql);
+            } else {
+                plan = parseSelect(sql);
+            }
+        } catch (SQLException e) {
+            return PreparedSelect.UNSUPPORTED;
+        }
+        List<String> whereParts = splitParameterSlots(plan.whereClause);
+        if (whereParts == null || whereParts.size() - 1 != countParameterSlots(sqlTemplate)) {
+            // parameters outside of the WHERE clause or inside of a string literal
+            return PreparedSelect.UNSUPPORTED;
+        }
+        return new PreparedSelect(limitSpec, plan, whereParts);
+    }
+
+    private static boolean selectsOnlyColumns(String sql) {
+        Matcher matcher = SELECT_PATTERN.matcher(sql);
+        if (!matcher.matches()) {
+            return false;
+        }
+        String fieldSpec = matcher.group(1).trim();
+        if ("*".equals(fieldSpec)) {
+            return true;
+        }
+        for (String part : fieldSpec.split(",")) {
+            String column = part.trim();
+            if (!isSimpleColumnReference(column) || "NULL".equalsIgnoreCase(column)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int countParameterSlots(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * splits a WHERE clause at its parameter markers.
+     * @return null, if a marker is inside of a string literal.
+     */
+    private static List<String> splitParameterSlots(String whereClause) {
+        List<String> parts = new ArrayList<String>();
+        StringBuilder part = new StringBuilder();
+        boolean inLiteral = false;
+        for (int i = 0; i < whereClause.length(); i++) {
+            char c = whereClause.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            } else if (c == '?') {
+                if (inLiteral) {
+                    return null;
+                }
+                parts.add(part.toString());
+                part.setLength(0);
+                continue;
+            }
+            part.append(c);
+        }
+        parts.add(part.toString());
+        return parts;
+    }
+
     protected void queueBatchSql(String sql) throws SQLException {
         ensureOpen();
         String normalizedSql = normalizeSelectSql(sql);
@@ -426,11 +626,13 @@ public class OfgdbStatement implements Statement {
     }
 
     private ResultSet executeSelectSql(String sql) throws SQLException {
+        long parseStart = metrics != null ? System.nanoTime() : 0L;
         String normalizedSql = normalizeSelectSql(sql);
         LimitSpec limitSpec = extractLimitSpec(normalizedSql);
         normalizedSql = rewritePlainJoinToLeftJoin(limitSpec.sqlWithoutLimit);
         ResultSet resultSet;
         if (looksLikeUnionDerivedSelect(normalizedSql)) {
+            addParseTime(parseStart);
             resultSet = executeUnionDerivedSelect(normalizedSql);
             return applyLimitOffset(resultSet, limitSpec);
         }
@@ -439,9 +641,11 @@ public class OfgdbStatement implements Statement {
             plan = parseSelect(normalizedSql);
         } catch (SQLException parseFailed) {
             AbstractSelectStmt stmt = parseSelectStatement(normalizedSql);
+            addParseTime(parseStart);
             resultSet = executeSelectStmt(stmt);
             return applyLimitOffset(resultSet, limitSpec);
         }
+        addParseTime(parseStart);
         resultSet = executeSimpleSelect(plan);
         return applyLimitOffset(resultSet, limitSpec);
     }
@@ -513,68 +717,106 @@ public class OfgdbStatement implements Statement {
 
     private ResultSet executeUnionDerivedSelect(String sql) throws SQLException {
         UnionDerivedSelectSpec spec = parseUnionDerivedSelect(sql);
-        List<String> baseColumns = new ArrayList<String>();
-        List<Integer> baseJdbcTypes = new ArrayList<Integer>();
-        List<String> baseJdbcTypeNames = new ArrayList<String>();
-        List<Map<String, Object>> mergedRows = new ArrayList<Map<String, Object>>();
-        java.util.Set<String> dedup = new java.util.LinkedHashSet<String>();
-        for (String unionPart : splitTopLevelUnionParts(spec.unionBody)) {
-            ResultSet rs = null;
-            try {
-                rs = executeSelectSql(unionPart);
+        OfgdbPredicate where = spec.whereClause.isEmpty() ? null : OfgdbPredicate.parse(spec.whereClause);
+        List<UnionPart> parts = splitTopLevelUnionParts(spec.unionBody);
+        // (A UNION B) UNION ALL C: the rows up to the last UNION are distinct, the later ones are appended as they are
+        int lastDistinctPart = -1;
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i).distinct) {
+                lastDistinctPart = i;
+            }
+        }
+        UnionResult result = new UnionResult(spec.projectionColumns);
+        java.util.Set<UnionRowKey> seen = new java.util.HashSet<UnionRowKey>();
+        for (int i = 0; i < parts.size(); i++) {
+            String partSql = parts.get(i).sql;
+            java.util.Set<UnionRowKey> partSeen = i <= lastDistinctPart ? seen : null;
+            UnionBranch branch = parseUnionBranch(partSql);
+            if (branch != null) {
+                executeUnionBranch(branch, where, result, partSeen);
+            } else {
+                executeUnionFallbackBranch(partSql, where, result, partSeen);
+            }
+        }
+        return result.toResultSet();
+    }
+
+    /**
+     * Runs a branch of a UNION as native search. The conjuncts of the WHERE of the derived table, that the native search
+     * supports and that refer only to columns (not constants) of the branch, are added to the WHERE of the branch;
+     * the other conjuncts are evaluated on the fetched rows.
+     */
+    private void executeUnionBranch(UnionBranch branch, OfgdbPredicate where, UnionResult result, java.util.Set<UnionRowKey> seen) throws SQLException {
+        List<String> unionColumns = result.columns != null ? result.columns : branch.names;
+        if (unionColumns.size() != branch.items.size()) {
+            throw new SQLException("UNION branches have a different number of columns");
+        }
+        String branchWhere = branch.whereClause;
+        OfgdbPredicate filter = where;
+        if (where != null) {
+            Map<String, String> renames = branch.pushDownRenames(where, unionColumns);
+            String pushedWhere = where.toPushDownSql(renames);
+            if (!pushedWhere.isEmpty()) {
+                branchWhere = branchWhere.isEmpty() ? pushedWhere : "(" + branchWhere + ") AND " + pushedWhere;
+            }
+            filter = where.getResidual(renames);
+        }
+        String fieldSpec = branch.fetchColumns.isEmpty() ? "*" : joinColumns(branch.fetchColumns);
+        OfgdbResultSet rs = (OfgdbResultSet) executeSearch(branch.tableName, fieldSpec, branchWhere, "", branch.fetchColumns, null);
+        try {
+            if (result.columns == null) {
                 ResultSetMetaData md = rs.getMetaData();
-                if (baseColumns.isEmpty()) {
-                    for (int i = 1; i <= md.getColumnCount(); i++) {
-                        baseColumns.add(normalizeColumn(md.getColumnName(i)));
-                        baseJdbcTypes.add(Integer.valueOf(md.getColumnType(i)));
-                        baseJdbcTypeNames.add(md.getColumnTypeName(i));
-                    }
-                }
-                while (rs.next()) {
-                    Map<String, Object> row = new HashMap<String, Object>();
-                    for (int i = 1; i <= md.getColumnCount(); i++) {
-                        row.put(normalizeColumn(md.getColumnName(i)), rs.getObject(i));
-                    }
-                    String key = buildRowKey(row, baseColumns);
-                    if (dedup.add(key)) {
-                        mergedRows.add(row);
-                    }
+                List<Integer> jdbcTypes = new ArrayList<Integer>();
+                List<String> jdbcTypeNames = new ArrayList<String>();
+                for (UnionBranchItem item : branch.items) {
+                    int idx = item.column != null ? indexOfIgnoreCase(branch.fetchColumns, item.column) : -1;
+                    jdbcTypes.add(idx >= 0 ? Integer.valueOf(md.getColumnType(idx + 1)) : null);
+                    jdbcTypeNames.add(idx >= 0 ? md.getColumnTypeName(idx + 1) : null);
                 }
-            } finally {
-                if (rs != null) {
-                    rs.close();
+                result.setColumns(branch.names, jdbcTypes, jdbcTypeNames);
+            }
+            for (Map<String, Object> row : rs.getRows()) {
+                Object[] values = new Object[branch.items.size()];
+                for (int i = 0; i < values.length; i++) {
+                    UnionBranchItem item = branch.items.get(i);
+                    values[i] = item.column != null ? getIgnoreCase(row, item.column) : item.constant;
                 }
+                result.add(values, filter, seen);
             }
+        } finally {
+            rs.close();
         }
-        List<String> projectionColumns = spec.projectionColumns;
-        if (projectionColumns.isEmpty() || (projectionColumns.size() == 1 && "*".equals(projectionColumns.get(0)))) {
-            projectionColumns = new ArrayList<String>(baseColumns);
-        }
-        List<Map<String, Object>> outRows = new ArrayList<Map<String, Object>>();
-        for (Map<String, Object> row : mergedRows) {
-            if (!matchesSimpleWhere(row, spec.whereClause)) {
-                continue;
+    }
+
+    /** runs a branch of a UNION, that is not a plain SELECT of columns and constants of one table. */
+    private void executeUnionFallbackBranch(String partSql, OfgdbPredicate where, UnionResult result, java.util.Set<UnionRowKey> seen) throws SQLException {
+        ResultSet rs = executeSelectSql(partSql);
+        try {
+            ResultSetMetaData md = rs.getMetaData();
+            int columnCount = md.getColumnCount();
+            if (result.columns == null) {
+                List<String> names = new ArrayList<String>();
+                List<Integer> jdbcTypes = new ArrayList<Integer>();
+                List<String> jdbcTypeNames = new ArrayList<String>();
+                for (int i = 1; i <= columnCount; i++) {
+                    names.add(normalizeColumn(md.getColumnName(i)));
+                    jdbcTypes.add(Integer.valueOf(md.getColumnType(i)));
+                    jdbcTypeNames.add(md.getColumnTypeName(i));
+                }
+                result.setColumns(names, jdbcTypes, jdbcTypeNames);
+            } else if (columnCount != result.columns.size()) {
+                throw new SQLException("UNION branches have a different number of columns");
             }
-            Map<String, Object> out = new HashMap<String, Object>();
-            for (String column : projectionColumns) {
-                out.put(column, getIgnoreCase(row, column));
-            }
-            outRows.add(out);
-        }
-        List<Integer> projectionTypes = new ArrayList<Integer>(projectionColumns.size());
-        List<String> projectionTypeNames = new ArrayList<String>(projectionColumns.size());
-        for (String column : projectionColumns) {
-            int idx = indexOfIgnoreCase(baseColumns, column);
-            if (idx >= 0 && idx < baseJdbcTypes.size()) {
-                projectionTypes.add(baseJdbcTypes.get(idx));
-                projectionTypeNames.add(baseJdbcTypeNames.get(idx));
-            } else {
-                int jdbcType = inferJdbcTypeFromRows(outRows, column);
-                projectionTypes.add(Integer.valueOf(jdbcType));
-                projectionTypeNames.add(OfgdbTypeUtil.jdbcTypeName(jdbcType, column));
+            while (rs.next()) {
+                Object[] values = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                result.add(values, where, seen);
             }
+        } finally {
+            rs.close();
         }
-        return new OfgdbResultSet(outRows, projectionColumns, projectionTypes, projectionTypeNames);
     }
 
     private static UnionDerivedSelectSpec parseUnionDerivedSelect(String sql) throws SQLException {
@@ -599,17 +841,28 @@ public class OfgdbStatement implements Statement {
         return spec;
     }
 
-    private static List<String> splitTopLevelUnionParts(String unionBody) throws SQLException {
-        List<String> parts = new ArrayList<String>();
+    private static List<UnionPart> splitTopLevelUnionParts(String unionBody) throws SQLException {
+        List<UnionPart> parts = new ArrayList<UnionPart>();
         if (unionBody == null || unionBody.trim().isEmpty()) {
             throw new SQLException("unsupported UNION SELECT statement");
         }
         String upper = unionBody.toUpperCase(Locale.ROOT);
         int depth = 0;
         int partStart = 0;
+        boolean partDistinct = false;
+        boolean inLiteral = false;
         int i = 0;
         while (i < unionBody.length()) {
             char c = unionBody.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+                i++;
+                continue;
+            }
+            if (inLiteral) {
+                i++;
+                continue;
+            }
             if (c == '(') {
                 depth++;
                 i++;
@@ -622,81 +875,100 @@ public class OfgdbStatement implements Statement {
                 i++;
                 continue;
             }
-            if (depth == 0 && upper.startsWith(" UNION ", i)) {
-                String part = unionBody.substring(partStart, i).trim();
-                if (!part.isEmpty()) {
-                    parts.add(part);
+            if (depth == 0 && Character.isWhitespace(c) && upper.startsWith("UNION", i + 1)
+                    && i + 6 < unionBody.length() && Character.isWhitespace(unionBody.charAt(i + 6))) {
+                addUnionPart(parts, unionBody.substring(partStart, i), partDistinct);
+                i += 7;
+                while (i < unionBody.length() && Character.isWhitespace(unionBody.charAt(i))) {
+                    i++;
+                }
+                partDistinct = true;
+                if (upper.startsWith("ALL", i) && i + 3 < unionBody.length() && Character.isWhitespace(unionBody.charAt(i + 3))) {
+                    partDistinct = false;
+                    i += 3;
                 }
-                i += " UNION ".length();
                 partStart = i;
                 continue;
             }
             i++;
         }
-        String tail = unionBody.substring(partStart).trim();
-        if (!tail.isEmpty()) {
-            parts.add(tail);
-        }
+        addUnionPart(parts, unionBody.substring(partStart), partDistinct);
         if (parts.isEmpty()) {
             throw new SQLException("unsupported UNION SELECT statement");
         }
         return parts;
     }
 
-    private static String buildRowKey(Map<String, Object> row, List<String> columns) {
-        StringBuilder key = new StringBuilder();
-        String sep = "";
-        for (String col : columns) {
-            Object value = getIgnoreCase(row, col);
-            key.append(sep).append(col.toLowerCase(Locale.ROOT)).append('=').append(value != null ? value.toString() : "<null>");
-            sep = "|";
+    private static void addUnionPart(List<UnionPart> parts, String sql, boolean distinct) throws SQLException {
+        String part = sql.trim();
+        if (part.isEmpty()) {
+            throw new SQLException("unsupported UNION SELECT statement");
         }
-        return key.toString();
+        parts.add(new UnionPart(part, distinct));
     }
 
-    private static boolean matchesSimpleWhere(Map<String, Object> row, String whereClause) throws SQLException {
-        if (whereClause == null || whereClause.trim().isEmpty()) {
-            return true;
+    /**
+     * Parses a branch like <code>SELECT r1.T_Id, r1.T_Ili_Tid, 'table' T_Type FROM table r1 WHERE ...</code>.
+     * @return null, if the branch is not a SELECT of columns and constants of one table.
+     */
+    private static UnionBranch parseUnionBranch(String sql) {
+        Matcher matcher = UNION_BRANCH_PATTERN.matcher(sql);
+        if (!matcher.matches() || sql.toUpperCase(Locale.ROOT).contains(" JOIN ")) {
+            return null;
         }
-        String[] conditions = whereClause.split("(?i)\\s+AND\\s+");
-        for (String conditionRaw : conditions) {
-            String condition = conditionRaw != null ? conditionRaw.trim() : "";
-            if (condition.isEmpty()) {
-                continue;
-            }
-            int eqPos = condition.indexOf('=');
-            if (eqPos <= 0) {
-                throw new SQLException("unsupported WHERE condition in UNION SELECT: " + condition);
-            }
-            String left = normalizeColumn(condition.substring(0, eqPos).trim());
-            String right = condition.substring(eqPos + 1).trim();
-            Object expected = parseSqlLiteral(right);
-            Object actual = getIgnoreCase(row, left);
-            if (actual == null && expected == null) {
-                continue;
-            }
-            if (actual == null || expected == null) {
-                return false;
+        UnionBranch branch = new UnionBranch();
+        branch.tableName = normalizeTableIdentifier(matcher.group(2).trim());
+        branch.whereClause = matcher.group(3) != null ? normalizeWhereClause(matcher.group(3).trim()) : "";
+        for (String rawItem : splitSelectList(matcher.group(1))) {
+            String expression = stripAlias(rawItem);
+            UnionBranchItem item = new UnionBranchItem();
+            if ("*".equals(expression) || expression.isEmpty()) {
+                return null;
+            } else if (expression.startsWith("'") && expression.endsWith("'") && expression.length() >= 2) {
+                item.constant = expression.substring(1, expression.length() - 1).replace("''", "'");
+            } else if ("NULL".equalsIgnoreCase(expression)) {
+                item.constant = null;
+            } else if (expression.matches("-?\\d+(?:\\.\\d+)?")) {
+                item.constant = parseValue(expression);
+            } else if (isSimpleColumnReference(expression)) {
+                item.column = normalizeColumn(expression);
+                if (!containsIgnoreCase(branch.fetchColumns, item.column)) {
+                    branch.fetchColumns.add(item.column);
+                }
+            } else {
+                return null;
             }
-            if (!actual.toString().equals(expected.toString())) {
-                return false;
+            String alias = rawItem.trim().substring(expression.length()).trim();
+            if (alias.regionMatches(true, 0, "AS ", 0, 3)) {
+                alias = alias.substring(3).trim();
             }
+            branch.names.add(!alias.isEmpty() ? normalizeColumn(alias) : item.column != null ? item.column : expression);
+            branch.items.add(item);
         }
-        return true;
+        return branch;
     }
 
-    private static Object parseSqlLiteral(String literalText) {
-        if (literalText == null) {
-            return null;
-        }
-        String text = literalText.trim();
-        if (text.equalsIgnoreCase("NULL")) {
-            return null;
-        }
-        if (text.startsWith("'") && text.endsWith("'") && text.length() >= 2) {
-            return text.substring(1, text.length() - 1).replace("''", "'");
+    /** splits a select list at the commas outside of string literals and parentheses. */
+    private static List<String> splitSelectList(String selectList) {
+        List<String> items = new ArrayList<String>();
+        int depth = 0;
+        boolean inLiteral = false;
+        int start = 0;
+        for (int i = 0; i < selectList.length(); i++) {
+            char c = selectList.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            } else if (!inLiteral && c == '(') {
+                depth++;
+            } else if (!inLiteral && c == ')') {
+                depth--;
+            } else if (!inLiteral && depth == 0 && c == ',') {
+                items.add(selectList.substring(start, i).trim());
+                start = i + 1;
+            }
         }
-        return parseValue(text);
+        items.add(selectList.substring(start).trim());
+        return items;
     }
 
     private AbstractSelectStmt parseSelectStatement(String sql) throws SQLException {
@@ -794,155 +1066,198 @@ public class OfgdbStatement implements Statement {
             String orderByClause,
             List<String> requestedColumns,
             List<SelectValue> projection) throws SQLException {
-        OpenFgdb api = conn.getApi();
-        long tableHandle = 0L;
-        long cursorHandle = 0L;
-        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
-        List<String> columns = new ArrayList<String>();
-        try {
-            String resolvedTableName = conn.resolveTableName(tableName);
+        synchronized (conn.getNativeLock()) {
+            OpenFgdb api = conn.getApi();
+            long tableHandle = 0L;
+            long cursorHandle = 0L;
+            List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+            List<String> columns = new ArrayList<String>();
+            long phaseStart = metrics != null ? System.nanoTime() : 0L;
             try {
-                tableHandle = api.openTable(conn.getDbHandle(), resolvedTableName);
-            } catch (OpenFgdbException e) {
-                if (!isTableNotFound(e)) {
-                    throw e;
+                String resolvedTableName = conn.resolveTableName(tableName);
+                try {
+                    nativeCall();
+                    tableHandle = handles.openTable(conn.getDbHandle(), resolvedTableName);
+                } catch (OpenFgdbException e) {
+                    if (!isTableNotFound(e)) {
+                        throw e;
+                    }
+                    conn.reopenSession();
+                    resolvedTableName = conn.resolveTableName(tableName);
+                    nativeCall();
+                    tableHandle = handles.openTable(conn.getDbHandle(), resolvedTableName);
                 }
-                conn.reopenSession();
-                resolvedTableName = conn.resolveTableName(tableName);
-                tableHandle = api.openTable(conn.getDbHandle(), resolvedTableName);
-            }
-            OfgdbTableSchema tableSchema = conn.getTableSchema(resolvedTableName);
-            List<String> tableColumns = api.getFieldNames(tableHandle);
-            String effectiveFieldSpec = fieldSpec;
-            List<String> fetchColumns = new ArrayList<String>();
-            if ("*".equals(fieldSpec)) {
-                fetchColumns.addAll(tableColumns);
-                effectiveFieldSpec = joinColumns(fetchColumns);
-                if (requestedColumns != null && !requestedColumns.isEmpty()) {
-                    columns.addAll(requestedColumns);
-                    for (String fetchColumn : fetchColumns) {
-                        if (!containsIgnoreCase(columns, fetchColumn)) {
-                            columns.add(fetchColumn);
+                OfgdbTableSchema tableSchema = conn.getTableSchema(resolvedTableName);
+                nativeCall();
+                List<String> tableColumns = api.getFieldNames(tableHandle);
+                String effectiveFieldSpec = fieldSpec;
+                List<String> fetchColumns = new ArrayList<String>();
+                if ("*".equals(fieldSpec)) {
+                    fetchColumns.addAll(tableColumns);
+                    effectiveFieldSpec = joinColumns(fetchColumns);
+                    if (requestedColumns != null && !requestedColumns.isEmpty()) {
+                        columns.addAll(requestedColumns);
+                        for (String fetchColumn : fetchColumns) {
+                            if (!containsIgnoreCase(columns, fetchColumn)) {
+                                columns.add(fetchColumn);
+                            }
                         }
+                    } else {
+                        columns.addAll(fetchColumns);
                     }
                 } else {
-                    columns.addAll(fetchColumns);
-                }
-            } else {
-                fetchColumns.addAll(canonicalizeColumns(splitColumns(fieldSpec), tableColumns));
-                effectiveFieldSpec = joinColumns(fetchColumns);
-                if (requestedColumns != null && !requestedColumns.isEmpty()) {
-                    columns.addAll(requestedColumns);
-                } else {
-                    columns.addAll(fetchColumns);
+                    fetchColumns.addAll(canonicalizeColumns(splitColumns(fieldSpec), tableColumns));
+                    effectiveFieldSpec = joinColumns(fetchColumns);
+                    if (requestedColumns != null && !requestedColumns.isEmpty()) {
+                        columns.addAll(requestedColumns);
+                    } else {
+                        columns.addAll(fetchColumns);
+                    }
                 }
-            }
 
-            String where = whereClause;
-            if (projection != null && whereClause == null) {
-                where = buildWhereClause(null);
-            }
-            cursorHandle = api.search(tableHandle, effectiveFieldSpec, where);
-            while (true) {
-                long rowHandle = api.fetchRow(cursorHandle);
-                if (rowHandle == 0L) {
-                    break;
+                String where = whereClause;
+                if (projection != null && whereClause == null) {
+                    where = buildWhereClause(null);
                 }
-                try {
-                    Map<String, Object> baseRow = new HashMap<String, Object>();
-                    for (String column : fetchColumns) {
-                        baseRow.put(column, readRowValue(api, rowHandle, column, tableSchema != null ? tableSchema.getColumn(column) : null));
+                if (metrics != null) {
+                    long now = System.nanoTime();
+                    metrics.planNanos += now - phaseStart;
+                    phaseStart = now;
+                }
+                nativeCall();
+                cursorHandle = handles.search(tableHandle, effectiveFieldSpec, where);
+                while (true) {
+                    nativeCall();
+                    long rowHandle = handles.fetchRow(cursorHandle);
+                    if (metrics != null) {
+                        long now = System.nanoTime();
+                        metrics.scanNanos += now - phaseStart;
+                        phaseStart = now;
+                    }
+                    if (rowHandle == 0L) {
+                        break;
                     }
-                    Map<String, Object> outRow = new HashMap<String, Object>();
-                    if (projection == null || projection.isEmpty()) {
-                        for (String column : columns) {
-                            outRow.put(column, getIgnoreCase(baseRow, column));
+                    try {
+                        if (metrics != null) {
+                            metrics.rowsScanned++;
                         }
-                    } else {
-                        for (SelectValue selectValue : projection) {
-                            outRow.put(selectValue.getColumnName(), evaluateProjection(baseRow, selectValue));
+                        Map<String, Object> baseRow = new HashMap<String, Object>();
+                        for (String column : fetchColumns) {
+                            baseRow.put(column, readRowValue(api, rowHandle, column, tableSchema != null ? tableSchema.getColumn(column) : null));
                         }
-                        for (String fetchColumn : fetchColumns) {
-                            if (!containsIgnoreCaseKey(outRow, fetchColumn)) {
-                                outRow.put(fetchColumn, getIgnoreCase(baseRow, fetchColumn));
+                        Map<String, Object> outRow = new HashMap<String, Object>();
+                        if (projection == null || projection.isEmpty()) {
+                            for (String column : columns) {
+                                outRow.put(column, getIgnoreCase(baseRow, column));
+                            }
+                        } else {
+                            for (SelectValue selectValue : projection) {
+                                outRow.put(selectValue.getColumnName(), evaluateProjection(baseRow, selectValue));
+                            }
+                            for (String fetchColumn : fetchColumns) {
+                                if (!containsIgnoreCaseKey(outRow, fetchColumn)) {
+                                    outRow.put(fetchColumn, getIgnoreCase(baseRow, fetchColumn));
+                                }
                             }
                         }
+                        rows.add(outRow);
+                    } finally {
+                        nativeCall();
+                        handles.closeRow(rowHandle);
+                        if (metrics != null) {
+                            long now = System.nanoTime();
+                            metrics.decodeNanos += now - phaseStart;
+                            phaseStart = now;
+                        }
                     }
-                    rows.add(outRow);
-                } finally {
-                    api.closeRow(rowHandle);
                 }
-            }
-            applyOrderBy(rows, columns, orderByClause);
-            List<Integer> jdbcTypes = resolveOutputJdbcTypes(tableSchema, columns, rows);
-            List<String> jdbcTypeNames = resolveOutputJdbcTypeNames(tableSchema, columns, rows, jdbcTypes);
-            return new OfgdbResultSet(rows, columns, jdbcTypes, jdbcTypeNames);
-        } catch (OpenFgdbException e) {
-            throw new SQLException("failed to execute query", e);
-        } finally {
-            if (cursorHandle != 0L) {
-                try {
-                    api.closeCursor(cursorHandle);
-                } catch (OpenFgdbException ignore) {
+                applyOrderBy(rows, columns, orderByClause);
+                List<Integer> jdbcTypes = resolveOutputJdbcTypes(tableSchema, columns, rows);
+                List<String> jdbcTypeNames = resolveOutputJdbcTypeNames(tableSchema, columns, rows, jdbcTypes);
+                return new OfgdbResultSet(rows, columns, jdbcTypes, jdbcTypeNames);
+            } catch (OpenFgdbException e) {
+                throw new SQLException("failed to execute query", e);
+            } finally {
+                if (cursorHandle != 0L) {
+                    try {
+                        nativeCall();
+                        handles.closeCursor(cursorHandle);
+                    } catch (OpenFgdbException ignore) {
+                    }
                 }
-            }
-            if (tableHandle != 0L) {
-                try {
-                    api.closeTable(conn.getDbHandle(), tableHandle);
-                } catch (OpenFgdbException ignore) {
+                if (tableHandle != 0L) {
+                    try {
+                        nativeCall();
+                        handles.closeTable(tableHandle);
+                    } catch (OpenFgdbException ignore) {
+                    }
                 }
             }
         }
     }
 
     private ResultSet executeCountQuery(QueryPlan plan) throws SQLException {
-        OpenFgdb api = conn.getApi();
-        long tableHandle = 0L;
-        long cursorHandle = 0L;
-        long count = 0L;
-        try {
-            String resolvedTableName = conn.resolveTableName(plan.tableName);
+        synchronized (conn.getNativeLock()) {
+            OpenFgdb api = conn.getApi();
+            long tableHandle = 0L;
+            long cursorHandle = 0L;
+            long count = 0L;
             try {
-                tableHandle = api.openTable(conn.getDbHandle(), resolvedTableName);
-            } catch (OpenFgdbException e) {
-                if (!isTableNotFound(e)) {
-                    throw e;
+                String resolvedTableName = conn.resolveTableName(plan.tableName);
+                try {
+                    nativeCall();
+                    tableHandle = handles.openTable(conn.getDbHandle(), resolvedTableName);
+                } catch (OpenFgdbException e) {
+                    if (!isTableNotFound(e)) {
+                        throw e;
+                    }
+                    conn.reopenSession();
+                    resolvedTableName = conn.resolveTableName(plan.tableName);
+                    nativeCall();
+                    tableHandle = handles.openTable(conn.getDbHandle(), resolvedTableName);
                 }
-                conn.reopenSession();
-                resolvedTableName = conn.resolveTableName(plan.tableName);
-                tableHandle = api.openTable(conn.getDbHandle(), resolvedTableName);
-            }
-            String where = plan.whereClause != null ? plan.whereClause : "";
-            cursorHandle = api.search(tableHandle, "*", where);
-            while (true) {
-                long rowHandle = api.fetchRow(cursorHandle);
-                if (rowHandle == 0L) {
-                    break;
+                String where = plan.whereClause != null ? plan.whereClause : "";
+                long scanStart = metrics != null ? System.nanoTime() : 0L;
+                nativeCall();
+                cursorHandle = handles.search(tableHandle, "*", where);
+                while (true) {
+                    nativeCall();
+                    long rowHandle = handles.fetchRow(cursorHandle);
+                    if (rowHandle == 0L) {
+                        break;
+                    }
+                    count++;
+                    nativeCall();
+                    handles.closeRow(rowHandle);
                 }
-                count++;
-                api.closeRow(rowHandle);
-            }
-        } catch (OpenFgdbException e) {
-            throw new SQLException("failed to execute count query", e);
-        } finally {
-            if (cursorHandle != 0L) {
-                try {
-                    api.closeCursor(cursorHandle);
-                } catch (OpenFgdbException ignore) {
+                if (metrics != null) {
+                    metrics.scanNanos += System.nanoTime() - scanStart;
+                    metrics.rowsScanned += count;
                 }
-            }
-            if (tableHandle != 0L) {
-                try {
-                    api.closeTable(conn.getDbHandle(), tableHandle);
-                } catch (OpenFgdbException ignore) {
+            } catch (OpenFgdbException e) {
+                throw new SQLException("failed to execute count query", e);
+            } finally {
+                if (cursorHandle != 0L) {
+                    try {
+                        nativeCall();
+                        handles.closeCursor(cursorHandle);
+                    } catch (OpenFgdbException ignore) {
+                    }
+                }
+                if (tableHandle != 0L) {
+                    try {
+                        nativeCall();
+                        handles.closeTable(tableHandle);
+                    } catch (OpenFgdbException ignore) {
+                    }
                 }
             }
+            List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>(1);
+            Map<String, Object> row = new HashMap<String, Object>();
+            row.put("count", Long.valueOf(count));
+            rows.add(row);
+            return new OfgdbResultSet(rows, java.util.Arrays.asList("count"));
         }
-        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>(1);
-        Map<String, Object> row = new HashMap<String, Object>();
-        row.put("count", Long.valueOf(count));
-        rows.add(row);
-        return new OfgdbResultSet(rows, java.util.Arrays.asList("count"));
     }
 
     private ResultSet executeSearch(
@@ -1390,6 +1705,8 @@ public class OfgdbStatement implements Statement {
         if (right == null) {
             return 1;
         }
+        left = OfgdbLazyGeometry.materialize(left);
+        right = OfgdbLazyGeometry.materialize(right);
         if (left instanceof Number && right instanceof Number) {
             double lv = ((Number) left).doubleValue();
             double rv = ((Number) right).doubleValue();
@@ -1463,6 +1780,7 @@ public class OfgdbStatement implements Statement {
     }
 
     private Object readRowValue(OpenFgdb api, long rowHandle, String column, OfgdbColumnSchema columnSchema) throws OpenFgdbException {
+        nativeCall();
         if (api.rowIsNull(rowHandle, column)) {
             return null;
         }
@@ -1472,10 +1790,10 @@ public class OfgdbStatement implements Statement {
                 if (geometry == null) {
                     geometry = tryRowGetBlob(api, rowHandle, column);
                 }
-                return normalizeGeometryValue(column, geometry);
+                return lazyGeometryValue(column, geometry);
             }
             if (columnSchema.geometryRole == OfgdbColumnSchema.GeometryRole.ILI_BLOB_GEOMETRY) {
-                return normalizeGeometryValue(column, tryRowGetBlob(api, rowHandle, column));
+                return lazyGeometryValue(column, tryRowGetBlob(api, rowHandle, column));
             }
             switch (columnSchema.jdbcType) {
             case java.sql.Types.INTEGER:
@@ -1518,7 +1836,7 @@ public class OfgdbStatement implements Statement {
         byte[] blobValue = tryRowGetBlob(api, rowHandle, column);
         if (blobValue != null) {
             if (OfgdbTypeUtil.isLikelyGeometryColumn(column)) {
-                return normalizeGeometryValue(column, blobValue);
+                return lazyGeometryValue(column, blobValue);
             }
             return blobValue;
         }
@@ -1535,7 +1853,7 @@ public class OfgdbStatement implements Statement {
             if (OfgdbTypeUtil.isLikelyGeometryColumn(column) || OfgdbTypeUtil.looksBinaryText(textValue)) {
                 byte[] geometry = tryRowGetGeometry(api, rowHandle);
                 if (geometry != null) {
-                    return normalizeGeometryValue(column, geometry);
+                    return lazyGeometryValue(column, geometry);
                 }
             }
             return parseValue(textValue);
@@ -1543,25 +1861,22 @@ public class OfgdbStatement implements Statement {
         if (OfgdbTypeUtil.isLikelyGeometryColumn(column)) {
             byte[] geometry = tryRowGetGeometry(api, rowHandle);
             if (geometry != null) {
-                return normalizeGeometryValue(column, geometry);
+                return lazyGeometryValue(column, geometry);
             }
         }
         return null;
     }
 
-    private byte[] normalizeGeometryValue(String column, byte[] value) {
+    private Object lazyGeometryValue(String column, byte[] value) {
         if (value == null) {
             return null;
         }
-        try {
-            return geometryNormalizer.normalizeToWkb(value);
-        } catch (Exception ex) {
-            addWarning("geometry normalization failed for column <" + column + ">: " + ex.getMessage());
-            return value;
-        }
+        // the row handle is closed after the fetch; only the decoding is deferred to the first read
+        return new OfgdbLazyGeometry(geometryNormalizer, conn != null ? conn.getStats() : null, column, value);
     }
 
-    private static Integer tryRowGetInt32(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+    private Integer tryRowGetInt32(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+        nativeCall();
         try {
             return api.rowGetInt32(rowHandle, column);
         } catch (OpenFgdbException e) {
@@ -1572,7 +1887,8 @@ public class OfgdbStatement implements Statement {
         }
     }
 
-    private static Double tryRowGetDouble(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+    private Double tryRowGetDouble(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+        nativeCall();
         try {
             return api.rowGetDouble(rowHandle, column);
         } catch (OpenFgdbException e) {
@@ -1583,7 +1899,8 @@ public class OfgdbStatement implements Statement {
         }
     }
 
-    private static byte[] tryRowGetBlob(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+    private byte[] tryRowGetBlob(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+        nativeCall();
         try {
             return api.rowGetBlob(rowHandle, column);
         } catch (OpenFgdbException e) {
@@ -1594,7 +1911,8 @@ public class OfgdbStatement implements Statement {
         }
     }
 
-    private static String tryRowGetString(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+    private String tryRowGetString(OpenFgdb api, long rowHandle, String column) throws OpenFgdbException {
+        nativeCall();
         try {
             return api.rowGetString(rowHandle, column);
         } catch (OpenFgdbException e) {
@@ -1605,7 +1923,8 @@ public class OfgdbStatement implements Statement {
         }
     }
 
-    private static byte[] tryRowGetGeometry(OpenFgdb api, long rowHandle) throws OpenFgdbException {
+    private byte[] tryRowGetGeometry(OpenFgdb api, long rowHandle) throws OpenFgdbException {
+        nativeCall();
         try {
             return api.rowGetGeometry(rowHandle);
         } catch (OpenFgdbException e) {
@@ -1668,6 +1987,202 @@ public class OfgdbStatement implements Statement {
         final List<String> projectionColumns = new ArrayList<String>();
     }
 
+    private static final class UnionPart {
+        final String sql;
+        /** true, if the part follows a UNION (without ALL). */
+        final boolean distinct;
+
+        UnionPart(String sql, boolean distinct) {
+            this.sql = sql;
+            this.distinct = distinct;
+        }
+    }
+
+    private static final class UnionBranchItem {
+        /** null, if the item is a constant. */
+        String column;
+        Object constant;
+    }
+
+    private static final class UnionBranch {
+        String tableName;
+        String whereClause;
+        final List<String> names = new ArrayList<String>();
+        final List<UnionBranchItem> items = new ArrayList<UnionBranchItem>();
+        final List<String> fetchColumns = new ArrayList<String>();
+
+        /**
+         * @return the columns of the branch by the (upper case) column names of the union;
+         * without the columns of the predicate, that are constants of the branch or unknown.
+         */
+        Map<String, String> pushDownRenames(OfgdbPredicate predicate, List<String> unionColumns) {
+            Map<String, String> renames = new HashMap<String, String>();
+            for (String column : predicate.getColumns()) {
+                int idx = indexOfIgnoreCase(unionColumns, column);
+                if (idx >= 0 && items.get(idx).column != null) {
+                    renames.put(column.toUpperCase(Locale.ROOT), items.get(idx).column);
+                }
+            }
+            return renames;
+        }
+    }
+
+    /** distinct key of a row of a UNION; values are compared by type (numbers by value, binaries by content). */
+    static final class UnionRowKey {
+        private final Object[] values;
+        private final int hash;
+
+        UnionRowKey(Object[] rowValues) {
+            values = new Object[rowValues.length];
+            for (int i = 0; i < rowValues.length; i++) {
+                values[i] = keyValue(rowValues[i]);
+            }
+            hash = java.util.Arrays.hashCode(values);
+        }
+
+        private static Object keyValue(Object value) {
+            value = OfgdbLazyGeometry.materialize(value);
+            if (value instanceof byte[]) {
+                return java.nio.ByteBuffer.wrap((byte[]) value);
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                return Long.valueOf(((Number) value).longValue());
+            }
+            if (value instanceof Number) {
+                java.math.BigDecimal number = value instanceof java.math.BigDecimal
+                        ? (java.math.BigDecimal) value : java.math.BigDecimal.valueOf(((Number) value).doubleValue());
+                try {
+                    return Long.valueOf(number.longValueExact());
+                } catch (ArithmeticException notIntegral) {
+                    return Double.valueOf(number.doubleValue());
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof UnionRowKey && java.util.Arrays.equals(values, ((UnionRowKey) obj).values);
+        }
+    }
+
+    /** rows of a UNION, as the branches are consumed. */
+    private static final class UnionResult {
+        private final List<String> projection;
+        List<String> columns = null;
+        private List<Integer> jdbcTypes;
+        private List<String> jdbcTypeNames;
+        private int[] projectionIndexes;
+        private final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+
+        UnionResult(List<String> projection) {
+            this.projection = projection;
+        }
+
+        /** sets the columns of the union (names of the first branch); jdbcTypes contains null for constants. */
+        void setColumns(List<String> names, List<Integer> jdbcTypes, List<String> jdbcTypeNames) {
+            this.columns = names;
+            this.jdbcTypes = jdbcTypes;
+            this.jdbcTypeNames = jdbcTypeNames;
+            if (projection.isEmpty() || (projection.size() == 1 && "*".equals(projection.get(0)))) {
+                projection.clear();
+                projection.addAll(names);
+            }
+            projectionIndexes = new int[projection.size()];
+            for (int i = 0; i < projectionIndexes.length; i++) {
+                projectionIndexes[i] = indexOfIgnoreCase(names, projection.get(i));
+            }
+        }
+
+        void add(final Object[] values, OfgdbPredicate filter, java.util.Set<UnionRowKey> seen) throws SQLException {
+            if (filter != null && !filter.matches(new OfgdbPredicate.Row() {
+                @Override
+                public Object get(String column) throws SQLException {
+                    int idx = indexOfIgnoreCase(columns, column);
+                    if (idx < 0) {
+                        throw new SQLException("unknown column <" + column + "> in WHERE of UNION SELECT");
+                    }
+                    return values[idx];
+                }
+            })) {
+                return;
+            }
+            if (seen != null && !seen.add(new UnionRowKey(values))) {
+                return;
+            }
+            Map<String, Object> out = new HashMap<String, Object>();
+            for (int i = 0; i < projectionIndexes.length; i++) {
+                int idx = projectionIndexes[i];
+                out.put(projection.get(i), idx >= 0 ? values[idx] : null);
+            }
+            rows.add(out);
+        }
+
+        ResultSet toResultSet() {
+            if (columns == null) {
+                return new OfgdbResultSet(rows, projection);
+            }
+            List<Integer> projectionTypes = new ArrayList<Integer>(projection.size());
+            List<String> projectionTypeNames = new ArrayList<String>(projection.size());
+            for (int i = 0; i < projectionIndexes.length; i++) {
+                int idx = projectionIndexes[i];
+                String column = projection.get(i);
+                if (idx >= 0 && jdbcTypes.get(idx) != null) {
+                    projectionTypes.add(jdbcTypes.get(idx));
+                    projectionTypeNames.add(jdbcTypeNames.get(idx));
+                } else {
+                    int jdbcType = inferJdbcTypeFromRows(rows, column);
+                    projectionTypes.add(Integer.valueOf(jdbcType));
+                    projectionTypeNames.add(OfgdbTypeUtil.jdbcTypeName(jdbcType, column));
+                }
+            }
+            return new OfgdbResultSet(rows, projection, projectionTypes, projectionTypeNames);
+        }
+    }
+
+    static final class PreparedSelect {
+        static final PreparedSelect UNSUPPORTED = new PreparedSelect(null, null, null);
+
+        final LimitSpec limitSpec;
+        final QueryPlan plan;
+        final List<String> whereParts;
+
+        PreparedSelect(LimitSpec limitSpec, QueryPlan plan, List<String> whereParts) {
+            this.limitSpec = limitSpec;
+            this.plan = plan;
+            this.whereParts = whereParts;
+        }
+
+        QueryPlan bind(List<Object> parameters) {
+            if (whereParts.size() == 1) {
+                return plan;
+            }
+            return new QueryPlan(plan.tableName, plan.fieldSpec, bindWhereClause(parameters), plan.orderByClause, plan.columns);
+        }
+
+        String bindWhereClause(List<Object> parameters) {
+            StringBuilder where = new StringBuilder(whereParts.get(0));
+            for (int i = 1; i < whereParts.size(); i++) {
+                if (parameters != null && i - 1 < parameters.size()) {
+                    where.append(encodeLiteral(parameters.get(i - 1)));
+                } else {
+                    where.append('?');
+                }
+                where.append(whereParts.get(i));
+            }
+            return where.toString();
+        }
+
+        boolean isSupported() {
+            return plan != null;
+        }
+    }
+
     private static final class QueryPlan {
         final String tableName;
         final String fieldSpec;
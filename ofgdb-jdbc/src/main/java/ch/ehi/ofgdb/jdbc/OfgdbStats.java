@@ -0,0 +1,55 @@
+package ch.ehi.ofgdb.jdbc;
+
+/**
+ * Statistics of an OfgdbConnection, opened with the connection property stats=true
+ * (or jmx=true, slowQueryMillis=n). Available via Connection.unwrap(OfgdbStats.class)
+ * and, with jmx=true, as MBean ch.ehi.ofgdb.jdbc:type=OfgdbConnection.
+ * Times are accumulated over all statements of the connection.
+ */
+public interface OfgdbStats {
+    long getStatementCount();
+
+    /** wall time of the statement executions. */
+    long getTotalMillis();
+
+    /** time to parse the SQL text (regular expressions, SQL parser). */
+    long getParseMillis();
+
+    /** time to prepare the plan of a query (plan cache, table and schema lookup). */
+    long getPlanMillis();
+
+    /** time of the native search and fetch calls. */
+    long getNativeScanMillis();
+
+    /** time to read the values of the fetched rows. */
+    long getDecodeMillis();
+
+    /** time to normalize geometry values to WKB (also if read after the statement). */
+    long getNormalizeMillis();
+
+    long getRowsScanned();
+
+    /** rows of the materialized result sets. */
+    long getRowsReturned();
+
+    long getNativeCallCount();
+
+    /** bytes of geometry values normalized to WKB. */
+    long getGeometryBytesDecoded();
+
+    long getSnapshotCount();
+
+    /** time to copy the database for a transaction snapshot. */
+    long getSnapshotMillis();
+
+    long getSchemaCacheHits();
+
+    long getSchemaCacheMisses();
+
+    /** threshold for the slow query log; 0 disables the log. */
+    long getSlowQueryMillis();
+
+    void setSlowQueryMillis(long millis);
+
+    void reset();
+}
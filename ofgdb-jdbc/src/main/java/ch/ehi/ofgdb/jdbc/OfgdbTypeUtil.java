@@ -68,7 +68,7 @@ final class OfgdbTypeUtil {
         if (value instanceof Boolean) {
             return Types.BOOLEAN;
         }
-        if (value instanceof byte[]) {
+        if (value instanceof byte[] || value instanceof OfgdbLazyGeometry) {
             return Types.VARBINARY;
         }
         if (value instanceof java.sql.Timestamp) {
@@ -0,0 +1,60 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class OfgdbLazyGeometryTest {
+    private static byte[] createShapePoint() {
+        return new byte[] {
+                1, 0, 0, 0, // ShapePoint (little-endian int)
+                0, 0, 0, 0, 0, 0, 0, 0, // x
+                0, 0, 0, 0, 0, 0, 0, 0 // y
+        };
+    }
+
+    @Test
+    public void geometryIsNormalizedOnFirstRead() throws Exception {
+        OfgdbLazyGeometry geometry = new OfgdbLazyGeometry(new OfgdbGeometryNormalizer(), null, "geometrie", createShapePoint());
+        Map<String, Object> row = new HashMap<String, Object>();
+        row.put("T_Id", Integer.valueOf(1));
+        row.put("geometrie", geometry);
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        rows.add(row);
+        ResultSet rs = new OfgdbResultSet(rows, Arrays.asList("T_Id", "geometrie"));
+        assertEquals(Types.VARBINARY, rs.getMetaData().getColumnType(2));
+        assertTrue(rs.next());
+        assertEquals(1, rs.getInt(1));
+        assertFalse(geometry.isMaterialized());
+        byte[] wkb = rs.getBytes(2);
+        assertTrue(geometry.isMaterialized());
+        assertTrue(EsriShapeSniffer.looksLikeWkb(wkb));
+        assertSame(wkb, rs.getBytes("geometrie"));
+        assertSame(wkb, rs.getObject(2));
+    }
+
+    @Test
+    public void normalizationIsAddedToTheConnectionStats() throws Exception {
+        OfgdbConnectionStats stats = new OfgdbConnectionStats(0L);
+        byte[] shape = createShapePoint();
+        OfgdbLazyGeometry geometry = new OfgdbLazyGeometry(new OfgdbGeometryNormalizer(), stats, "geometrie", shape);
+        assertEquals(0L, stats.getGeometryBytesDecoded());
+        byte[] wkb = geometry.get();
+        assertTrue(EsriShapeSniffer.looksLikeWkb(wkb));
+        assertEquals(shape.length, stats.getGeometryBytesDecoded());
+        // decoded once
+        assertSame(wkb, geometry.get());
+        assertEquals(shape.length, stats.getGeometryBytesDecoded());
+    }
+}
@@ -0,0 +1,81 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+public class OfgdbNestedCursorTest {
+    @Test
+    public void nestedQueriesWhileOuterResultSetIsOpen() throws Exception {
+        Connection conn = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-nested-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_parent(T_Id INTEGER PRIMARY KEY NOT NULL, name VARCHAR(200))");
+                stmt.executeUpdate("CREATE TABLE t_child(T_Id INTEGER PRIMARY KEY NOT NULL, parent INTEGER, name VARCHAR(200))");
+                for (int i = 1; i <= 3; i++) {
+                    stmt.executeUpdate("INSERT INTO t_parent(T_Id, name) VALUES (" + i + ", 'p" + i + "')");
+                    for (int j = 1; j <= i; j++) {
+                        stmt.executeUpdate("INSERT INTO t_child(T_Id, parent, name) VALUES (" + (i * 10 + j) + ", " + i + ", 'c" + j + "')");
+                    }
+                }
+            }
+            OfgdbConnection ofgdbConn = conn.unwrap(OfgdbConnection.class);
+            int baseResources = ofgdbConn.getOpenResourceCount();
+            Statement outer = conn.createStatement();
+            PreparedStatement children = conn.prepareStatement("SELECT T_Id FROM t_child WHERE parent=?");
+            PreparedStatement sameTable = conn.prepareStatement("SELECT name FROM t_parent WHERE T_Id=?");
+            assertEquals(baseResources + 3, ofgdbConn.getOpenResourceCount());
+            int parents = 0;
+            int childRows = 0;
+            ResultSet outerRs = outer.executeQuery("SELECT T_Id, name FROM t_parent ORDER BY T_Id");
+            while (outerRs.next()) {
+                long parentId = outerRs.getLong(1);
+                parents++;
+                children.setLong(1, parentId);
+                try (ResultSet rs = children.executeQuery()) {
+                    while (rs.next()) {
+                        childRows++;
+                    }
+                }
+                sameTable.setLong(1, parentId);
+                try (ResultSet rs = sameTable.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(outerRs.getString(2), rs.getString(1));
+                }
+                assertEquals(0, ((OfgdbStatement) children).getOpenHandleCount());
+            }
+            assertEquals(3, parents);
+            assertEquals(6, childRows);
+
+            children.close();
+            assertEquals(baseResources + 2, ofgdbConn.getOpenResourceCount());
+            assertFalse(outerRs.isClosed());
+            outer.close();
+            assertTrue(outerRs.isClosed());
+
+            ResultSet pending = sameTable.executeQuery();
+            conn.close();
+            assertTrue(sameTable.isClosed());
+            assertTrue(pending.isClosed());
+            assertEquals(0, ofgdbConn.getOpenResourceCount());
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class OfgdbPreparedSelectTest {
+    @Test
+    public void bindsParametersIntoWhereClause() {
+        OfgdbStatement.PreparedSelect prepared = OfgdbStatement.prepareSelect(
+                "SELECT r0.T_Id, r0.T_Type FROM t_plan r0 WHERE r0.T_Id=? AND r0.name=? ORDER BY r0.T_Id");
+        assertTrue(prepared.isSupported());
+        assertEquals("T_Id=5 AND name='it''s'",
+                prepared.bindWhereClause(Arrays.<Object>asList(Long.valueOf(5), "it's")));
+    }
+
+    @Test
+    public void unsupportedTemplates() {
+        assertFalse(OfgdbStatement.prepareSelect("SELECT T_Id FROM t_plan WHERE name='?' AND T_Id=?").isSupported());
+        assertFalse(OfgdbStatement.prepareSelect(
+                "SELECT a.T_Id FROM t_plan a LEFT JOIN t_other b ON a.T_Id=b.T_Id WHERE a.T_Id=?").isSupported());
+    }
+
+    @Test
+    public void planIsReusedWithOtherParameters() throws Exception {
+        Connection conn = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-prepared-select-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_plan(T_Id INTEGER PRIMARY KEY NOT NULL, name VARCHAR(40))");
+                for (int i = 1; i <= 3; i++) {
+                    stmt.executeUpdate("INSERT INTO t_plan(T_Id, name) VALUES (" + i + ", 'n" + i + "')");
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT T_Id, name FROM t_plan WHERE T_Id=?")) {
+                for (int i = 1; i <= 3; i++) {
+                    stmt.setInt(1, i);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        assertTrue(rs.next());
+                        assertEquals("n" + i, rs.getString(2));
+                        assertFalse(rs.next());
+                    }
+                }
+            }
+            assertEquals(1, ((OfgdbConnection) conn).getSelectPlanCache().size());
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class OfgdbReadOnlyConnectionTest {
+    @Test
+    public void readOnlyConnectionRejectsUpdatesAndReadsConcurrently() throws Exception {
+        Connection conn = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-readonly-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            final String url = conn.getMetaData().getURL();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_ro(T_Id INTEGER PRIMARY KEY NOT NULL, name VARCHAR(40))");
+                for (int i = 1; i <= 5; i++) {
+                    stmt.executeUpdate("INSERT INTO t_ro(T_Id, name) VALUES (" + i + ", 'n" + i + "')");
+                }
+            }
+            conn.close();
+            conn = null;
+
+            final Connection roConn = DriverManager.getConnection(url + "?readOnly=true", null, null);
+            conn = roConn;
+            assertTrue(roConn.isReadOnly());
+            try (Statement stmt = roConn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO t_ro(T_Id, name) VALUES (6, 'n6')");
+                fail("update on a read-only connection");
+            } catch (SQLException expected) {
+            }
+            roConn.setAutoCommit(false);
+            Path dbPath = Path.of(url.substring(OfgdbDriver.BASE_URL.length()));
+            assertFalse(Files.exists(OfgdbFileSnapshot.buildSnapshotPath(dbPath.toAbsolutePath().normalize())));
+            roConn.rollback();
+            assertTrue(roConn.getAutoCommit());
+
+            // the native calls on the shared handle are serialized by the lock of the database
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(executor.submit(new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws Exception {
+                            int count = 0;
+                            try (Statement stmt = roConn.createStatement();
+                                    ResultSet rs = stmt.executeQuery("SELECT T_Id, name FROM t_ro")) {
+                                while (rs.next()) {
+                                    count++;
+                                }
+                            }
+                            return count;
+                        }
+                    }));
+                }
+                for (Future<Integer> result : results) {
+                    assertEquals(5, result.get().intValue());
+                }
+            } finally {
+                executor.shutdown();
+            }
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+}
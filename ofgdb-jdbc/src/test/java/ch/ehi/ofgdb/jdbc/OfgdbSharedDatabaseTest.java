@@ -0,0 +1,145 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+public class OfgdbSharedDatabaseTest {
+    @Test
+    public void readOnlyConnectionsShareHandleAndCaches() throws Exception {
+        Connection conn = null;
+        Connection conn2 = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-shared-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            conn2 = DriverManager.getConnection(conn.getMetaData().getURL(), null, null);
+            OfgdbConnection ofgdbConn = (OfgdbConnection) conn;
+            OfgdbConnection ofgdbConn2 = (OfgdbConnection) conn2;
+            OfgdbDatabase database = ofgdbConn.getDatabase();
+            assertSame(database, ofgdbConn2.getDatabase());
+            assertEquals(2, database.getConnectionCount());
+            assertNotEquals(ofgdbConn.getOpenFgdbHandle(), ofgdbConn2.getOpenFgdbHandle());
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_shared(T_Id INTEGER PRIMARY KEY NOT NULL, name VARCHAR(40))");
+            }
+            assertTrue(ofgdbConn2.getKnownTableNames().stream().anyMatch(name -> name.equalsIgnoreCase("t_shared")));
+
+            conn.setReadOnly(true);
+            conn2.setReadOnly(true);
+            assertEquals(2, database.getSharedHandleCount());
+            assertEquals(ofgdbConn.getOpenFgdbHandle(), ofgdbConn2.getOpenFgdbHandle());
+
+            conn2.setReadOnly(false);
+            assertEquals(1, database.getSharedHandleCount());
+            assertNotEquals(ofgdbConn.getOpenFgdbHandle(), ofgdbConn2.getOpenFgdbHandle());
+
+            conn2.close();
+            conn2 = null;
+            assertEquals(1, database.getConnectionCount());
+            conn.close();
+            conn = null;
+            assertEquals(0, database.getSharedHandleCount());
+            conn = DriverManager.getConnection(OfgdbDriver.BASE_URL + database.getPath(), null, null);
+            assertFalse(database == ((OfgdbConnection) conn).getDatabase());
+        } finally {
+            if (conn2 != null) {
+                conn2.close();
+            }
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+
+    @Test
+    public void rollbackRestoresFilesUnderOtherConnections() throws Exception {
+        Connection conn = null;
+        Connection reader = null;
+        Connection other = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-shared-rollback-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            String url = conn.getMetaData().getURL();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_rb(T_Id INTEGER PRIMARY KEY NOT NULL, name VARCHAR(40))");
+                stmt.executeUpdate("INSERT INTO t_rb(T_Id, name) VALUES (1, 'committed')");
+            }
+            reader = DriverManager.getConnection(url + "?readOnly=true", null, null);
+            other = DriverManager.getConnection(url, null, null);
+            OfgdbDatabase database = ((OfgdbConnection) conn).getDatabase();
+            Statement readerStmt = reader.createStatement();
+            assertEquals(1L, count(readerStmt));
+            Statement otherStmt = other.createStatement();
+            assertEquals(1L, count(otherStmt));
+
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO t_rb(T_Id, name) VALUES (2, 'rolled back')");
+                stmt.executeUpdate("INSERT INTO t_rb(T_Id, name) VALUES (3, 'rolled back')");
+                assertEquals(3L, count(stmt));
+            }
+            try {
+                other.setAutoCommit(false);
+                fail("second transaction on the same database");
+            } catch (SQLException expected) {
+            }
+            assertTrue(other.getAutoCommit());
+
+            conn.rollback();
+            // the statements of the other connections stay open; the own handle of the other connection
+            // was closed before the files were restored and is opened again by its next native call
+            assertFalse(readerStmt.isClosed());
+            assertFalse(otherStmt.isClosed());
+            assertEquals(1, database.getSharedHandleCount());
+            assertNotEquals(0L, ((OfgdbConnection) reader).getOpenFgdbHandle());
+            assertEquals(1L, count(readerStmt));
+            assertEquals(1L, count(otherStmt));
+            readerStmt.close();
+            otherStmt.close();
+            try (Statement stmt = conn.createStatement()) {
+                assertEquals(1L, count(stmt));
+            }
+            // the transaction ended; the other connection may start one
+            other.setAutoCommit(false);
+            other.rollback();
+        } finally {
+            if (other != null) {
+                other.close();
+            }
+            if (reader != null) {
+                reader.close();
+            }
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+
+    private static long count(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t_rb")) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+}
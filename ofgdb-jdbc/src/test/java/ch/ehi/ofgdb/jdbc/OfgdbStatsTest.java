@@ -0,0 +1,73 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class OfgdbStatsTest {
+    @Test
+    public void statsCountStatementsAndRows() throws Exception {
+        Connection conn = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-stats-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            final String url = conn.getMetaData().getURL();
+            assertFalse(conn.isWrapperFor(OfgdbStats.class));
+            try {
+                conn.unwrap(OfgdbStats.class);
+                fail("statistics of a connection without stats=true");
+            } catch (SQLException expected) {
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_stats(T_Id INTEGER PRIMARY KEY NOT NULL, name VARCHAR(40))");
+                for (int i = 1; i <= 3; i++) {
+                    stmt.executeUpdate("INSERT INTO t_stats(T_Id, name) VALUES (" + i + ", 'n" + i + "')");
+                }
+            }
+            conn.close();
+            conn = null;
+
+            Properties props = new Properties();
+            props.setProperty("stats", "true");
+            conn = DriverManager.getConnection(url, props);
+            assertTrue(conn.isWrapperFor(OfgdbStats.class));
+            OfgdbStats stats = conn.unwrap(OfgdbStats.class);
+            assertEquals(0L, stats.getStatementCount());
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT T_Id, name FROM t_stats WHERE T_Id >= 2")) {
+                int count = 0;
+                while (rs.next()) {
+                    count++;
+                }
+                assertEquals(2, count);
+            }
+            assertEquals(1L, stats.getStatementCount());
+            assertTrue(stats.getRowsScanned() >= 2L);
+            assertEquals(2L, stats.getRowsReturned());
+            assertTrue(stats.getNativeCallCount() > 0L);
+            assertTrue(stats.getSchemaCacheHits() + stats.getSchemaCacheMisses() > 0L);
+            stats.reset();
+            assertEquals(0L, stats.getStatementCount());
+            assertEquals(0L, stats.getNativeCallCount());
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class OfgdbUnionSelectTest {
+    @Test
+    public void unionPushesDownWhereAndDeduplicates() throws Exception {
+        Connection conn = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-union-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            String url = conn.getMetaData().getURL();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_a(T_Id INTEGER PRIMARY KEY NOT NULL, T_Ili_Tid VARCHAR(40))");
+                stmt.executeUpdate("CREATE TABLE t_b(T_Id INTEGER PRIMARY KEY NOT NULL, T_Ili_Tid VARCHAR(40))");
+                stmt.executeUpdate("INSERT INTO t_a(T_Id, T_Ili_Tid) VALUES (1, 'x1')");
+                stmt.executeUpdate("INSERT INTO t_a(T_Id, T_Ili_Tid) VALUES (2, 'x2')");
+                stmt.executeUpdate("INSERT INTO t_b(T_Id, T_Ili_Tid) VALUES (1, 'x1')");
+                stmt.executeUpdate("INSERT INTO t_b(T_Id, T_Ili_Tid) VALUES (3, 'x3')");
+            }
+            conn.close();
+            conn = null;
+            Properties props = new Properties();
+            props.setProperty("stats", "true");
+            conn = DriverManager.getConnection(url, props);
+            // as built by ili2db for the lookup of an object by its TID
+            String lookup = "SELECT T_Id,T_Ili_Tid,T_Type FROM ("
+                    + "SELECT r1.T_Id, r1.T_Ili_Tid, 't_a' T_Type FROM t_a r1"
+                    + " UNION SELECT r2.T_Id, r2.T_Ili_Tid, 't_b' T_Type FROM t_b r2) r0 WHERE r0.T_Ili_Tid=?";
+            try (PreparedStatement stmt = conn.prepareStatement(lookup)) {
+                stmt.setString(1, "x3");
+                try (ResultSet rs = stmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(3L, rs.getLong(1));
+                    assertEquals("x3", rs.getString(2));
+                    assertEquals("t_b", rs.getString(3));
+                    assertFalse(rs.next());
+                }
+            }
+            OfgdbStats stats = conn.unwrap(OfgdbStats.class);
+            stats.reset();
+            try (Statement stmt = conn.createStatement()) {
+                assertEquals(Collections.singletonList("1"), readIds(stmt.executeQuery(
+                        "SELECT T_Id FROM (SELECT T_Id, T_Ili_Tid FROM t_a UNION SELECT T_Id, T_Ili_Tid FROM t_b) r0"
+                                + " WHERE T_Ili_Tid = 'x1'")));
+                // pushed down: only the matching rows are fetched
+                assertEquals(2L, stats.getRowsScanned());
+                assertEquals(Arrays.asList("1", "1"), readIds(stmt.executeQuery(
+                        "SELECT T_Id FROM (SELECT T_Id, T_Ili_Tid FROM t_a UNION ALL SELECT T_Id, T_Ili_Tid FROM t_b) r0"
+                                + " WHERE T_Ili_Tid = 'x1'")));
+                assertEquals(Arrays.asList("2", "3"), readIds(stmt.executeQuery(
+                        "SELECT T_Id FROM (SELECT T_Id, T_Ili_Tid FROM t_a UNION SELECT T_Id, T_Ili_Tid FROM t_b) r0"
+                                + " WHERE T_Id IN (2,3) OR (T_Ili_Tid LIKE 'y%' AND NOT T_Id = 1)")));
+                // predicate on a constant column: evaluated on the fetched rows
+                assertEquals(Arrays.asList("1", "3"), readIds(stmt.executeQuery(
+                        "SELECT T_Id FROM (SELECT T_Id, 't_a' T_Type FROM t_a UNION SELECT T_Id, 't_b' T_Type FROM t_b) r0"
+                                + " WHERE T_Type = 't_b'")));
+            }
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+
+    @Test
+    public void predicateEvaluation() throws Exception {
+        OfgdbPredicate predicate = OfgdbPredicate.parse("a >= 2 AND (b IS NULL OR b NOT IN ('x','y')) AND c BETWEEN 1 AND 3");
+        assertEquals(3, predicate.getColumns().size());
+        final Map<String, Object> row = new HashMap<String, Object>();
+        OfgdbPredicate.Row values = new OfgdbPredicate.Row() {
+            @Override
+            public Object get(String column) {
+                return row.get(column);
+            }
+        };
+        row.put("a", Long.valueOf(2));
+        row.put("b", null);
+        row.put("c", new BigDecimal("2.5"));
+        assertTrue(predicate.matches(values));
+        row.put("b", "x");
+        assertFalse(predicate.matches(values));
+        row.put("b", "z");
+        row.put("a", null);
+        assertFalse(predicate.matches(values));
+        assertFalse(OfgdbPredicate.parse("NOT a = 1").matches(values));
+        Map<String, String> renames = new HashMap<String, String>();
+        renames.put("A", "T_Id");
+        renames.put("B", "b");
+        renames.put("C", "c");
+        // only the comparison is pushed down; OR and BETWEEN remain
+        assertEquals("T_Id >= 2", predicate.toPushDownSql(renames));
+        OfgdbPredicate residual = predicate.getResidual(renames);
+        assertEquals(2, residual.getColumns().size());
+        row.put("a", Long.valueOf(1));
+        row.put("b", null);
+        assertTrue(residual.matches(values));
+        row.put("c", Long.valueOf(4));
+        assertFalse(residual.matches(values));
+        // a column, that is a constant of the branch, is not pushed down
+        renames.remove("A");
+        assertEquals("", predicate.toPushDownSql(renames));
+        assertTrue(predicate == predicate.getResidual(renames));
+        // a comparison with NULL is never true; it is not pushed down
+        Map<String, String> xyz = new HashMap<String, String>();
+        xyz.put("X", "x");
+        xyz.put("Y", "y");
+        xyz.put("Z", "z");
+        assertEquals("x <> 'a' AND y IS NOT NULL", OfgdbPredicate.parse("x != 'a' AND y IS NOT NULL AND z = NULL").toPushDownSql(xyz));
+        assertNull(OfgdbPredicate.parse("x = 1").getResidual(Collections.singletonMap("X", "x")));
+    }
+
+    @Test
+    public void unionWhereOr() throws Exception {
+        assertUnionWhere("T_Id > 1 AND (T_Ili_Tid = 'x2' OR T_Ili_Tid = 'y4')", Arrays.asList("2", "4"));
+    }
+
+    @Test
+    public void unionWhereNot() throws Exception {
+        // NOT of unknown (row 3 has no T_Ili_Tid) is unknown
+        assertUnionWhere("T_Id > 1 AND NOT T_Ili_Tid = 'x2'", Arrays.asList("4", "5"));
+    }
+
+    @Test
+    public void unionWhereIn() throws Exception {
+        assertUnionWhere("T_Id > 1 AND T_Ili_Tid IN ('x2','x5')", Arrays.asList("2", "5"));
+        assertUnionWhere("T_Id > 1 AND T_Ili_Tid NOT IN ('x2','x5')", Arrays.asList("4"));
+    }
+
+    @Test
+    public void unionWhereLike() throws Exception {
+        assertUnionWhere("T_Id > 1 AND T_Ili_Tid LIKE 'x%'", Arrays.asList("2", "5"));
+        assertUnionWhere("T_Id > 1 AND T_Ili_Tid NOT LIKE 'x_'", Arrays.asList("4"));
+    }
+
+    @Test
+    public void unionWhereBetween() throws Exception {
+        assertUnionWhere("T_Id > 1 AND T_Id BETWEEN 2 AND 4", Arrays.asList("2", "3", "4"));
+        assertUnionWhere("T_Id > 1 AND T_Id NOT BETWEEN 2 AND 4", Arrays.asList("5"));
+    }
+
+    /**
+     * Runs a UNION of t_a (1 x1, 2 x2, 3 NULL) and t_b (4 y4, 5 x5) with the given WHERE.
+     * "T_Id > 1" is pushed down, so 4 rows are fetched; the rest of the WHERE is evaluated on the fetched rows.
+     */
+    private static void assertUnionWhere(String where, List<String> expectedIds) throws Exception {
+        Connection conn = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-union-where-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            String url = conn.getMetaData().getURL();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_a(T_Id INTEGER PRIMARY KEY NOT NULL, T_Ili_Tid VARCHAR(40))");
+                stmt.executeUpdate("CREATE TABLE t_b(T_Id INTEGER PRIMARY KEY NOT NULL, T_Ili_Tid VARCHAR(40))");
+                stmt.executeUpdate("INSERT INTO t_a(T_Id, T_Ili_Tid) VALUES (1, 'x1')");
+                stmt.executeUpdate("INSERT INTO t_a(T_Id, T_Ili_Tid) VALUES (2, 'x2')");
+                stmt.executeUpdate("INSERT INTO t_a(T_Id, T_Ili_Tid) VALUES (3, NULL)");
+                stmt.executeUpdate("INSERT INTO t_b(T_Id, T_Ili_Tid) VALUES (4, 'y4')");
+                stmt.executeUpdate("INSERT INTO t_b(T_Id, T_Ili_Tid) VALUES (5, 'x5')");
+            }
+            conn.close();
+            conn = null;
+            Properties props = new Properties();
+            props.setProperty("stats", "true");
+            conn = DriverManager.getConnection(url, props);
+            OfgdbStats stats = conn.unwrap(OfgdbStats.class);
+            stats.reset();
+            try (Statement stmt = conn.createStatement()) {
+                assertEquals(expectedIds, readIds(stmt.executeQuery(
+                        "SELECT T_Id FROM (SELECT T_Id, T_Ili_Tid FROM t_a UNION SELECT T_Id, T_Ili_Tid FROM t_b) r0"
+                                + " WHERE " + where)));
+            }
+            assertEquals(4L, stats.getRowsScanned());
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+
+    private static List<String> readIds(ResultSet rs) throws Exception {
+        List<String> ids = new ArrayList<String>();
+        try {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        } finally {
+            rs.close();
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,60 @@
+package ch.ehi.ofgdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+public class OfgdbVacuumTest {
+    @Test
+    public void vacuumKeepsRowsAndNeedsExclusiveAccess() throws Exception {
+        Connection conn = null;
+        Path root = null;
+        try {
+            conn = TestDbUtil.openTempConnection("ofgdb-vacuum-");
+            root = TestDbUtil.extractRootFromConnection(conn);
+            String url = conn.getMetaData().getURL();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t_vac(T_Id INTEGER PRIMARY KEY NOT NULL, name VARCHAR(200))");
+                for (int i = 1; i <= 50; i++) {
+                    stmt.executeUpdate("INSERT INTO t_vac(T_Id, name) VALUES (" + i + ", 'name of row " + i + "')");
+                }
+                stmt.executeUpdate("DELETE FROM t_vac WHERE T_Id > 10");
+
+                Connection other = DriverManager.getConnection(url, null, null);
+                try {
+                    stmt.executeUpdate("VACUUM t_vac");
+                    fail("VACUUM with a second connection open");
+                } catch (SQLException expected) {
+                } finally {
+                    other.close();
+                }
+
+                stmt.executeUpdate("VACUUM t_vac");
+                assertNotNull(stmt.getWarnings());
+                assertTrue(stmt.getWarnings().getMessage().startsWith("VACUUM reclaimed "));
+                stmt.executeUpdate("VACUUM");
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t_vac")) {
+                    assertTrue(rs.next());
+                    assertEquals(10L, rs.getLong(1));
+                }
+            }
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+            if (root != null) {
+                TestDbUtil.deleteRecursively(root);
+            }
+        }
+    }
+}
@@ -22,6 +22,8 @@ import ch.ehi.ili2db.base.DbNames;
 import ch.ehi.ili2db.base.DbUrlConverter;
 import ch.ehi.ili2db.base.Ili2db;
 import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.ili2db.base.ModelCache;
+import ch.ehi.ili2db.base.TableBasedIdGen;
 import ch.ehi.ili2db.gui.AbstractDbPanelDescriptor;
 import ch.ehi.ili2db.gui.Config;
 import ch.ehi.ili2db.mapping.NameMapping;
@@ -348,6 +350,9 @@ public abstract class AbstractMain {
 				} else if (isOption(arg, "--createImportTabs")) {
 					argi++;
 					config.setCreateImportTabs(parseBooleanArgument(arg));
+				} else if (isOption(arg, "--createObjHashCol")) {
+					argi++;
+					config.setCreateObjHashCol(parseBooleanArgument(arg));
 				} else if (isOption(arg, "--createStdCols")) {
 					argi++;
 					if (parseBooleanArgument(arg))
@@ -435,10 +440,32 @@ public abstract class AbstractMain {
                     argi++;
                     config.setFetchSize(Integer.parseInt(args[argi]));
                     argi++;
+                } else if (isOption(arg, "--exportStructBatchSize")) {
+                    argi++;
+                    config.setExportStructBatchSize(Integer.parseInt(args[argi]));
+                    argi++;
+                } else if (isOption(arg, "--exportAsyncWrite")) {
+                    argi++;
+                    config.setExportAsyncWrite(parseBooleanArgument(arg));
+                } else if (isOption(arg, "--validateChanged")) {
+                    argi++;
+                    config.setValidateChanged(parseBooleanArgument(arg));
                 } else if (isOption(arg, "--importBatchSize")) {
                     argi++;
                     config.setBatchSize(Integer.parseInt(args[argi]));
                     argi++;
+                } else if (isOption(arg, "--idBlockSize")) {
+                    argi++;
+                    config.setIdBlockSize(Integer.parseInt(args[argi]));
+                    argi++;
+                } else if (isOption(arg, "--modelCache")) {
+                    argi++;
+                    config.setModelCacheDir(args[argi]);
+                    argi++;
+                } else if (isOption(arg, "--modelCacheTtl")) {
+                    argi++;
+                    config.setModelCacheTtl(Long.parseLong(args[argi]));
+                    argi++;
                 } else if (isOption(arg, "--createBasketCol")) {
                     argi++;
                     if (parseBooleanArgument(arg))
@@ -587,8 +614,15 @@ public abstract class AbstractMain {
 					System.err.println("--exportTid            write transient TIDs from column " + DbNames.T_ILI_TID_COL);
 					System.err.println("--importBid            read transient BIDs into " + DbNames.BASKETS_TAB + "." + DbNames.T_ILI_TID_COL);
                     System.err.println("--exportFetchSize nrOfRecords      set the fetch size for the SQL query statements");
+                    System.err.println("--exportStructBatchSize nrOfObjects read the struct values of nrOfObjects objects with one SQL query");
+                    System.err.println("--exportAsyncWrite     write the transfer file on a separate thread (the objects are read from the db on one thread)");
+                    System.err.println("--validateChanged      validate only the baskets changed since the last successful --validateChanged (requires --createImportTabs)");
                     System.err.println("--importBatchSize nrOfRecords     set the batch size for the SQL insert/update statements");
+                    System.err.println("--idBlockSize nrOfIds  fixed number of ids reserved per access to " + TableBasedIdGen.SQL_T_KEY_OBJECT + " or to the id sequence of ili2duckdb/ili2h2gis (default: adaptive, " + TableBasedIdGen.MIN_BLOCK_SIZE + " to " + TableBasedIdGen.MAX_BLOCK_SIZE + "; ili2duckdb: 100; ili2h2gis: 1, with --h2gisBulkLoad 1000)");
+                    System.err.println("--modelCache folder    cache the ili files resolved for the given models in folder (skips the lookup in the model repositories)");
+                    System.err.println("--modelCacheTtl seconds time to live of the entries of the model cache (default: " + ModelCache.DEFAULT_TTL/1000 + ")");
 					System.err.println("--createImportTabs     create tables with import statistics. (" + DbNames.IMPORTS_TAB + ")");
+					System.err.println("--createObjHashCol     generate " + DbNames.T_ILI2DB_HASH_COL + " column; --update skips unchanged objects.");
 					System.err.println("--createBasketCol      generate " + DbNames.T_BASKET_COL + " column.");
 					System.err.println("--createDatasetCol     generate " + DbNames.T_DATASET_COL + " column (Requires --dataset)");
 					System.err.println("--createFk             generate foreign key constraints.");
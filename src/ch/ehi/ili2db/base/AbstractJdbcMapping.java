@@ -3,6 +3,7 @@ package ch.ehi.ili2db.base;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 
 import ch.ehi.ili2db.fromili.CustomMapping;
 import ch.ehi.ili2db.gui.Config;
@@ -41,6 +42,11 @@ public abstract class AbstractJdbcMapping implements CustomMapping {
     public void postPostScript(Connection conn, Config config)
     {
         
+    }
+    @Override
+    public void postImport(Connection conn, Config config)
+    {
+        
     }
     @Override
     public void fromIliInit(Config config) {
@@ -92,4 +98,9 @@ public abstract class AbstractJdbcMapping implements CustomMapping {
         return DbUtility.tableExists(conn, tableName);
     }
 
+    @Override
+    public PreparedStatement prepareInsertStatement(Connection conn,String insertStmt,Config config) throws SQLException
+    {
+        return conn.prepareStatement(insertStmt);
+    }
 }
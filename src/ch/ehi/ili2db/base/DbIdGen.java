@@ -27,6 +27,11 @@ import ch.ehi.ili2db.gui.Config;
 public interface DbIdGen {
 	public void init(String schema,Config config);
 	public void initDb(java.sql.Connection conn,String dbusr);
+	/** releases the statements prepared on the connection of initDb().
+	 * Called at the end of a transfer; a later call of newObjSqlId() prepares them again.
+	 */
+	public default void closeDb() {
+	}
 	 
 	public void initDbDefs(ch.ehi.sqlgen.generator.Generator gen);
 	public void addMappingTable(ch.ehi.sqlgen.repository.DbSchema schema);
@@ -50,6 +50,8 @@ public class DbNames {
 	public static final String T_USER_COL = "T_User";
 	public static final String T_CREATE_DATE_COL = "T_CreateDate";
 	public static final String T_LAST_CHANGE_COL = "T_LastChange";
+	public static final String T_ILI2DB_HASH_COL = "T_Ili2db_Hash";
+	public static final int T_ILI2DB_HASH_COL_SIZE = 40; // hex encoded SHA-1
 	public static final String T_SEQ_COL = "T_Seq";
 	public static final String T_PARENT_ATTR_COL = "T_ParentAttr";
 	public static final String T_PARENT_TYPE_COL = "T_ParentType";
@@ -626,7 +626,7 @@ public class Ili2db {
                     if(iliVersion!=null) {
                         config.setValue(UserSettings.ILI_LANGUAGE_VERSION, iliVersion);
                     }
-                    td = ch.interlis.ili2c.Main.runCompiler(ili2cConfig,
+                    td = compileModels(ili2cConfig,
                             config,ili2cMetaAttrs);
                 }
 				
@@ -764,13 +764,13 @@ public class Ili2db {
                             }
                             if(config.getCreateMetaInfo()){
                                 // update meta-attributes table
-                                MetaAttrUtility.updateMetaAttributesTable(insertCollector,conn, config.getDbschema(), td,mapping);
+                                MetaAttrUtility.updateMetaAttributesTable(insertCollector,conn, config.getDbschema(), td,mapping,config.getBatchSize());
                                 // set elements' meta-attributes
                                 MetaAttrUtility.addMetaAttrsFromDb(td, conn, config.getDbschema());
                             }
                             if(config.getCreateNlsTab()){
                                 // update NLS table
-                                NlsUtility.updateNlsTable(insertCollector,conn, config.getDbschema(), td,mapping);
+                                NlsUtility.updateNlsTable(insertCollector,conn, config.getDbschema(), td,mapping,config.getBatchSize());
                             }
 						}
 	                        // create script requested by user?
@@ -999,6 +999,9 @@ public class Ili2db {
 					EhiLogger.logState("..."+functionTxt+" done");
 				}
             }finally{
+				if(conn!=null){
+					customMapping.postImport(conn, config);
+				}
 				if(!connectionFromExtern){
 					if(conn!=null){
 						try{
@@ -1419,7 +1422,7 @@ public class Ili2db {
 			TransferDescription td;
 			modelv.setAutoCompleteModelList(true);
 			modelv.setGenerateWarnings(false);
-			td = ch.interlis.ili2c.Main.runCompiler(modelv,
+			td = compileModels(modelv,
 					config,ili2cMetaAttrs);
 			if (td == null) {
 				throw new Ili2dbException("compiler failed");
@@ -1621,7 +1624,7 @@ public class Ili2db {
                     }
                     if(config.getCreateMetaInfo()){
                         // update meta-attributes table
-                        MetaAttrUtility.updateMetaAttributesTable(insertCollector,conn, config.getDbschema(), td,mapping);
+                        MetaAttrUtility.updateMetaAttributesTable(insertCollector,conn, config.getDbschema(), td,mapping,config.getBatchSize());
                         // set elements' meta-attributes
                         if(conn!=null) {
                             MetaAttrUtility.addMetaAttrsFromDb(td, conn, config.getDbschema());
@@ -1629,9 +1632,10 @@ public class Ili2db {
                     }
                     if(config.getCreateNlsTab()){
                         // update NLS table
-                        NlsUtility.updateNlsTable(insertCollector,conn, config.getDbschema(), td,mapping);
+                        NlsUtility.updateNlsTable(insertCollector,conn, config.getDbschema(), td,mapping,config.getBatchSize());
                     }
                 }
+                idGen.closeDb();
 				
                 // is a create script requested by user?
                 String createscript=config.getCreatescript();
@@ -1681,6 +1685,9 @@ public class Ili2db {
 			}finally{
 	            try{
 	                if(importToDb) {
+	                    if(conn!=null){
+	                        customMapping.postImport(conn, config);
+	                    }
 	                    if(!connectionFromExtern){
 	                        if(conn!=null){
 	                            try{
@@ -1733,6 +1740,19 @@ public class Ili2db {
 		}
 		
 }
+	/** compiles the models; uses the model cache, if one is configured.
+	 */
+	private static TransferDescription compileModels(ch.interlis.ili2c.config.Configuration ili2cConfig,Config config,Ili2cMetaAttrs ili2cMetaAttrs) {
+		String modelCacheDir=config.getModelCacheDir();
+		if(modelCacheDir==null) {
+			return ch.interlis.ili2c.Main.runCompiler(ili2cConfig,config,ili2cMetaAttrs);
+		}
+		long ttl=ModelCache.DEFAULT_TTL;
+		if(config.getModelCacheTtl()!=null) {
+			ttl=config.getModelCacheTtl()*1000L;
+		}
+		return new ModelCache(new java.io.File(modelCacheDir),ttl).runCompiler(ili2cConfig,config,ili2cMetaAttrs);
+	}
 	private static void getLocalCopiesOfRemoteFiles(IliManager repoManager,Config config) throws Ili2cException {
 	    String dataFiles[]= {
 	            // Config.TRANSIENT_STRING_PRESCRIPT, // no code from remote
@@ -1873,6 +1893,8 @@ public class Ili2db {
                     config.setCreateMandatoryChecks(parseBooleanArgument(value));
                 } else if (arg.equals(Ili2dbMetaConfig.CREATE_IMPORT_TABS)) {
                     config.setCreateImportTabs(parseBooleanArgument(value));
+                } else if (arg.equals(Ili2dbMetaConfig.CREATE_OBJ_HASH_COL)) {
+                    config.setCreateObjHashCol(parseBooleanArgument(value));
                 } else if (arg.equals(Ili2dbMetaConfig.CREATE_STD_COLS)) {
                     if (parseBooleanArgument(value))
                         config.setCreateStdCols(Config.CREATE_STD_COLS_ALL);
@@ -1929,8 +1951,14 @@ public class Ili2db {
                     config.setImportBid(parseBooleanArgument(value));
                 } else if (arg.equals(Ili2dbMetaConfig.EXPORT_FETCH_SIZE)) {
                     config.setFetchSize(Integer.parseInt(value));
+                } else if (arg.equals(Ili2dbMetaConfig.EXPORT_STRUCT_BATCH_SIZE)) {
+                    config.setExportStructBatchSize(Integer.parseInt(value));
+                } else if (arg.equals(Ili2dbMetaConfig.EXPORT_ASYNC_WRITE)) {
+                    config.setExportAsyncWrite(parseBooleanArgument(value));
                 } else if (arg.equals(Ili2dbMetaConfig.IMPORT_BATCH_SIZE)) {
                     config.setBatchSize(Integer.parseInt(value));
+                } else if (arg.equals(Ili2dbMetaConfig.ID_BLOCK_SIZE)) {
+                    config.setIdBlockSize(Integer.parseInt(value));
                 } else if (arg.equals(Ili2dbMetaConfig.CREATE_BASKET_COL)) {
                     if (parseBooleanArgument(value))
                         config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
@@ -2025,6 +2053,7 @@ public class Ili2db {
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.CREATE_DATE_TIME_CHECKS,writeBooleanArgument(config.isCreateCreateDateTimeChecks()));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.CREATE_MANDATORY_CHECKS,writeBooleanArgument(config.isCreateMandatoryChecks()));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.CREATE_IMPORT_TABS,writeBooleanArgument(config.isCreateImportTabs()));
+        metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.CREATE_OBJ_HASH_COL,writeBooleanArgument(config.isCreateObjHashCol()));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.CREATE_STD_COLS,writeBooleanArgument(Config.CREATE_STD_COLS_ALL.equals(config.getCreateStdCols())));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.T_ID_NAME,config.getColT_ID());
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.ID_SEQ_MIN,writeLongArgument(config.getMinIdSeqValue()));
@@ -2050,7 +2079,10 @@ public class Ili2db {
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.EXPORT_TID,writeBooleanArgument(config.isExportTid()));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.IMPORT_BID,writeBooleanArgument(config.isImportBid()));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.EXPORT_FETCH_SIZE,writeIntegerArgument(config.getFetchSize()));
+        metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.EXPORT_STRUCT_BATCH_SIZE,writeIntegerArgument(config.getExportStructBatchSize()));
+        metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.EXPORT_ASYNC_WRITE,writeBooleanArgument(config.isExportAsyncWrite()));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.IMPORT_BATCH_SIZE,writeIntegerArgument(config.getBatchSize()));
+        metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.ID_BLOCK_SIZE,writeIntegerArgument(config.getIdBlockSize()));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.CREATE_BASKET_COL,writeBooleanArgument(Config.BASKET_HANDLING_READWRITE.equals(config.getBasketHandling())));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.CREATE_DATASET_COL,writeBooleanArgument(Config.CREATE_DATASET_COL.equals(config.getCreateDatasetCols())));
         metaConfig.setConfigValue(Ili2dbMetaConfig.SECTION_ILI2DB, Ili2dbMetaConfig.ILIGML20,writeBooleanArgument(Config.ILIGML20.equals(config.getTransferFileFormat())));
@@ -2468,7 +2500,7 @@ public class Ili2db {
 				EhiLogger.logState("compile models...");
 				modelv.setAutoCompleteModelList(true);
 				modelv.setGenerateWarnings(false);
-				TransferDescription td = ch.interlis.ili2c.Main.runCompiler(modelv,
+				TransferDescription td = compileModels(modelv,
 						config,ili2cMetaAttrs);
 				if (td == null) {
 					throw new Ili2dbException("compiler failed");
@@ -2530,6 +2562,37 @@ public class Ili2db {
 			  if(function!=Config.FC_VALIDATE) {
 	              EhiLogger.logState("data <"+xtffile+">");
 			  }
+				ValidationWatermark watermark=null;
+				String watermarkTag=null;
+				if(function==Config.FC_VALIDATE && config.isValidateChanged()){
+					if(basketSqlIds==null){
+						throw new Ili2dbException("incremental "+functionName+" requires column "+DbNames.T_BASKET_COL);
+					}
+					// deleted records leave no newer T_LastChange, so the import runs are required
+					if(!customMapping.tableExists(conn,new DbTableName(config.getDbschema(),DbNames.IMPORTS_BASKETS_TAB))){
+						throw new Ili2dbException("incremental "+functionName+" requires table "+DbNames.IMPORTS_BASKETS_TAB+" (--createImportTabs)");
+					}
+					boolean hasStdCols=Config.CREATE_STD_COLS_ALL.equals(config.getCreateStdCols());
+					if(!customMapping.tableExists(conn,new DbTableName(config.getDbschema(),DbNames.SETTINGS_TAB))){
+						throw new Ili2dbException("incremental "+functionName+" requires table "+DbNames.SETTINGS_TAB);
+					}
+					String colT_ID=config.getColT_ID();
+					if(colT_ID==null){
+						colT_ID=DbNames.T_ID_COL;
+					}
+					watermarkTag=ValidationWatermark.getTag(config);
+					try{
+						ValidationWatermark lastWatermark=ValidationWatermark.read(conn,config.getDbschema(),watermarkTag);
+						watermark=ValidationWatermark.create(conn,config.getDbschema(),colT_ID,customMapping,hasStdCols?class2wrapper:null);
+						if(lastWatermark!=null){
+							basketSqlIds=lastWatermark.getChangedBaskets(conn,config.getDbschema(),colT_ID,customMapping,class2wrapper,hasStdCols,basketSqlIds);
+							EhiLogger.logState(basketSqlIds.length+" baskets changed since import "+lastWatermark.getImportSqlId()
+									+(lastWatermark.getLastChange()!=null?" / "+DbNames.T_LAST_CHANGE_COL+" "+lastWatermark.getLastChange():""));
+						}
+					}catch(SQLException ex){
+						throw new Ili2dbException("failed to read validation watermark",ex);
+					}
+				}
 				Map<String,BasketStat> stat=new java.util.HashMap<String,BasketStat>();
 				ch.ehi.basics.logging.ErrorTracker errs=new ch.ehi.basics.logging.ErrorTracker();
 				EhiLogger.getInstance().addListener(errs);
@@ -2537,6 +2600,16 @@ public class Ili2db {
 				if (errs.hasSeenErrors()) {
 					throw new Ili2dbException("..."+functionName+" failed");
 				} else {
+					if(watermark!=null){
+						try{
+							watermark.write(conn,config.getDbschema(),watermarkTag);
+							if(!connectionFromExtern && !conn.getAutoCommit()){
+								conn.commit();
+							}
+						}catch(SQLException ex){
+							throw new Ili2dbException("failed to save validation watermark",ex);
+						}
+					}
 					logStatistics(td.getIli1Format() != null, stat);
 					EhiLogger.logState("..."+functionName+" done");
 				}
@@ -11,7 +11,10 @@ public class Ili2dbMetaConfig {
     public static final String CREATE_DATASET_COL = "createDatasetCol";
     public static final String CREATE_BASKET_COL = "createBasketCol";
     public static final String IMPORT_BATCH_SIZE = "importBatchSize";
+    public static final String ID_BLOCK_SIZE = "idBlockSize";
     public static final String EXPORT_FETCH_SIZE = "exportFetchSize";
+    public static final String EXPORT_STRUCT_BATCH_SIZE = "exportStructBatchSize";
+    public static final String EXPORT_ASYNC_WRITE = "exportAsyncWrite";
     public static final String IMPORT_BID = "importBid";
     public static final String EXPORT_TID = "exportTid";
     public static final String IMPORT_TID = "importTid";
@@ -34,6 +37,7 @@ public class Ili2dbMetaConfig {
     public static final String T_ID_NAME = "t_id_Name";
     public static final String CREATE_STD_COLS = "createStdCols";
     public static final String CREATE_IMPORT_TABS = "createImportTabs";
+    public static final String CREATE_OBJ_HASH_COL = "createObjHashCol";
     public static final String CREATE_MANDATORY_CHECKS = "createMandatoryChecks";
     public static final String CREATE_DATE_TIME_CHECKS = "createDateTimeChecks";
     public static final String CREATE_TEXT_CHECKS = "createTextChecks";
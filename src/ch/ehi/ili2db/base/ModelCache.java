@@ -0,0 +1,245 @@
+package ch.ehi.ili2db.base;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import ch.ehi.basics.logging.EhiLogger;
+import ch.ehi.basics.settings.Settings;
+import ch.interlis.ili2c.config.Configuration;
+import ch.interlis.ili2c.config.FileEntry;
+import ch.interlis.ili2c.config.FileEntryKind;
+import ch.interlis.ili2c.gui.UserSettings;
+import ch.interlis.ili2c.metamodel.Ili2cMetaAttrs;
+import ch.interlis.ili2c.metamodel.Model;
+import ch.interlis.ili2c.metamodel.TransferDescription;
+
+/** local cache of the ili files, that ili2c resolved for a list of models.
+ * The entries are keyed by the given models/ili files, the model directories, the ili language version and the ili2c version.
+ * On a cache hit, the cached ili files are compiled directly, without looking up the models
+ * in the model repositories (ilimodels.xml of e.g. models.interlis.ch).
+ * An entry is used as long as it is not older than the ttl and the content of all its ili files is unchanged.
+ * Expired entries are removed from the cache folder, when a new entry is written.
+ */
+public class ModelCache {
+    /** default time to live of a cache entry in milliseconds.
+     */
+    public static final long DEFAULT_TTL=24L*60L*60L*1000L;
+    private static final String ENTRY_CREATED="created";
+    private static final String ENTRY_FILE_COUNT="fileCount";
+    private static final String ENTRY_FILE="file.";
+    private static final String ENTRY_HASH="hash.";
+    private final File cacheDir;
+    private final long ttl;
+    public ModelCache(File cacheDir,long ttl) {
+        this.cacheDir=cacheDir;
+        this.ttl=ttl;
+    }
+    /** compiles the models; uses the ili files of a valid cache entry, if there is one.
+     * @return null if the compiler failed.
+     */
+    public TransferDescription runCompiler(Configuration ili2cConfig,Settings settings,Ili2cMetaAttrs metaAttrs)
+    {
+        String key=getKey(ili2cConfig,settings);
+        File entryFile=new File(cacheDir,key+".properties");
+        List<String> iliFiles=readEntry(entryFile);
+        if(iliFiles!=null) {
+            EhiLogger.traceState("compile cached ili files "+entryFile.getPath());
+            // same settings as the given configuration; only the models are replaced by the cached ili files
+            Configuration cachedConfig=(Configuration)ili2cConfig.clone();
+            Iterator<FileEntry> entryi=cachedConfig.iteratorFileEntry();
+            while(entryi.hasNext()) {
+                FileEntry entry=entryi.next();
+                if(entry.getKind()==FileEntryKind.ILIMODELFILE) {
+                    entryi.remove();
+                }
+            }
+            for(String iliFile:iliFiles) {
+                cachedConfig.addFileEntry(new FileEntry(iliFile,FileEntryKind.ILIMODELFILE));
+            }
+            cachedConfig.setAutoCompleteModelList(false);
+            TransferDescription td=ch.interlis.ili2c.Main.runCompiler(cachedConfig,settings,metaAttrs);
+            if(td!=null) {
+                return td;
+            }
+            EhiLogger.logAdaption("compiling cached ili files failed; ignore cache entry "+entryFile.getPath());
+            entryFile.delete();
+        }
+        TransferDescription td=ch.interlis.ili2c.Main.runCompiler(ili2cConfig,settings,metaAttrs);
+        if(td!=null) {
+            removeExpiredEntries();
+            writeEntry(entryFile,getIliFiles(td));
+        }
+        return td;
+    }
+    /** deletes the entries (and left over temporary files) of the cache folder, that are older than the ttl.
+     */
+    private void removeExpiredEntries()
+    {
+        File files[]=cacheDir.listFiles();
+        if(files==null) {
+            return;
+        }
+        long now=System.currentTimeMillis();
+        for(File file:files) {
+            String name=file.getName();
+            if(file.isFile() && (name.endsWith(".properties") || name.endsWith(".tmp")) && now-file.lastModified()>ttl) {
+                EhiLogger.traceState("remove expired cache entry "+file.getPath());
+                file.delete();
+            }
+        }
+    }
+    static String getKey(Configuration ili2cConfig,Settings settings)
+    {
+        StringBuilder key=new StringBuilder();
+        key.append(ch.interlis.ili2c.Main.getVersion());
+        key.append('\n');
+        key.append(settings.getValue(UserSettings.ILIDIRS));
+        key.append('\n');
+        Map<?,?> pathMap=(Map<?,?>)settings.getTransientObject(UserSettings.ILIDIRS_PATHMAP);
+        if(pathMap!=null) {
+            // e.g. %XTF_DIR, that depends on the data file
+            key.append(new TreeMap<Object,Object>(pathMap));
+        }
+        key.append('\n');
+        key.append(settings.getValue(UserSettings.ILI_LANGUAGE_VERSION));
+        Iterator<FileEntry> entryi=ili2cConfig.iteratorFileEntry();
+        while(entryi.hasNext()) {
+            FileEntry entry=entryi.next();
+            key.append('\n');
+            key.append(entry.getKind());
+            key.append(':');
+            key.append(entry.getFilename());
+        }
+        try {
+            return toHex(MessageDigest.getInstance("SHA-1").digest(key.toString().getBytes("UTF-8")));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    /** gets the ili files of the compiled models, in the order of compilation.
+     */
+    static List<String> getIliFiles(TransferDescription td)
+    {
+        List<String> ret=new ArrayList<String>();
+        Iterator<?> modeli=td.iterator();
+        while(modeli.hasNext()) {
+            Object modelo=modeli.next();
+            if(modelo instanceof Model) {
+                String fileName=((Model)modelo).getFileName();
+                // predefined model INTERLIS has no file
+                if(fileName!=null && !ret.contains(fileName)) {
+                    ret.add(fileName);
+                }
+            }
+        }
+        return ret;
+    }
+    /** reads a cache entry.
+     * @return null if there is no valid entry.
+     */
+    private List<String> readEntry(File entryFile)
+    {
+        if(!entryFile.exists()) {
+            return null;
+        }
+        Properties entry=new Properties();
+        try {
+            InputStream in=new FileInputStream(entryFile);
+            try {
+                entry.load(in);
+            }finally {
+                in.close();
+            }
+            long created=Long.parseLong(entry.getProperty(ENTRY_CREATED));
+            if(System.currentTimeMillis()-created>ttl) {
+                EhiLogger.traceState("cache entry "+entryFile.getPath()+" expired");
+                return null;
+            }
+            int fileCount=Integer.parseInt(entry.getProperty(ENTRY_FILE_COUNT));
+            List<String> ret=new ArrayList<String>();
+            for(int i=0;i<fileCount;i++) {
+                String iliFile=entry.getProperty(ENTRY_FILE+i);
+                if(iliFile==null || !new File(iliFile).isFile() || !getFileHash(new File(iliFile)).equals(entry.getProperty(ENTRY_HASH+i))) {
+                    EhiLogger.traceState("cache entry "+entryFile.getPath()+" outdated");
+                    return null;
+                }
+                ret.add(iliFile);
+            }
+            return ret;
+        } catch (IOException e) {
+            EhiLogger.logAdaption("failed to read cache entry "+entryFile.getPath()+"; "+e.getMessage());
+        } catch (NumberFormatException e) {
+            EhiLogger.logAdaption("invalid cache entry "+entryFile.getPath());
+        }
+        return null;
+    }
+    private void writeEntry(File entryFile,List<String> iliFiles)
+    {
+        Properties entry=new Properties();
+        entry.setProperty(ENTRY_CREATED, Long.toString(System.currentTimeMillis()));
+        entry.setProperty(ENTRY_FILE_COUNT, Integer.toString(iliFiles.size()));
+        try {
+            for(int i=0;i<iliFiles.size();i++) {
+                File iliFile=new File(iliFiles.get(i)).getAbsoluteFile();
+                entry.setProperty(ENTRY_FILE+i, iliFile.getPath());
+                entry.setProperty(ENTRY_HASH+i, getFileHash(iliFile));
+            }
+            cacheDir.mkdirs();
+            // write to a temporary file first, so that a concurrent run never reads a partial entry
+            File tmpFile=File.createTempFile(entryFile.getName(), ".tmp", cacheDir);
+            OutputStream out=new FileOutputStream(tmpFile);
+            try {
+                entry.store(out, null);
+            }finally {
+                out.close();
+            }
+            entryFile.delete();
+            if(!tmpFile.renameTo(entryFile)) {
+                tmpFile.delete();
+            }
+        } catch (IOException e) {
+            EhiLogger.logAdaption("failed to write cache entry "+entryFile.getPath()+"; "+e.getMessage());
+        }
+    }
+    private static String getFileHash(File file) throws IOException
+    {
+        try {
+            MessageDigest digest=MessageDigest.getInstance("SHA-1");
+            InputStream in=new FileInputStream(file);
+            try {
+                byte buf[]=new byte[8192];
+                int len;
+                while((len=in.read(buf))>0) {
+                    digest.update(buf, 0, len);
+                }
+            }finally {
+                in.close();
+            }
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    private static String toHex(byte value[])
+    {
+        StringBuilder ret=new StringBuilder();
+        for(byte b:value) {
+            ret.append(String.format("%02x", b));
+        }
+        return ret.toString();
+    }
+}
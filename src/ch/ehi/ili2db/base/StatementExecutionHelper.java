@@ -4,11 +4,15 @@ import ch.ehi.basics.logging.EhiLogger;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 public class StatementExecutionHelper {
 
+    /** batch size of the writes to the meta data tables (T_ILI2DB_*), if no batch size is configured.
+     */
+    public static final int METADATA_BATCH_SIZE = 1000;
     private Integer batchSize = null;
     private int queuedBatch = 0;
     private boolean shouldBatch = false;
@@ -20,13 +24,35 @@ public class StatementExecutionHelper {
         shouldBatch = this.batchSize != null && batchSize > 1; // batchsize 1 or less is pointless
     }
 
+    /** creates a helper for the writes to the meta data tables; these writes are batched,
+     * if the JDBC driver supports batch updates,
+     * unless batching is switched off with a configured batch size of 1.
+     * @param conn connection of the writes
+     * @param batchSize configured batch size or null
+     */
+    public static StatementExecutionHelper createForMetadata(Connection conn, Integer batchSize) {
+        if (!supportsBatchUpdates(conn)) {
+            return new StatementExecutionHelper(null);
+        }
+        return new StatementExecutionHelper(batchSize != null ? batchSize : METADATA_BATCH_SIZE);
+    }
+
+    private static boolean supportsBatchUpdates(Connection conn) {
+        try {
+            return conn != null && conn.getMetaData().supportsBatchUpdates();
+        } catch (SQLException ex) {
+            EhiLogger.traceState("failed to query batch support: " + ex.getMessage());
+            return false;
+        }
+    }
+
     public void write(PreparedStatement ps) throws SQLException {
         if (shouldBatch) {
             ps.addBatch();
             queuedBatch++;
 
             if (queuedBatch >= batchSize) {
-                int[] updates = ps.executeBatch();
+                int[] updates = executeBatch(ps);
                 totalBatchUpdatesCount += updates.length;
                 ps.clearBatch();
                 queuedBatch = 0;
@@ -41,7 +67,7 @@ public class StatementExecutionHelper {
 
     public void flush(PreparedStatement ps) throws SQLException {
         if (shouldBatch) {
-            int[] updates = ps.executeBatch();
+            int[] updates = executeBatch(ps);
             totalBatchUpdatesCount += updates.length;
             ps.clearBatch();
             queuedBatch = 0;
@@ -51,4 +77,15 @@ public class StatementExecutionHelper {
         }
     }
 
+    /** executes the queued statements.
+     * @throws SQLException if the driver does not report the executed statements (e.g. batch updates not implemented).
+     */
+    private int[] executeBatch(PreparedStatement ps) throws SQLException {
+        int[] updates = ps.executeBatch();
+        if (updates == null || updates.length != queuedBatch) {
+            throw new SQLException("batch of " + queuedBatch + " statements not executed by the JDBC driver");
+        }
+        return updates;
+    }
+
 }
\ No newline at end of file
@@ -18,6 +18,7 @@
 package ch.ehi.ili2db.base;
 
 import java.sql.SQLException;
+import java.time.Clock;
 
 import ch.ehi.basics.logging.EhiLogger;
 import ch.ehi.ili2db.gui.Config;
@@ -32,20 +33,74 @@ public class TableBasedIdGen implements DbIdGen {
 	public final static String SQL_T_KEY_OBJECT="T_KEY_OBJECT";
 	public final static String SQL_T_KEY="T_Key";
 	public final static String SQL_T_LASTUNIQUEID="T_LastUniqueId";
+	/** initial number of ids that are reserved with one update of T_KEY_OBJECT.
+	 */
+	public final static long MIN_BLOCK_SIZE=20;
+	/** upper limit of the number of ids that are reserved with one update of T_KEY_OBJECT.
+	 */
+	public final static long MAX_BLOCK_SIZE=100000;
+	/** if a block of ids is used up within this time (in ms), the next block is twice as large.
+	 */
+	private final static long BLOCK_GROWTH_INTERVAL=1000;
 	java.sql.Connection conn=null;
 	String dbusr=null;
 	String schema=null;
+	private Long fixedBlockSize=null;
+	private long blockSize=MIN_BLOCK_SIZE;
+	private long blockStartTime=0;
+	/** measures the time a block of ids lasts. */
+	private Clock clock=Clock.systemUTC();
+	private java.sql.PreparedStatement getCountStmt=null;
+	private java.sql.PreparedStatement setCountStmt=null;
 	@Override
 	public void init(String schema,Config config)
 	{
 		this.schema=schema;
+		Integer idBlockSize=config.getIdBlockSize();
+		if(idBlockSize!=null){
+			fixedBlockSize=Math.max(1l,idBlockSize.longValue());
+			blockSize=fixedBlockSize;
+		}
 	}
 	@Override
 	public void initDb(java.sql.Connection conn,String dbusr)
 	{
+		if(this.conn!=conn){
+			closeStatements();
+		}
 		this.conn=conn;
 		this.dbusr=dbusr;
 	}
+	/** sets the clock, that measures the time a block of ids lasts.
+	 */
+	void setClock(Clock clock)
+	{
+		this.clock=clock;
+	}
+	@Override
+	public void closeDb()
+	{
+		closeStatements();
+	}
+	private void closeStatements()
+	{
+		if(getCountStmt!=null){
+			try{
+				getCountStmt.close();
+			}catch(java.sql.SQLException ex){
+				EhiLogger.logError(ex);
+			}
+			getCountStmt=null;
+		}
+		if(setCountStmt!=null){
+			try{
+				setCountStmt.close();
+			}catch(java.sql.SQLException ex){
+				EhiLogger.logError(ex);
+			}
+			setCountStmt=null;
+		}
+	}
 //	CREATE TABLE T_Key_Object (
 //		   T_Key                Text(30) NOT NULL,
 //		   T_LastUniqueId       LONG NOT NULL,
@@ -79,14 +134,15 @@ public class TableBasedIdGen implements DbIdGen {
 		if(schema!=null){
 			sqlName=schema+"."+sqlName;
 		}
-		java.sql.PreparedStatement getstmt=null;
 		java.sql.ResultSet res=null;
 		try{
-			String stmt="SELECT "+SQL_T_LASTUNIQUEID+" FROM "+sqlName+" WHERE "+SQL_T_KEY+"= ?";
-			EhiLogger.traceBackendCmd(stmt);
-			getstmt=conn.prepareStatement(stmt);
-			getstmt.setString(1,key);
-			res=getstmt.executeQuery();
+			if(getCountStmt==null){
+				String stmt="SELECT "+SQL_T_LASTUNIQUEID+" FROM "+sqlName+" WHERE "+SQL_T_KEY+"= ?";
+				EhiLogger.traceBackendCmd(stmt);
+				getCountStmt=conn.prepareStatement(stmt);
+			}
+			getCountStmt.setString(1,key);
+			res=getCountStmt.executeQuery();
 			long ret=0;
 			if(res.next()){
 				ret=res.getLong(1);
@@ -103,14 +159,6 @@ public class TableBasedIdGen implements DbIdGen {
                 }
                 res=null;
             }
-			if(getstmt!=null){
-				try{
-					getstmt.close();
-				}catch(java.sql.SQLException ex){
-					EhiLogger.logError(ex);
-				}
-				getstmt=null;
-			}
 		}
 			
 		// INSERT
@@ -148,27 +196,20 @@ public class TableBasedIdGen implements DbIdGen {
 		}
 		// update entry
 		java.sql.Timestamp today=new java.sql.Timestamp(System.currentTimeMillis());
-		String stmt="UPDATE "+sqlName+" SET "+SQL_T_LASTUNIQUEID+"=?,T_LastChange=?,T_User=? WHERE "+SQL_T_KEY+"=?";
-		EhiLogger.traceBackendCmd(stmt);
-		java.sql.PreparedStatement updstmt = null;
 		try{
-			updstmt = conn.prepareStatement(stmt);
-			updstmt.setLong(1, newId);
-			updstmt.setTimestamp(2, today);
-			updstmt.setString(3, dbusr);
-			updstmt.setString(4, key);
-			updstmt.executeUpdate();
+			if(setCountStmt==null){
+				String stmt="UPDATE "+sqlName+" SET "+SQL_T_LASTUNIQUEID+"=?,T_LastChange=?,T_User=? WHERE "+SQL_T_KEY+"=?";
+				EhiLogger.traceBackendCmd(stmt);
+				setCountStmt = conn.prepareStatement(stmt);
+			}
+			setCountStmt.setLong(1, newId);
+			setCountStmt.setTimestamp(2, today);
+			setCountStmt.setString(3, dbusr);
+			setCountStmt.setString(4, key);
+			setCountStmt.executeUpdate();
 		}catch(java.sql.SQLException ex){
 			EhiLogger.logError("failed to update "+sqlName,ex);
-		}finally{
-			if(updstmt!=null){
-				try{
-					updstmt.close();
-				}catch(java.sql.SQLException ex){
-					EhiLogger.logError(ex);
-				}
-			}
-		}		
+		}
 	}
 
 	@Override
@@ -181,17 +222,34 @@ public class TableBasedIdGen implements DbIdGen {
 	@Override
 	public long newObjSqlId(){
 		long ret;
-		final long BLOCK_SIZE=20;
-		if(lastLocalId!=0 && lastLocalId<BLOCK_SIZE){
+		if(lastLocalId!=0 && lastLocalId<blockSize){
 			lastLocalId++;
 			ret=idBlockStart+lastLocalId;
 		}else{
+			if(lastLocalId!=0){
+				blockSize=getNextBlockSize();
+			}
+			blockStartTime=clock.millis();
 			lastLocalId=1;
 			ret=idBlockStart=getCount("T_Id")+lastLocalId;
-			setCount(idBlockStart+BLOCK_SIZE,"T_Id");
+			setCount(idBlockStart+blockSize,"T_Id");
 		}
 		return ret;
 	}
+	/** gets the size of the next block of ids.
+	 * Unless a fixed size is configured, the block size doubles (up to MAX_BLOCK_SIZE)
+	 * as long as the blocks are used up quickly.
+	 */
+	private long getNextBlockSize()
+	{
+		if(fixedBlockSize!=null){
+			return fixedBlockSize;
+		}
+		if(clock.millis()-blockStartTime<BLOCK_GROWTH_INTERVAL){
+			return Math.min(blockSize*2,MAX_BLOCK_SIZE);
+		}
+		return blockSize;
+	}
 	@Override
 	public long getLastSqlId()
 	{
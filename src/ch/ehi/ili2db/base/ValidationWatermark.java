@@ -0,0 +1,329 @@
+package ch.ehi.ili2db.base;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import ch.ehi.basics.logging.EhiLogger;
+import ch.ehi.ili2db.gui.Config;
+import ch.ehi.ili2db.mapping.Viewable2TableMapping;
+import ch.ehi.ili2db.mapping.ViewableWrapper;
+import ch.ehi.sqlgen.repository.DbTableName;
+import ch.interlis.ili2c.metamodel.Viewable;
+
+/** state of the last successful incremental validation (--validateChanged) of a selection of baskets.
+ * The watermark is the last import run (T_ILI2DB_IMPORT) and the greatest T_LastChange in the data tables
+ * at the start of the validation. T_LastChange is compared with a value read from the same column,
+ * so the clocks of the clients that wrote the data do not matter.
+ * The import runs are required, because deleted records leave no newer T_LastChange;
+ * T_LastChange only adds the records, that were changed by other clients.
+ * It is kept per selection (--dataset, --baskets, --topics, --models) in T_ILI2DB_SETTINGS.
+ */
+public class ValidationWatermark {
+    private static final String TAG_PREFIX="ch.ehi.ili2db.validWatermark.";
+    private final long importSqlId;
+    /** null, if there are no std cols or no records. */
+    private final Timestamp lastChange;
+    ValidationWatermark(long importSqlId,Timestamp lastChange) {
+        this.importSqlId=importSqlId;
+        this.lastChange=lastChange;
+    }
+    public long getImportSqlId() {
+        return importSqlId;
+    }
+    public Timestamp getLastChange() {
+        return lastChange;
+    }
+    /** gets the tag (in T_ILI2DB_SETTINGS) of the watermark of the selected baskets.
+     */
+    public static String getTag(Config config)
+    {
+        StringBuilder selection=new StringBuilder();
+        selection.append("dataset=");
+        selection.append(config.getDatasetName());
+        selection.append("\nbaskets=");
+        selection.append(config.getBaskets());
+        selection.append("\ntopics=");
+        selection.append(config.getTopics());
+        selection.append("\nmodels=");
+        selection.append(config.getModels());
+        try {
+            byte digest[]=MessageDigest.getInstance("SHA-1").digest(selection.toString().getBytes("UTF-8"));
+            StringBuilder ret=new StringBuilder(TAG_PREFIX);
+            // tag column has 60 chars
+            for(int i=0;i<8;i++) {
+                ret.append(String.format("%02x", digest[i]));
+            }
+            return ret.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    /** reads the watermark of the last successful validation.
+     * @return null if there was no successful validation of the selected baskets yet.
+     */
+    public static ValidationWatermark read(Connection conn,String schema,String tag) throws SQLException
+    {
+        String stmt="SELECT "+DbNames.SETTINGS_TAB_SETTING_COL+" FROM "+new DbTableName(schema,DbNames.SETTINGS_TAB).getQName()+" WHERE "+DbNames.SETTINGS_TAB_TAG_COL+"=?";
+        EhiLogger.traceBackendCmd(stmt);
+        PreparedStatement dbstmt=conn.prepareStatement(stmt);
+        try {
+            dbstmt.setString(1, tag);
+            ResultSet rs=dbstmt.executeQuery();
+            String value=null;
+            if(rs.next()) {
+                value=rs.getString(1);
+            }
+            rs.close();
+            if(value==null) {
+                return null;
+            }
+            int sep=value.indexOf(';');
+            try {
+                return new ValidationWatermark(Long.parseLong(value.substring(0,sep)),parseLastChange(value.substring(sep+1)));
+            }catch(RuntimeException ex) {
+                EhiLogger.logAdaption("invalid watermark <"+value+"> in "+DbNames.SETTINGS_TAB+"; ignored");
+                return null;
+            }
+        }finally {
+            dbstmt.close();
+        }
+    }
+    private static Timestamp parseLastChange(String value)
+    {
+        if(value.length()==0) {
+            return null;
+        }
+        if(value.indexOf('-')<0) {
+            // written by an older version (millis of the client clock)
+            return new Timestamp(Long.parseLong(value));
+        }
+        return Timestamp.valueOf(value);
+    }
+    /** creates the watermark of a validation, that starts now.
+     * @param class2wrapper tables to read T_LastChange from, or null if there are no std cols.
+     */
+    public static ValidationWatermark create(Connection conn,String schema,String colT_ID,CustomMapping customMapping,Viewable2TableMapping class2wrapper) throws SQLException
+    {
+        long importSqlId=0;
+        {
+            String stmt="SELECT MAX("+colT_ID+") FROM "+new DbTableName(schema,DbNames.IMPORTS_TAB).getQName();
+            EhiLogger.traceBackendCmd(stmt);
+            PreparedStatement dbstmt=conn.prepareStatement(stmt);
+            try {
+                ResultSet rs=dbstmt.executeQuery();
+                if(rs.next()) {
+                    importSqlId=rs.getLong(1);
+                }
+                rs.close();
+            }finally {
+                dbstmt.close();
+            }
+        }
+        Timestamp lastChange=null;
+        if(class2wrapper!=null) {
+            for(DbTableName sqlTable:getDataTables(conn,customMapping,class2wrapper)) {
+                String stmt="SELECT MAX("+DbNames.T_LAST_CHANGE_COL+") FROM "+sqlTable.getQName();
+                EhiLogger.traceBackendCmd(stmt);
+                PreparedStatement dbstmt=conn.prepareStatement(stmt);
+                try {
+                    ResultSet rs=dbstmt.executeQuery();
+                    if(rs.next()) {
+                        Timestamp tableLastChange=rs.getTimestamp(1);
+                        if(tableLastChange!=null && (lastChange==null || tableLastChange.after(lastChange))) {
+                            lastChange=tableLastChange;
+                        }
+                    }
+                    rs.close();
+                }finally {
+                    dbstmt.close();
+                }
+            }
+        }
+        return new ValidationWatermark(importSqlId,lastChange);
+    }
+    /** saves this watermark.
+     */
+    public void write(Connection conn,String schema,String tag) throws SQLException
+    {
+        String sqlName=new DbTableName(schema,DbNames.SETTINGS_TAB).getQName();
+        String stmt="DELETE FROM "+sqlName+" WHERE "+DbNames.SETTINGS_TAB_TAG_COL+"=?";
+        EhiLogger.traceBackendCmd(stmt);
+        PreparedStatement dbstmt=conn.prepareStatement(stmt);
+        try {
+            dbstmt.setString(1, tag);
+            dbstmt.executeUpdate();
+        }finally {
+            dbstmt.close();
+        }
+        stmt="INSERT INTO "+sqlName+" ("+DbNames.SETTINGS_TAB_TAG_COL+","+DbNames.SETTINGS_TAB_SETTING_COL+") VALUES (?,?)";
+        EhiLogger.traceBackendCmd(stmt);
+        dbstmt=conn.prepareStatement(stmt);
+        try {
+            dbstmt.setString(1, tag);
+            dbstmt.setString(2, importSqlId+";"+(lastChange!=null?lastChange.toString():""));
+            dbstmt.executeUpdate();
+        }finally {
+            dbstmt.close();
+        }
+    }
+    /** gets the baskets, that were imported, updated or deleted by an import run after this watermark,
+     * or that contain records with a T_LastChange after this watermark,
+     * and the baskets, that reference objects of such a basket (or objects that no longer exist).
+     * @param class2wrapper data tables of the selected baskets.
+     * @param hasStdCols true, if the data tables have a T_LastChange column.
+     * @return subset of the given baskets, in the same order.
+     */
+    public long[] getChangedBaskets(Connection conn,String schema,String colT_ID,CustomMapping customMapping,Viewable2TableMapping class2wrapper,boolean hasStdCols,long basketSqlIds[]) throws SQLException
+    {
+        Set<Long> changed=new HashSet<Long>();
+        {
+            String stmt="SELECT DISTINCT "+DbNames.IMPORTS_BASKETS_TAB_BASKET_COL+" FROM "+new DbTableName(schema,DbNames.IMPORTS_BASKETS_TAB).getQName()
+                    +" WHERE "+DbNames.IMPORTS_BASKETS_TAB_IMPORTRUN_COL+">?";
+            EhiLogger.traceBackendCmd(stmt);
+            PreparedStatement dbstmt=conn.prepareStatement(stmt);
+            try {
+                dbstmt.setLong(1, importSqlId);
+                addBaskets(dbstmt,changed);
+            }finally {
+                dbstmt.close();
+            }
+        }
+        List<DbTableName> dataTables=getDataTables(conn,customMapping,class2wrapper);
+        if(hasStdCols) {
+            for(DbTableName sqlTable:dataTables) {
+                String stmt="SELECT DISTINCT "+DbNames.T_BASKET_COL+" FROM "+sqlTable.getQName();
+                if(lastChange!=null) {
+                    stmt=stmt+" WHERE "+DbNames.T_LAST_CHANGE_COL+">?";
+                }
+                EhiLogger.traceBackendCmd(stmt);
+                PreparedStatement dbstmt=conn.prepareStatement(stmt);
+                try {
+                    if(lastChange!=null) {
+                        dbstmt.setTimestamp(1, lastChange);
+                    }
+                    addBaskets(dbstmt,changed);
+                }finally {
+                    dbstmt.close();
+                }
+            }
+        }
+        if(!changed.isEmpty()) {
+            changed.addAll(getReferencingBaskets(conn,schema,colT_ID,customMapping,dataTables,changed));
+        }
+        int retc=0;
+        long ret[]=new long[basketSqlIds.length];
+        for(long basketSqlId:basketSqlIds) {
+            if(changed.contains(basketSqlId)) {
+                ret[retc++]=basketSqlId;
+            }
+        }
+        long ret2[]=new long[retc];
+        System.arraycopy(ret, 0, ret2, 0, retc);
+        return ret2;
+    }
+    /** gets the baskets, that contain records of the given tables, that reference a record of one of the given baskets
+     * or a record that no longer exists. The reference columns are read from T_ILI2DB_ATTRNAME (columns with a target table).
+     */
+    private static Set<Long> getReferencingBaskets(Connection conn,String schema,String colT_ID,CustomMapping customMapping,List<DbTableName> dataTables,Set<Long> changed) throws SQLException
+    {
+        Set<Long> ret=new HashSet<Long>();
+        DbTableName attrNameTab=new DbTableName(schema,DbNames.ATTRNAME_TAB);
+        if(!customMapping.tableExists(conn, attrNameTab)) {
+            return ret;
+        }
+        Map<String,DbTableName> ownerTables=new HashMap<String,DbTableName>();
+        for(DbTableName sqlTable:dataTables) {
+            ownerTables.put(sqlTable.getName().toLowerCase(),sqlTable);
+        }
+        List<String[]> refCols=new ArrayList<String[]>();
+        {
+            String stmt="SELECT "+DbNames.ATTRNAME_TAB_COLOWNER_COL+","+DbNames.ATTRNAME_TAB_SQLNAME_COL+","+DbNames.ATTRNAME_TAB_TARGET_COL
+                    +" FROM "+attrNameTab.getQName()+" WHERE "+DbNames.ATTRNAME_TAB_TARGET_COL+" IS NOT NULL";
+            EhiLogger.traceBackendCmd(stmt);
+            PreparedStatement dbstmt=conn.prepareStatement(stmt);
+            try {
+                ResultSet rs=dbstmt.executeQuery();
+                while(rs.next()) {
+                    String owner=rs.getString(1);
+                    if(owner!=null && ownerTables.containsKey(owner.toLowerCase())) {
+                        refCols.add(new String[] {owner,rs.getString(2),rs.getString(3)});
+                    }
+                }
+                rs.close();
+            }finally {
+                dbstmt.close();
+            }
+        }
+        StringBuilder basketList=new StringBuilder();
+        String sep="";
+        for(int i=0;i<changed.size();i++) {
+            basketList.append(sep);
+            basketList.append("?");
+            sep=",";
+        }
+        for(String refCol[]:refCols) {
+            DbTableName ownerTable=ownerTables.get(refCol[0].toLowerCase());
+            DbTableName targetTable=new DbTableName(schema,refCol[2]);
+            if(!customMapping.tableExists(conn, targetTable)) {
+                continue;
+            }
+            String stmt="SELECT DISTINCT r."+DbNames.T_BASKET_COL+" FROM "+ownerTable.getQName()+" r LEFT JOIN "+targetTable.getQName()+" t ON r."+refCol[1]+"=t."+colT_ID
+                    +" WHERE r."+refCol[1]+" IS NOT NULL AND (t."+colT_ID+" IS NULL OR t."+DbNames.T_BASKET_COL+" IN ("+basketList+"))";
+            EhiLogger.traceBackendCmd(stmt);
+            PreparedStatement dbstmt=conn.prepareStatement(stmt);
+            try {
+                int paramIdx=1;
+                for(Long basketSqlId:changed) {
+                    dbstmt.setLong(paramIdx++, basketSqlId);
+                }
+                addBaskets(dbstmt,ret);
+            }finally {
+                dbstmt.close();
+            }
+        }
+        return ret;
+    }
+    /** gets the existing tables of the given classes, each table once.
+     */
+    private static List<DbTableName> getDataTables(Connection conn,CustomMapping customMapping,Viewable2TableMapping class2wrapper)
+    {
+        List<DbTableName> ret=new ArrayList<DbTableName>();
+        Set<String> visitedTables=new TreeSet<String>();
+        for(Viewable aclass:class2wrapper.getViewables()) {
+            ViewableWrapper wrapper=class2wrapper.get(aclass);
+            for(ViewableWrapper table:wrapper.getWrappers()) {
+                DbTableName sqlTable=table.getSqlTable();
+                if(visitedTables.add(sqlTable.getQName()) && customMapping.tableExists(conn, sqlTable)) {
+                    ret.add(sqlTable);
+                }
+            }
+        }
+        return ret;
+    }
+    private static void addBaskets(PreparedStatement dbstmt,Set<Long> baskets) throws SQLException
+    {
+        ResultSet rs=dbstmt.executeQuery();
+        while(rs.next()) {
+            long basketSqlId=rs.getLong(1);
+            if(!rs.wasNull()) {
+                baskets.add(basketSqlId);
+            }
+        }
+        rs.close();
+    }
+}
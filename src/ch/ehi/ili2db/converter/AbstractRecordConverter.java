@@ -61,6 +61,7 @@ public class AbstractRecordConverter {
 	protected String defaultCrsCode=null;
 	protected String createEnumTable=null;
 	protected boolean createStdCols=false;
+	protected boolean createObjHashCol=false;
 	protected boolean createEnumTxtCol=false;
 	protected boolean createEnumColAsItfCode=false;
 	protected boolean createTypeDiscriminator=false;
@@ -96,6 +97,7 @@ public class AbstractRecordConverter {
 		class2wrapper=class2wrapper1;
 		createEnumColAsItfCode=Config.CREATE_ENUMCOL_AS_ITFCODE_YES.equals(config.getValue(Config.CREATE_ENUMCOL_AS_ITFCODE));
 		createStdCols=Config.CREATE_STD_COLS_ALL.equals(config.getCreateStdCols());
+		createObjHashCol=config.isCreateObjHashCol();
 		createEnumTxtCol=Config.CREATE_ENUM_TXT_COL.equals(config.getCreateEnumCols());
 		createFk=Config.CREATE_FK_YES.equals(config.getCreateFk());
 		createFkIdx=Config.CREATE_FKIDX_YES.equals(config.getCreateFkIdx());
@@ -297,6 +299,13 @@ public class AbstractRecordConverter {
 		dbColUsr.setSize(40);
 		table.addColumn(dbColUsr);
 	}
+	public static void addObjHashCol(DbTable table) {
+		DbColVarchar dbColHash=new DbColVarchar();
+		dbColHash.setName(DbNames.T_ILI2DB_HASH_COL);
+		dbColHash.setNotNull(false);
+		dbColHash.setSize(DbNames.T_ILI2DB_HASH_COL_SIZE);
+		table.addColumn(dbColHash);
+	}
 	protected void setBB(DbColGeometry ret, AbstractCoordType coord, String scopedAttrName) {
 		NumericalType dimv[]=coord.getDimensions();
 		if(!(dimv[0] instanceof NumericType) || !(dimv[1] instanceof NumericType)){
@@ -377,6 +386,15 @@ public class AbstractRecordConverter {
      * @return
      */
     public java.util.Map<? extends ch.interlis.ili2c.metamodel.Element,? extends ch.interlis.ili2c.metamodel.Element> getIomObjectAttrs(Viewable aclass) {
+        java.util.Map<ch.interlis.ili2c.metamodel.Element,ch.interlis.ili2c.metamodel.Element> ret=iomObjectAttrs.get(aclass);
+        if(ret==null) {
+            ret=java.util.Collections.unmodifiableMap(createIomObjectAttrs(aclass));
+            iomObjectAttrs.put(aclass,ret);
+        }
+        return ret;
+    }
+    private java.util.Map<Viewable,java.util.Map<ch.interlis.ili2c.metamodel.Element,ch.interlis.ili2c.metamodel.Element>> iomObjectAttrs=new HashMap<Viewable,java.util.Map<ch.interlis.ili2c.metamodel.Element,ch.interlis.ili2c.metamodel.Element>>();
+    private java.util.Map<ch.interlis.ili2c.metamodel.Element,ch.interlis.ili2c.metamodel.Element> createIomObjectAttrs(Viewable aclass) {
     	java.util.Map<ch.interlis.ili2c.metamodel.Element,ch.interlis.ili2c.metamodel.Element> ret=new HashMap<ch.interlis.ili2c.metamodel.Element,ch.interlis.ili2c.metamodel.Element>();
     	Iterator iter = aclass.getAttributesAndRoles2();
     	while (iter.hasNext()) {
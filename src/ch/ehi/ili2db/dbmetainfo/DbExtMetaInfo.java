@@ -8,6 +8,7 @@ import ch.ehi.basics.logging.EhiLogger;
 import ch.ehi.ili2db.base.DbNames;
 import ch.ehi.ili2db.base.Ili2db;
 import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.ili2db.base.StatementExecutionHelper;
 import ch.ehi.ili2db.gui.Config;
 import ch.ehi.sqlgen.generator_impl.jdbc.GeneratorJdbc;
 import ch.ehi.sqlgen.repository.DbColVarchar;
@@ -74,7 +75,12 @@ public class DbExtMetaInfo {
 	public static final String TAG_TAB_DISPNAME = Config.PREFIX+".dispName";
 	HashMap<ColKey,HashMap<String,String>> colInfo=new HashMap<ColKey,HashMap<String,String>>();
 	HashMap<String,HashMap<String,String>> tabInfo=new HashMap<String,HashMap<String,String>>();
+	private Integer batchSize=null;
 	
+	public void setBatchSize(Integer batchSize)
+	{
+		this.batchSize=batchSize;
+	}
 	public void setColumnInfo(String table,String column, String tag,String value)
 	{
 		setColumnInfo(table, null, column, tag, value);
@@ -118,6 +124,7 @@ public class DbExtMetaInfo {
 	            String insStmt="INSERT INTO "+sqlName+" ("+DbNames.META_INFO_COLUMN_TAB_TABLENAME_COL+","+DbNames.META_INFO_COLUMN_TAB_SUBTYPE_COL+","+DbNames.META_INFO_COLUMN_TAB_COLUMNNAME_COL+","+DbNames.META_INFO_COLUMN_TAB_TAG_COL+","+DbNames.META_INFO_COLUMN_TAB_SETTING_COL+") VALUES (?,?,?,?,?)";
 	            EhiLogger.traceBackendCmd(insStmt);
 	            java.sql.PreparedStatement insPrepStmt = conn.prepareStatement(insStmt);
+	            StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
 	            try{
 	                for(ColKey colKey:colInfo.keySet()){
 	                    HashMap<String,String> exstValues=exstEntries.get(colKey);
@@ -133,11 +140,12 @@ public class DbExtMetaInfo {
 	                            insPrepStmt.setString(3, colKey.getColumn());
 	                            insPrepStmt.setString(4, tag);
 	                            insPrepStmt.setString(5, value);
-	                            insPrepStmt.executeUpdate();
+	                            seHelper.write(insPrepStmt);
 	                        }
 	                        
 	                    }
 	                }
+	                seHelper.flush(insPrepStmt);
 	            }catch(java.sql.SQLException ex){
 	                throw new Ili2dbException("failed to insert meta info values to "+sqlName,ex);
 	            }finally{
@@ -219,6 +227,7 @@ public class DbExtMetaInfo {
 	            String insStmt="INSERT INTO "+sqlName+" ("+DbNames.META_INFO_TABLE_TAB_TABLENAME_COL+","+DbNames.META_INFO_TABLE_TAB_TAG_COL+","+DbNames.META_INFO_TABLE_TAB_SETTING_COL+") VALUES (?,?,?)";
 	            EhiLogger.traceBackendCmd(insStmt);
 	            java.sql.PreparedStatement insPrepStmt = conn.prepareStatement(insStmt);
+	            StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
 	            try{
 	                for(String table:tabInfo.keySet()){
 	                    HashMap<String,String> exstValues=exstEntries.get(table);
@@ -232,10 +241,11 @@ public class DbExtMetaInfo {
 	                            insPrepStmt.setString(1, table);
 	                            insPrepStmt.setString(2, tag);
 	                            insPrepStmt.setString(3, value);
-	                            insPrepStmt.executeUpdate();
+	                            seHelper.write(insPrepStmt);
 	                        }
 	                    }
 	                }
+	                seHelper.flush(insPrepStmt);
 	            }catch(java.sql.SQLException ex){
 	                throw new Ili2dbException("failed to insert meta info values to "+sqlName,ex);
 	            }finally{
@@ -3,6 +3,7 @@ package ch.ehi.ili2db.fromili;
 import java.sql.SQLException;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import ch.ehi.ili2db.gui.Config;
 import ch.ehi.sqlgen.repository.DbColumn;
 import ch.ehi.sqlgen.repository.DbTable;
@@ -24,8 +25,16 @@ public interface CustomMapping {
 	public void postConnect(Connection conn, Config config);
     public void prePreScript(Connection conn, Config config);
     public void postPostScript(Connection conn, Config config);
+    /** called at the end of a schema or data import, also if the import failed (then postPostScript() may not have been called);
+     * before the connection is closed. Must not throw.
+     */
+    public void postImport(Connection conn, Config config);
     public String shortenConnectUrl4IliCache(String url);
     public String shortenConnectUrl4Log(String url);
     public String getCreateSchemaStmt(String dbschema);
     public boolean tableExists(Connection conn,DbTableName tableName);
+    /** prepares an INSERT statement of the data import. The statement is used for many records
+     * (with executeUpdate() or addBatch()/executeBatch()) and closed at the end of the import.
+     */
+    public PreparedStatement prepareInsertStatement(Connection conn,String insertStmt,Config config) throws SQLException;
 }
@@ -1,6 +1,9 @@
 package ch.ehi.ili2db.fromili;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 import ch.ehi.ili2db.gui.Config;
 import ch.ehi.sqlgen.repository.DbColumn;
 import ch.ehi.sqlgen.repository.DbTable;
@@ -63,6 +66,10 @@ public class CustomMappingNull implements CustomMapping {
     public void postPostScript(Connection conn, Config config) {
     }
 
+    @Override
+    public void postImport(Connection conn, Config config) {
+    }
+
     @Override
     public String shortenConnectUrl4IliCache(String url) {
         return url;
@@ -81,4 +88,9 @@ public class CustomMappingNull implements CustomMapping {
     public boolean tableExists(Connection conn, DbTableName tableName) {
         return false;
     }
+
+    @Override
+    public PreparedStatement prepareInsertStatement(Connection conn, String insertStmt, Config config) throws SQLException {
+        return conn.prepareStatement(insertStmt);
+    }
 }
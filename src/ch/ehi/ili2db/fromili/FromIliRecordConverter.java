@@ -238,6 +238,10 @@ public class FromIliRecordConverter extends AbstractRecordConverter {
 		                    }
 		                }
 		              }
+		              // if CLASS, add content hash used by --update to skip unchanged objects
+		              if(createObjHashCol && !def.isStructure()){
+		                  addObjHashCol(dbTable);
+		              }
 		              
 		          // if STRUCTURE, add ref to parent
 		          if(def.isStructure()){
@@ -151,6 +151,7 @@ public class TransferFromIli {
 		recConv=new FromIliRecordConverter(td,ili2sqlName,config,schema,customMapping,idGen,visitedEnums,trafoConfig,class2wrapper,metaInfo);
 
 		batchSize = config.getBatchSize();
+		metaInfo.setBatchSize(batchSize);
 
 		visitedWrapper=new HashSet<ViewableWrapper>();
 		generatModelEles(modelEles,1);
@@ -750,6 +751,7 @@ public class TransferFromIli {
 	            String insStmt="INSERT INTO "+sqlName+" ("+DbNames.SETTINGS_TAB_TAG_COL+","+DbNames.SETTINGS_TAB_SETTING_COL+") VALUES (?,?)";
 	            EhiLogger.traceBackendCmd(insStmt);
 	            java.sql.PreparedStatement insPrepStmt = conn.prepareStatement(insStmt);
+	            StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, settings.getBatchSize());
 	            try{
 	                java.util.Iterator entri=settings.getValues().iterator();
 	                while(entri.hasNext()){
@@ -757,8 +759,9 @@ public class TransferFromIli {
 	                    insPrepStmt.clearParameters();
 	                    insPrepStmt.setString(1, tag);
 	                    insPrepStmt.setString(2, settings.getValue(tag));
-	                    insPrepStmt.executeUpdate();
+	                    seHelper.write(insPrepStmt);
 	                }
+	                seHelper.flush(insPrepStmt);
 	            }catch(java.sql.SQLException ex){
 	                throw new Ili2dbException("failed to insert setting",ex);
 	            }finally{
@@ -1252,7 +1255,7 @@ public class TransferFromIli {
 	            EhiLogger.traceBackendCmd(stmt);
 	            java.sql.PreparedStatement ps = conn.prepareStatement(stmt);
 	            String thisClass=null;
-				StatementExecutionHelper seHelper = new StatementExecutionHelper(batchSize);
+				StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
 	            try{
 	                for(Object aclass:visitedElements){
 	                    if(aclass instanceof Viewable){
@@ -1322,9 +1325,12 @@ public class TransferFromIli {
 	            String insStmt="INSERT INTO "+sqlName+" ("+DbNames.ENUM_TAB_SEQ_COL+","+DbNames.ENUM_TAB_ILICODE_COL+","+DbNames.ENUM_TAB_ITFCODE_COL+","+DbNames.ENUM_TAB_DISPNAME_COL+","+DbNames.ENUM_TAB_INACTIVE_COL+","+DbNames.ENUM_TAB_DESCRIPTION_COL+","+DbNames.ENUM_TAB_THIS_COL+","+DbNames.ENUM_TAB_BASE_COL+") VALUES (?,?,?,?,?,?,?,?)";
 	            EhiLogger.traceBackendCmd(insStmt);
 	            java.sql.PreparedStatement insPrepStmt = conn.prepareStatement(insStmt);
+	            StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
 	            String thisClass=null;
 	            try{
 	                addMissingEnumDomains(visitedEnums);
+	                // existing entries of all enumerations
+	                Map<String,Set<String>> exstEnums=EnumValueMap.readIliCodesByTypeFromDb(conn,tabName);
 	                java.util.Iterator<Element> entri=visitedEnums.iterator();
 	                while(entri.hasNext()){
 	                    Object entro=entri.next();
@@ -1341,8 +1347,8 @@ public class TransferFromIli {
 	                        if(base!=null){
 	                            baseClass=base.getContainer().getScopedName(null)+"."+base.getName();
 	                        }
-	                        Set<String> exstEntries=EnumValueMap.readIliCodesFromDb(conn,null,true,thisClass,tabName);
-	                        updateEnumEntries(null,exstEntries,sqlName, insPrepStmt,EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+	                        Set<String> exstEntries=EnumValueMap.getIliCodes(exstEnums,thisClass);
+	                        updateEnumEntries(null,exstEntries,sqlName, insPrepStmt,seHelper,EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),thisClass, baseClass);
 	                    }else if(entro instanceof Domain){
 	                        Domain domain=(Domain)entro;
 	                        if(Ili2cUtility.isBoolean(td, domain.getType())){
@@ -1356,10 +1362,11 @@ public class TransferFromIli {
 	                        if(base!=null){
 	                            baseClass=base.getScopedName(null);
 	                        }
-	                        Set<String> exstEntries=EnumValueMap.readIliCodesFromDb(conn,null,true,thisClass,tabName);
-	                        updateEnumEntries(null,exstEntries,sqlName,insPrepStmt, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+	                        Set<String> exstEntries=EnumValueMap.getIliCodes(exstEnums,thisClass);
+	                        updateEnumEntries(null,exstEntries,sqlName,insPrepStmt,seHelper, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
 	                    }
 	                }
+	                seHelper.flush(insPrepStmt);
 	            }catch(java.sql.SQLException ex){
 	                throw new Ili2dbException("failed to insert enum values for type "+thisClass,ex);
 	            }finally{
@@ -1389,7 +1396,7 @@ public class TransferFromIli {
                             baseClass=base.getContainer().getScopedName(null)+"."+base.getName();
                         }
                         Set<String> exstEntries=new HashSet<String>();
-                        updateEnumEntries(gen,exstEntries,sqlName,null, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+                        updateEnumEntries(gen,exstEntries,sqlName,null,null, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),thisClass, baseClass);
                     }else if(entro instanceof Domain){
                         Domain domain=(Domain)entro;
                         if(Ili2cUtility.isBoolean(td, domain.getType())){
@@ -1404,7 +1411,7 @@ public class TransferFromIli {
                             baseClass=base.getScopedName(null);
                         }
                         Set<String> exstEntries=new HashSet<String>();
-                        updateEnumEntries(gen,exstEntries,sqlName,null, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+                        updateEnumEntries(gen,exstEntries,sqlName,null,null, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
                     }
                 }
             }catch(java.sql.SQLException ex){       
@@ -1438,7 +1445,9 @@ public class TransferFromIli {
 	                    EhiLogger.traceBackendCmd(stmt);
 	                    java.sql.PreparedStatement ps = conn.prepareStatement(stmt);
 	                    try{
-	                        updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),null, null);
+	                        StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
+	                        updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps,seHelper, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),null, null);
+	                        seHelper.flush(ps);
 	                    }catch(java.sql.SQLException ex){
 	                        throw new Ili2dbException("failed to insert enum values for type "+thisClass,ex);
 	                    }finally{
@@ -1452,7 +1461,7 @@ public class TransferFromIli {
                     try{
 
                         Set<String> exstEntries=new HashSet<String>();
-                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),null, null);
+                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null,null, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),null, null);
                     }catch(java.sql.SQLException ex){       
                         throw new Ili2dbException("failed to create inserts to enum-table "+thisSqlName,ex);
                     }
@@ -1476,7 +1485,9 @@ public class TransferFromIli {
 	                    EhiLogger.traceBackendCmd(stmt);
 	                    java.sql.PreparedStatement ps = conn.prepareStatement(stmt);
 	                    try{
-	                        updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),null, null);
+	                        StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
+	                        updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps,seHelper, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),null, null);
+	                        seHelper.flush(ps);
 	                    }catch(java.sql.SQLException ex){
 	                        throw new Ili2dbException("failed to insert enum values for type "+thisClass,ex);
 	                    }finally{
@@ -1489,7 +1500,7 @@ public class TransferFromIli {
 				if(gen!=null){
                     try{
                         Set<String> exstEntries=new HashSet<String>();
-                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),null, null);
+                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null,null, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),null, null);
                     }catch(java.sql.SQLException ex){       
                         throw new Ili2dbException("failed to create inserts to enum-table "+thisSqlName,ex);
                     }
@@ -1504,6 +1515,8 @@ public class TransferFromIli {
     throws Ili2dbException
     {
         addMissingEnumDomains(visitedEnums);
+        // existing entries per enum table (an enum table is shared by an enumeration and its extensions)
+        HashMap<String,Map<String,Set<String>>> exstEnumsPerTable=new HashMap<String,Map<String,Set<String>>>();
         java.util.Iterator<Element> entri=visitedEnums.iterator();
         while(entri.hasNext()){
             Object entro=entri.next();
@@ -1522,14 +1535,21 @@ public class TransferFromIli {
                 DbTableName thisSqlName=getSqlTableNameEnum(Ili2cUtility.getRootBaseAttr(attr));
                 if(conn!=null) {
                     try{
-                        Set<String> exstEntries=EnumValueMap.readIliCodesFromDb(conn,colT_ID,true,thisClass,thisSqlName);
+                        Map<String,Set<String>> exstEnums=exstEnumsPerTable.get(thisSqlName.getQName());
+                        if(exstEnums==null) {
+                            exstEnums=EnumValueMap.readIliCodesByTypeFromDb(conn,thisSqlName);
+                            exstEnumsPerTable.put(thisSqlName.getQName(),exstEnums);
+                        }
+                        Set<String> exstEntries=EnumValueMap.getIliCodes(exstEnums,thisClass);
 
                         // insert entries
                         String stmt="INSERT INTO "+thisSqlName+" ("+DbNames.ENUM_TAB_SEQ_COL+","+DbNames.ENUM_TAB_ILICODE_COL+","+DbNames.ENUM_TAB_ITFCODE_COL+","+DbNames.ENUM_TAB_DISPNAME_COL+","+DbNames.ENUM_TAB_INACTIVE_COL+","+DbNames.ENUM_TAB_DESCRIPTION_COL+","+DbNames.ENUM_TAB_THIS_COL+","+DbNames.ENUM_TAB_BASE_COL+") VALUES (?,?,?,?,?,?,?,?)";
                         EhiLogger.traceBackendCmd(stmt);
                         java.sql.PreparedStatement ps = conn.prepareStatement(stmt);
                         try{
-                            updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+                            StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
+                            updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps,seHelper, EnumValueMap.createEnumValueMap(attr, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+                            seHelper.flush(ps);
                         }catch(java.sql.SQLException ex){
                             throw new Ili2dbException("failed to insert enum values for type "+thisClass,ex);
                         }finally{
@@ -1543,7 +1563,7 @@ public class TransferFromIli {
                 if(gen!=null){
                     try{
                         Set<String> exstEntries=new HashSet<String>();
-                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null, EnumValueMap.createEnumValueMap(attr, ili2sqlName),type.isOrdered(), thisClass, baseClass);
+                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null,null, EnumValueMap.createEnumValueMap(attr, ili2sqlName),type.isOrdered(), thisClass, baseClass);
                     }catch(java.sql.SQLException ex){       
                         throw new Ili2dbException("failed to create inserts into enum-table "+thisSqlName,ex);
                     }
@@ -1564,7 +1584,12 @@ public class TransferFromIli {
                 DbTableName thisSqlName=getSqlTableName(Ili2cUtility.getRootBaseDomain(domain));
                 if(conn!=null) {
                     try{
-                        Set<String> exstEntries=EnumValueMap.readIliCodesFromDb(conn,colT_ID,true,thisClass,thisSqlName);
+                        Map<String,Set<String>> exstEnums=exstEnumsPerTable.get(thisSqlName.getQName());
+                        if(exstEnums==null) {
+                            exstEnums=EnumValueMap.readIliCodesByTypeFromDb(conn,thisSqlName);
+                            exstEnumsPerTable.put(thisSqlName.getQName(),exstEnums);
+                        }
+                        Set<String> exstEntries=EnumValueMap.getIliCodes(exstEnums,thisClass);
 
                         // insert entries
                         //String stmt="INSERT INTO "+thisSqlName+" ("+DbNames.ENUM_TAB_SEQ_COL+","+DbNames.ENUM_TAB_ILICODE_COL+","+DbNames.ENUM_TAB_ITFCODE_COL+","+DbNames.ENUM_TAB_DISPNAME_COL+","+DbNames.ENUM_TAB_INACTIVE_COL+","+DbNames.ENUM_TAB_DESCRIPTION_COL+") VALUES (?,?,?,?,?,?)";
@@ -1572,7 +1597,9 @@ public class TransferFromIli {
                         EhiLogger.traceBackendCmd(stmt);
                         java.sql.PreparedStatement ps = conn.prepareStatement(stmt);
                         try{
-                            updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+                            StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
+                            updateEnumEntries(null,exstEntries,thisSqlName.getQName(),ps,seHelper, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+                            seHelper.flush(ps);
                         }catch(java.sql.SQLException ex){
                             throw new Ili2dbException("failed to insert enum values for type "+thisClass,ex);
                         }finally{
@@ -1585,7 +1612,7 @@ public class TransferFromIli {
                 if(gen!=null){
                     try{
                         Set<String> exstEntries=new HashSet<String>();
-                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
+                        updateEnumEntries(gen,exstEntries,thisSqlName.getQName(),null,null, EnumValueMap.createEnumValueMap(domain, ili2sqlName), type.isOrdered(),thisClass, baseClass);
                     }catch(java.sql.SQLException ex){       
                         throw new Ili2dbException("failed to create inserts into enum-table "+thisSqlName,ex);
                     }
@@ -1596,7 +1623,7 @@ public class TransferFromIli {
         
 
     }
-	private void updateEnumEntries(GeneratorJdbc gen, java.util.Set<String> exstEntries,String sqlTableName,java.sql.PreparedStatement ps, EnumValueMap type, boolean isOrdered,String thisClass, String baseClass) 
+	private void updateEnumEntries(GeneratorJdbc gen, java.util.Set<String> exstEntries,String sqlTableName,java.sql.PreparedStatement ps,StatementExecutionHelper seHelper, EnumValueMap type, boolean isOrdered,String thisClass, String baseClass) 
 	throws SQLException 
 	{
 		Iterator<String> evi=type.getXtfCodes().iterator();
@@ -1640,7 +1667,7 @@ public class TransferFromIli {
                             ps.setNull(8,java.sql.Types.VARCHAR);
                         }
                     }
-                    ps.executeUpdate();
+                    seHelper.write(ps);
                 }
 			}
             if(gen!=null) {
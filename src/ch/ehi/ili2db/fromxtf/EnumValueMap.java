@@ -71,6 +71,56 @@ public class EnumValueMap {
             throw new Ili2dbException("failed to read enum-table "+sqlDbName,ex);
         }
     }
+    /** reads the ili codes of all enumerations of an enum table with a thisClass column, with one query.
+     * @return map from the qualified ili name of the enumeration to its ili codes.
+     */
+    public static Map<String,Set<String>> readIliCodesByTypeFromDb(java.sql.Connection conn,DbTableName sqlDbName)
+    throws Ili2dbException
+    {
+        HashMap<String,Set<String>> ret=new HashMap<String,Set<String>>();
+        String sqlName=sqlDbName.getQName();
+        String exstStmt="SELECT "+DbNames.ENUM_TAB_THIS_COL+","+DbNames.ENUM_TAB_ILICODE_COL+" FROM "+sqlName;
+        EhiLogger.traceBackendCmd(exstStmt);
+        PreparedStatement exstPrepStmt = null;
+        ResultSet rs=null;
+        try{
+            try{
+                exstPrepStmt = conn.prepareStatement(exstStmt);
+                rs=exstPrepStmt.executeQuery();
+                while(rs.next()){
+                    String thisClass=rs.getString(1);
+                    Set<String> iliCodes=ret.get(thisClass);
+                    if(iliCodes==null) {
+                        iliCodes=new HashSet<String>();
+                        ret.put(thisClass, iliCodes);
+                    }
+                    iliCodes.add(rs.getString(2));
+                }
+            }finally{
+                if(rs!=null) {
+                    rs.close();
+                    rs=null;
+                }
+                if(exstPrepStmt!=null) {
+                    exstPrepStmt.close();
+                    exstPrepStmt=null;
+                }
+            }
+        } catch (SQLException ex) {
+            throw new Ili2dbException("failed to read enum-table "+sqlName,ex);
+        }
+        return ret;
+    }
+    /** gets the ili codes of an enumeration from the result of readIliCodesByTypeFromDb().
+     */
+    public static Set<String> getIliCodes(Map<String,Set<String>> iliCodesByType,String qualifiedIliName)
+    {
+        Set<String> ret=iliCodesByType.get(qualifiedIliName);
+        if(ret==null) {
+            return new HashSet<String>();
+        }
+        return ret;
+    }
     public static EnumValueMap readEnumValueMapFromDb(java.sql.Connection conn,String tidColumnName,boolean hasThisClassColumn,String qualifiedIliName,DbTableName sqlDbName) throws SQLException
     {
         EnumValueMap ret=new EnumValueMap();
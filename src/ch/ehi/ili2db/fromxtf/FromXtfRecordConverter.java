@@ -127,7 +127,7 @@ public class FromXtfRecordConverter extends AbstractRecordConverter {
 	}
 	public void writeRecord(long basketSqlId, java.util.Map<String,String> genericDomains,IomObject iomMainObj,Viewable iomClass,
 			AbstractStructWrapper structEle0, ViewableWrapper tableWrapper, String sqlType,
-			long sqlId, boolean updateObj, PreparedStatement ps,ArrayList<AbstractStructWrapper> structQueue,Viewable originalClass, int iomValueIndex, long parentSqlId)
+			long sqlId, boolean updateObj, PreparedStatement ps,ArrayList<AbstractStructWrapper> structQueue,Viewable originalClass, int iomValueIndex, long parentSqlId, String objHash)
 			throws SQLException, ConverterException {
 		int valuei=1;
 		
@@ -183,6 +183,15 @@ public class FromXtfRecordConverter extends AbstractRecordConverter {
                         }
 					}
 				}
+				// if class, content hash
+				if(createObjHashCol && !tableWrapper.isStructure()){
+				    if(objHash!=null){
+				        ps.setString(valuei, objHash);
+				    }else{
+				        ps.setNull(valuei, Types.VARCHAR);
+				    }
+				    valuei++;
+				}
 				// if struct, add ref to parent
 				if(structEle0!=null && (structEle0 instanceof StructWrapper)){
 				    StructWrapper structEle=(StructWrapper)structEle0;
@@ -513,6 +522,17 @@ public class FromXtfRecordConverter extends AbstractRecordConverter {
 						}
 					}
 				}
+				// if Class, add content hash
+				if(createObjHashCol && !tableWrapper.isStructure()){
+					ret.append(sep);
+					ret.append(DbNames.T_ILI2DB_HASH_COL);
+					if(isUpdate){
+						ret.append("=?");
+					}else{
+						values.append(",?");
+					}
+					sep=",";
+				}
 				// if STRUCTURE, add ref to parent
 				if(tableWrapper.isStructure()){
 					if(structEle0==null){
@@ -1729,6 +1749,27 @@ public class FromXtfRecordConverter extends AbstractRecordConverter {
 		typeCache.put(type,new Double(p));
 		return p;
 	}
+	/** tests if the values of the given attribute are written as records of a struct table 
+	 * (and not coalesced or expanded into columns of the table of the main object).
+	 * @see #addAttrValue
+	 */
+	public boolean isStructTableAttr(AttributeDef tableAttr)
+	{
+		if(!(tableAttr.getDomainResolvingAliases() instanceof CompositionType)){
+			return false;
+		}
+		if(TrafoConfigNames.JSON_TRAFO_COALESCE.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.JSON_TRAFO))
+				|| TrafoConfigNames.ARRAY_TRAFO_COALESCE.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.ARRAY_TRAFO))
+				|| TrafoConfigNames.CATALOGUE_REF_TRAFO_COALESCE.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.CATALOGUE_REF_TRAFO))
+				|| TrafoConfigNames.MULTISURFACE_TRAFO_COALESCE.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.MULTISURFACE_TRAFO))
+				|| TrafoConfigNames.MULTILINE_TRAFO_COALESCE.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.MULTILINE_TRAFO))
+				|| TrafoConfigNames.MULTIPOINT_TRAFO_COALESCE.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.MULTIPOINT_TRAFO))
+				|| TrafoConfigNames.MULTILINGUAL_TRAFO_EXPAND.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.MULTILINGUAL_TRAFO))
+				|| TrafoConfigNames.LOCALISED_TRAFO_EXPAND.equals(trafoConfig.getAttrConfig(tableAttr, TrafoConfigNames.LOCALISED_TRAFO))){
+			return false;
+		}
+		return true;
+	}
 	private void enqueStructValue(ArrayList<AbstractStructWrapper> structQueue,long parentSqlId,String parentSqlType,String parentSqlAttr,IomObject struct,int structi,AttributeDef attr)
 	{
 		structQueue.add(new StructWrapper(parentSqlId,parentSqlType,parentSqlAttr,struct,structi,attr));
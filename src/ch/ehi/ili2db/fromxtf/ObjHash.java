@@ -0,0 +1,82 @@
+package ch.ehi.ili2db.fromxtf;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ch.interlis.iom.IomObject;
+
+/** computes a content hash of an object as read from the transfer file.
+ * The hash covers the object tag, all attribute values (including struct values and references)
+ * and the generic domain assignment of the basket, but not the TID.
+ */
+public class ObjHash {
+    private static final char HEX[]="0123456789abcdef".toCharArray();
+    private MessageDigest digest=null;
+    public ObjHash() {
+        try {
+            digest=MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    public String getHash(IomObject iomObj,Map<String,String> genericDomains) {
+        digest.reset();
+        if(genericDomains!=null && genericDomains.size()>0) {
+            for(Map.Entry<String,String> domain:new TreeMap<String,String>(genericDomains).entrySet()) {
+                update(domain.getKey());
+                update(domain.getValue());
+            }
+        }
+        updateObj(iomObj);
+        byte hash[]=digest.digest();
+        char ret[]=new char[hash.length*2];
+        for(int i=0;i<hash.length;i++) {
+            ret[i*2]=HEX[(hash[i]>>4)&0xf];
+            ret[i*2+1]=HEX[hash[i]&0xf];
+        }
+        return new String(ret);
+    }
+    private void updateObj(IomObject iomObj) {
+        update(iomObj.getobjecttag());
+        String refoid=iomObj.getobjectrefoid();
+        if(refoid!=null) {
+            update(refoid);
+            update(iomObj.getobjectrefbid());
+            update(Long.toString(iomObj.getobjectreforderpos()));
+        }
+        int attrc=iomObj.getattrcount();
+        String attrNames[]=new String[attrc];
+        for(int attri=0;attri<attrc;attri++) {
+            attrNames[attri]=iomObj.getattrname(attri);
+        }
+        Arrays.sort(attrNames);
+        for(String attrName:attrNames) {
+            update(attrName);
+            int valuec=iomObj.getattrvaluecount(attrName);
+            for(int valuei=0;valuei<valuec;valuei++) {
+                String prim=iomObj.getattrprim(attrName, valuei);
+                if(prim!=null) {
+                    update(prim);
+                }else {
+                    IomObject struct=iomObj.getattrobj(attrName, valuei);
+                    if(struct!=null) {
+                        digest.update((byte)'{');
+                        updateObj(struct);
+                        digest.update((byte)'}');
+                    }
+                }
+            }
+        }
+    }
+    private void update(String value) {
+        if(value!=null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // separator, so that adjacent values can not be shifted against each other
+        digest.update((byte)0);
+    }
+}
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -142,6 +143,12 @@ public class TransferFromXtf {
 	private ObjectPoolManager recman = null;
 	private java.util.Map<String, IomObject> objPool=null;
 	private HashMap<String,HashSet<Long>> existingObjectsOfCurrentBasket=null;
+	/** maps sqlid of existing objects of the current basket to their content hash; only used if createObjHashCol
+	 */
+	private HashMap<Long,String> existingObjHashes=null;
+	private boolean createObjHashCol=false;
+	private ObjHash objHash=null;
+	private HashMap<Viewable,Boolean> skipIfUnchanged=new HashMap<Viewable,Boolean>();
 	private ArrayList<FixIomObjectExtRefs> delayedObjects=null;
 	private TrafoConfig trafoConfig=null;
 	private FromXtfRecordConverter recConv=null;
@@ -157,8 +164,13 @@ public class TransferFromXtf {
     private boolean createImportTabs=false;
     private Integer batchSize = null;
     private boolean doBatchInsert=false;
+    /** max number of prepared statements that are kept open at the same time.
+     */
+    private static final int MAX_CACHED_STATEMENTS=100;
     private Map<String,StatementExecutionHelper> cachedStatementExecutionHelper=new HashMap<String,StatementExecutionHelper>();
-    private Map<String,PreparedStatement> cachedPreparedStatement=new HashMap<String,PreparedStatement>();
+    /** open prepared statements; in access order, so that the least recently used one is the first.
+     */
+    private LinkedHashMap<String,PreparedStatement> cachedPreparedStatement=new LinkedHashMap<String,PreparedStatement>(16,0.75f,true);
 	public TransferFromXtf(int function,NameMapping ili2sqlName1,
 			TransferDescription td1,
 			Connection conn1,
@@ -199,6 +211,10 @@ public class TransferFromXtf {
 		}
 		createSqlExtRef=Config.SQL_EXTREF_ENABLE.equals(config.getSqlExtRefCols());
 		createImportTabs=config.isCreateImportTabs();
+		createObjHashCol=config.isCreateObjHashCol();
+		if(createObjHashCol){
+		    objHash=new ObjHash();
+		}
         batchSize = config.getBatchSize();
         if(batchSize!=null) {
             doBatchInsert=true;
@@ -286,6 +302,7 @@ public class TransferFromXtf {
             globals.endTid=0;
             globals.objCountPerBasket=0;
             globals.objCount=0;
+            globals.unchangedObjCount=0;
             globals.referrs=false;
             
             recConv=null;
@@ -457,6 +474,7 @@ public class TransferFromXtf {
         long endTid=0;
         long objCountPerBasket=0;
         long objCount=0;
+        long unchangedObjCount=0;
         boolean referrs=false;
         HashMap<String, ClassStat> objStat=null;            
 
@@ -546,6 +564,7 @@ public class TransferFromXtf {
 								if(functionCode==Config.FC_UPDATE){
 									// read existing oid/sqlid mapping (but might also be a new basket)
 									existingObjectsOfCurrentBasket=new HashMap<String,HashSet<Long>>();
+									existingObjHashes=new HashMap<Long,String>();
                                     Topic topic=(Topic)td.getElement(basket.getType());
                                     boolean hasBid=topic.getBasketOid()!=null;
 									if(readIliBid || hasBid) {
@@ -569,6 +588,8 @@ public class TransferFromXtf {
 	                                        // drop existing sturct eles
                                             dropExistingStructEles(basket.getType(),oldBasketSqlId);
 									    }
+									    // objects move to a new basket, so unchanged objects can not be skipped
+									    existingObjHashes.clear();
 									    // remove old baskets from dataset
 									    removeBasketsFromDataset(basketSqlIds);
 									    // new basket
@@ -672,6 +693,7 @@ public class TransferFromXtf {
 								// clear existingObjectsOfCurrentBasket so it reflects the state of the DB.
 								// existingObjectsOfCurrentBasket is later used to decide whether to use an INSERT or UPDATE statement.
 								existingObjectsOfCurrentBasket.clear();
+								existingObjHashes.clear();
 							}
 
 							// TODO update import counters
@@ -728,6 +750,9 @@ public class TransferFromXtf {
 						
                         EhiLogger.traceState("...EndTransferEvent done");
                         EhiLogger.logState("object count "+globals.objCount);
+                        if(globals.unchangedObjCount>0) {
+                            EhiLogger.logState("unchanged objects (skipped) "+globals.unchangedObjCount);
+                        }
 						
 						break;
 					}else if(event instanceof StartTransferEvent){
@@ -832,6 +857,7 @@ public class TransferFromXtf {
                 languageFilter.close();
             }
             closePreparedStatements();
+            idGen.closeDb();
             if(debugLogger!=null) {
                 try {
                     debugLogger.write(new ch.interlis.iox_j.EndTransferEvent());
@@ -1089,7 +1115,7 @@ public class TransferFromXtf {
 					if(customMapping.tableExists(conn,sqlName)){
 						// dump it
 						EhiLogger.logState(aclass.getScopedName(null)+" read ids...");
-						readObjectSqlIds(!wrapper.includesMultipleTypes(),sqlName,basketSqlId);
+						readObjectSqlIds(!wrapper.includesMultipleTypes(),createObjHashCol && !wrapper.isStructure(),sqlName,basketSqlId);
 					}else{
 						// skip it
 						EhiLogger.traceUnusualState(aclass.getScopedName(null)+"...skipped; no table "+sqlName+" in db");
@@ -1108,7 +1134,7 @@ public class TransferFromXtf {
 	                    if(customMapping.tableExists(conn,sqlName)){
 	                        // dump it
 	                        EhiLogger.logState(attr.getContainer().getScopedName(null)+"_"+attr.getName()+" read ids...");
-	                        readObjectSqlIds(isItf,sqlName,basketSqlId);
+	                        readObjectSqlIds(isItf,false,sqlName,basketSqlId);
 	                    }else{
 	                        // skip it
 	                        EhiLogger.traceUnusualState(attr.getScopedName(null)+"...skipped; no table "+sqlName+" in db");
@@ -1640,8 +1666,8 @@ public class TransferFromXtf {
 		ret.append(" WHERE r0."+DbNames.T_ILI_TID_COL+"=?");
 		return ret.toString();
 	}
-	private void readObjectSqlIds(boolean noTypeCol,DbTableName sqltablename, long basketsqlid) {
-		String stmt = createQueryStmt4sqlids(noTypeCol,sqltablename.getQName());
+	private void readObjectSqlIds(boolean noTypeCol,boolean readObjHash,DbTableName sqltablename, long basketsqlid) {
+		String stmt = createQueryStmt4sqlids(noTypeCol,readObjHash,sqltablename.getQName());
 		EhiLogger.traceBackendCmd(stmt);
 		java.sql.PreparedStatement dbstmt = null;
         java.sql.ResultSet rs = null;
@@ -1663,6 +1689,12 @@ public class TransferFromXtf {
 				Viewable aclass=(Viewable) tag2class.get(ili2sqlName.mapSqlTableName(sqlType));
 				oidPool.putXtfid2sqlid(Ili2cUtility.getRootViewable(aclass).getScopedName(null),aclass.getScopedName(null),xtfid, sqlid);
 				addExistingObjects(sqlType,sqlid);
+				if(readObjHash){
+				    String hash=rs.getString(noTypeCol?3:4);
+				    if(hash!=null){
+				        existingObjHashes.put(sqlid,hash);
+				    }
+				}
 			}
 		} catch (java.sql.SQLException ex) {
 			EhiLogger.logError("failed to query " + sqltablename,	ex);
@@ -1710,13 +1742,16 @@ public class TransferFromXtf {
 		return;
 	}
 
-	private String createQueryStmt4sqlids(boolean noTypeCol,String sqltablename){
+	private String createQueryStmt4sqlids(boolean noTypeCol,boolean readObjHash,String sqltablename){
 		StringBuffer ret = new StringBuffer();
 		ret.append("SELECT r0."+colT_ID);
 		ret.append(", r0."+DbNames.T_ILI_TID_COL);
 		if(!noTypeCol){
 			ret.append(", r0."+DbNames.T_TYPE_COL);
 		}
+		if(readObjHash){
+			ret.append(", r0."+DbNames.T_ILI2DB_HASH_COL);
+		}
 		ret.append(" FROM ");
 		ret.append(sqltablename);
 		ret.append(" r0");
@@ -1773,6 +1808,16 @@ public class TransferFromXtf {
 			 // get a new sql id
 			 sqlId=oidPool.newObjSqlId();
 		 }
+		 String hash=null;
+		 if(createObjHashCol && structEle==null){
+		     hash=objHash.getHash(iomObj,genericDomains);
+		     if(updateObj && hash.equals(existingObjHashes.get(sqlId)) && isSkipIfUnchanged(aclass0,aclass1)){
+		         // object not changed since last import/update; keep existing records
+		         updateObjStat(objStat,tag,sqlId);
+		         globals.unchangedObjCount++;
+		         return;
+		     }
+		 }
 		 updateObjStat(objStat,tag,sqlId);
 		 // loop over all classes; start with leaf, end with the base of the inheritance hierarchy
 		 ViewableWrapper tableWrapper=class2wrapper.get(aclass1);
@@ -1788,9 +1833,8 @@ public class TransferFromXtf {
 		            StatementExecutionHelper seHelper = getStatementExecutionHelper(stmtKey.value);
 
                     recConv.writeRecord(basketSqlId, genericDomains,iomObj, aclass1,structEle, tableWrapper, sqlType,
-                            sqlId, updateObj, ps,structQueue,aclass0, 0, 0);
+                            sqlId, updateObj, ps,structQueue,aclass0, 0, 0, hash);
                     seHelper.write(ps);
-                    closeUnbatchedPreparedStatement(stmtKey.value);
 			 }
 			for(ViewableWrapper secondary:tableWrapper.getSecondaryTables()){
 				// secondarytable contains attributes of this class?
@@ -1805,16 +1849,14 @@ public class TransferFromXtf {
 					if (attr != null) {
 						for (int i = 0; i < iomObj.getattrvaluecount(attr.getName()); i++) {
 							recConv.writeRecord(basketSqlId, genericDomains, iomObj, aclass1, structEle, secondary, sqlType,
-									oidPool.newObjSqlId(), updateObj, ps, structQueue, aclass0, i, sqlId);
+									oidPool.newObjSqlId(), updateObj, ps, structQueue, aclass0, i, sqlId, null);
 							seHelper.write(ps);
 						}
 					} else {
 						recConv.writeRecord(basketSqlId, genericDomains,iomObj, aclass1,structEle, secondary, sqlType,
-								sqlId, updateObj, ps,structQueue,aclass0, 0, 0);
+								sqlId, updateObj, ps,structQueue,aclass0, 0, 0, null);
 						seHelper.write(ps);
 					}
-
-					closeUnbatchedPreparedStatement(stmtKey.value);
 				}
 				
 			}
@@ -1840,6 +1882,49 @@ public class TransferFromXtf {
 		 }
 	}
 	
+    /** tests if an unchanged object of the given class may be skipped in update mode.
+     * Objects that own records in struct tables, value tables or link tables, are always written,
+     * because these records are dropped per basket before the update.
+     */
+    private boolean isSkipIfUnchanged(Viewable aclass0,Viewable aclass1) {
+        Boolean ret=skipIfUnchanged.get(aclass0);
+        if(ret!=null) {
+            return ret;
+        }
+        ret=true;
+        for(ViewableWrapper wrapper=class2wrapper.get(aclass1);ret && wrapper!=null;wrapper=wrapper.getExtending()) {
+            ArrayList<ViewableWrapper> tables=new ArrayList<ViewableWrapper>();
+            tables.add(wrapper);
+            tables.addAll(wrapper.getSecondaryTables());
+            for(ViewableWrapper table:tables) {
+                if(table.getPrimitiveCollectionAttr()!=null) {
+                    ret=false;
+                    break;
+                }
+                Iterator<ColumnWrapper> coli=table.getAttrIterator();
+                while(ret && coli.hasNext()) {
+                    ColumnWrapper col=coli.next();
+                    if(col.isIliAttr() && recConv.isStructTableAttr((AttributeDef)col.getViewableTransferElement().obj)) {
+                        ret=false;
+                    }
+                }
+                if(!ret) {
+                    break;
+                }
+            }
+        }
+        for(Iterator roleIt=aclass0.getAttributesAndRoles2();ret && roleIt.hasNext();) {
+            ViewableTransferElement roleEle=(ViewableTransferElement) roleIt.next();
+            if(roleEle.embedded && roleEle.obj instanceof RoleDef) {
+                AssociationDef roleOwner = (AssociationDef) ((RoleDef)roleEle.obj).getContainer();
+                if(roleOwner.getDerivedFrom()==null && !TransferFromIli.isLightweightAssociation(roleOwner)){
+                    ret=false;
+                }
+            }
+        }
+        skipIfUnchanged.put(aclass0,ret);
+        return ret;
+    }
     private StatementExecutionHelper getStatementExecutionHelper(String key) {
         StatementExecutionHelper helper=cachedStatementExecutionHelper.get(key);
         if(helper==null) {
@@ -1849,71 +1934,73 @@ public class TransferFromXtf {
         return helper;
     }
 
+    /** gets an open prepared statement for the given key. The statement is kept open
+     * for the whole import (independent of batching), unless it is the least recently
+     * used one and the number of open statements exceeds MAX_CACHED_STATEMENTS.
+     */
     private PreparedStatement getPreparedStatement(String key, String sql) throws SQLException {
         PreparedStatement stmt=cachedPreparedStatement.get(key);
         if(stmt==null) {
-            stmt=conn.prepareStatement(sql);
+            if(cachedPreparedStatement.size()>=MAX_CACHED_STATEMENTS) {
+                closeEldestPreparedStatement();
+            }
+            if(key.startsWith("update:")) {
+                stmt=conn.prepareStatement(sql);
+            }else {
+                stmt=customMapping.prepareInsertStatement(conn,sql,globals.config);
+            }
             cachedPreparedStatement.put(key,stmt);
         }
         return stmt;
     }
-    private void closeUnbatchedPreparedStatement(String key) throws SQLException {
-        if(!doBatchInsert) {
-            PreparedStatement stmt=cachedPreparedStatement.get(key);
-            StatementExecutionHelper helper=cachedStatementExecutionHelper.get(key);
-            try {
+    private void closeEldestPreparedStatement() throws SQLException {
+        Iterator<Map.Entry<String,PreparedStatement>> it=cachedPreparedStatement.entrySet().iterator();
+        Map.Entry<String,PreparedStatement> eldest=it.next();
+        it.remove();
+        String key=eldest.getKey();
+        PreparedStatement stmt=eldest.getValue();
+        StatementExecutionHelper helper=cachedStatementExecutionHelper.remove(key);
+        try {
+            if(helper!=null) {
+                helper.flush(stmt);
+            }
+        }finally {
+            stmt.close();
+        }
+    }
+    private void closePreparedStatements() {
+        try {
+            for(Map.Entry<String,PreparedStatement> entry:cachedPreparedStatement.entrySet()) {
+                String key=entry.getKey();
+                PreparedStatement stmt=entry.getValue();
+                StatementExecutionHelper helper=cachedStatementExecutionHelper.get(key);
                 if(stmt!=null) {
                     try {
                         if(helper!=null) {
                             helper.flush(stmt);
                         }
+                    } catch (SQLException ex) {
+                        EhiLogger.logError("flush of recordbatch "+key+" failed", ex);
                     }finally {
-                        stmt.close();
-                    }
-                }
-            }finally {
-                if(stmt!=null) {
-                    cachedPreparedStatement.remove(key);
-                }
-                if(helper!=null) {
-                    cachedStatementExecutionHelper.remove(key);
-                }
-            }
-        }
-    }
-    private void closePreparedStatements() {
-        if(doBatchInsert) {
-            try {
-                for(String key:cachedPreparedStatement.keySet()) {
-                    PreparedStatement stmt=cachedPreparedStatement.get(key);
-                    StatementExecutionHelper helper=cachedStatementExecutionHelper.get(key);
-                    if(stmt!=null) {
                         try {
-                            if(helper!=null) {
-                                helper.flush(stmt);
-                            }
+                            stmt.close();
                         } catch (SQLException ex) {
-                            EhiLogger.logError("flush of recordbatch "+key+" failed", ex);
-                        }finally {
-                            try {
-                                stmt.close();
-                            } catch (SQLException ex) {
-                                EhiLogger.logError("close of statement "+key+" failed", ex);
-                            }
+                            EhiLogger.logError("close of statement "+key+" failed", ex);
                         }
                     }
                 }
-            }finally {
-                cachedPreparedStatement.clear();
-                cachedStatementExecutionHelper.clear();
             }
+        }finally {
+            cachedPreparedStatement.clear();
+            cachedStatementExecutionHelper.clear();
         }
     }
 
     private void flushBatchedRecords() {
         if(doBatchInsert) {
-            for(String key:cachedPreparedStatement.keySet()) {
-                PreparedStatement stmt=cachedPreparedStatement.get(key);
+            for(Map.Entry<String,PreparedStatement> entry:cachedPreparedStatement.entrySet()) {
+                String key=entry.getKey();
+                PreparedStatement stmt=entry.getValue();
                 StatementExecutionHelper helper=cachedStatementExecutionHelper.get(key);
                 if(stmt!=null) {
                     if(helper!=null) {
@@ -1965,8 +2052,8 @@ public class TransferFromXtf {
 		String sqlTableName=getSqlTableNameItfLineTable(attrDef,epsgCode).getQName();
 		String insert=createItfLineTableInsertStmt(attrDef,epsgCode);
 		EhiLogger.traceBackendCmd(insert);
-		PreparedStatement ps = conn.prepareStatement(insert);
-		try {
+		PreparedStatement ps = getPreparedStatement("itfline:"+sqlTableName,insert);
+		{
 			int valuei = 1;
 
 			ps.setLong(valuei, sqlId);
@@ -2027,8 +2114,6 @@ public class TransferFromXtf {
 				valuei++;
 			}
 			ps.executeUpdate();
-		} finally {
-			ps.close();
 		}
 		
 	}
@@ -2366,42 +2451,79 @@ public class TransferFromXtf {
 		stmt.append(")");
 		return stmt.toString();
 	}
+	/** identifies an insert/update statement without building a string per record.
+	 */
+	private static class StmtKey {
+		private final boolean isUpdate;
+		private final ViewableWrapper sqltable;
+		private final Viewable iomClass;
+		private final String parentSqlType;
+		private final AttributeDef parentAttr;
+		private StmtKey(boolean isUpdate,ViewableWrapper sqltable,Viewable iomClass,String parentSqlType,AttributeDef parentAttr) {
+			this.isUpdate=isUpdate;
+			this.sqltable=sqltable;
+			this.iomClass=iomClass;
+			this.parentSqlType=parentSqlType;
+			this.parentAttr=parentAttr;
+		}
+		@Override
+		public int hashCode() {
+			int ret=System.identityHashCode(sqltable);
+			ret=31*ret+System.identityHashCode(iomClass);
+			ret=31*ret+(parentSqlType==null?0:parentSqlType.hashCode());
+			ret=31*ret+System.identityHashCode(parentAttr);
+			return isUpdate?ret+1:ret;
+		}
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof StmtKey)) {
+				return false;
+			}
+			StmtKey other=(StmtKey)obj;
+			return isUpdate==other.isUpdate && sqltable==other.sqltable && iomClass==other.iomClass 
+					&& parentAttr==other.parentAttr
+					&& (parentSqlType==null?other.parentSqlType==null:parentSqlType.equals(other.parentSqlType));
+		}
+	}
+	private Map<StmtKey,String> stmtKeys=new HashMap<StmtKey,String>();
 	private Map<String,String> insertStmts=new HashMap<String,String>();
-	private Map<String,String> updateStmts=new HashMap<String,String>();
 	/** gets an insert statement for a given viewable. Creates only a new
 	 *  statement if this is not yet seen sqlname.
 	 * @param sqlname table name of viewable
 	 * @param sqltable viewable
-	 * @param stmtKey 
+	 * @param stmtKey key of the statement (different for insert and update)
 	 * @return insert statement
 	 */
 	private String getInsertStmt(boolean isUpdate,Viewable iomClass,ViewableWrapper sqltable,AbstractStructWrapper structEle, OutParam<String> stmtKey){
-		final String key;
+		final StmtKey cacheKey;
 		if(structEle!=null && (structEle instanceof StructWrapper) && sqltable.getExtending()==null){
-			ViewableWrapper parentTable=recConv.getViewableWrapper(((StructWrapper) structEle).getParentSqlType());
-			key=sqltable.getSqlTablename()+":"+iomClass.getScopedName(null)+":"+parentTable.getSqlTablename()+":"+((StructWrapper) structEle).getParentAttr();
+			cacheKey=new StmtKey(isUpdate,sqltable,iomClass,((StructWrapper) structEle).getParentSqlType(),((StructWrapper) structEle).getParentAttr());
 		}else{
-            key=sqltable.getSqlTablename()+":"+iomClass.getScopedName(null);
+			cacheKey=new StmtKey(isUpdate,sqltable,iomClass,null,null);
+		}
+		String key=stmtKeys.get(cacheKey);
+		if(key==null) {
+			if(cacheKey.parentSqlType!=null){
+				ViewableWrapper parentTable=recConv.getViewableWrapper(cacheKey.parentSqlType);
+				key=sqltable.getSqlTablename()+":"+iomClass.getScopedName(null)+":"+parentTable.getSqlTablename()+":"+cacheKey.parentAttr;
+			}else{
+				key=sqltable.getSqlTablename()+":"+iomClass.getScopedName(null);
+			}
+			if(isUpdate){
+				key="update:"+key;
+			}
+			stmtKeys.put(cacheKey,key);
 		}
 		if(stmtKey!=null) {
 		    stmtKey.value=key;
 		}
-		if(isUpdate){
-			if(updateStmts.containsKey(key)){
-				return updateStmts.get(key);
-			}
-		}else{
-			if(insertStmts.containsKey(key)){
-				return insertStmts.get(key);
-			}
+		String stmt=insertStmts.get(key);
+		if(stmt!=null){
+			return stmt;
 		}
-		String stmt=recConv.createInsertStmt(isUpdate,iomClass,new DbTableName(schema,sqltable.getSqlTablename()),sqltable,structEle);
+		stmt=recConv.createInsertStmt(isUpdate,iomClass,new DbTableName(schema,sqltable.getSqlTablename()),sqltable,structEle);
 		EhiLogger.traceBackendCmd(stmt);
-		if(isUpdate){
-			updateStmts.put(key,stmt);
-		}else{
-			insertStmts.put(key,stmt);
-		}
+		insertStmts.put(key,stmt);
 		return stmt;
 	}
 }
@@ -43,6 +43,7 @@ public class Config extends Settings {
     public static final String FGDB_CREATE_DOMAINS=PREFIX+".fgdbCreateDomains";
     public static final String FGDB_INCLUDE_INACTIVE_ENUM_VALUES=PREFIX+".fgdbIncludeInactiveEnumValues";
     public static final String FGDB_CREATE_RELATIONSHIP_CLASSES=PREFIX+".fgdbCreateRelationshipClasses";
+    public static final String FGDB_SHAPE_GEOMETRY=PREFIX+".fgdbShapeGeometry";
 	public static final String CREATE_GEOM_INDEX=SqlConfiguration.CREATE_GEOM_INDEX;
 	private static final String CREATE_STD_COLS=PREFIX+".createStdCols";
 	public static final String CREATE_STD_COLS_ALL="all";
@@ -81,6 +82,8 @@ public class Config extends Settings {
     public static final String MANDATORY_CHECK_CONSTRAINTS_CREATE="create";
     public static final String IMPORT_TABS=PREFIX+".importTabs";
     public static final String IMPORT_TABS_CREATE="simple";
+    public static final String OBJ_HASH_COL=PREFIX+".objHashCol";
+    public static final String OBJ_HASH_COL_CREATE="create";
 	public static final String GEOMATTR_PER_TABLE=PREFIX+".geomAttrPerTable";
 	public static final String GEOMATTR_PER_TABLE_ONE="oneGeomAttrPerTable";
     public static final String GEOMATTR_PER_TABLE_MULTIPLE="multipleGeomAttrPerTable";
@@ -181,7 +184,18 @@ public class Config extends Settings {
     public static final String TRANSIENT_BOOLEAN_ONLYMULTIPLICITYREDUCTION=PREFIX+".onlyMultiplicityReduction";
     public static final String TRANSIENT_BOOLEAN_SKIPGEOMETRYERRORS=PREFIX+".skipGeometryErrors";
     public static final String TRANSIENT_INTEGER_FETCHSIZE=PREFIX+".fetchSize";
+    public static final String TRANSIENT_INTEGER_EXPORT_STRUCT_BATCHSIZE=PREFIX+".exportStructBatchSize";
+    public static final String TRANSIENT_BOOLEAN_EXPORT_ASYNC_WRITE=PREFIX+".exportAsyncWrite";
+    public static final String TRANSIENT_BOOLEAN_VALIDATE_CHANGED=PREFIX+".validateChanged";
+    public static final String TRANSIENT_BOOLEAN_DUCKDB_APPENDER=PREFIX+".duckdbAppender";
+    public static final String TRANSIENT_BOOLEAN_H2GIS_BULKLOAD=PREFIX+".h2gisBulkLoad";
+    public static final String TRANSIENT_BOOLEAN_GPKG_DEFER_GEOMIDX=PREFIX+".gpkgDeferGeomIdx";
+    public static final String TRANSIENT_BOOLEAN_GPKG_BULKLOAD=PREFIX+".gpkgBulkLoad";
+    public static final String TRANSIENT_BOOLEAN_FGDB_COMPACT=PREFIX+".fgdbCompact";
     public static final String TRANSIENT_INTEGER_BATCHSIZE=PREFIX+".batchSize";
+    public static final String TRANSIENT_INTEGER_IDBLOCKSIZE=PREFIX+".idBlockSize";
+    public static final String TRANSIENT_STRING_MODELCACHEDIR=PREFIX+".modelCacheDir";
+    public static final String TRANSIENT_LONG_MODELCACHETTL=PREFIX+".modelCacheTtl";
     public static final String TRANSIENT_INTEGER_FUNCTION=PREFIX+".function";
     public static final String TRANSIENT_LONG_MINIDSEQVALUE=PREFIX+".minIdSeqValue";
     public static final String TRANSIENT_LONG_MAXIDSEQVALUE=PREFIX+".maxIdSeqValue";
@@ -592,6 +606,12 @@ public class Config extends Settings {
     public boolean isCreateImportTabs() {
         return IMPORT_TABS_CREATE.equals(getValue(IMPORT_TABS));
     }
+    public void setCreateObjHashCol(boolean value) {
+        setValue(OBJ_HASH_COL,value?OBJ_HASH_COL_CREATE:null);
+    }
+    public boolean isCreateObjHashCol() {
+        return OBJ_HASH_COL_CREATE.equals(getValue(OBJ_HASH_COL));
+    }
 
 	public void setOneGeomPerTable(boolean onlyOne) {
 		setValue(GEOMATTR_PER_TABLE,onlyOne?GEOMATTR_PER_TABLE_ONE:GEOMATTR_PER_TABLE_MULTIPLE);
@@ -856,12 +876,86 @@ public class Config extends Settings {
     public Integer getFetchSize() {
         return (Integer)getTransientObject(TRANSIENT_INTEGER_FETCHSIZE);
     }
+    public void setExportStructBatchSize(Integer batchSize) {
+        setTransientObject(TRANSIENT_INTEGER_EXPORT_STRUCT_BATCHSIZE,batchSize);
+    }
+    public Integer getExportStructBatchSize() {
+        return (Integer)getTransientObject(TRANSIENT_INTEGER_EXPORT_STRUCT_BATCHSIZE);
+    }
+    public boolean isExportAsyncWrite() {
+        Boolean value=(Boolean)getTransientObject(TRANSIENT_BOOLEAN_EXPORT_ASYNC_WRITE);
+        if(value==null)return false;
+        return value;
+    }
+    public void setExportAsyncWrite(boolean enable) {
+        setTransientObject(TRANSIENT_BOOLEAN_EXPORT_ASYNC_WRITE,new Boolean(enable));
+    }
+    public boolean isValidateChanged() {
+        Boolean value=(Boolean)getTransientObject(TRANSIENT_BOOLEAN_VALIDATE_CHANGED);
+        if(value==null)return false;
+        return value;
+    }
+    public void setValidateChanged(boolean enable) {
+        setTransientObject(TRANSIENT_BOOLEAN_VALIDATE_CHANGED,new Boolean(enable));
+    }
+    public boolean isDuckDBAppender() {
+        Boolean value=(Boolean)getTransientObject(TRANSIENT_BOOLEAN_DUCKDB_APPENDER);
+        if(value==null)return false;
+        return value;
+    }
+    public void setDuckDBAppender(boolean enable) {
+        setTransientObject(TRANSIENT_BOOLEAN_DUCKDB_APPENDER,new Boolean(enable));
+    }
+    public boolean isH2gisBulkLoad() {
+        Boolean value=(Boolean)getTransientObject(TRANSIENT_BOOLEAN_H2GIS_BULKLOAD);
+        if(value==null)return false;
+        return value;
+    }
+    public void setH2gisBulkLoad(boolean enable) {
+        setTransientObject(TRANSIENT_BOOLEAN_H2GIS_BULKLOAD,new Boolean(enable));
+    }
+    public boolean isGpkgDeferGeomIdx() {
+        Boolean value=(Boolean)getTransientObject(TRANSIENT_BOOLEAN_GPKG_DEFER_GEOMIDX);
+        if(value==null)return false;
+        return value;
+    }
+    public void setGpkgDeferGeomIdx(boolean enable) {
+        setTransientObject(TRANSIENT_BOOLEAN_GPKG_DEFER_GEOMIDX,new Boolean(enable));
+    }
+    public boolean isGpkgBulkLoad() {
+        Boolean value=(Boolean)getTransientObject(TRANSIENT_BOOLEAN_GPKG_BULKLOAD);
+        if(value==null)return false;
+        return value;
+    }
+    public void setGpkgBulkLoad(boolean enable) {
+        setTransientObject(TRANSIENT_BOOLEAN_GPKG_BULKLOAD,new Boolean(enable));
+    }
     public void setBatchSize(Integer batchSize) {
         setTransientObject(TRANSIENT_INTEGER_BATCHSIZE,new Integer(batchSize));
     }
     public Integer getBatchSize() {
         return (Integer)getTransientObject(TRANSIENT_INTEGER_BATCHSIZE);
     }
+    public void setIdBlockSize(Integer idBlockSize) {
+        setTransientObject(TRANSIENT_INTEGER_IDBLOCKSIZE,idBlockSize);
+    }
+    public Integer getIdBlockSize() {
+        return (Integer)getTransientObject(TRANSIENT_INTEGER_IDBLOCKSIZE);
+    }
+    public String getModelCacheDir() {
+        return getTransientValue(TRANSIENT_STRING_MODELCACHEDIR);
+    }
+    public void setModelCacheDir(String modelCacheDir) {
+        setTransientValue(TRANSIENT_STRING_MODELCACHEDIR,modelCacheDir);
+    }
+    /** time to live of the entries of the model cache in seconds.
+     */
+    public Long getModelCacheTtl() {
+        return (Long)getTransientObject(TRANSIENT_LONG_MODELCACHETTL);
+    }
+    public void setModelCacheTtl(Long modelCacheTtl) {
+        setTransientObject(TRANSIENT_LONG_MODELCACHETTL,modelCacheTtl);
+    }
     public void setUseEpsgInNames(boolean value) {
         setValue(USE_EPGS_IN_NAMES,value?TRUE:FALSE);
     }
@@ -892,6 +986,20 @@ public class Config extends Settings {
     public boolean isFgdbCreateRelationshipClasses() {
         return TRUE.equalsIgnoreCase(getValue(FGDB_CREATE_RELATIONSHIP_CLASSES));
     }
+    public void setFgdbShapeGeometry(boolean value) {
+        setValue(FGDB_SHAPE_GEOMETRY,value?TRUE:FALSE);
+    }
+    public boolean isFgdbShapeGeometry() {
+        return TRUE.equalsIgnoreCase(getValue(FGDB_SHAPE_GEOMETRY));
+    }
+    public boolean isFgdbCompact() {
+        Boolean value=(Boolean)getTransientObject(TRANSIENT_BOOLEAN_FGDB_COMPACT);
+        if(value==null)return false;
+        return value;
+    }
+    public void setFgdbCompact(boolean enable) {
+        setTransientObject(TRANSIENT_BOOLEAN_FGDB_COMPACT,new Boolean(enable));
+    }
     public void setSrsModelAssignment(String value) {
         setValue(SRS_MODEL_ASSIGNMENT,value);
     }
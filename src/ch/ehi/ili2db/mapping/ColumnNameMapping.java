@@ -109,7 +109,7 @@ public class ColumnNameMapping {
 	            EhiLogger.traceBackendCmd(stmt);
 	            java.sql.PreparedStatement ps = conn.prepareStatement(stmt);
 	            AttrMappingKey entry1=null;
-				StatementExecutionHelper seHelper = new StatementExecutionHelper(batchSize);
+				StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
 	            try{
 					long start = System.currentTimeMillis();
 	                for(AttrMappingKey entry:attrNameIli2sql.keySet()){
@@ -534,7 +534,7 @@ public class NameMapping {
 	            java.sql.PreparedStatement ps = conn.prepareStatement(stmt);
 	            String iliname=null;
 	            String sqlname=null;
-				StatementExecutionHelper seHelper = new StatementExecutionHelper(batchSize);
+				StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
 
 	            try{
 	                java.util.Iterator<String> entri=classNameIli2sql.keySet().iterator();
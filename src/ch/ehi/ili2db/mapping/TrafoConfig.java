@@ -83,7 +83,7 @@ public class TrafoConfig {
 		}
 		if(conn!=null) {
 	        HashMap<String, HashMap<String, String>> existingEntries = read(conn,schema,customMapping);
-			StatementExecutionHelper seHelper = new StatementExecutionHelper(batchSize);
+			StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
 	        try{
 
 	            // update entries
@@ -136,10 +136,11 @@ public class TrafoConfig {
 	                                insPrepStmt.setString(1, iliname);
 	                                insPrepStmt.setString(2, tag);
 	                                insPrepStmt.setString(3, value);
-	                                insPrepStmt.executeUpdate();
+	                                seHelper.write(insPrepStmt);
 	                            }
 	                        }
 	                    }
+	                    seHelper.flush(insPrepStmt);
 	                }catch(java.sql.SQLException ex){
 	                    throw new Ili2dbException("failed to insert trafo",ex);
 	                }finally{
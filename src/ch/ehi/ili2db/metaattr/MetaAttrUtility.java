@@ -34,6 +34,7 @@ import ch.ehi.basics.tools.StringUtility;
 import ch.ehi.ili2db.base.DbNames;
 import ch.ehi.ili2db.base.Ili2db;
 import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.ili2db.base.StatementExecutionHelper;
 import ch.ehi.ili2db.mapping.NameMapping;
 import ch.ehi.sqlgen.repository.DbSchema;
 import ch.ehi.sqlgen.repository.DbTable;
@@ -181,9 +182,10 @@ public class MetaAttrUtility{
 	 * @param conn db connection
 	 * @param schema
 	 * @param td ili model as read by the interlis compiler
+	 * @param batchSize configured batch size (--importBatchSize) or null
 	 * @throws Ili2dbException
 	 */
-    public static void updateMetaAttributesTable(GeneratorJdbc gen, java.sql.Connection conn, String schema, TransferDescription td, NameMapping class2wrapper) 
+    public static void updateMetaAttributesTable(GeneratorJdbc gen, java.sql.Connection conn, String schema, TransferDescription td, NameMapping class2wrapper, Integer batchSize) 
     throws Ili2dbException
     {
         HashMap<String,HashMap<String,String>> entries=new HashMap<String,HashMap<String,String>>();
@@ -196,7 +198,7 @@ public class MetaAttrUtility{
                 visitElement(entries,(Element)transElem,class2wrapper);
             }
         }
-        saveTableTab(gen,conn,schema,entries);
+        saveTableTab(gen,conn,schema,entries,batchSize);
     }
 
 	// Recursively iterate data model and write all found meta-attributes
@@ -308,7 +310,7 @@ public class MetaAttrUtility{
         return exstValues;
     }
 
-    private static void saveTableTab(GeneratorJdbc gen, Connection conn,String schemaName,HashMap<String,HashMap<String,String>> tabInfo)
+    private static void saveTableTab(GeneratorJdbc gen, Connection conn,String schemaName,HashMap<String,HashMap<String,String>> tabInfo,Integer batchSize)
     throws Ili2dbException
     {
         DbTableName tabName=new DbTableName(schemaName,DbNames.META_ATTRIBUTES_TAB);
@@ -321,6 +323,7 @@ public class MetaAttrUtility{
                 String insStmt="INSERT INTO "+sqlName+" ("+DbNames.META_ATTRIBUTES_TAB_ILIELEMENT_COL+","+DbNames.META_ATTRIBUTES_TAB_ATTRNAME_COL+","+DbNames.META_ATTRIBUTES_TAB_ATTRVALUE_COL+") VALUES (?,?,?)";
                 EhiLogger.traceBackendCmd(insStmt);
                 java.sql.PreparedStatement insPrepStmt = conn.prepareStatement(insStmt);
+                StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
                 try{
                     for(String table:tabInfo.keySet()){
                         HashMap<String,String> exstValues=exstEntries.get(table);
@@ -334,10 +337,11 @@ public class MetaAttrUtility{
                                 insPrepStmt.setString(1, table);
                                 insPrepStmt.setString(2, tag);
                                 insPrepStmt.setString(3, value);
-                                insPrepStmt.executeUpdate();
+                                seHelper.write(insPrepStmt);
                             }
                         }
                     }
+                    seHelper.flush(insPrepStmt);
                 }catch(java.sql.SQLException ex){
                     throw new Ili2dbException("failed to insert meta info values to "+sqlName,ex);
                 }finally{
@@ -40,6 +40,7 @@ import ch.ehi.basics.tools.StringUtility;
 import ch.ehi.ili2db.base.DbNames;
 import ch.ehi.ili2db.base.Ili2db;
 import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.ili2db.base.StatementExecutionHelper;
 import ch.ehi.ili2db.mapping.NameMapping;
 import ch.ehi.ili2db.metaattr.IliMetaAttrNames;
 import ch.ehi.sqlgen.repository.DbSchema;
@@ -156,7 +157,7 @@ public class NlsUtility{
         public String descriptionCol=null;
         public byte[] symbolCol=null;
 	}
-    public static void updateNlsTable(GeneratorJdbc gen, java.sql.Connection conn, String schema, TransferDescription td, NameMapping class2wrapper) 
+    public static void updateNlsTable(GeneratorJdbc gen, java.sql.Connection conn, String schema, TransferDescription td, NameMapping class2wrapper, Integer batchSize) 
     throws Ili2dbException
     {
         Map<NlsKey,NlsEntry> entries=new HashMap<NlsKey,NlsEntry>();
@@ -195,7 +196,7 @@ public class NlsUtility{
             }
         }
         
-        saveTableTab(gen,conn,schema,entries);
+        saveTableTab(gen,conn,schema,entries,batchSize);
     }
 
     private static String getDispName(ch.interlis.ili2c.generator.nls.NlsModelElement modelEle, String lang) {
@@ -213,7 +214,7 @@ public class NlsUtility{
         return null;
     }
 
-    private static void saveTableTab(GeneratorJdbc gen, Connection conn,String schemaName,Map<NlsKey,NlsEntry> tabInfo)
+    private static void saveTableTab(GeneratorJdbc gen, Connection conn,String schemaName,Map<NlsKey,NlsEntry> tabInfo,Integer batchSize)
     throws Ili2dbException
     {
         DbTableName tabName=new DbTableName(schemaName,DbNames.NLS_TAB);
@@ -235,6 +236,7 @@ public class NlsUtility{
                         ") VALUES (?,?,?,?,?,?,?,?)";
                 EhiLogger.traceBackendCmd(insStmt);
                 java.sql.PreparedStatement insPrepStmt = conn.prepareStatement(insStmt);
+                StatementExecutionHelper seHelper = StatementExecutionHelper.createForMetadata(conn, batchSize);
                 try{
                     for(Map.Entry<NlsKey,NlsEntry> entry:tabInfo.entrySet()){
                         if(!exstEntries.containsKey(entry.getKey())){
@@ -246,9 +248,10 @@ public class NlsUtility{
                             insPrepStmt.setString(6, entry.getValue().tooltipCol);
                             insPrepStmt.setString(7, entry.getValue().descriptionCol);
                             insPrepStmt.setBytes(8, entry.getValue().symbolCol);
-                            insPrepStmt.executeUpdate();
+                            seHelper.write(insPrepStmt);
                         }
                     }
+                    seHelper.flush(insPrepStmt);
                 }catch(java.sql.SQLException ex){
                     throw new Ili2dbException("failed to insert meta info values to "+sqlName,ex);
                 }finally{
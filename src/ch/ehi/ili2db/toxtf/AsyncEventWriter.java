@@ -0,0 +1,117 @@
+package ch.ehi.ili2db.toxtf;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import ch.ehi.basics.logging.EhiLogger;
+import ch.interlis.iox.IoxEvent;
+import ch.interlis.iox.IoxException;
+import ch.interlis.iox.IoxWriter;
+import ch.interlis.iox_j.EndTransferEvent;
+
+/** writes events on a separate thread, so that reading/converting the records
+ * and formatting the transfer file overlap.
+ * The events are written in the same order as they are passed to write().
+ * The number of not yet written events is bounded by the capacity of the queue.
+ */
+public class AsyncEventWriter {
+    /** marks the end of the queue.
+     */
+    private static final IoxEvent END_OF_QUEUE=new EndTransferEvent();
+    /** how long abort() waits for the writer thread to stop.
+     */
+    private static final long ABORT_TIMEOUT_MS=10000;
+    private final IoxWriter out;
+    private final ArrayBlockingQueue<IoxEvent> queue;
+    private final Thread writerThread;
+    private volatile Exception failure=null;
+    public AsyncEventWriter(IoxWriter out,int capacity) {
+        this.out=out;
+        queue=new ArrayBlockingQueue<IoxEvent>(capacity);
+        writerThread=new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeEvents();
+            }
+        },"ili2db-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    private void writeEvents() {
+        try {
+            while(true) {
+                IoxEvent event=queue.take();
+                if(event==END_OF_QUEUE) {
+                    return;
+                }
+                out.write(event);
+            }
+        }catch(Exception ex) {
+            failure=ex;
+            queue.clear();
+        }
+    }
+    /** queues an event; blocks if the queue is full.
+     * @throws IoxException if writing of a previous event failed.
+     */
+    public void write(IoxEvent event) throws IoxException {
+        checkFailure();
+        try {
+            while(!queue.offer(event, 100, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IoxException(ex);
+        }
+    }
+    /** waits until all queued events are written and stops the writer thread.
+     * Does not close the underlying IoxWriter.
+     */
+    public void close() throws IoxException {
+        if(!writerThread.isAlive()) {
+            checkFailure();
+            return;
+        }
+        write(END_OF_QUEUE);
+        try {
+            writerThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IoxException(ex);
+        }
+        checkFailure();
+    }
+    /** stops the writer thread without writing the queued events,
+     * and waits until it is stopped, so that the caller may close the underlying IoxWriter.
+     */
+    public void abort() {
+        if(!abort(ABORT_TIMEOUT_MS)) {
+            EhiLogger.logAdaption("writer thread did not stop within "+ABORT_TIMEOUT_MS+" ms");
+        }
+    }
+    /** stops the writer thread without writing the queued events.
+     * @param timeoutMillis max time to wait for the writer thread to stop.
+     * @return true if the writer thread is stopped.
+     */
+    boolean abort(long timeoutMillis) {
+        queue.clear();
+        // wakes up the writer, even if the interrupt gets lost in the current write
+        queue.offer(END_OF_QUEUE);
+        writerThread.interrupt();
+        try {
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return !writerThread.isAlive();
+    }
+    private void checkFailure() throws IoxException {
+        if(failure!=null) {
+            if(failure instanceof IoxException) {
+                throw (IoxException)failure;
+            }
+            throw new IoxException(failure);
+        }
+    }
+}
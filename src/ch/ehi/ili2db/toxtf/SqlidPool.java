@@ -3,7 +3,7 @@ package ch.ehi.ili2db.toxtf;
 import java.util.HashMap;
 
 public class SqlidPool {
-	private HashMap<String,HashMap<Long,String>> sqlid2xtfid=new HashMap<String,HashMap<Long,String>>();
+	private HashMap<String,IdMap> sqlid2xtfid=new HashMap<String,IdMap>();
 
 	public boolean containsSqlid(String sqlTablename,long sqlid) {
 		return getIdMap(sqlTablename).containsKey(sqlid);
@@ -16,13 +16,82 @@ public class SqlidPool {
 	public void putSqlid2Xtfid(String sqlTablename,long sqlid, String xtfoid) {
 		getIdMap(sqlTablename).put(sqlid, xtfoid);
 	}
-	private HashMap<Long,String> getIdMap(String sqlTablename){
-	    HashMap<Long,String> map=sqlid2xtfid.get(sqlTablename);
+	private IdMap getIdMap(String sqlTablename){
+	    IdMap map=sqlid2xtfid.get(sqlTablename);
 	    if(map==null) {
-	        map=new HashMap<Long,String>(); 
+	        map=new IdMap();
 	        sqlid2xtfid.put(sqlTablename,map);
 	    }
 	    return map;
 	}
+	/** map of sqlid to xtfid, with open addressing on a long[], so that an entry needs no Long and no map entry object.
+	 * A xtfid that is equal to the sqlid is not kept as a String.
+	 */
+	static class IdMap {
+	    private static final int INITIAL_CAPACITY=64;
+	    /** marks an entry, where the xtfid is the sqlid.
+	     */
+	    private static final String SQLID=new String("sqlid");
+	    private long keys[]=new long[INITIAL_CAPACITY];
+	    /** null marks an empty slot.
+	     */
+	    private String values[]=new String[INITIAL_CAPACITY];
+	    private int size=0;
+	    boolean containsKey(long sqlid) {
+	        return values[indexOf(keys,values,sqlid)]!=null;
+	    }
+	    String get(long sqlid) {
+	        String value=values[indexOf(keys,values,sqlid)];
+	        if(value==SQLID) {
+	            return Long.toString(sqlid);
+	        }
+	        return value;
+	    }
+	    void put(long sqlid,String xtfid) {
+	        if(xtfid==null) {
+	            throw new IllegalArgumentException("xtfid==null");
+	        }
+	        if(xtfid.equals(Long.toString(sqlid))) {
+	            xtfid=SQLID;
+	        }
+	        int idx=indexOf(keys,values,sqlid);
+	        if(values[idx]==null) {
+	            if((size+1)*4>keys.length*3) {
+	                grow();
+	                idx=indexOf(keys,values,sqlid);
+	            }
+	            size++;
+	            keys[idx]=sqlid;
+	        }
+	        values[idx]=xtfid;
+	    }
+	    int size() {
+	        return size;
+	    }
+	    private void grow() {
+	        long oldKeys[]=keys;
+	        String oldValues[]=values;
+	        keys=new long[oldKeys.length*2];
+	        values=new String[oldValues.length*2];
+	        for(int i=0;i<oldKeys.length;i++) {
+	            if(oldValues[i]!=null) {
+	                int idx=indexOf(keys,values,oldKeys[i]);
+	                keys[idx]=oldKeys[i];
+	                values[idx]=oldValues[i];
+	            }
+	        }
+	    }
+	    /** gets the slot of the given sqlid, or the empty slot where it belongs to.
+	     */
+	    private static int indexOf(long keys[],String values[],long sqlid) {
+	        int mask=keys.length-1;
+	        long h=sqlid*0x9E3779B97F4A7C15L;
+	        int idx=(int)(h^(h>>>32))&mask;
+	        while(values[idx]!=null && keys[idx]!=sqlid) {
+	            idx=(idx+1)&mask;
+	        }
+	        return idx;
+	    }
+	}
 
 }
@@ -92,6 +92,15 @@ public class ToXtfRecordConverter extends AbstractRecordConverter {
 	 * @return SQL-Query statement
 	 */
 	public String createQueryStmt(Viewable aclass1,Long basketSqlId,AbstractStructWrapper structWrapper0){
+		return createQueryStmt(aclass1,basketSqlId,structWrapper0,null);
+	}
+	/** creates sql query statement for a class or for the struct values of a block of parents.
+	 * @param parentSqlIds null, if building query for the parent of the given structWrapper (as parameter);
+	 * not null, if building query for the struct values of all given parents (comma separated sqlids).
+	 * @return SQL-Query statement
+	 */
+	public String createQueryStmt(Viewable aclass1,Long basketSqlId,AbstractStructWrapper structWrapper0,String parentSqlIds){
+		String parentCond=parentSqlIds==null ? "=?" : " IN ("+parentSqlIds+")";
 		ViewableWrapper classWrapper=class2wrapper.get(aclass1);
 		ViewableWrapper rootWrapper=classWrapper.getWrappers().get(0);
 		StringBuffer ret = new StringBuffer();
@@ -208,14 +217,14 @@ public class ToXtfRecordConverter extends AbstractRecordConverter {
 		if(structWrapper0!=null) {
 		    if(structWrapper0 instanceof StructWrapper){
 	            StructWrapper structWrapper=(StructWrapper)structWrapper0;
-                ret.append(sep+" r0."+ili2sqlName.mapIliAttributeDefReverse(structWrapper.getParentAttr(),getSqlType(classWrapper.getViewable()).getName(),getSqlType(structWrapper.getParentTable().getViewable()).getName())+"=?");
+                ret.append(sep+" r0."+ili2sqlName.mapIliAttributeDefReverse(structWrapper.getParentAttr(),getSqlType(classWrapper.getViewable()).getName(),getSqlType(structWrapper.getParentTable().getViewable()).getName())+parentCond);
 	            sep=" AND";
 		    }else if(structWrapper0 instanceof EmbeddedLinkWrapper) {
 		        EmbeddedLinkWrapper structWrapper=(EmbeddedLinkWrapper)structWrapper0;
 		        RoleDef role=structWrapper.getRole().getOppEnd();
                 ArrayList<ViewableWrapper> targetTables = getTargetTables(role);
                 String roleSqlName=ili2sqlName.mapIliRoleDef(role,rootWrapper.getSqlTablename(),structWrapper.getParentTable().getSqlTablename(),targetTables.size()>1);
-                ret.append(sep+" r0."+roleSqlName+"=?");
+                ret.append(sep+" r0."+roleSqlName+parentCond);
 		    }
 		}
 		if(basketSqlId!=null){
@@ -226,6 +235,67 @@ public class ToXtfRecordConverter extends AbstractRecordConverter {
 		}
 		return ret.toString();
 	}
+	/** creates sql query statement for the sqlids and xtfids of all objects of a class.
+	 * @return null, if the objects of the class have no xtfid.
+	 */
+	public String createQueryStmt4xtfids(Viewable aclass1,Long basketSqlId){
+		ViewableWrapper classWrapper=class2wrapper.get(aclass1);
+		ViewableWrapper rootWrapper=classWrapper.getWrappers().get(0);
+		if(aclass1 instanceof AssociationDef && !((AssociationDef)aclass1).isIdentifiable()) {
+			// no TID; standalone association without TID
+			return null;
+		}
+		StringBuffer ret = new StringBuffer();
+		ret.append("SELECT r0."+colT_ID);
+		if((exportTid && !(classWrapper.getViewable() instanceof AssociationDef)) || classWrapper.hasOid()){
+			ret.append(", r0."+DbNames.T_ILI_TID_COL);
+		}
+		ret.append(" FROM ");
+		ret.append(rootWrapper.getSqlTableQName());
+		ret.append(" r0");
+		String sep=" WHERE";
+		if(createTypeDiscriminator || rootWrapper.includesMultipleTypes()){
+			ret.append(sep+" r0."+DbNames.T_TYPE_COL+"='"+getSqlType(aclass1).getName()+"'");
+			sep=" AND";
+		}
+		if(basketSqlId!=null){
+			ret.append(sep+" r0."+DbNames.T_BASKET_COL+"=?");
+		}
+		return ret.toString();
+	}
+	/** adds the sqlids and xtfids of all objects of a class to the pool, so that references to these objects
+	 * are resolved while reading the referencing objects.
+	 */
+	public void addXtfids(Viewable aclass1,Long basketSqlId,Integer fetchSize) throws SQLException {
+		String stmt=createQueryStmt4xtfids(aclass1,basketSqlId);
+		if(stmt==null) {
+			return;
+		}
+		String sqlTablename=class2wrapper.get(aclass1).getSqlTablename();
+		EhiLogger.traceBackendCmd(stmt);
+		java.sql.PreparedStatement dbstmt=conn.prepareStatement(stmt);
+		try {
+			if(basketSqlId!=null){
+				dbstmt.setLong(1,basketSqlId);
+			}
+			if(fetchSize!=null && fetchSize>0){
+				dbstmt.setFetchSize(fetchSize);
+			}
+			java.sql.ResultSet rs=dbstmt.executeQuery();
+			boolean hasTidCol=rs.getMetaData().getColumnCount()>1;
+			while(rs.next()){
+				long sqlid=rs.getLong(1);
+				String sqlIliTid=hasTidCol ? rs.getString(2) : null;
+				if(sqlIliTid==null){
+					sqlIliTid=Long.toString(sqlid);
+				}
+				sqlid2xtfid.putSqlid2Xtfid(sqlTablename,sqlid,sqlIliTid);
+			}
+			rs.close();
+		}finally {
+			dbstmt.close();
+		}
+	}
 	private String makeColumnRef(String tableAlias, String columnName) {
 		if(tableAlias==null){
 			return columnName;
@@ -20,6 +20,7 @@ package ch.ehi.ili2db.toxtf;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -79,6 +80,7 @@ import ch.interlis.iom_j.iligml.Iligml20Writer;
 import ch.interlis.iom_j.itf.ItfWriter;
 import ch.interlis.iom_j.itf.ModelUtilities;
 import ch.interlis.iom_j.xtf.Xtf24Reader;
+import ch.interlis.iox.IoxEvent;
 import ch.interlis.iox.IoxException;
 import ch.interlis.iox.IoxLogging;
 import ch.interlis.iox.IoxWriter;
@@ -135,6 +137,17 @@ public class TransferToXtf {
     private Map<Element,Element> crsFilterToTarget=null;
     boolean ignoreUnresolvedReferences=false;
     private Integer fetchSize = null;
+    /** number of parent objects, whose struct values are read with one query; null if the struct values are read per object.
+     */
+    private Integer structBatchSize = null;
+    /** column alias of the parent sqlid in the struct query of a block of parents.
+     */
+    private static final String T_PARENT_SQLID="T_Parent_Id";
+    /** max number of converted, but not yet written events, if the transfer file is written by a separate thread.
+     */
+    private static final int ASYNC_WRITER_CAPACITY=1000;
+    private boolean exportAsyncWrite=false;
+    private AsyncEventWriter asyncWriter=null;
 
 	public TransferToXtf(NameMapping ili2sqlName1,TransferDescription td1,Connection conn1,SqlColumnConverter geomConv,Config config,TrafoConfig trafoConfig,Viewable2TableMapping class2wrapper1){
 		ili2sqlName=ili2sqlName1;
@@ -151,6 +164,11 @@ public class TransferToXtf {
 	        defaultCrsCode=Integer.parseInt(config.getDefaultSrsCode());
 		}
 		fetchSize=config.getFetchSize();
+		structBatchSize=config.getExportStructBatchSize();
+		exportAsyncWrite=config.isExportAsyncWrite();
+		if(structBatchSize!=null && structBatchSize<1){
+		    structBatchSize=null;
+		}
 		createTypeDiscriminator=Config.CREATE_TYPE_DISCRIMINATOR_ALWAYS.equals(config.getCreateTypeDiscriminator());
 		writeIliTid=config.isExportTid(); 
 		hasIliTidCol=Config.TID_HANDLING_PROPERTY.equals(config.getTidHandling());
@@ -161,6 +179,19 @@ public class TransferToXtf {
 	}
 	public void doit(int function,String datasource,IoxWriter iomFile,String sender,String exportParamModelnames[],long basketSqlIds[],Map<String,BasketStat> stat,CustomMapping customMapping1)
 	throws ch.interlis.iox.IoxException, Ili2dbException
+	{
+		try {
+			doitHelper(function,datasource,iomFile,sender,exportParamModelnames,basketSqlIds,stat,customMapping1);
+		}finally {
+			if(asyncWriter!=null) {
+				// export failed; stop writer thread
+				asyncWriter.abort();
+				asyncWriter=null;
+			}
+		}
+	}
+	private void doitHelper(int function,String datasource,IoxWriter iomFile,String sender,String exportParamModelnames[],long basketSqlIds[],Map<String,BasketStat> stat,CustomMapping customMapping1)
+	throws ch.interlis.iox.IoxException, Ili2dbException
 	{
 		this.basketStat=stat;
 		this.customMapping=customMapping1;
@@ -231,6 +262,11 @@ public class TransferToXtf {
 			
 		}
 		
+		if(exportAsyncWrite && function!=Config.FC_VALIDATE && !(iomFile instanceof ItfWriter)){
+		    // convert records on this thread, write transfer file on a separate thread
+		    asyncWriter=new AsyncEventWriter(iomFile,ASYNC_WRITER_CAPACITY);
+		}
+		
 		StartTransferEvent startEvent=new StartTransferEvent();
 		startEvent.setSender(sender);
 		if(languageFilter!=null){
@@ -246,7 +282,7 @@ public class TransferToXtf {
 		    validator.validate(startEvent);
 		}
         if(function!=Config.FC_VALIDATE) {
-            iomFile.write(startEvent);
+            writeEvent(iomFile,startEvent);
         }
 		if(basketSqlIds!=null){
 			for(long basketSqlId : basketSqlIds){
@@ -320,7 +356,12 @@ public class TransferToXtf {
 		    validator.validate(endEvent);
 		}
 		if(function!=Config.FC_VALIDATE) {
-	        iomFile.write(endEvent);
+	        writeEvent(iomFile,endEvent);
+		}
+		if(asyncWriter!=null){
+		    AsyncEventWriter writer=asyncWriter;
+		    asyncWriter=null;
+		    writer.close();
 		}
 		if(validator!=null)validator.close();
 		if(languageFilter!=null){
@@ -516,6 +557,10 @@ public class TransferToXtf {
 		    delayedObjects.close();
 		}
 		delayedObjects=new ArrayPoolImpl<FixIomObjectRefs>(recman, new FixIomObjectRefsSerializer());
+		if(function==Config.FC_VALIDATE && !(iomFile instanceof ItfWriter)){
+		    // objects are validated as they are read; no need to delay objects with forward references
+		    addXtfids(topic,basketSqlId);
+		}
 		// for all Viewables
 		Iterator iter = null;
 		if(iomFile instanceof ItfWriter){
@@ -566,7 +611,7 @@ public class TransferToXtf {
 						    validator.validate(iomBasket);
 						}
 						if(function!=Config.FC_VALIDATE) {
-	                        iomFile.write(iomBasket);
+	                        writeEvent(iomFile,iomBasket);
 						}
 					}
                     EhiLogger.logState(aclass.getScopedName(null)+"...");
@@ -602,7 +647,7 @@ public class TransferToXtf {
 							    validator.validate(iomBasket);
 							}
 							if(function!=Config.FC_VALIDATE) {
-	                            iomFile.write(iomBasket);
+	                            writeEvent(iomFile,iomBasket);
 							}
 						}
 						dumpItfTableObject(function,iomFile,attr,epsgCode,basketSqlId);
@@ -658,7 +703,7 @@ public class TransferToXtf {
 						    validator.validate(objEvent);
 						}
 						if(function!=Config.FC_VALIDATE) {
-	                        iomFile.write(objEvent);
+	                        writeEvent(iomFile,objEvent);
 						}
 					}
 				}
@@ -677,12 +722,43 @@ public class TransferToXtf {
 			    validator.validate(endBasket);
 			}
 			if(function!=Config.FC_VALIDATE) {
-	            iomFile.write(endBasket);
+	            writeEvent(iomFile,endBasket);
 			}
             saveObjStat(iomBasket.getBid(),basketSqlId,datasource,iomBasket.getType());
 		}
 		return referrs;
 	}
+	/** reads the sqlids and xtfids of all objects of the given basket, so that all references within the basket are
+	 * resolved, while the referencing objects are read.
+	 */
+	private void addXtfids(Topic topic,Long basketSqlId)
+	{
+		Iterator iter=topic.getViewables().iterator();
+		while (iter.hasNext()){
+			Object obj = iter.next();
+			if(!(obj instanceof Viewable) || (obj instanceof View) && !TransferFromIli.isTransferableView(obj) || suppressViewable((Viewable)obj)){
+				continue;
+			}
+			Viewable aclass=(Viewable)obj;
+			if(languageFilter!=null){
+				aclass=(Viewable)aclass.getTranslationOfOrSame();
+			}
+			if(crsFilter!=null) {
+				Viewable aclass0=(Viewable) crsFilter.get(aclass);
+				if(aclass0!=null) {
+					aclass=aclass0;
+				}
+			}
+			if(!customMapping.tableExists(conn,recConv.getSqlType(class2wrapper.get(aclass).getViewable()))){
+				continue;
+			}
+			try {
+				recConv.addXtfids(aclass,basketSqlId,fetchSize);
+			}catch(java.sql.SQLException ex){
+				EhiLogger.logError("failed to query "+aclass.getScopedName(null),ex);
+			}
+		}
+	}
 	private String readObjectTid(Viewable aclass, long sqlid) {
 		String sqlIliTid = null;
 		if (writeIliTid || Ili2cUtility.isViewableWithOid(aclass)) {
@@ -1118,6 +1194,10 @@ public class TransferToXtf {
 			if(fetchSize != null && fetchSize > 0){
 				dbstmt.setFetchSize(fetchSize);
 			}
+			ArrayList<ExportRecord> block=null;
+			if(structWrapper==null && structBatchSize!=null){
+			    block=new ArrayList<ExportRecord>(structBatchSize);
+			}
 			rs=dbstmt.executeQuery();
 			while(rs.next()){
 				// list of not yet processed struct attrs
@@ -1130,6 +1210,17 @@ public class TransferToXtf {
 				iomObj = recConv.convertRecord(rs, aclassWrapper, aclass,fixref, structWrapper,
 						structelev, structQueue, sqlid,genericDomains,iomTargetClass);
 				updateObjStat(iomObj.getobjecttag(), sqlid);
+				
+				if(block!=null){
+				    // struct values and primitive collections are read per block of objects
+				    addEmbeddedLinkWrappers(aclass,aclassWrapper,sqlid,iomObj,structQueue);
+				    block.add(new ExportRecord(sqlid,iomObj,fixref,structQueue));
+				    if(block.size()>=structBatchSize){
+				        dumpBlock(function,out,aclass,iomTargetClass,aclassWrapper,genericDomains,block);
+				        block.clear();
+				    }
+				    continue;
+				}
 
 				ViewableWrapper baseWrapper=aclassWrapper;
 				while(baseWrapper!=null) {
@@ -1151,16 +1242,7 @@ public class TransferToXtf {
 				}
 
 		         // add StructWrapper around embedded associations that are mapped to a link table
-		         for(Iterator roleIt=aclass.getAttributesAndRoles2();roleIt.hasNext();) {
-		             ViewableTransferElement roleEle=(ViewableTransferElement) roleIt.next();
-		             if(roleEle.embedded && roleEle.obj instanceof RoleDef) {
-		                 RoleDef role=(RoleDef)roleEle.obj;
-		                 AssociationDef roleOwner = (AssociationDef) role.getContainer();
-		                 if(roleOwner.getDerivedFrom()==null && !TransferFromIli.isLightweightAssociation(roleOwner)){
-                             structQueue.add(new EmbeddedLinkWrapper(sqlid,role,iomObj,aclassWrapper));
-		                 }
-		             }
-		         }
+		         addEmbeddedLinkWrappers(aclass,aclassWrapper,sqlid,iomObj,structQueue);
 				
 				// collect structvalues
 				while(!structQueue.isEmpty()){
@@ -1168,34 +1250,12 @@ public class TransferToXtf {
 					dumpStructs(function,wrapper,fixref,genericDomains,aclass==iomTargetClass);
 				}
 				if(structWrapper==null){
-					if(!fixref.needsFixing() || out instanceof ItfWriter){
-						// no forward references
-						// write object
-						ObjectEvent objEvent=new ObjectEvent(iomObj);
-						if(languageFilter!=null){
-							objEvent=(ObjectEvent) languageFilter.filter(objEvent);
-						}
-						if(exportBaseModelFilter!=null){
-							objEvent=(ObjectEvent) exportBaseModelFilter.filter(objEvent);
-						}
-						if(objEvent!=null) {
-						    if(rounder!=null) {
-						        objEvent=(ObjectEvent) rounder.filter(objEvent);
-						    }
-							if(validator!=null) {
-							    validator.validate(objEvent);
-							}
-							if(out!=null){
-							    if(function!=Config.FC_VALIDATE) {
-	                                out.write(objEvent);
-							    }
-							}
-						}
-					}else{
-						delayedObjects.add(fixref);
-					}
+				    writeObject(function,out,iomObj,fixref);
 				}
 			} // while rs
+			if(block!=null && !block.isEmpty()){
+			    dumpBlock(function,out,aclass,iomTargetClass,aclassWrapper,genericDomains,block);
+			}
 		}catch(java.sql.SQLException ex){		
 			EhiLogger.logError("failed to query "+aclass.getScopedName(null),ex);
 		}catch(ch.interlis.iox.IoxException ex){		
@@ -1573,6 +1633,308 @@ public class TransferToXtf {
 		}
 		return ret.toString();
 	}
+	/** writes an event to the transfer file; by the writer thread, if there is one.
+	 */
+	private void writeEvent(IoxWriter out,IoxEvent event) throws IoxException
+	{
+		if(asyncWriter!=null){
+			asyncWriter.write(event);
+		}else{
+			out.write(event);
+		}
+	}
+	/** writes an object or, if it has forward references, adds it to the list of delayed objects.
+	 */
+	private void writeObject(int function,IoxWriter out,Iom_jObject iomObj,FixIomObjectRefs fixref) throws IoxException
+	{
+		if(!fixref.needsFixing() || out instanceof ItfWriter){
+			// no forward references
+			// write object
+			ObjectEvent objEvent=new ObjectEvent(iomObj);
+			if(languageFilter!=null){
+				objEvent=(ObjectEvent) languageFilter.filter(objEvent);
+			}
+			if(exportBaseModelFilter!=null){
+				objEvent=(ObjectEvent) exportBaseModelFilter.filter(objEvent);
+			}
+			if(objEvent!=null) {
+			    if(rounder!=null) {
+			        objEvent=(ObjectEvent) rounder.filter(objEvent);
+			    }
+				if(validator!=null) {
+				    validator.validate(objEvent);
+				}
+				if(out!=null){
+				    if(function!=Config.FC_VALIDATE) {
+                        writeEvent(out,objEvent);
+				    }
+				}
+			}
+		}else{
+			delayedObjects.add(fixref);
+		}
+	}
+	/** adds a StructWrapper for each embedded association of the given class that is mapped to a link table.
+	 */
+	private void addEmbeddedLinkWrappers(Viewable aclass,ViewableWrapper aclassWrapper,long sqlid,Iom_jObject iomObj,ArrayList<AbstractStructWrapper> structQueue)
+	{
+        for(Iterator roleIt=aclass.getAttributesAndRoles2();roleIt.hasNext();) {
+            ViewableTransferElement roleEle=(ViewableTransferElement) roleIt.next();
+            if(roleEle.embedded && roleEle.obj instanceof RoleDef) {
+                RoleDef role=(RoleDef)roleEle.obj;
+                AssociationDef roleOwner = (AssociationDef) role.getContainer();
+                if(roleOwner.getDerivedFrom()==null && !TransferFromIli.isLightweightAssociation(roleOwner)){
+                    structQueue.add(new EmbeddedLinkWrapper(sqlid,role,iomObj,aclassWrapper));
+                }
+            }
+        }
+	}
+	/** an object or struct value, whose struct values and primitive collections are not yet read.
+	 */
+	private static class ExportRecord {
+	    private final long sqlid;
+	    private final Iom_jObject iomObj;
+	    private final FixIomObjectRefs fixref;
+	    private final ArrayList<AbstractStructWrapper> structQueue;
+	    private ExportRecord(long sqlid,Iom_jObject iomObj,FixIomObjectRefs fixref,ArrayList<AbstractStructWrapper> structQueue) {
+	        this.sqlid=sqlid;
+	        this.iomObj=iomObj;
+	        this.fixref=fixref;
+	        this.structQueue=structQueue;
+	    }
+	}
+	/** a not yet processed struct attr (or embedded link) of an object of the current block.
+	 */
+	private static class PendingStruct {
+	    private final AbstractStructWrapper wrapper;
+	    private final FixIomObjectRefs fixref;
+	    private final boolean isCrsAlternate;
+	    private PendingStruct(AbstractStructWrapper wrapper,FixIomObjectRefs fixref,boolean isCrsAlternate) {
+	        this.wrapper=wrapper;
+	        this.fixref=fixref;
+	        this.isCrsAlternate=isCrsAlternate;
+	    }
+	    private long getParentSqlId() {
+	        if(wrapper instanceof StructWrapper) {
+	            return ((StructWrapper)wrapper).getParentSqlId();
+	        }
+	        return ((EmbeddedLinkWrapper)wrapper).getParentSqlId();
+	    }
+	    /** tests if the struct values of the given struct attr can be read with the same query as this one.
+	     */
+	    private boolean isSameQuery(PendingStruct other) {
+	        if(isCrsAlternate!=other.isCrsAlternate) {
+	            return false;
+	        }
+	        if(wrapper instanceof StructWrapper && other.wrapper instanceof StructWrapper) {
+	            StructWrapper thisWrapper=(StructWrapper)wrapper;
+	            StructWrapper otherWrapper=(StructWrapper)other.wrapper;
+	            return thisWrapper.getParentAttr()==otherWrapper.getParentAttr() && thisWrapper.getParentTable()==otherWrapper.getParentTable();
+	        }
+	        if(wrapper instanceof EmbeddedLinkWrapper && other.wrapper instanceof EmbeddedLinkWrapper) {
+	            EmbeddedLinkWrapper thisWrapper=(EmbeddedLinkWrapper)wrapper;
+	            EmbeddedLinkWrapper otherWrapper=(EmbeddedLinkWrapper)other.wrapper;
+	            return thisWrapper.getRole()==otherWrapper.getRole() && thisWrapper.getParentTable()==otherWrapper.getParentTable();
+	        }
+	        return false;
+	    }
+	}
+	/** completes and writes a block of objects. The struct values and primitive collections
+	 * of all objects of the block are read with one query per table (instead of one query per object).
+	 */
+	private void dumpBlock(int function,IoxWriter out,Viewable aclass,Viewable iomTargetClass,ViewableWrapper aclassWrapper,Map<String,String> genericDomains,List<ExportRecord> block) throws SQLException, IoxException
+	{
+	    addPrimitiveCollectionValues(aclassWrapper,genericDomains,block);
+	    ArrayList<PendingStruct> structQueue=new ArrayList<PendingStruct>();
+	    for(ExportRecord rec:block) {
+	        for(AbstractStructWrapper wrapper:rec.structQueue) {
+	            structQueue.add(new PendingStruct(wrapper,rec.fixref,aclass==iomTargetClass));
+	        }
+	    }
+	    while(!structQueue.isEmpty()) {
+	        // take all pending structs that can be read with the same query as the first one
+	        PendingStruct first=structQueue.get(0);
+	        ArrayList<PendingStruct> group=new ArrayList<PendingStruct>();
+	        ArrayList<PendingStruct> rest=new ArrayList<PendingStruct>();
+	        for(PendingStruct pending:structQueue) {
+	            if(group.size()<structBatchSize && first.isSameQuery(pending)) {
+	                group.add(pending);
+	            }else {
+	                rest.add(pending);
+	            }
+	        }
+	        structQueue=rest;
+	        dumpStructBlock(function,genericDomains,group,structQueue);
+	    }
+	    for(ExportRecord rec:block) {
+	        writeObject(function,out,rec.iomObj,rec.fixref);
+	    }
+	}
+	/** reads the values of the primitive collections of a block of objects/struct values.
+	 */
+	private void addPrimitiveCollectionValues(ViewableWrapper aclassWrapper,Map<String,String> genericDomains,List<ExportRecord> records) throws SQLException
+	{
+	    for(int blockStart=0;blockStart<records.size();blockStart+=structBatchSize) {
+	        List<ExportRecord> block=records.subList(blockStart, Math.min(records.size(), blockStart+structBatchSize));
+	        HashMap<Long,ExportRecord> parents=null;
+	        String parentSqlIds=null;
+	        for(ViewableWrapper baseWrapper=aclassWrapper;baseWrapper!=null;baseWrapper=baseWrapper.getExtending()) {
+	            for (ViewableWrapper attrtableWrapper : baseWrapper.getPrimitiveCollectionWrappers()) {
+	                AttributeDef attributeDef = attrtableWrapper.getPrimitiveCollectionAttr();
+	                if (attributeDef != null && !attributeDef.isTransient()) {
+	                    if(parents==null) {
+	                        parents=new HashMap<Long,ExportRecord>();
+	                        StringBuilder sqlids=new StringBuilder();
+	                        for(ExportRecord rec:block) {
+	                            parents.put(rec.sqlid,rec);
+	                            if(sqlids.length()>0) {
+	                                sqlids.append(",");
+	                            }
+	                            sqlids.append(rec.sqlid);
+	                        }
+	                        parentSqlIds=sqlids.toString();
+	                    }
+	                    String query = createQueryStatementForPrimitiveCollectionAttribute(attrtableWrapper, attributeDef, parentSqlIds);
+	                    EhiLogger.traceBackendCmd(query);
+	                    ColumnWrapper columnWrapper=new ColumnWrapper(new StructAttrPath(new ViewableTransferElement(attributeDef)));
+	                    Statement statement = null;
+	                    ResultSet resultSet = null;
+	                    try {
+	                        statement = conn.createStatement();
+	                        if(fetchSize != null && fetchSize > 0){
+	                            statement.setFetchSize(fetchSize);
+	                        }
+	                        resultSet = statement.executeQuery(query);
+	                        while (resultSet.next()) {
+	                            long parentSqlid=resultSet.getLong(1);
+	                            ExportRecord parent=parents.get(parentSqlid);
+	                            recConv.addAttrValue(resultSet, 2, parentSqlid, parent.iomObj, columnWrapper,attributeDef,parent.structQueue,attrtableWrapper,parent.fixref,genericDomains,null);
+	                        }
+	                    }finally {
+	                        if(resultSet!=null) {
+	                            resultSet.close();
+	                        }
+	                        if(statement!=null) {
+	                            statement.close();
+	                        }
+	                    }
+	                }
+	            }
+	        }
+	    }
+	}
+	/** reads the struct values of a group of struct attrs (of different parents), that are read with the same query.
+	 * Not yet processed struct attrs of the read struct values are added to structQueue.
+	 */
+	private void dumpStructBlock(int function,Map<String,String> genericDomains,List<PendingStruct> group,List<PendingStruct> structQueue) throws SQLException, IoxException
+	{
+	    PendingStruct first=group.get(0);
+	    AbstractStructWrapper structWrapper=first.wrapper;
+	    HashMap<Long,PendingStruct> parents=new HashMap<Long,PendingStruct>();
+	    StringBuilder sqlids=new StringBuilder();
+	    for(PendingStruct pending:group) {
+	        parents.put(pending.getParentSqlId(),pending);
+	        if(sqlids.length()>0) {
+	            sqlids.append(",");
+	        }
+	        sqlids.append(pending.getParentSqlId());
+	    }
+	    String parentSqlIds=sqlids.toString();
+	    Viewable baseClass=null;
+	    String attrName=null;
+	    String stmt=null;
+	    if(structWrapper instanceof StructWrapper) {
+	        baseClass=((CompositionType)((StructWrapper) structWrapper).getParentAttr().getDomain()).getComponentType();
+	        attrName=((StructWrapper) structWrapper).getParentAttr().getName();
+	        stmt=createQueryStmt4Type(baseClass,(StructWrapper) structWrapper,parentSqlIds);
+	    }else {
+	        baseClass=(Viewable) ((EmbeddedLinkWrapper) structWrapper).getRole().getContainer();
+	        attrName=((EmbeddedLinkWrapper) structWrapper).getRole().getName();
+	        stmt=createQueryStmt4Type(baseClass,(EmbeddedLinkWrapper)structWrapper,parentSqlIds);
+	    }
+	    HashMap<String,IomObject> structelev=new HashMap<String,IomObject>();
+	    HashMap<Long,PendingStruct> structOwners=new HashMap<Long,PendingStruct>();
+	    HashSet<Viewable> structClassv=new HashSet<Viewable>();
+	    EhiLogger.traceBackendCmd(stmt);
+	    java.sql.Statement dbstmt = null;
+	    java.sql.ResultSet rs=null;
+	    try {
+	        dbstmt = conn.createStatement();
+	        if(fetchSize != null && fetchSize > 0){
+	            dbstmt.setFetchSize(fetchSize);
+	        }
+	        rs=dbstmt.executeQuery(stmt);
+	        while(rs.next()){
+	            long sqlid=rs.getLong(1);
+	            String structEleSqlType=rs.getString(2);
+	            String structEleClass=ili2sqlName.mapSqlTableName(structEleSqlType);
+	            if(structEleClass==null){
+	                throw new IoxException("unknown "+DbNames.T_TYPE_COL+" '"+structEleSqlType+"' in table "+getStructRootTableName(baseClass));
+	            }
+	            PendingStruct parent=parents.get(rs.getLong(4));
+	            IomObject iomObj=parent.wrapper.getParent().addattrobj(attrName,structEleClass);
+	            structelev.put(Long.toString(sqlid),iomObj);
+	            structOwners.put(sqlid,parent);
+	            structClassv.add((Viewable)tag2class.get(structEleClass));
+	        }
+	    }finally {
+	        if(rs!=null) {
+	            rs.close();
+	        }
+	        if(dbstmt!=null) {
+	            dbstmt.close();
+	        }
+	    }
+	    for(Viewable aclass:structClassv) {
+	        Viewable iomTargetClass=aclass;
+	        if(first.isCrsAlternate) {
+	            iomTargetClass = getCrsMappedToAlternateOrSame(aclass);
+	        }
+	        dumpStructValues(aclass,iomTargetClass,genericDomains,structWrapper,parentSqlIds,structelev,structOwners,structQueue);
+	    }
+	}
+	/** reads the attributes of the struct values of a given class of a group of struct attrs.
+	 */
+	private void dumpStructValues(Viewable aclass,Viewable iomTargetClass,Map<String,String> genericDomains,AbstractStructWrapper structWrapper,String parentSqlIds,
+	        HashMap<String,IomObject> structelev,Map<Long,PendingStruct> structOwners,List<PendingStruct> structQueue) throws SQLException
+	{
+	    String stmt=recConv.createQueryStmt(aclass,null,structWrapper,parentSqlIds);
+	    ViewableWrapper aclassWrapper=class2wrapper.get(aclass);
+	    EhiLogger.traceBackendCmd(stmt);
+	    ArrayList<ExportRecord> records=new ArrayList<ExportRecord>();
+	    java.sql.Statement dbstmt = null;
+	    java.sql.ResultSet rs=null;
+	    try {
+	        dbstmt = conn.createStatement();
+	        if(fetchSize != null && fetchSize > 0){
+	            dbstmt.setFetchSize(fetchSize);
+	        }
+	        rs=dbstmt.executeQuery(stmt);
+	        while(rs.next()){
+	            long sqlid = recConv.getT_ID(rs);
+	            FixIomObjectRefs fixref=structOwners.get(sqlid).fixref;
+	            ArrayList<AbstractStructWrapper> rowQueue=new ArrayList<AbstractStructWrapper>();
+	            Iom_jObject iomObj = recConv.convertRecord(rs, aclassWrapper, aclass,fixref, structWrapper,
+	                    structelev, rowQueue, sqlid,genericDomains,iomTargetClass);
+	            updateObjStat(iomObj.getobjecttag(), sqlid);
+	            addEmbeddedLinkWrappers(aclass,aclassWrapper,sqlid,iomObj,rowQueue);
+	            records.add(new ExportRecord(sqlid,iomObj,fixref,rowQueue));
+	        }
+	    }finally {
+	        if(rs!=null) {
+	            rs.close();
+	        }
+	        if(dbstmt!=null) {
+	            dbstmt.close();
+	        }
+	    }
+	    addPrimitiveCollectionValues(aclassWrapper,genericDomains,records);
+	    for(ExportRecord rec:records) {
+	        for(AbstractStructWrapper wrapper:rec.structQueue) {
+	            structQueue.add(new PendingStruct(wrapper,rec.fixref,aclass==iomTargetClass));
+	        }
+	    }
+	}
 	private String getStructRootTableName(Viewable aclass) {
 		ViewableWrapper root=class2wrapper.get(aclass);
 		while(root.getExtending()!=null){
@@ -1587,10 +1949,21 @@ public class TransferToXtf {
 	 * @return SQL-Query statement
 	 */
 	private String createQueryStmt4Type(Viewable aclass,StructWrapper wrapper){
+		return createQueryStmt4Type(aclass,wrapper,null);
+	}
+	/** creates sql query statement for a structattr.
+	 * @param parentSqlIds null, if building query for the parent of the given wrapper;
+	 * not null, if building query for all given parents (comma separated sqlids). The parent sqlid is then the forth column.
+	 * @return SQL-Query statement
+	 */
+	private String createQueryStmt4Type(Viewable aclass,StructWrapper wrapper,String parentSqlIds){
 		StringBuffer ret = new StringBuffer();
 		ret.append("SELECT r0."+colT_ID);
 		ret.append(", r0."+DbNames.T_TYPE_COL);
 		ret.append(", r0."+DbNames.T_SEQ_COL);
+		if(parentSqlIds!=null){
+		    ret.append(", r0."+T_PARENT_SQLID);
+		}
 		ret.append(" FROM (");
 		
 		// might have multiple tables!
@@ -1601,6 +1974,10 @@ public class TransferToXtf {
 		    if(root.isStructure()) {
 	            tabidx++;
 	            String tabalias="r"+tabidx;
+	            String parentCol=null;
+	            if(wrapper!=null){
+	                parentCol=ili2sqlName.mapIliAttributeDefReverse(wrapper.getParentAttr(),recConv.getSqlType(root.getViewable()).getName(),recConv.getSqlType(wrapper.getParentTable().getViewable()).getName());
+	            }
 	            ret.append(subSelectSep);
 	            ret.append("SELECT ");
 	            ret.append(tabalias+"."+colT_ID);
@@ -1611,11 +1988,18 @@ public class TransferToXtf {
 	                
 	            }
 	            ret.append(","+tabalias+"."+DbNames.T_SEQ_COL);
+	            if(wrapper!=null && parentSqlIds!=null){
+	                ret.append(","+tabalias+"."+parentCol+" AS "+T_PARENT_SQLID);
+	            }
 	            ret.append(" FROM ");
 	            ret.append(recConv.getSqlType(root.getViewable()));
 	            ret.append(" "+tabalias);
 	            if(wrapper!=null){
-                    ret.append(" WHERE "+tabalias+"."+ili2sqlName.mapIliAttributeDefReverse(wrapper.getParentAttr(),recConv.getSqlType(root.getViewable()).getName(),recConv.getSqlType(wrapper.getParentTable().getViewable()).getName())+"="+wrapper.getParentSqlId());
+	                if(parentSqlIds!=null){
+	                    ret.append(" WHERE "+tabalias+"."+parentCol+" IN ("+parentSqlIds+")");
+	                }else{
+	                    ret.append(" WHERE "+tabalias+"."+parentCol+"="+wrapper.getParentSqlId());
+	                }
 	            }
 	            subSelectSep=" UNION ";
 		    }
@@ -1625,10 +2009,16 @@ public class TransferToXtf {
 		return ret.toString();
 	}
     private String createQueryStmt4Type(Viewable aclass,EmbeddedLinkWrapper wrapper){
+        return createQueryStmt4Type(aclass,wrapper,null);
+    }
+    private String createQueryStmt4Type(Viewable aclass,EmbeddedLinkWrapper wrapper,String parentSqlIds){
         StringBuffer ret = new StringBuffer();
         ret.append("SELECT r0."+colT_ID);
         ret.append(", r0."+DbNames.T_TYPE_COL);
         ret.append(", 0 AS "+DbNames.T_SEQ_COL);
+        if(parentSqlIds!=null){
+            ret.append(", r0."+T_PARENT_SQLID);
+        }
         ret.append(" FROM (");
         
         // might have multiple tables!
@@ -1637,6 +2027,9 @@ public class TransferToXtf {
         for(ViewableWrapper root : recConv.getStructWrappers(aclass)){
             tabidx++;
             String tabalias="r"+tabidx;
+            RoleDef role=wrapper.getRole().getOppEnd();
+            ArrayList<ViewableWrapper> targetTables = recConv.getTargetTables(role);
+            String roleSqlName=ili2sqlName.mapIliRoleDef(role,root.getSqlTablename(),wrapper.getParentTable().getSqlTablename(),targetTables.size()>1);
             ret.append(subSelectSep);
             ret.append("SELECT ");
             ret.append(tabalias+"."+colT_ID);
@@ -1646,13 +2039,17 @@ public class TransferToXtf {
                 ret.append(",'"+root.getSqlTablename()+"' AS "+DbNames.T_TYPE_COL);
                 
             }
+            if(parentSqlIds!=null){
+                ret.append(","+tabalias+"."+roleSqlName+" AS "+T_PARENT_SQLID);
+            }
             ret.append(" FROM ");
             ret.append(recConv.getSqlType(root.getViewable()));
             ret.append(" "+tabalias);
-            RoleDef role=wrapper.getRole().getOppEnd();
-            ArrayList<ViewableWrapper> targetTables = recConv.getTargetTables(role);
-            String roleSqlName=ili2sqlName.mapIliRoleDef(role,root.getSqlTablename(),wrapper.getParentTable().getSqlTablename(),targetTables.size()>1);
-            ret.append(" WHERE "+tabalias+"."+roleSqlName+"="+wrapper.getParentSqlId());
+            if(parentSqlIds!=null){
+                ret.append(" WHERE "+tabalias+"."+roleSqlName+" IN ("+parentSqlIds+")");
+            }else{
+                ret.append(" WHERE "+tabalias+"."+roleSqlName+"="+wrapper.getParentSqlId());
+            }
             subSelectSep=" UNION ";
         }
         ret.append(" ) r0");
@@ -1660,6 +2057,33 @@ public class TransferToXtf {
         return ret.toString();
     }
 
+	/** creates the query for the values of a primitive collection of a block of parents.
+	 * The first column is the sqlid of the parent.
+	 */
+	private String createQueryStatementForPrimitiveCollectionAttribute(ViewableWrapper attrtableWrapper, AttributeDef attributeDef, String parentSqlIds) {
+		ViewableWrapper parent = attrtableWrapper.getMainTable();
+		String refAttrSqlName = ili2sqlName.mapIliAttributeDefReverse(attributeDef, attrtableWrapper.getSqlTablename(), parent.getSqlTablename());
+
+		StringBuffer sb = new StringBuffer();
+		sb.append("SELECT ");
+		sb.append(refAttrSqlName);
+
+		recConv.addAttrToQueryStmt(sb, ",", attrtableWrapper.getSqlTableQName(), new ColumnWrapper(new StructAttrPath(new ViewableTransferElement(attributeDef))), attrtableWrapper.getSqlTablename());
+
+		sb.append(" FROM ");
+		sb.append(attrtableWrapper.getSqlTableQName());
+		sb.append(" WHERE ");
+		sb.append(refAttrSqlName);
+		sb.append(" IN (");
+		sb.append(parentSqlIds);
+		sb.append(")");
+
+		if (attributeDef.getDomainOrDerivedDomain().isOrdered()) {
+			sb.append(" ORDER BY ");
+			sb.append(DbNames.T_SEQ_COL);
+		}
+		return sb.toString();
+	}
 	private String createQueryStatementForPrimitiveCollectionAttribute(ViewableWrapper attrtableWrapper, AttributeDef attributeDef, long parentSqlid) {
 		ViewableWrapper parent = attrtableWrapper.getMainTable();
 		String refAttrSqlName = ili2sqlName.mapIliAttributeDefReverse(attributeDef, attrtableWrapper.getSqlTablename(), parent.getSqlTablename());
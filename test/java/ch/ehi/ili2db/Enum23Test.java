@@ -5,10 +5,16 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import ch.ehi.ili2db.base.DbNames;
 import ch.ehi.ili2db.base.Ili2db;
 import ch.ehi.ili2db.gui.Config;
 import ch.ehi.sqlgen.DbUtility;
@@ -392,4 +398,67 @@ public abstract class Enum23Test {
             }
         }   
     }
+    private void importIliMetadata(Integer batchSize) throws Exception
+    {
+        File data=new File(TEST_OUT,"Enum23b.ili");
+        Config config=setup.initConfig(data.getPath(),data.getPath()+".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_SCHEMAIMPORT);
+        config.setCreateFk(Config.CREATE_FK_YES);
+        config.setTidHandling(Config.TID_HANDLING_PROPERTY);
+        config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+        config.setCreateMetaInfo(true);
+        config.setCreateEnumDefs(Config.CREATE_ENUM_DEFS_SINGLE);
+        config.setBatchSize(batchSize);
+        Ili2db.run(config,null);
+    }
+    /** reads the meta data tables; rows sorted, so that the insert order does not matter.
+     */
+    private Map<String,List<String>> readMetadata() throws Exception
+    {
+        Map<String,List<String>> ret=new HashMap<String,List<String>>();
+        Connection jdbcConnection=setup.createConnection();
+        try{
+            Statement stmt=jdbcConnection.createStatement();
+            try{
+                for(String tab:new String[] {DbNames.ENUM_TAB,DbNames.CLASSNAME_TAB,DbNames.ATTRNAME_TAB,DbNames.INHERIT_TAB,DbNames.TRAFO_TAB,DbNames.META_INFO_TABLE_TAB,DbNames.META_INFO_COLUMN_TAB}) {
+                    List<String> rows=new ArrayList<String>();
+                    ResultSet rs=stmt.executeQuery("SELECT * FROM "+setup.prefixName(tab));
+                    int colc=rs.getMetaData().getColumnCount();
+                    while(rs.next()) {
+                        StringBuilder row=new StringBuilder();
+                        for(int col=1;col<=colc;col++) {
+                            row.append(rs.getString(col)).append('|');
+                        }
+                        rows.add(row.toString());
+                    }
+                    rs.close();
+                    Collections.sort(rows);
+                    ret.put(tab, rows);
+                }
+            }finally{
+                stmt.close();
+            }
+        }finally{
+            jdbcConnection.close();
+        }
+        return ret;
+    }
+    @Test
+    public void importIliBatchedMetadata() throws Exception
+    {
+        setup.resetDb();
+        importIliMetadata(1);
+        Map<String,List<String>> unbatched=readMetadata();
+        Assert.assertFalse(unbatched.get(DbNames.ENUM_TAB).isEmpty());
+        // batches of 2 rows, default (batched, if the driver supports it)
+        for(Integer batchSize:new Integer[] {2,null}) {
+            setup.resetDb();
+            importIliMetadata(batchSize);
+            Assert.assertEquals(unbatched, readMetadata());
+            // second schema import into the existing schema; existing enum entries are not inserted again
+            importIliMetadata(batchSize);
+            Assert.assertEquals(unbatched, readMetadata());
+        }
+    }
 }
@@ -14,7 +14,9 @@ import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -55,6 +57,47 @@ public abstract class FetchTest {
         assertEquals(1000, objs.size());
     }
 
+    @Test
+    public void exportXtfAsyncWrite() throws Exception {
+        {
+            importIli();
+            fillRecords();
+        }
+        File data = new File(TEST_OUT, "FetchSize-out.xtf");
+        exportXtf(data,false);
+        File asyncWriteData = new File(TEST_OUT, "FetchSize-asyncWrite-out.xtf");
+        exportXtf(asyncWriteData,true);
+        // objects are written in the same order
+        List<String> tids=readTids(data);
+        assertEquals(1000, tids.size());
+        assertEquals(tids, readTids(asyncWriteData));
+    }
+
+    private void exportXtf(File data,boolean asyncWrite) throws Exception {
+        Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+        config.setFunction(Config.FC_EXPORT);
+        config.setModels("FetchSize");
+        config.setExportTid(true);
+        config.setFetchSize(100);
+        config.setExportAsyncWrite(asyncWrite);
+        Ili2db.readSettingsFromDb(config);
+        Ili2db.run(config, null);
+    }
+
+    private List<String> readTids(File data) throws Exception {
+        XtfReader reader = new XtfReader(data);
+        assertTrue(reader.read() instanceof StartTransferEvent);
+        assertTrue(reader.read() instanceof StartBasketEvent);
+        List<String> tids = new ArrayList<String>();
+        IoxEvent event = reader.read();
+        while (event instanceof ObjectEvent) {
+            tids.add(((ObjectEvent) event).getIomObject().getobjectoid());
+            event = reader.read();
+        }
+        reader.close();
+        return tids;
+    }
+
     private void importIli() throws Exception {
         setup.resetDb();
         File data = new File(TEST_OUT, "FetchSize.ili");
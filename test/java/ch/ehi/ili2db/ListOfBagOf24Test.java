@@ -423,6 +423,40 @@ public abstract class ListOfBagOf24Test {
         assertThat(reader.read(), instanceOf(EndTransferEvent.class));
     }
 
+    @Test
+    public void exportListOfPrimitiveTypesXtf_StructBatch() throws Exception {
+        importListOfPrimitiveTypesXtf();
+
+        // export xtf; values of all objects read with one query per value table
+        File data = new File(TEST_OUT, "ListOfPrimTypes24-batch-out.xtf");
+        Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+        config.setFunction(Config.FC_EXPORT);
+        config.setModels("ListOfPrimTypes24");
+        config.setExportStructBatchSize(10);
+        Ili2db.readSettingsFromDb(config);
+        Ili2db.run(config, null);
+
+        // compile model
+        Configuration ili2cConfig = new Configuration();
+        FileEntry fileEntry = new FileEntry(TEST_OUT + "ListOfPrimTypes24.ili", FileEntryKind.ILIMODELFILE);
+        ili2cConfig.addFileEntry(fileEntry);
+        TransferDescription td = ch.interlis.ili2c.Ili2c.runCompiler(ili2cConfig);
+        assertNotNull(td);
+
+        // assert xtf
+        Xtf24Reader reader = new Xtf24Reader(data);
+        reader.setModel(td);
+
+        assertThat(reader.read(), instanceOf(StartTransferEvent.class));
+        assertThat(reader.read(), instanceOf(StartBasketEvent.class));
+
+        assertClassA1(reader.read());
+        assertClassA2(reader.read());
+
+        assertThat(reader.read(), instanceOf(EndBasketEvent.class));
+        assertThat(reader.read(), instanceOf(EndTransferEvent.class));
+    }
+
     private void assertClassA1(IoxEvent event) {
         assertThat(event, instanceOf(ObjectEvent.class));
         IomObject iomObj = ((ObjectEvent) event).getIomObject();
@@ -0,0 +1,91 @@
+package ch.ehi.ili2db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.ehi.ili2db.base.Ili2db;
+import ch.ehi.ili2db.gui.Config;
+import ch.interlis.iom.IomObject;
+import ch.interlis.iom_j.xtf.XtfReader;
+import ch.interlis.iox.EndTransferEvent;
+import ch.interlis.iox.IoxEvent;
+import ch.interlis.iox.ObjectEvent;
+
+/** export of nested structures with --exportStructBatchSize must give the same result as the export without it.
+ */
+public abstract class StructBatch23Test {
+    protected static final String TEST_OUT="test/data/StructBatch/";
+    protected AbstractTestSetup setup=createTestSetup();
+    protected abstract AbstractTestSetup createTestSetup() ;
+
+    private void importXtf() throws Exception
+    {
+        setup.resetDb();
+        File data=new File(TEST_OUT,"StructBatch23a.xtf");
+        Config config=setup.initConfig(data.getPath(),data.getPath()+".log");
+        Ili2db.setNoSmartMapping(config);
+        config.setFunction(Config.FC_IMPORT);
+        config.setDoImplicitSchemaImport(true);
+        config.setCreateFk(Config.CREATE_FK_YES);
+        config.setTidHandling(Config.TID_HANDLING_PROPERTY);
+        config.setImportTid(true);
+        config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+        Ili2db.run(config,null);
+    }
+    private File exportXtf(String fileName,Integer structBatchSize) throws Exception
+    {
+        File data=new File(TEST_OUT,fileName);
+        Config config=setup.initConfig(data.getPath(),data.getPath()+".log");
+        config.setFunction(Config.FC_EXPORT);
+        config.setModels("StructBatch23");
+        Ili2db.readSettingsFromDb(config);
+        config.setExportStructBatchSize(structBatchSize);
+        Ili2db.run(config,null);
+        return data;
+    }
+    private List<String> readObjects(File data) throws Exception
+    {
+        List<String> ret=new ArrayList<String>();
+        XtfReader reader=new XtfReader(data);
+        try {
+            IoxEvent event=null;
+            do {
+                event=reader.read();
+                if(event instanceof ObjectEvent) {
+                    IomObject iomObj=((ObjectEvent)event).getIomObject();
+                    ret.add(iomObj.toString());
+                }
+            }while(!(event instanceof EndTransferEvent));
+        }finally {
+            reader.close();
+        }
+        return ret;
+    }
+
+    @Test
+    public void exportNestedStructBatch() throws Exception
+    {
+        importXtf();
+        List<String> expected=readObjects(exportXtf("StructBatch23a-out.xtf",null));
+        assertEquals(12, expected.size());
+        // nested values are exported at all
+        boolean hasNested=false;
+        for(String obj:expected) {
+            if(obj.contains("a2o2i1")) {
+                hasNested=true;
+            }
+        }
+        assertTrue(hasNested);
+        // batch smaller than the number of objects (several blocks, last one partial) and larger than it (one block)
+        for(int structBatchSize:new int[] {1,2,5,100}) {
+            List<String> actual=readObjects(exportXtf("StructBatch23a-batch"+structBatchSize+"-out.xtf",structBatchSize));
+            assertEquals("structBatchSize "+structBatchSize,expected,actual);
+        }
+    }
+}
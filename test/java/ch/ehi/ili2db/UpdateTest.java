@@ -49,6 +49,10 @@ public abstract class UpdateTest {
     }
 
     private void schemaimport() throws Exception {
+        schemaimport(false);
+    }
+
+    private void schemaimport(boolean createObjHashCol) throws Exception {
         File data = new File(TEST_OUT, "Update.ili");
         Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
         Ili2db.setNoSmartMapping(config);
@@ -59,6 +63,7 @@ public abstract class UpdateTest {
         config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
         config.setInheritanceTrafo(Config.INHERITANCE_TRAFO_SMART1);
         config.setDefaultSrsCode("2056");
+        config.setCreateObjHashCol(createObjHashCol);
 
         setup.setXYParams(config);
         Ili2db.run(config, null);
@@ -167,4 +172,53 @@ public abstract class UpdateTest {
             }
         }
     }
+
+    @Test
+    public void updateXtfSkipsUnchangedObjects() throws Exception {
+        setup.resetDb();
+        schemaimport(true);
+        runWithXtf(Config.FC_IMPORT, "Init.xtf");
+
+        Connection jdbcConnection = null;
+        Statement stmt = null;
+        try {
+            jdbcConnection = setup.createConnection();
+            stmt = jdbcConnection.createStatement();
+            // modify the records behind the back of ili2db; the hash still is the one of the imported objects
+            stmt.executeUpdate("UPDATE " + setup.prefixName("classa1") + " SET attra1='MODIFIED' WHERE t_ili_tid IN ('oid_A1_1','oid_A1_2')");
+        } finally {
+            if (stmt != null) {
+                stmt.close();
+            }
+            if (jdbcConnection != null) {
+                jdbcConnection.close();
+            }
+        }
+
+        // oid_A1_1 changed, all other objects are the same as in Init.xtf
+        runWithXtf(Config.FC_UPDATE, "UpdateUnchanged.xtf");
+
+        try {
+            jdbcConnection = setup.createConnection();
+            stmt = jdbcConnection.createStatement();
+
+            // changed object is written again
+            assertDatabaseContainsClassA1(stmt, "oid_A1_1", "DEMOLANT");
+            // unchanged object is skipped, so the record keeps the modification
+            assertDatabaseContainsClassA1(stmt, "oid_A1_2", "MODIFIED");
+            assertDatabaseContainsClassA1(stmt, "oid_A1_3", "ERSIPTIN");
+            assertEquals(3, getClassA1Count(stmt));
+
+            assertDatabaseContainsClassA2(stmt, "oid_A2_1", "AULTIONY", "oid_A1_1");
+            assertDatabaseContainsClassA2(stmt, "oid_A2_2", "ROMARBIL", "oid_A1_1");
+            assertEquals(2, getClassA2Count(stmt));
+        } finally {
+            if (stmt != null) {
+                stmt.close();
+            }
+            if (jdbcConnection != null) {
+                jdbcConnection.close();
+            }
+        }
+    }
 }
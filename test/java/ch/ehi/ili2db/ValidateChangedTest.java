@@ -0,0 +1,157 @@
+package ch.ehi.ili2db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import ch.ehi.basics.logging.EhiLogger;
+import ch.ehi.basics.logging.LogEvent;
+import ch.ehi.ili2db.base.Ili2db;
+import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.ili2db.gui.Config;
+
+public abstract class ValidateChangedTest {
+
+    protected static final String TEST_OUT = "test/data/ValidateChanged/";
+    protected AbstractTestSetup setup = createTestSetup();
+
+    protected abstract AbstractTestSetup createTestSetup();
+
+    private void importXtf(boolean stdCols) throws Exception {
+        importXtf(stdCols, true);
+    }
+
+    private void importXtf(boolean stdCols, boolean importTabs) throws Exception {
+        setup.resetDb();
+        {
+            File data = new File(TEST_OUT, "Simple23a.xtf");
+            Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+            Ili2db.setNoSmartMapping(config);
+            config.setFunction(Config.FC_IMPORT);
+            config.setDoImplicitSchemaImport(true);
+            config.setBasketHandling(Config.BASKET_HANDLING_READWRITE);
+            config.setImportTid(true);
+            config.setImportBid(true);
+            config.setDatasetName("ds1");
+            if (stdCols) {
+                config.setCreateStdCols(Config.CREATE_STD_COLS_ALL);
+            }
+            config.setCreateImportTabs(importTabs);
+            config.setModels("Simple23");
+            setup.setXYParams(config);
+            Ili2db.run(config, null);
+        }
+        {
+            File data = new File(TEST_OUT, "Simple23b.xtf");
+            Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+            config.setFunction(Config.FC_IMPORT);
+            config.setImportTid(true);
+            config.setImportBid(true);
+            config.setDatasetName("ds2");
+            Ili2db.readSettingsFromDb(config);
+            Ili2db.run(config, null);
+        }
+    }
+
+    private void replaceBasket() throws Exception {
+        changeBasket(Config.FC_REPLACE);
+    }
+
+    /** imports basket b3, that references an object of basket b2. */
+    private void importReferencingBasket() throws Exception {
+        File data = new File(TEST_OUT, "Simple23d.xtf");
+        Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+        config.setFunction(Config.FC_IMPORT);
+        config.setImportTid(true);
+        config.setImportBid(true);
+        config.setDatasetName("ds3");
+        Ili2db.readSettingsFromDb(config);
+        Ili2db.run(config, null);
+    }
+
+    /** changes basket b2 (keeps the T_Id of the referenced object with FC_UPDATE). */
+    private void changeBasket(int function) throws Exception {
+        File data = new File(TEST_OUT, "Simple23c.xtf");
+        Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+        config.setFunction(function);
+        config.setImportTid(true);
+        config.setImportBid(true);
+        config.setDatasetName("ds2");
+        Ili2db.readSettingsFromDb(config);
+        Ili2db.run(config, null);
+    }
+
+    /** validates with --validateChanged.
+     * @return BIDs of the validated baskets.
+     */
+    private Set<String> validateChanged() throws Exception {
+        LogCollector logCollector = new LogCollector();
+        EhiLogger.getInstance().addListener(logCollector);
+        try {
+            File data = new File(TEST_OUT, "Simple23-out.xtf");
+            Config config = setup.initConfig(data.getPath(), data.getPath() + ".log");
+            config.setFunction(Config.FC_VALIDATE);
+            config.setModels("Simple23");
+            Ili2db.readSettingsFromDb(config);
+            config.setValidateChanged(true);
+            Ili2db.run(config, null);
+        } finally {
+            EhiLogger.getInstance().removeListener(logCollector);
+        }
+        Set<String> bids = new TreeSet<String>();
+        for (LogEvent event : logCollector.getWarn()) {
+            String msg = event.getEventMsg();
+            int pos = msg.indexOf(" BID=");
+            if (pos >= 0) {
+                bids.add(msg.substring(pos + " BID=".length()));
+            }
+        }
+        return bids;
+    }
+
+    private void assertValidateChanged(boolean stdCols) throws Exception {
+        importXtf(stdCols);
+        assertEquals("[b1, b2]", validateChanged().toString());
+        assertEquals("[]", validateChanged().toString());
+        replaceBasket();
+        assertEquals("[b2]", validateChanged().toString());
+        assertEquals("[]", validateChanged().toString());
+    }
+
+    @Test
+    public void validateChangedStdCols() throws Exception {
+        assertValidateChanged(true);
+    }
+
+    @Test
+    public void validateChangedImportTabs() throws Exception {
+        assertValidateChanged(false);
+    }
+
+    @Test
+    public void validateChangedReferencingBasket() throws Exception {
+        importXtf(false);
+        importReferencingBasket();
+        assertEquals("[b1, b2, b3]", validateChanged().toString());
+        assertEquals("[]", validateChanged().toString());
+        changeBasket(Config.FC_UPDATE);
+        assertEquals("[b2, b3]", validateChanged().toString());
+        assertEquals("[]", validateChanged().toString());
+    }
+
+    @Test
+    public void validateChangedRequiresImportTabs() throws Exception {
+        importXtf(true, false);
+        try {
+            validateChanged();
+            fail();
+        } catch (Ili2dbException ex) {
+            // T_ILI2DB_IMPORT_BASKET required
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ch.ehi.ili2db.base;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ehi.ili2db.gui.Config;
+import ch.interlis.ili2c.config.Configuration;
+import ch.interlis.ili2c.config.FileEntry;
+import ch.interlis.ili2c.config.FileEntryKind;
+import ch.interlis.ili2c.gui.UserSettings;
+import ch.interlis.ili2c.metamodel.Ili2cMetaAttrs;
+import ch.interlis.ili2c.metamodel.TransferDescription;
+
+public class ModelCacheTest {
+    private static final String TEST_DATA="test/data/Enum23";
+    private static final String CACHE_DIR="test/data/ModelCache/out";
+
+    @Before
+    public void clearCache() {
+        File cacheDir=new File(CACHE_DIR);
+        File entries[]=cacheDir.listFiles();
+        if(entries!=null) {
+            for(File entry:entries) {
+                entry.delete();
+            }
+        }
+    }
+
+    private static Configuration createIli2cConfig() {
+        Configuration ili2cConfig=new Configuration();
+        ili2cConfig.addFileEntry(new FileEntry("Enum23",FileEntryKind.ILIMODELFILE));
+        ili2cConfig.setAutoCompleteModelList(true);
+        ili2cConfig.setGenerateWarnings(false);
+        return ili2cConfig;
+    }
+
+    private static Config createSettings() {
+        Config config=new Config();
+        config.setValue(UserSettings.ILIDIRS, TEST_DATA);
+        return config;
+    }
+
+    @Test
+    public void iliFiles() throws Exception {
+        TransferDescription td=ch.interlis.ili2c.Main.runCompiler(createIli2cConfig(),createSettings(),new Ili2cMetaAttrs());
+        assertNotNull(td);
+        List<String> iliFiles=ModelCache.getIliFiles(td);
+        assertEquals(1, iliFiles.size());
+        assertEquals(new File(TEST_DATA,"Enum23.ili").getCanonicalFile(), new File(iliFiles.get(0)).getCanonicalFile());
+    }
+
+    @Test
+    public void secondRun_usesEntry() throws Exception {
+        ModelCache cache=new ModelCache(new File(CACHE_DIR),ModelCache.DEFAULT_TTL);
+        TransferDescription td=cache.runCompiler(createIli2cConfig(),createSettings(),new Ili2cMetaAttrs());
+        assertNotNull(td);
+        assertNotNull(td.getElement("Enum23"));
+        File entryFile=new File(CACHE_DIR,ModelCache.getKey(createIli2cConfig(), createSettings())+".properties");
+        assertTrue(entryFile.isFile());
+        long created=entryFile.lastModified();
+        td=cache.runCompiler(createIli2cConfig(),createSettings(),new Ili2cMetaAttrs());
+        assertNotNull(td);
+        assertNotNull(td.getElement("Enum23"));
+        // entry not rewritten
+        assertEquals(created, entryFile.lastModified());
+        assertEquals(1, new File(CACHE_DIR).listFiles().length);
+    }
+
+    @Test
+    public void cacheHit_keepsGivenConfig() throws Exception {
+        ModelCache cache=new ModelCache(new File(CACHE_DIR),ModelCache.DEFAULT_TTL);
+        assertNotNull(cache.runCompiler(createIli2cConfig(),createSettings(),new Ili2cMetaAttrs()));
+        Configuration ili2cConfig=createIli2cConfig();
+        assertNotNull(cache.runCompiler(ili2cConfig,createSettings(),new Ili2cMetaAttrs()));
+        // the cached ili files are compiled with a copy
+        assertEquals(1, ili2cConfig.getSizeFileEntry());
+        assertEquals("Enum23", ili2cConfig.getFileEntry(0).getFilename());
+    }
+
+    @Test
+    public void newEntry_removesExpiredEntries() throws Exception {
+        File cacheDir=new File(CACHE_DIR);
+        cacheDir.mkdirs();
+        long ttl=60L*1000L;
+        File expired=new File(cacheDir,"expired.properties");
+        assertTrue(expired.createNewFile());
+        assertTrue(expired.setLastModified(System.currentTimeMillis()-2*ttl));
+        File valid=new File(cacheDir,"valid.properties");
+        assertTrue(valid.createNewFile());
+        ModelCache cache=new ModelCache(cacheDir,ttl);
+        assertNotNull(cache.runCompiler(createIli2cConfig(),createSettings(),new Ili2cMetaAttrs()));
+        assertFalse(expired.exists());
+        assertTrue(valid.exists());
+        assertTrue(new File(CACHE_DIR,ModelCache.getKey(createIli2cConfig(), createSettings())+".properties").isFile());
+    }
+
+    @Test
+    public void differentModels_differentKey() throws Exception {
+        Configuration ili2cConfig=createIli2cConfig();
+        ili2cConfig.addFileEntry(new FileEntry("Enum23b",FileEntryKind.ILIMODELFILE));
+        assertNotEquals(ModelCache.getKey(createIli2cConfig(), createSettings()), ModelCache.getKey(ili2cConfig, createSettings()));
+    }
+}
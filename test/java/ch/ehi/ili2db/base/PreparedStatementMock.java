@@ -28,10 +28,16 @@ public class PreparedStatementMock implements PreparedStatement {
     private int executedUpdates = 0;
     private int executedBatches = 0;
     private int addedToBatch = 0;
+    /** executeBatch() returns null, like a driver without batch support. */
+    private boolean batchStub = false;
 
     public PreparedStatementMock() {
     }
 
+    public PreparedStatementMock(boolean batchStub) {
+        this.batchStub = batchStub;
+    }
+
     @Override
     public ResultSet executeQuery() throws SQLException {
         return null;
@@ -441,6 +447,9 @@ public class PreparedStatementMock implements PreparedStatement {
     @Override
     public int[] executeBatch() throws SQLException {
         executedBatches++;
+        if (batchStub) {
+            return null;
+        }
         return new int[addedToBatch];
     }
 
@@ -3,6 +3,11 @@ package ch.ehi.ili2db.base;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 
 public class StatementExecutionHelperTest {
@@ -122,4 +127,89 @@ public class StatementExecutionHelperTest {
         assertEquals(3, psm.getExecutedBatches());
     }
 
+    private static Connection createConnection(final boolean supportsBatchUpdates) {
+        final DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(StatementExecutionHelperTest.class.getClassLoader(), new Class[] {DatabaseMetaData.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("supportsBatchUpdates")) {
+                    return supportsBatchUpdates;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return (Connection) Proxy.newProxyInstance(StatementExecutionHelperTest.class.getClassLoader(), new Class[] {Connection.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getMetaData")) {
+                    return metaData;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @Test
+    public void metadata_batchedByDefault() throws SQLException {
+        StatementExecutionHelper statementExecutionHelper = StatementExecutionHelper.createForMetadata(createConnection(true), null);
+        PreparedStatementMock psm = new PreparedStatementMock();
+        for (int i = 0; i < StatementExecutionHelper.METADATA_BATCH_SIZE + 5; i++) {
+            statementExecutionHelper.write(psm);
+        }
+        statementExecutionHelper.flush(psm);
+        assertEquals(0, psm.getExecutedUpdates());
+        assertEquals(2, psm.getExecutedBatches());
+    }
+
+    @Test
+    public void metadata_configuredBatchSize() throws SQLException {
+        StatementExecutionHelper statementExecutionHelper = StatementExecutionHelper.createForMetadata(createConnection(true), 2);
+        PreparedStatementMock psm = new PreparedStatementMock();
+        for (int i = 0; i < 5; i++) {
+            statementExecutionHelper.write(psm);
+        }
+        statementExecutionHelper.flush(psm);
+        assertEquals(0, psm.getExecutedUpdates());
+        assertEquals(3, psm.getExecutedBatches());
+    }
+
+    @Test
+    public void metadata_notBatchedWithBatchSizeOne() throws SQLException {
+        StatementExecutionHelper statementExecutionHelper = StatementExecutionHelper.createForMetadata(createConnection(true), 1);
+        PreparedStatementMock psm = new PreparedStatementMock();
+        for (int i = 0; i < 5; i++) {
+            statementExecutionHelper.write(psm);
+        }
+        statementExecutionHelper.flush(psm);
+        assertEquals(5, psm.getExecutedUpdates());
+        assertEquals(0, psm.getExecutedBatches());
+    }
+
+    @Test
+    public void metadata_notBatchedWithoutDriverSupport() throws SQLException {
+        // e.g. ili2fgdb: addBatch() does nothing, executeBatch() returns null
+        for (Integer batchSize : new Integer[] {null, 10}) {
+            StatementExecutionHelper statementExecutionHelper = StatementExecutionHelper.createForMetadata(createConnection(false), batchSize);
+            PreparedStatementMock psm = new PreparedStatementMock(true);
+            for (int i = 0; i < 5; i++) {
+                statementExecutionHelper.write(psm);
+            }
+            statementExecutionHelper.flush(psm);
+            assertEquals(5, psm.getExecutedUpdates());
+            assertEquals(0, psm.getExecutedBatches());
+        }
+    }
+
+    @Test
+    public void shouldFail_whenBatchNotExecuted() throws SQLException {
+        StatementExecutionHelper statementExecutionHelper = new StatementExecutionHelper(2);
+        PreparedStatementMock psm = new PreparedStatementMock(true);
+        statementExecutionHelper.write(psm);
+        try {
+            statementExecutionHelper.write(psm);
+            fail();
+        } catch (SQLException ex) {
+            // expected; rows must not be lost silently
+        }
+    }
+
 }
\ No newline at end of file
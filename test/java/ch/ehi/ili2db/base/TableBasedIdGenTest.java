@@ -0,0 +1,211 @@
+package ch.ehi.ili2db.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ch.ehi.ili2db.gui.Config;
+
+public class TableBasedIdGenTest {
+    /** in memory T_KEY_OBJECT, accessed through a proxied JDBC connection.
+     */
+    private static class KeyObjectTable {
+        private final Map<String,Long> lastUniqueIds=new HashMap<String,Long>();
+        /** values written by UPDATE T_KEY_OBJECT */
+        private final List<Long> updates=new ArrayList<Long>();
+        private int openStatements=0;
+        Connection createConnection() {
+            return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Connection.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if(method.getName().equals("prepareStatement")) {
+                        openStatements++;
+                        return createStatement((String)args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+        private PreparedStatement createStatement(final String sql) {
+            final Map<Integer,Object> params=new HashMap<Integer,Object>();
+            return (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {PreparedStatement.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name=method.getName();
+                    if(name.startsWith("set")) {
+                        params.put((Integer)args[0],args[1]);
+                        return null;
+                    }else if(name.equals("close")) {
+                        openStatements--;
+                        return null;
+                    }else if(name.equals("executeQuery")) {
+                        return createResultSet(lastUniqueIds.get(params.get(1)));
+                    }else if(name.equals("executeUpdate")) {
+                        if(sql.startsWith("INSERT")) {
+                            lastUniqueIds.put((String)params.get(1),(Long)params.get(2));
+                        }else {
+                            lastUniqueIds.put((String)params.get(4),(Long)params.get(1));
+                            updates.add((Long)params.get(1));
+                        }
+                        return 1;
+                    }
+                    throw new UnsupportedOperationException(name);
+                }
+            });
+        }
+        private ResultSet createResultSet(final Long value) {
+            return (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {ResultSet.class}, new InvocationHandler() {
+                private boolean hasNext=value!=null;
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name=method.getName();
+                    if(name.equals("next")) {
+                        boolean ret=hasNext;
+                        hasNext=false;
+                        return ret;
+                    }else if(name.equals("getLong")) {
+                        return value;
+                    }else if(name.equals("close")) {
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(name);
+                }
+            });
+        }
+    }
+
+    /** clock, that only advances when the test says so.
+     */
+    private static class TestClock extends Clock {
+        private long millis=0;
+        void advance(long delta) {
+            millis+=delta;
+        }
+        @Override
+        public long millis() {
+            return millis;
+        }
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static TableBasedIdGen createIdGen(KeyObjectTable table,Integer idBlockSize,Clock clock) {
+        Config config=new Config();
+        config.setIdBlockSize(idBlockSize);
+        TableBasedIdGen idGen=new TableBasedIdGen();
+        idGen.init(null, config);
+        idGen.initDb(table.createConnection(), "test");
+        idGen.setClock(clock);
+        return idGen;
+    }
+    private static TableBasedIdGen createIdGen(KeyObjectTable table,Integer idBlockSize) {
+        return createIdGen(table,idBlockSize,new TestClock());
+    }
+
+    @Test
+    public void adaptiveBlockSizeGrows() throws Exception {
+        KeyObjectTable table=new KeyObjectTable();
+        TableBasedIdGen idGen=createIdGen(table,null);
+        long lastId=0;
+        for(int i=0;i<10000;i++) {
+            long id=idGen.newObjSqlId();
+            assertTrue(id>lastId);
+            lastId=id;
+        }
+        assertEquals(lastId, idGen.getLastSqlId());
+        // blocks are used up quickly, so each block is twice as large as the previous one
+        long lastReserved=0;
+        long lastBlockSize=0;
+        for(long reserved:table.updates) {
+            // a block starts after the last reserved id
+            long blockSize=reserved-lastReserved-1;
+            if(lastBlockSize==0) {
+                assertEquals(TableBasedIdGen.MIN_BLOCK_SIZE, blockSize);
+            }else {
+                assertEquals(Math.min(lastBlockSize*2,TableBasedIdGen.MAX_BLOCK_SIZE), blockSize);
+            }
+            lastBlockSize=blockSize;
+            lastReserved=reserved;
+        }
+        assertTrue(table.updates.size()<10);
+        assertTrue(lastId<=table.lastUniqueIds.get("T_Id"));
+    }
+
+    @Test
+    public void adaptiveBlockSizeKeptIfSlow() throws Exception {
+        KeyObjectTable table=new KeyObjectTable();
+        TestClock clock=new TestClock();
+        TableBasedIdGen idGen=createIdGen(table,null,clock);
+        for(int i=0;i<100;i++) {
+            idGen.newObjSqlId();
+            // each block lasts longer than the growth interval
+            clock.advance(100);
+        }
+        assertEquals(5, table.updates.size());
+        long lastReserved=0;
+        for(long reserved:table.updates) {
+            assertEquals(TableBasedIdGen.MIN_BLOCK_SIZE, reserved-lastReserved-1);
+            lastReserved=reserved;
+        }
+    }
+
+    @Test
+    public void fixedBlockSize() throws Exception {
+        KeyObjectTable table=new KeyObjectTable();
+        TableBasedIdGen idGen=createIdGen(table,50);
+        for(int i=0;i<150;i++) {
+            idGen.newObjSqlId();
+        }
+        assertEquals(3, table.updates.size());
+        assertEquals(Long.valueOf(51), table.updates.get(0));
+        assertEquals(Long.valueOf(102), table.updates.get(1));
+        assertEquals(Long.valueOf(153), table.updates.get(2));
+    }
+
+    @Test
+    public void closeDbClosesStatements() throws Exception {
+        KeyObjectTable table=new KeyObjectTable();
+        TableBasedIdGen idGen=createIdGen(table,10);
+        long lastId=0;
+        for(int i=0;i<25;i++) {
+            lastId=idGen.newObjSqlId();
+        }
+        assertEquals(2, table.openStatements);
+        idGen.closeDb();
+        assertEquals(0, table.openStatements);
+        // statements are prepared again on demand; ids continue
+        for(int i=0;i<10;i++) {
+            long id=idGen.newObjSqlId();
+            assertTrue(id>lastId);
+            lastId=id;
+        }
+        idGen.closeDb();
+        assertEquals(0, table.openStatements);
+    }
+}
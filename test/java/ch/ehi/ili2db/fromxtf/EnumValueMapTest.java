@@ -0,0 +1,125 @@
+package ch.ehi.ili2db.fromxtf;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ch.ehi.ili2db.base.DbNames;
+import ch.ehi.ili2db.base.Ili2dbException;
+import ch.ehi.sqlgen.repository.DbTableName;
+
+public class EnumValueMapTest {
+    /** enum table with the given rows (thisClass, iliCode), accessed through a proxied JDBC connection.
+     */
+    private static class EnumTable {
+        final List<String[]> rows=new ArrayList<String[]>();
+        final List<String> queries=new ArrayList<String>();
+        boolean failQuery=false;
+        int openStatements=0;
+        Connection createConnection() {
+            return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Connection.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if(method.getName().equals("prepareStatement")) {
+                        queries.add((String)args[0]);
+                        openStatements++;
+                        return createStatement();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+        private PreparedStatement createStatement() {
+            return (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {PreparedStatement.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name=method.getName();
+                    if(name.equals("executeQuery")) {
+                        if(failQuery) {
+                            throw new SQLException("no such table");
+                        }
+                        return createResultSet();
+                    }else if(name.equals("close")) {
+                        openStatements--;
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(name);
+                }
+            });
+        }
+        private ResultSet createResultSet() {
+            return (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {ResultSet.class}, new InvocationHandler() {
+                private int idx=-1;
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name=method.getName();
+                    if(name.equals("next")) {
+                        idx++;
+                        return idx<rows.size();
+                    }else if(name.equals("getString")) {
+                        return rows.get(idx)[(Integer)args[0]-1];
+                    }else if(name.equals("close")) {
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(name);
+                }
+            });
+        }
+    }
+    private static Set<String> set(String... values) {
+        Set<String> ret=new HashSet<String>();
+        for(String value:values) {
+            ret.add(value);
+        }
+        return ret;
+    }
+    @Test
+    public void readIliCodesByType() throws Exception {
+        EnumTable table=new EnumTable();
+        table.rows.add(new String[] {"Enum23.TestA.ClassA1.attr1","rot"});
+        table.rows.add(new String[] {"Enum23.Farbe","rot"});
+        table.rows.add(new String[] {"Enum23.TestA.ClassA1.attr1","gruen"});
+        table.rows.add(new String[] {"Enum23.Farbe","blau"});
+        table.rows.add(new String[] {"Enum23.Farbe","gelb"});
+        Map<String,Set<String>> codes=EnumValueMap.readIliCodesByTypeFromDb(table.createConnection(), new DbTableName("ce",DbNames.ENUM_TAB));
+        // one query for all enumerations of the table
+        assertEquals(1, table.queries.size());
+        assertEquals("SELECT "+DbNames.ENUM_TAB_THIS_COL+","+DbNames.ENUM_TAB_ILICODE_COL+" FROM ce."+DbNames.ENUM_TAB, table.queries.get(0));
+        assertEquals(0, table.openStatements);
+        assertEquals(2, codes.size());
+        assertEquals(set("rot","gruen"), EnumValueMap.getIliCodes(codes, "Enum23.TestA.ClassA1.attr1"));
+        assertEquals(set("rot","blau","gelb"), EnumValueMap.getIliCodes(codes, "Enum23.Farbe"));
+        // enumeration without entries in the table
+        assertTrue(EnumValueMap.getIliCodes(codes, "Enum23.Other").isEmpty());
+    }
+    @Test
+    public void readIliCodesByTypeEmptyTable() throws Exception {
+        EnumTable table=new EnumTable();
+        Map<String,Set<String>> codes=EnumValueMap.readIliCodesByTypeFromDb(table.createConnection(), new DbTableName(null,DbNames.ENUM_TAB));
+        assertTrue(codes.isEmpty());
+        assertTrue(EnumValueMap.getIliCodes(codes, "Enum23.Farbe").isEmpty());
+    }
+    @Test
+    public void readIliCodesByTypeFails() throws Exception {
+        EnumTable table=new EnumTable();
+        table.failQuery=true;
+        try {
+            EnumValueMap.readIliCodesByTypeFromDb(table.createConnection(), new DbTableName(null,DbNames.ENUM_TAB));
+            fail();
+        }catch(Ili2dbException ex) {
+            assertEquals(0, table.openStatements);
+        }
+    }
+}
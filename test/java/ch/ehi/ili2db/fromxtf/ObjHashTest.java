@@ -0,0 +1,90 @@
+package ch.ehi.ili2db.fromxtf;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import ch.interlis.iom.IomObject;
+import ch.interlis.iom_j.Iom_jObject;
+
+public class ObjHashTest {
+
+    private static IomObject createObj(String oid,String name,String refoid) {
+        IomObject obj=new Iom_jObject("Model.Topic.ClassA",oid);
+        obj.setattrvalue("name", name);
+        obj.setattrvalue("code", "42");
+        if(refoid!=null) {
+            IomObject ref=obj.addattrobj("ref", "REF");
+            ref.setobjectrefoid(refoid);
+        }
+        IomObject struct=obj.addattrobj("structs", "Model.Topic.StructA");
+        struct.setattrvalue("value", "1");
+        return obj;
+    }
+
+    @Test
+    public void sameContent_sameHash() {
+        ObjHash hash=new ObjHash();
+        String hash1=hash.getHash(createObj("o1","a","r1"),null);
+        String hash2=hash.getHash(createObj("o2","a","r1"),null);
+        assertEquals(40, hash1.length());
+        assertEquals(hash1, hash2);
+    }
+
+    @Test
+    public void attrOrder_sameHash() {
+        ObjHash hash=new ObjHash();
+        IomObject obj1=new Iom_jObject("Model.Topic.ClassA","o1");
+        obj1.setattrvalue("a", "1");
+        obj1.setattrvalue("b", "2");
+        IomObject obj2=new Iom_jObject("Model.Topic.ClassA","o1");
+        obj2.setattrvalue("b", "2");
+        obj2.setattrvalue("a", "1");
+        assertEquals(hash.getHash(obj1,null), hash.getHash(obj2,null));
+    }
+
+    @Test
+    public void changedAttr_differentHash() {
+        ObjHash hash=new ObjHash();
+        assertNotEquals(hash.getHash(createObj("o1","a","r1"),null), hash.getHash(createObj("o1","b","r1"),null));
+    }
+
+    @Test
+    public void changedRef_differentHash() {
+        ObjHash hash=new ObjHash();
+        assertNotEquals(hash.getHash(createObj("o1","a","r1"),null), hash.getHash(createObj("o1","a","r2"),null));
+        assertNotEquals(hash.getHash(createObj("o1","a","r1"),null), hash.getHash(createObj("o1","a",null),null));
+    }
+
+    @Test
+    public void changedStruct_differentHash() {
+        ObjHash hash=new ObjHash();
+        IomObject obj=createObj("o1","a","r1");
+        String hash1=hash.getHash(obj,null);
+        obj.getattrobj("structs", 0).setattrvalue("value", "2");
+        assertNotEquals(hash1, hash.getHash(obj,null));
+    }
+
+    @Test
+    public void shiftedValues_differentHash() {
+        ObjHash hash=new ObjHash();
+        IomObject obj1=new Iom_jObject("Model.Topic.ClassA","o1");
+        obj1.setattrvalue("a", "12");
+        obj1.setattrvalue("b", "3");
+        IomObject obj2=new Iom_jObject("Model.Topic.ClassA","o1");
+        obj2.setattrvalue("a", "1");
+        obj2.setattrvalue("b", "23");
+        assertNotEquals(hash.getHash(obj1,null), hash.getHash(obj2,null));
+    }
+
+    @Test
+    public void changedGenericDomains_differentHash() {
+        ObjHash hash=new ObjHash();
+        HashMap<String,String> domains1=new HashMap<String,String>();
+        domains1.put("Model.Coord", "Model.LV95");
+        HashMap<String,String> domains2=new HashMap<String,String>();
+        domains2.put("Model.Coord", "Model.LV03");
+        assertNotEquals(hash.getHash(createObj("o1","a","r1"),domains1), hash.getHash(createObj("o1","a","r1"),domains2));
+    }
+}
@@ -0,0 +1,132 @@
+package ch.ehi.ili2db.toxtf;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import ch.interlis.iox.IoxEvent;
+import ch.interlis.iox.IoxException;
+import ch.interlis.iox.IoxWriter;
+import ch.interlis.iox_j.StartBasketEvent;
+
+public class AsyncEventWriterTest {
+    /** IoxWriter that records the written events.
+     */
+    private static class RecordingWriter {
+        final List<IoxEvent> written=Collections.synchronizedList(new ArrayList<IoxEvent>());
+        /** write() of this event (0-based) fails; -1 never. */
+        int failAt=-1;
+        /** write() of this event (0-based) blocks until released; -1 never. */
+        int blockAt=-1;
+        boolean ignoreInterrupt=false;
+        final CountDownLatch blocked=new CountDownLatch(1);
+        final CountDownLatch release=new CountDownLatch(1);
+        IoxWriter create() {
+            return (IoxWriter)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {IoxWriter.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if(method.getName().equals("write")) {
+                        int idx=written.size();
+                        if(idx==failAt) {
+                            throw new IoxException("write failed");
+                        }
+                        if(idx==blockAt) {
+                            blocked.countDown();
+                            while(true) {
+                                try {
+                                    release.await();
+                                    break;
+                                }catch(InterruptedException ex) {
+                                    if(!ignoreInterrupt) {
+                                        throw new IoxException(ex);
+                                    }
+                                }
+                            }
+                        }
+                        written.add((IoxEvent)args[0]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+    }
+    private static IoxEvent event(int i) {
+        return new StartBasketEvent("Model.Topic","b"+i);
+    }
+    @Test
+    public void writeInOrder() throws Exception {
+        RecordingWriter out=new RecordingWriter();
+        AsyncEventWriter writer=new AsyncEventWriter(out.create(),4);
+        List<IoxEvent> events=new ArrayList<IoxEvent>();
+        for(int i=0;i<100;i++) {
+            IoxEvent event=event(i);
+            events.add(event);
+            writer.write(event);
+        }
+        writer.close();
+        assertEquals(events, out.written);
+    }
+    @Test
+    public void writerFailure() throws Exception {
+        RecordingWriter out=new RecordingWriter();
+        out.failAt=3;
+        AsyncEventWriter writer=new AsyncEventWriter(out.create(),2);
+        try {
+            for(int i=0;i<100;i++) {
+                writer.write(event(i));
+            }
+            writer.close();
+            fail();
+        }catch(IoxException ex) {
+            assertEquals("write failed", ex.getMessage());
+        }
+        assertEquals(3, out.written.size());
+        // failure is reported again
+        try {
+            writer.close();
+            fail();
+        }catch(IoxException ex) {
+            assertEquals("write failed", ex.getMessage());
+        }
+    }
+    @Test
+    public void abortBlockedWriter() throws Exception {
+        RecordingWriter out=new RecordingWriter();
+        out.blockAt=1;
+        AsyncEventWriter writer=new AsyncEventWriter(out.create(),10);
+        for(int i=0;i<5;i++) {
+            writer.write(event(i));
+        }
+        assertTrue(out.blocked.await(10, TimeUnit.SECONDS));
+        assertTrue(writer.abort(10000));
+        // queued events are dropped
+        assertEquals(1, out.written.size());
+    }
+    @Test
+    public void abortWriterIgnoringInterrupt() throws Exception {
+        RecordingWriter out=new RecordingWriter();
+        out.blockAt=0;
+        out.ignoreInterrupt=true;
+        AsyncEventWriter writer=new AsyncEventWriter(out.create(),10);
+        for(int i=0;i<5;i++) {
+            writer.write(event(i));
+        }
+        assertTrue(out.blocked.await(10, TimeUnit.SECONDS));
+        // gives up after the timeout
+        assertFalse(writer.abort(100));
+        // the current write completes, the queued events are not written
+        out.release.countDown();
+        assertTrue(writer.abort(10000));
+        assertEquals(1, out.written.size());
+    }
+}
@@ -0,0 +1,40 @@
+package ch.ehi.ili2db.toxtf;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SqlidPoolTest {
+    @Test
+    public void putGet() {
+        SqlidPool pool=new SqlidPool();
+        pool.putSqlid2Xtfid("classa1", 10, "o10");
+        pool.putSqlid2Xtfid("classa1", 11, "11");
+        assertTrue(pool.containsSqlid("classa1", 10));
+        assertEquals("o10", pool.getXtfid("classa1", 10));
+        assertEquals("11", pool.getXtfid("classa1", 11));
+        assertFalse(pool.containsSqlid("classa1", 12));
+        assertNull(pool.getXtfid("classa1", 12));
+        assertFalse(pool.containsSqlid("classb1", 10));
+    }
+    @Test
+    public void replace() {
+        SqlidPool.IdMap map=new SqlidPool.IdMap();
+        map.put(10, "o10");
+        map.put(10, "10");
+        assertEquals("10", map.get(10));
+        assertEquals(1, map.size());
+    }
+    @Test
+    public void grow() {
+        SqlidPool.IdMap map=new SqlidPool.IdMap();
+        for(long sqlid=0;sqlid<10000;sqlid++) {
+            map.put(sqlid*64, sqlid%2==0 ? "o"+sqlid : Long.toString(sqlid*64));
+        }
+        assertEquals(10000, map.size());
+        for(long sqlid=0;sqlid<10000;sqlid++) {
+            assertEquals(sqlid%2==0 ? "o"+sqlid : Long.toString(sqlid*64), map.get(sqlid*64));
+            assertFalse(map.containsKey(sqlid*64+1));
+        }
+    }
+}